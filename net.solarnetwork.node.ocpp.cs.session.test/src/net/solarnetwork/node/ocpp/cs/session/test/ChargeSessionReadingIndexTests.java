@@ -0,0 +1,133 @@
+/* ==================================================================
+ * ChargeSessionReadingIndexTests.java - 17/10/2026 10:02:17 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.cs.session.ChargeSessionReadingIndex;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Test cases for the {@link ChargeSessionReadingIndex} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionReadingIndexTests {
+
+	private UUID sessionId;
+	private Instant start;
+	private ChargeSessionReadingIndex index;
+
+	@Before
+	public void setup() {
+		sessionId = UUID.randomUUID();
+		start = Instant.ofEpochMilli(System.currentTimeMillis());
+		index = new ChargeSessionReadingIndex();
+	}
+
+	private SampledValue reading(long offsetSeconds, Measurand measurand) {
+		// @formatter:off
+		return SampledValue.builder()
+				.withSessionId(sessionId)
+				.withTimestamp(start.plusSeconds(offsetSeconds))
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(measurand)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue(String.valueOf(offsetSeconds))
+				.build();
+		// @formatter:on
+	}
+
+	@Test
+	public void notIndexed() {
+		assertThat("Session not indexed", index.isIndexed(sessionId), equalTo(false));
+		assertThat("Unknown reading", index.add(reading(0, Measurand.EnergyActiveImportRegister)),
+				nullValue());
+	}
+
+	@Test
+	public void duplicateOfSeeded() {
+		SampledValue r1 = reading(0, Measurand.EnergyActiveImportRegister);
+		SampledValue r2 = reading(10, Measurand.EnergyActiveImportRegister);
+		index.seed(sessionId, asList(r1, r2));
+
+		assertThat("Seeded reading is duplicate",
+				index.add(reading(0, Measurand.EnergyActiveImportRegister)), equalTo(false));
+		assertThat("Watermark reading is duplicate",
+				index.add(reading(10, Measurand.EnergyActiveImportRegister)), equalTo(false));
+		assertThat("Same time different measurand is new",
+				index.add(reading(10, Measurand.PowerActiveImport)), equalTo(true));
+		assertThat("Newer reading is new",
+				index.add(reading(20, Measurand.EnergyActiveImportRegister)), equalTo(true));
+		assertThat("Newer reading now duplicate",
+				index.add(reading(20, Measurand.EnergyActiveImportRegister)), equalTo(false));
+	}
+
+	@Test
+	public void olderThanWindow() {
+		index.setWindowSize(2);
+		index.seed(sessionId, asList(reading(0, Measurand.EnergyActiveImportRegister),
+				reading(10, Measurand.EnergyActiveImportRegister),
+				reading(20, Measurand.EnergyActiveImportRegister)));
+
+		assertThat("Evicted reading unknown",
+				index.add(reading(0, Measurand.EnergyActiveImportRegister)), nullValue());
+		assertThat("Reading at window floor unknown",
+				index.add(reading(0, Measurand.PowerActiveImport)), nullValue());
+		assertThat("Retained reading is duplicate",
+				index.add(reading(10, Measurand.EnergyActiveImportRegister)), equalTo(false));
+		assertThat("Gap reading within window is new", index.add(reading(15, Measurand.SoC)),
+				equalTo(true));
+	}
+
+	@Test
+	public void evict() {
+		index.seed(sessionId, asList(reading(0, Measurand.EnergyActiveImportRegister)));
+		index.evict(sessionId);
+		assertThat("Session evicted", index.isIndexed(sessionId), equalTo(false));
+	}
+
+	@Test
+	public void maxSessions() {
+		index.setMaxSessions(1);
+		index.seed(sessionId, asList(reading(0, Measurand.EnergyActiveImportRegister)));
+		UUID other = UUID.randomUUID();
+		index.seed(other, null);
+		assertThat("Eldest session dropped", index.isIndexed(sessionId), equalTo(false));
+		assertThat("Newest session kept", index.isIndexed(other), equalTo(true));
+		assertThat("Size capped", index.size(), equalTo(1));
+	}
+
+}
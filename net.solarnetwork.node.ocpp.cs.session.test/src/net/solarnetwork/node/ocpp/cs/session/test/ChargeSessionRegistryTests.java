@@ -0,0 +1,170 @@
+/* ==================================================================
+ * ChargeSessionRegistryTests.java - 17/10/2026 3:05:19 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.cs.session.ChargeSessionRegistry;
+import net.solarnetwork.ocpp.dao.ChargeSessionDao;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+
+/**
+ * Test cases for the {@link ChargeSessionRegistry} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionRegistryTests {
+
+	private ChargeSessionDao chargeSessionDao;
+	private ChargeSessionRegistry registry;
+
+	@Before
+	public void setup() {
+		chargeSessionDao = createMock(ChargeSessionDao.class);
+		registry = new ChargeSessionRegistry(chargeSessionDao);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargeSessionDao);
+	}
+
+	private ChargeSession session(long cpId, int connectorId, int txId) {
+		return new ChargeSession(UUID.randomUUID(), Instant.now(), "tester", cpId, connectorId,
+				txId);
+	}
+
+	@Test
+	public void lazyLoad() {
+		// GIVEN
+		ChargeSession s1 = session(1L, 1, 100);
+		ChargeSession s2 = session(1L, 2, 101);
+		ChargeSession s3 = session(2L, 1, 200);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(s1, s2, s3));
+
+		// WHEN
+		EasyMock.replay(chargeSessionDao);
+
+		// THEN
+		assertThat("Found by connector", registry.getForConnector(1L, 2), equalTo(s2));
+		assertThat("Found by transaction", registry.getForTransaction(2L, 200), equalTo(s3));
+		assertThat("Found by ID", registry.get(s1.getId()), equalTo(s1));
+		assertThat("Not found by connector", registry.getForConnector(2L, 2), nullValue());
+		assertThat("Found for charge point", registry.getForChargePoint(1L),
+				containsInAnyOrder(s1, s2));
+		assertThat("Size", registry.size(), equalTo(3));
+	}
+
+	@Test
+	public void putAndRemove() {
+		// GIVEN
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+
+		// WHEN
+		EasyMock.replay(chargeSessionDao);
+		ChargeSession s1 = session(1L, 1, 100);
+		assertThat("Not found initially", registry.getForConnector(1L, 1), nullValue());
+		registry.put(s1);
+
+		// THEN
+		assertThat("Found after put", registry.getForTransaction(1L, 100), equalTo(s1));
+
+		registry.remove(s1);
+		assertThat("Not found by connector after remove", registry.getForConnector(1L, 1),
+				nullValue());
+		assertThat("Not found by transaction after remove", registry.getForTransaction(1L, 100),
+				nullValue());
+	}
+
+	@Test
+	public void putEndedRemoves() {
+		// GIVEN
+		ChargeSession s1 = session(1L, 1, 100);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(s1));
+
+		// WHEN
+		EasyMock.replay(chargeSessionDao);
+		registry.reload();
+		s1.setEnded(Instant.now());
+		registry.put(s1);
+
+		// THEN
+		assertThat("Ended session removed", registry.get(s1.getId()), nullValue());
+		assertThat("Ended session removed by connector", registry.getForConnector(1L, 1),
+				nullValue());
+	}
+
+	@Test
+	public void invalidateReloads() {
+		// GIVEN
+		ChargeSession s1 = session(1L, 1, 100);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(s1));
+
+		// WHEN
+		EasyMock.replay(chargeSessionDao);
+		assertThat("Not found initially", registry.get(s1.getId()), nullValue());
+		registry.invalidate();
+
+		// THEN
+		assertThat("Found after reload", registry.get(s1.getId()), equalTo(s1));
+	}
+
+	@Test
+	public void lookupsReturnCopies() {
+		// GIVEN
+		ChargeSession s1 = session(1L, 1, 100);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+
+		// WHEN
+		EasyMock.replay(chargeSessionDao);
+		registry.reload();
+		registry.put(s1);
+		s1.setEndAuthId("changed after put");
+		ChargeSession found = registry.getForTransaction(1L, 100);
+		found.setEnded(Instant.now());
+
+		// THEN
+		assertThat("Lookup is a copy", found, not(sameInstance(s1)));
+		assertThat("Change after put not stored", found.getEndAuthId(), nullValue());
+		ChargeSession again = registry.get(s1.getId());
+		assertThat("Change to lookup not stored", again.getEnded(), nullValue());
+		assertThat("Still found by connector", registry.getForConnector(1L, 1), equalTo(s1));
+	}
+
+}
@@ -0,0 +1,121 @@
+/* ==================================================================
+ * ChargeSessionSummaryTests.java - 17/10/2026 6:58:44 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.cs.session.ChargeSessionSummary;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.Phase;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Test cases for the {@link ChargeSessionSummary} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionSummaryTests {
+
+	private UUID sessionId;
+	private Instant start;
+	private ChargeSessionSummary summary;
+
+	@Before
+	public void setup() {
+		sessionId = UUID.randomUUID();
+		start = Instant.ofEpochMilli(System.currentTimeMillis());
+		summary = new ChargeSessionSummary(sessionId);
+	}
+
+	private SampledValue reading(long offsetSeconds, Measurand measurand, UnitOfMeasure unit,
+			Phase phase, String value) {
+		// @formatter:off
+		return SampledValue.builder()
+				.withSessionId(sessionId)
+				.withTimestamp(start.plusSeconds(offsetSeconds))
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(measurand)
+				.withUnit(unit)
+				.withPhase(phase)
+				.withValue(value)
+				.build();
+		// @formatter:on
+	}
+
+	@Test
+	public void empty() {
+		assertThat("No energy", summary.getEnergyDelivered(), nullValue());
+		assertThat("No power", summary.getPowerAverage(), nullValue());
+		assertThat("No power max", summary.getPowerMax(), nullValue());
+		assertThat("No current", summary.getCurrentMax(), nullValue());
+	}
+
+	@Test
+	public void summarize() {
+		summary.add(
+				reading(0, Measurand.EnergyActiveImportRegister, UnitOfMeasure.Wh, null, "1000"));
+		summary.add(reading(60, Measurand.PowerActiveImport, UnitOfMeasure.W, null, "7000"));
+		summary.add(reading(60, Measurand.CurrentImport, null, Phase.L1, "30"));
+		summary.add(reading(60, Measurand.CurrentImport, null, Phase.L2, "32"));
+		summary.add(reading(120, Measurand.PowerActiveImport, UnitOfMeasure.kW, null, "5"));
+		summary.add(reading(120, Measurand.PowerActiveImport, UnitOfMeasure.W, Phase.L1, "9000"));
+		summary.add(reading(180, Measurand.EnergyActiveImportRegister, UnitOfMeasure.kWh, null,
+				"1.5"));
+
+		assertThat("Energy delivered", summary.getEnergyDelivered(),
+				equalTo(new BigDecimal("500")));
+		assertThat("Power average", summary.getPowerAverage(), equalTo(new BigDecimal("6000")));
+		assertThat("Power max ignores phase readings", summary.getPowerMax(),
+				equalTo(new BigDecimal("7000")));
+		assertThat("Current max across phases", summary.getCurrentMax(),
+				equalTo(new BigDecimal("32")));
+	}
+
+	@Test
+	public void invalidValueIgnored() {
+		summary.add(reading(0, Measurand.PowerActiveImport, UnitOfMeasure.W, null, "foo"));
+		assertThat("No power", summary.getPowerAverage(), nullValue());
+	}
+
+	@Test
+	public void typedValue() {
+		summary.add(reading(0, Measurand.EnergyActiveImportRegister, UnitOfMeasure.kWh, null,
+				"1.0"), new BigDecimal("1.0"));
+		summary.add(reading(60, Measurand.EnergyActiveImportRegister, UnitOfMeasure.kWh, null,
+				"2.5"), new BigDecimal("2.5"));
+		assertThat("Energy delivered from typed values", summary.getEnergyDelivered(),
+				equalTo(new BigDecimal("1500")));
+	}
+
+}
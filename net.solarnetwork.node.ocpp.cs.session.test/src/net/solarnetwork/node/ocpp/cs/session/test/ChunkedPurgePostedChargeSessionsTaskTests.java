@@ -0,0 +1,250 @@
+/* ==================================================================
+ * ChunkedPurgePostedChargeSessionsTaskTests.java - 17/10/2026 8:15:36 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isNull;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import net.solarnetwork.node.ocpp.cs.session.ChunkedPurgePostedChargeSessionsTask;
+import net.solarnetwork.node.ocpp.dao.ExtendedChargeSessionDao;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Test cases for the {@link ChunkedPurgePostedChargeSessionsTask} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChunkedPurgePostedChargeSessionsTaskTests {
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	private ExtendedChargeSessionDao chargeSessionDao;
+	private ChunkedPurgePostedChargeSessionsTask task;
+
+	@Before
+	public void setup() {
+		chargeSessionDao = createMock(ExtendedChargeSessionDao.class);
+		task = new ChunkedPurgePostedChargeSessionsTask(chargeSessionDao);
+		task.setYieldMs(0);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargeSessionDao);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargeSessionDao);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expectProcessReadings(ChargeSession sess, SampledValue... readings) {
+		chargeSessionDao.processReadingsForSession(eq(sess.getId()), isNull(Instant.class),
+				anyObject(Consumer.class));
+		expectLastCall().andAnswer(() -> {
+			Consumer<SampledValue> handler = (Consumer<SampledValue>) EasyMock
+					.getCurrentArguments()[2];
+			for ( SampledValue r : readings ) {
+				handler.accept(r);
+			}
+			return null;
+		});
+	}
+
+	private static SampledValue reading(ChargeSession sess) {
+		// @formatter:off
+		return SampledValue.builder()
+				.withSessionId(sess.getId())
+				.withTimestamp(sess.getCreated())
+				.withContext(ReadingContext.TransactionBegin)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.EnergyActiveImportRegister)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue("1234")
+				.build();
+		// @formatter:on
+	}
+
+	private List<ChargeSession> sessions(int count) {
+		List<ChargeSession> result = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), "test", 1L, 1,
+					i + 1);
+			sess.setPosted(Instant.now());
+			result.add(sess);
+		}
+		return result;
+	}
+
+	@Test
+	public void purgeInChunks() {
+		// GIVEN
+		task.setChunkSize(2);
+
+		List<ChargeSession> chunk1 = sessions(2);
+		List<ChargeSession> chunk2 = sessions(1);
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), eq(2))).andReturn(chunk1);
+		for ( ChargeSession s : chunk1 ) {
+			chargeSessionDao.delete(s);
+		}
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), eq(2))).andReturn(chunk2);
+		for ( ChargeSession s : chunk2 ) {
+			chargeSessionDao.delete(s);
+		}
+
+		// WHEN
+		replayAll();
+		task.run();
+	}
+
+	@Test
+	public void stopAtTimeBudget() {
+		// GIVEN
+		task.setChunkSize(1);
+		task.setTimeBudgetMs(0);
+
+		List<ChargeSession> chunk1 = sessions(1);
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), anyInt())).andReturn(chunk1);
+		chargeSessionDao.delete(chunk1.get(0));
+
+		// WHEN
+		replayAll();
+		task.run();
+	}
+
+	@Test
+	public void archiveBeforeDelete() throws Exception {
+		// GIVEN
+		File dir = tmpDir.newFolder();
+		task.setArchiveDirectory(dir.getAbsolutePath());
+
+		List<ChargeSession> chunk = sessions(1);
+		ChargeSession sess = chunk.get(0);
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), anyInt())).andReturn(chunk);
+		expectProcessReadings(sess, reading(sess));
+		chargeSessionDao.delete(sess);
+
+		// WHEN
+		replayAll();
+		task.run();
+
+		// THEN
+		File[] files = dir.listFiles();
+		assertThat("Archive file created", files, arrayWithSize(1));
+		assertThat("Archive file published", files[0].getName(),
+				endsWith(ChunkedPurgePostedChargeSessionsTask.ARCHIVE_FILE_SUFFIX));
+		List<String> lines = new ArrayList<>();
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(
+				new GZIPInputStream(new FileInputStream(files[0])), StandardCharsets.UTF_8))) {
+			String line;
+			while ( (line = in.readLine()) != null ) {
+				lines.add(line);
+			}
+		}
+		assertThat("Archived rows", lines.size(), equalTo(2));
+		assertThat("Session row", lines.get(0), startsWith("S," + sess.getId() + ","));
+		assertThat("Reading row", lines.get(1), startsWith("R," + sess.getId() + ","));
+	}
+
+	@Test
+	public void archiveDiscardedOnRollback() throws Exception {
+		// GIVEN
+		File dir = tmpDir.newFolder();
+		task.setArchiveDirectory(dir.getAbsolutePath());
+
+		List<ChargeSession> chunk = sessions(1);
+		ChargeSession sess = chunk.get(0);
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), anyInt())).andReturn(chunk);
+		expectProcessReadings(sess, reading(sess));
+		chargeSessionDao.delete(sess);
+
+		// WHEN
+		replayAll();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			task.run();
+
+			// THEN
+			File[] files = dir.listFiles();
+			assertThat("Temporary archive file created", files, arrayWithSize(1));
+			assertThat("Archive not published before commit", files[0].getName(),
+					endsWith(ChunkedPurgePostedChargeSessionsTask.ARCHIVE_TEMP_FILE_SUFFIX));
+
+			for ( TransactionSynchronization s : TransactionSynchronizationManager
+					.getSynchronizations() ) {
+				s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertThat("Archive file deleted on rollback", dir.listFiles(), arrayWithSize(0));
+	}
+
+	@Test
+	public void nothingToPurge() {
+		// GIVEN
+		expect(chargeSessionDao.findPostedChargeSessions(anyObject(), anyInt()))
+				.andReturn(Collections.emptyList());
+
+		// WHEN
+		replayAll();
+		task.run();
+	}
+
+}
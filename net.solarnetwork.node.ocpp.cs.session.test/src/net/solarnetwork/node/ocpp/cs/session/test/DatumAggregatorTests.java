@@ -0,0 +1,125 @@
+/* ==================================================================
+ * DatumAggregatorTests.java - 17/10/2026 5:58:13 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.node.ocpp.cs.session.DatumAggregator;
+
+/**
+ * Test cases for the {@link DatumAggregator} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class DatumAggregatorTests {
+
+	private static final long PERIOD = TimeUnit.MINUTES.toMillis(1);
+	private static final String SOURCE_ID = "test.source";
+	private static final String GROUP_ID = "test.group";
+
+	private long start;
+	private DatumAggregator aggregator;
+
+	@Before
+	public void setup() {
+		long now = System.currentTimeMillis();
+		start = now - (now % PERIOD);
+		aggregator = new DatumAggregator(PERIOD);
+	}
+
+	private GeneralNodeDatum datum(long offset, int watts, long wattHours) {
+		GeneralNodeDatum d = new GeneralNodeDatum();
+		d.setCreated(new Date(start + offset));
+		d.setSourceId(SOURCE_ID);
+		d.putInstantaneousSampleValue("watts", watts);
+		d.putAccumulatingSampleValue("wattHours", wattHours);
+		return d;
+	}
+
+	@Test
+	public void aggregateBucket() {
+		// WHEN
+		List<GeneralNodeDatum> r1 = aggregator.add(GROUP_ID, datum(0, 100, 1000));
+		List<GeneralNodeDatum> r2 = aggregator.add(GROUP_ID, datum(5000, 300, 1001));
+		List<GeneralNodeDatum> r3 = aggregator.add(GROUP_ID, datum(10000, 200, 1002));
+		List<GeneralNodeDatum> r4 = aggregator.add(GROUP_ID, datum(PERIOD, 400, 1003));
+
+		// THEN
+		assertThat("Bucket not complete 1", r1, hasSize(0));
+		assertThat("Bucket not complete 2", r2, hasSize(0));
+		assertThat("Bucket not complete 3", r3, hasSize(0));
+		assertThat("Bucket complete", r4, hasSize(1));
+
+		GeneralNodeDatum d = r4.get(0);
+		assertThat("Datum date is bucket start", d.getCreated().getTime(), equalTo(start));
+		assertThat("Source ID", d.getSourceId(), equalTo(SOURCE_ID));
+		assertThat("Average", d.getInstantaneousSampleBigDecimal("watts"),
+				equalTo(new BigDecimal("200")));
+		assertThat("Min", d.getSampleData(), hasEntry("watts_min", (Object) new BigDecimal("100")));
+		assertThat("Max", d.getSampleData(), hasEntry("watts_max", (Object) new BigDecimal("300")));
+		assertThat("Last accumulating", d.getAccumulatingSampleLong("wattHours"), equalTo(1002L));
+		assertThat("Next bucket active", aggregator.size(), equalTo(1));
+	}
+
+	@Test
+	public void olderThanBucketPassesThrough() {
+		aggregator.add(GROUP_ID, datum(PERIOD, 100, 1000));
+		GeneralNodeDatum old = datum(0, 200, 999);
+		List<GeneralNodeDatum> r = aggregator.add(GROUP_ID, old);
+		assertThat("Old datum returned", r, hasSize(1));
+		assertThat("Old datum unchanged", r.get(0), sameInstance(old));
+	}
+
+	@Test
+	public void flushGroup() {
+		aggregator.add(GROUP_ID, datum(0, 100, 1000));
+		assertThat("Other group not flushed", aggregator.flushGroup("foo"), hasSize(0));
+		List<GeneralNodeDatum> r = aggregator.flushGroup(GROUP_ID);
+		assertThat("Group flushed", r, hasSize(1));
+		assertThat("Single value average", r.get(0).getInstantaneousSampleInteger("watts"),
+				equalTo(100));
+		assertThat("No buckets active", aggregator.size(), equalTo(0));
+	}
+
+	@Test
+	public void flushAll() {
+		aggregator.add(GROUP_ID, datum(0, 100, 1000));
+		GeneralNodeDatum other = datum(0, 100, 1000);
+		other.setSourceId("other");
+		aggregator.add("other", other);
+		assertThat("All flushed", aggregator.flushAll(), hasSize(2));
+		assertThat("No buckets active", aggregator.size(), equalTo(0));
+	}
+
+}
@@ -0,0 +1,234 @@
+/* ==================================================================
+ * DatumQueueTests.java - 17/10/2026 11:48:05 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.util.Date;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import net.solarnetwork.node.dao.DatumDao;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.node.ocpp.cs.session.DatumQueue;
+import net.solarnetwork.util.StaticOptionalService;
+
+/**
+ * Test cases for the {@link DatumQueue} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class DatumQueueTests {
+
+	private DatumDao<GeneralNodeDatum> datumDao;
+	private DatumQueue queue;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setup() {
+		datumDao = createMock(DatumDao.class);
+	}
+
+	@After
+	public void teardown() {
+		if ( queue != null ) {
+			queue.shutdown();
+		}
+		EasyMock.verify(datumDao);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(datumDao);
+	}
+
+	private GeneralNodeDatum datum(int i) {
+		GeneralNodeDatum d = new GeneralNodeDatum();
+		d.setCreated(new Date(i * 1000L));
+		d.setSourceId("test." + i);
+		return d;
+	}
+
+	@Test
+	public void dropNewest() {
+		// GIVEN
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 1);
+		queue.setOverflowPolicy(DatumQueue.OverflowPolicy.DropNewest);
+
+		GeneralNodeDatum d1 = datum(1);
+		datumDao.storeDatum(d1);
+
+		// WHEN
+		replayAll();
+		boolean r1 = queue.offer(d1);
+		boolean r2 = queue.offer(datum(2));
+
+		// THEN
+		assertThat("First datum queued", r1, equalTo(true));
+		assertThat("Second datum dropped", r2, equalTo(false));
+		assertThat("Queue depth", queue.getQueueDepth(), equalTo(1));
+		assertThat("Dropped count", queue.getDroppedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void dropOldest() {
+		// GIVEN
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 1);
+		queue.setOverflowPolicy(DatumQueue.OverflowPolicy.DropOldest);
+
+		GeneralNodeDatum d2 = datum(2);
+		datumDao.storeDatum(d2);
+
+		// WHEN
+		replayAll();
+		queue.offer(datum(1));
+		boolean r2 = queue.offer(d2);
+
+		// THEN
+		assertThat("Second datum queued", r2, equalTo(true));
+		assertThat("Queue depth", queue.getQueueDepth(), equalTo(1));
+		assertThat("Dropped count", queue.getDroppedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void callerRuns() {
+		// GIVEN
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 1);
+		queue.setOverflowPolicy(DatumQueue.OverflowPolicy.CallerRuns);
+
+		GeneralNodeDatum d1 = datum(1);
+		GeneralNodeDatum d2 = datum(2);
+		datumDao.storeDatum(d2);
+		datumDao.storeDatum(d1);
+
+		// WHEN
+		replayAll();
+		queue.offer(d1);
+		boolean r2 = queue.offer(d2);
+
+		// THEN
+		assertThat("Second datum stored", r2, equalTo(true));
+		assertThat("Stored count", queue.getStoredCount(), equalTo(1L));
+		assertThat("Dropped count", queue.getDroppedCount(), equalTo(0L));
+	}
+
+	@Test
+	public void transactionTemplateRequiresNew() {
+		// GIVEN
+		PlatformTransactionManager txManager = EasyMock
+				.createNiceMock(PlatformTransactionManager.class);
+		TransactionTemplate tt = new TransactionTemplate(txManager);
+		tt.setTimeout(30);
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 1);
+
+		// WHEN
+		replayAll();
+		queue.setTransactionTemplate(tt);
+
+		// THEN
+		TransactionTemplate result = queue.getTransactionTemplate();
+		assertThat("Transaction manager preserved", result.getTransactionManager(),
+				sameInstance(txManager));
+		assertThat("Timeout preserved", result.getTimeout(), equalTo(30));
+		assertThat("New transaction required", result.getPropagationBehavior(),
+				equalTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+		assertThat("Given template unchanged", tt.getPropagationBehavior(),
+				equalTo(TransactionDefinition.PROPAGATION_REQUIRED));
+	}
+
+	@Test
+	public void storeBatchInBackground() throws Exception {
+		// GIVEN
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 10);
+		queue.setBatchSize(3);
+		queue.setLingerMs(500);
+
+		Capture<GeneralNodeDatum> datumCaptor = new Capture<>(CaptureType.ALL);
+		datumDao.storeDatum(capture(datumCaptor));
+		expectLastCall().times(3);
+
+		// WHEN
+		replayAll();
+		GeneralNodeDatum d1 = datum(1);
+		GeneralNodeDatum d2 = datum(2);
+		GeneralNodeDatum d3 = datum(3);
+		queue.offer(d1);
+		queue.offer(d2);
+		queue.offer(d3);
+		queue.startup();
+
+		long expire = System.currentTimeMillis() + 5000;
+		while ( queue.getStoredCount() < 3 && System.currentTimeMillis() < expire ) {
+			Thread.sleep(50);
+		}
+
+		// THEN
+		assertThat("Stored count", queue.getStoredCount(), equalTo(3L));
+		assertThat("Queue depth", queue.getQueueDepth(), equalTo(0));
+		assertThat("Datum stored in order", datumCaptor.getValues(), contains(d1, d2, d3));
+	}
+
+	@Test
+	public void storeLingeringBatchOnShutdown() throws Exception {
+		// GIVEN
+		queue = new DatumQueue(new StaticOptionalService<>(datumDao), 10);
+		queue.setBatchSize(10);
+		queue.setLingerMs(60000);
+
+		Capture<GeneralNodeDatum> datumCaptor = new Capture<>(CaptureType.ALL);
+		datumDao.storeDatum(capture(datumCaptor));
+		expectLastCall().times(2);
+
+		// WHEN
+		replayAll();
+		GeneralNodeDatum d1 = datum(1);
+		GeneralNodeDatum d2 = datum(2);
+		queue.offer(d1);
+		queue.offer(d2);
+		queue.startup();
+
+		// wait for the worker to take the datum into a batch, which then lingers
+		long expire = System.currentTimeMillis() + 5000;
+		while ( queue.getQueueDepth() > 0 && System.currentTimeMillis() < expire ) {
+			Thread.sleep(50);
+		}
+		assertThat("Datum taken from queue", queue.getQueueDepth(), equalTo(0));
+		queue.shutdown();
+
+		// THEN
+		assertThat("Stored count", queue.getStoredCount(), equalTo(2L));
+		assertThat("Batch stored on shutdown", datumCaptor.getValues(), contains(d1, d2));
+	}
+
+}
@@ -0,0 +1,287 @@
+/* ==================================================================
+ * SampledValueConverterBenchmarks.java - 18/10/2026 10:21:37 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static net.solarnetwork.node.domain.Datum.REVERSE_ACCUMULATING_SUFFIX_KEY;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.domain.GeneralDatumSamplesType;
+import net.solarnetwork.node.domain.ACEnergyDatum;
+import net.solarnetwork.node.domain.AtmosphericDatum;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.node.ocpp.cs.session.SampledValueConverter;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Benchmarks for the {@link SampledValueConverter} class.
+ *
+ * <p>
+ * The converter is compared against a copy of the switch-based conversion
+ * that {@code SolarNetChargeSessionManager} used before it. Run with
+ * {@literal -Docpp.test.benchmark=true} to enable.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SampledValueConverterBenchmarks {
+
+	/** A system property to enable the benchmarks with. */
+	public static final String BENCHMARK_PROP = "ocpp.test.benchmark";
+
+	/** A system property with the number of values to convert. */
+	public static final String VALUE_COUNT_PROP = "ocpp.test.benchmark.valueCount";
+
+	private static final int MAX_TEMPERATURE_SCALE = 1;
+
+	// @formatter:off
+	private static final Measurand[] MEASURANDS = new Measurand[] {
+			Measurand.EnergyActiveImportRegister,
+			Measurand.EnergyActiveImportRegister,
+			Measurand.PowerActiveImport,
+			Measurand.PowerActiveExport,
+			Measurand.CurrentImport,
+			Measurand.Temperature,
+	};
+
+	private static final UnitOfMeasure[] UNITS = new UnitOfMeasure[] {
+			UnitOfMeasure.Wh,
+			UnitOfMeasure.kWh,
+			UnitOfMeasure.W,
+			UnitOfMeasure.kW,
+			UnitOfMeasure.A,
+			UnitOfMeasure.Fahrenheit,
+	};
+	// @formatter:on
+
+	private static final Logger log = LoggerFactory.getLogger(SampledValueConverterBenchmarks.class);
+
+	private com.sun.management.ThreadMXBean threadMXBean;
+
+	@Before
+	public void setup() {
+		assumeTrue("Benchmarks enabled", Boolean.getBoolean(BENCHMARK_PROP));
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		assumeTrue("Thread allocation supported", mx instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) mx).isThreadAllocatedMemorySupported());
+		threadMXBean = (com.sun.management.ThreadMXBean) mx;
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private static String value(int i) {
+		if ( UNITS[i % UNITS.length] == UnitOfMeasure.Fahrenheit ) {
+			// keep the Celsius conversion exact, as the baseline divides without a scale
+			return String.valueOf(32 + 9L * (i % 100)) + ".0";
+		}
+		return String.valueOf(i * 1000L + 123) + ".45";
+	}
+
+	private static String[] values(int count) {
+		String[] values = new String[count];
+		for ( int i = 0; i < count; i++ ) {
+			values[i] = value(i);
+		}
+		return values;
+	}
+
+	private long allocatedBytes() {
+		return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static void convert(GeneralNodeDatum d, String[] values) {
+		for ( int i = 0; i < values.length; i++ ) {
+			SampledValueConverter.populateProperty(d, MEASURANDS[i % MEASURANDS.length],
+					UNITS[i % UNITS.length], values[i], MAX_TEMPERATURE_SCALE);
+		}
+	}
+
+	private static void convertBaseline(GeneralNodeDatum d, String[] values) {
+		for ( int i = 0; i < values.length; i++ ) {
+			baselinePopulateProperty(d, MEASURANDS[i % MEASURANDS.length], UNITS[i % UNITS.length],
+					values[i]);
+		}
+	}
+
+	/**
+	 * Compare the time and memory taken to convert values with the converter
+	 * and the baseline conversion.
+	 *
+	 * <p>
+	 * Every value must convert to the same datum property as the baseline, and
+	 * the converter must not allocate more than the baseline. Set the
+	 * {@link #VALUE_COUNT_PROP} system property to change the default of 1M
+	 * values.
+	 * </p>
+	 */
+	@Test
+	public void populateProperty() {
+		final int count = Integer.getInteger(VALUE_COUNT_PROP, 1_000_000);
+		final String[] values = values(count);
+
+		for ( int i = 0; i < count; i++ ) {
+			GeneralNodeDatum expected = new GeneralNodeDatum();
+			baselinePopulateProperty(expected, MEASURANDS[i % MEASURANDS.length],
+					UNITS[i % UNITS.length], values[i]);
+			GeneralNodeDatum d = new GeneralNodeDatum();
+			SampledValueConverter.populateProperty(d, MEASURANDS[i % MEASURANDS.length],
+					UNITS[i % UNITS.length], values[i], MAX_TEMPERATURE_SCALE);
+			assertThat("Value " + values[i] + " converted", d.getSamples(),
+					equalTo(expected.getSamples()));
+		}
+
+		// warm up both paths before measuring
+		convertBaseline(new GeneralNodeDatum(), values);
+		convert(new GeneralNodeDatum(), values);
+
+		GeneralNodeDatum d = new GeneralNodeDatum();
+		long bytes = allocatedBytes();
+		long start = System.nanoTime();
+		convertBaseline(d, values);
+		final long baselineMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		final long baselineBytes = allocatedBytes() - bytes;
+
+		d = new GeneralNodeDatum();
+		bytes = allocatedBytes();
+		start = System.nanoTime();
+		convert(d, values);
+		final long convertMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		final long convertBytes = allocatedBytes() - bytes;
+
+		log.info("Baseline converted {} values in {}ms, allocating {} bytes", count, baselineMs,
+				baselineBytes);
+		log.info("Converter converted {} values in {}ms, allocating {} bytes", count, convertMs,
+				convertBytes);
+
+		assertThat("Converter allocation", convertBytes, lessThanOrEqualTo(baselineBytes));
+	}
+
+	/*
+	 * The conversion SolarNetChargeSessionManager used before
+	 * SampledValueConverter, kept here as the benchmark baseline. The property
+	 * name mapping only covers the measurands in MEASURANDS.
+	 */
+
+	private static void baselinePopulateProperty(GeneralNodeDatum datum, Measurand measurand,
+			UnitOfMeasure unit, Object value) {
+		if ( value == null ) {
+			return;
+		}
+		BigDecimal num = new BigDecimal(value.toString());
+		num = baselineNormalizedUnit(num, unit);
+		String propName = baselinePropertyName(measurand);
+		if ( propName != null ) {
+			datum.putSampleValue(baselinePropertyType(measurand), propName, num);
+		}
+	}
+
+	private static BigDecimal baselineNormalizedUnit(BigDecimal num, UnitOfMeasure unit) {
+		if ( unit == null ) {
+			return num;
+		}
+		switch (unit) {
+			case Fahrenheit: {
+				// convert to C
+				BigDecimal celsius = num.subtract(new BigDecimal("32")).multiply(new BigDecimal("5"))
+						.divide(new BigDecimal("9"));
+				if ( celsius.scale() > MAX_TEMPERATURE_SCALE ) {
+					celsius = celsius.setScale(MAX_TEMPERATURE_SCALE, RoundingMode.HALF_UP);
+				}
+				return celsius;
+			}
+
+			case K: {
+				BigDecimal celsius = num.subtract(new BigDecimal("-273.15"));
+				if ( celsius.scale() > MAX_TEMPERATURE_SCALE ) {
+					celsius = celsius.setScale(MAX_TEMPERATURE_SCALE, RoundingMode.HALF_UP);
+				}
+				return celsius;
+			}
+
+			case kVA:
+			case kvar:
+			case kvarh:
+			case kW:
+			case kWh:
+				return num.movePointRight(3);
+
+			default:
+				return num;
+		}
+	}
+
+	private static GeneralDatumSamplesType baselinePropertyType(Measurand measurand) {
+		switch (measurand) {
+			case EnergyActiveExportRegister:
+			case EnergyActiveImportRegister:
+			case EnergyReactiveExportRegister:
+			case EnergyReactiveImportRegister:
+			case PowerReactiveExport:
+			case PowerReactiveImport:
+				return GeneralDatumSamplesType.Accumulating;
+
+			default:
+				return GeneralDatumSamplesType.Instantaneous;
+		}
+	}
+
+	private static String baselinePropertyName(Measurand measurand) {
+		switch (measurand) {
+			case CurrentExport:
+				return ACEnergyDatum.CURRENT_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
+
+			case CurrentImport:
+				return ACEnergyDatum.CURRENT_KEY;
+
+			case EnergyActiveExportRegister:
+				return ACEnergyDatum.WATT_HOUR_READING_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
+
+			case EnergyActiveImportRegister:
+				return ACEnergyDatum.WATT_HOUR_READING_KEY;
+
+			case PowerActiveExport:
+				return ACEnergyDatum.WATTS_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
+
+			case PowerActiveImport:
+				return ACEnergyDatum.WATTS_KEY;
+
+			case Temperature:
+				return AtmosphericDatum.TEMPERATURE_KEY;
+
+			default:
+				return null;
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+/* ==================================================================
+ * SampledValueConverterTests.java - 17/10/2026 4:41:22 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import java.math.BigDecimal;
+import org.junit.Test;
+import net.solarnetwork.domain.GeneralDatumSamplesType;
+import net.solarnetwork.node.domain.ACEnergyDatum;
+import net.solarnetwork.node.domain.Datum;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.node.ocpp.cs.session.SampledValueConverter;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Test cases for the {@link SampledValueConverter} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SampledValueConverterTests {
+
+	@Test
+	public void parseDecimal_plain() {
+		for ( String s : new String[] { "0", "1234", "-1234", "+12", "1.50", "-0.005", ".5", "5.",
+				"123456789012345678", "1234567890123456789", "1.5E3", "-1.25e-2" } ) {
+			BigDecimal expected = new BigDecimal(s);
+			BigDecimal result = SampledValueConverter.parseDecimal(s);
+			assertThat("Parsed value " + s, result, equalTo(expected));
+		}
+	}
+
+	@Test
+	public void parseDecimal_invalid() {
+		for ( String s : new String[] { "", "-", ".", "1.2.3", "abc", " 1" } ) {
+			try {
+				SampledValueConverter.parseDecimal(s);
+				fail("Should have failed to parse [" + s + "]");
+			} catch ( NumberFormatException e ) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void propertyNames() {
+		assertThat("Energy import",
+				SampledValueConverter.propertyName(Measurand.EnergyActiveImportRegister),
+				equalTo(ACEnergyDatum.WATT_HOUR_READING_KEY));
+		assertThat("Power export", SampledValueConverter.propertyName(Measurand.PowerActiveExport),
+				equalTo(ACEnergyDatum.WATTS_KEY + Datum.REVERSE_ACCUMULATING_SUFFIX_KEY));
+		assertThat("Null measurand", SampledValueConverter.propertyName(null), nullValue());
+	}
+
+	@Test
+	public void propertyTypes() {
+		assertThat("Energy register accumulating",
+				SampledValueConverter.propertyType(Measurand.EnergyActiveImportRegister),
+				equalTo(GeneralDatumSamplesType.Accumulating));
+		assertThat("Power instantaneous",
+				SampledValueConverter.propertyType(Measurand.PowerActiveImport),
+				equalTo(GeneralDatumSamplesType.Instantaneous));
+	}
+
+	@Test
+	public void normalize_kilo() {
+		assertThat("kWh to Wh",
+				SampledValueConverter.normalizedUnit(new BigDecimal("1.234"), UnitOfMeasure.kWh, 1),
+				equalTo(new BigDecimal("1234")));
+	}
+
+	@Test
+	public void normalize_fahrenheit() {
+		assertThat("F to C", SampledValueConverter.normalizedUnit(new BigDecimal("212"),
+				UnitOfMeasure.Fahrenheit, 1), equalTo(new BigDecimal("100")));
+	}
+
+	@Test
+	public void populateProperty() {
+		GeneralNodeDatum d = new GeneralNodeDatum();
+		boolean result = SampledValueConverter.populateProperty(d,
+				Measurand.EnergyActiveImportRegister, UnitOfMeasure.kWh, "1.5", 1);
+		assertThat("Property populated", result, equalTo(true));
+		assertThat("Energy value", d.getAccumulatingSampleLong(ACEnergyDatum.WATT_HOUR_READING_KEY),
+				equalTo(1500L));
+	}
+
+}
@@ -37,6 +37,7 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import java.math.BigDecimal;
@@ -59,13 +60,15 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import net.solarnetwork.node.PlaceholderService;
 import net.solarnetwork.node.dao.DatumDao;
 import net.solarnetwork.node.domain.ACEnergyDatum;
 import net.solarnetwork.node.domain.GeneralNodeDatum;
 import net.solarnetwork.node.ocpp.cs.session.SolarNetChargeSessionManager;
+import net.solarnetwork.node.ocpp.dao.ExtendedChargeSessionDao;
 import net.solarnetwork.ocpp.dao.ChargePointDao;
-import net.solarnetwork.ocpp.dao.ChargeSessionDao;
 import net.solarnetwork.ocpp.dao.PurgePostedChargeSessionsTask;
 import net.solarnetwork.ocpp.domain.AuthorizationInfo;
 import net.solarnetwork.ocpp.domain.AuthorizationStatus;
@@ -78,6 +81,7 @@ import net.solarnetwork.ocpp.domain.ChargeSessionEndReason;
 import net.solarnetwork.ocpp.domain.ChargeSessionStartInfo;
 import net.solarnetwork.ocpp.domain.Location;
 import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.Phase;
 import net.solarnetwork.ocpp.domain.ReadingContext;
 import net.solarnetwork.ocpp.domain.SampledValue;
 import net.solarnetwork.ocpp.domain.UnitOfMeasure;
@@ -89,13 +93,13 @@ import net.solarnetwork.util.StaticOptionalService;
  * Test cases for the {@link SolarNetChargeSessionManager} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class SolarNetChargeSessionManagerTests {
 
 	private AuthorizationService authService;
 	private ChargePointDao chargePointDao;
-	private ChargeSessionDao chargeSessionDao;
+	private ExtendedChargeSessionDao chargeSessionDao;
 	private DatumDao<GeneralNodeDatum> datumDao;
 	private TaskScheduler taskScheduler;
 	private PlaceholderService placeholderService;
@@ -106,7 +110,7 @@ public class SolarNetChargeSessionManagerTests {
 	public void setup() {
 		authService = createMock(AuthorizationService.class);
 		chargePointDao = createMock(ChargePointDao.class);
-		chargeSessionDao = createMock(ChargeSessionDao.class);
+		chargeSessionDao = createMock(ExtendedChargeSessionDao.class);
 		datumDao = createMock(DatumDao.class);
 		taskScheduler = createMock(TaskScheduler.class);
 		placeholderService = createMock(PlaceholderService.class);
@@ -135,6 +139,7 @@ public class SolarNetChargeSessionManagerTests {
 		// given
 		int expireHours = 2;
 		manager.setPurgePostedChargeSessionsExpirationHours(expireHours);
+		manager.setPurgePostedChargeSessionsChunkSize(0);
 
 		Capture<Runnable> startupTaskCaptor = new Capture<>();
 		ScheduledFuture<Object> startupTaskFuture = createMock(ScheduledFuture.class);
@@ -147,6 +152,9 @@ public class SolarNetChargeSessionManagerTests {
 		expect(taskScheduler.scheduleWithFixedDelay(capture(purgeTaskCaptor), anyObject(),
 				eq(taskDelay))).andReturn((ScheduledFuture) purgePostedTaskFuture);
 
+		// load incomplete sessions
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+
 		// when
 		replayAll(startupTaskFuture, purgePostedTaskFuture);
 
@@ -161,6 +169,91 @@ public class SolarNetChargeSessionManagerTests {
 		verify(startupTaskFuture, purgePostedTaskFuture);
 	}
 
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void startup_datumAggregation() {
+		// given
+		manager.setDatumAggregationSeconds(60);
+
+		ScheduledFuture<Object> flushTaskFuture = createMock(ScheduledFuture.class);
+		Capture<Runnable> flushTaskCaptor = new Capture<>();
+		expect(taskScheduler.scheduleAtFixedRate(capture(flushTaskCaptor), anyObject(Date.class),
+				eq(TimeUnit.SECONDS.toMillis(60)))).andReturn((ScheduledFuture) flushTaskFuture);
+
+		ScheduledFuture<Object> startupTaskFuture = createMock(ScheduledFuture.class);
+		expect(taskScheduler.schedule(anyObject(Runnable.class), anyObject(Date.class)))
+				.andReturn((ScheduledFuture) startupTaskFuture);
+
+		// flush task cancelled on shutdown
+		expect(flushTaskFuture.isDone()).andReturn(false);
+		expect(flushTaskFuture.cancel(false)).andReturn(true);
+
+		// when
+		replayAll(flushTaskFuture, startupTaskFuture);
+		manager.startup();
+		flushTaskCaptor.getValue().run();
+		manager.shutdown();
+
+		// then
+		verify(flushTaskFuture, startupTaskFuture);
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void startup_evictSessionSummaries() {
+		// given
+		manager.setPublishSessionSummary(true);
+		manager.setPurgePostedChargeSessionsExpirationHours(0);
+
+		Capture<Runnable> startupTaskCaptor = new Capture<>();
+		ScheduledFuture<Object> startupTaskFuture = createMock(ScheduledFuture.class);
+		expect(taskScheduler.schedule(capture(startupTaskCaptor), anyObject(Date.class)))
+				.andReturn((ScheduledFuture) startupTaskFuture);
+
+		String identifier = UUID.randomUUID().toString();
+		ChargePointIdentity chargePointId = new ChargePointIdentity(identifier, "foo");
+		ChargePoint cp = new ChargePoint(UUID.randomUUID().getMostSignificantBits(), Instant.now(),
+				new ChargePointInfo(identifier));
+		String idTag = UUID.randomUUID().toString().substring(0, 20);
+		expect(authService.authorize(chargePointId, idTag))
+				.andReturn(new AuthorizationInfo(idTag, AuthorizationStatus.Accepted));
+		expect(chargePointDao.getForIdentity(chargePointId)).andReturn(cp);
+		expect(chargeSessionDao.nextTransactionId()).andReturn(123);
+		Capture<ChargeSession> sessionCaptor = new Capture<>();
+		expect(chargeSessionDao.save(capture(sessionCaptor)))
+				.andAnswer(() -> sessionCaptor.getValue().getId());
+		chargeSessionDao.addReadings(anyObject());
+		datumDao.storeDatum(anyObject());
+
+		// session loaded when started, then ended elsewhere before the registry is re-loaded
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList())
+				.times(2);
+
+		// when
+		replayAll(startupTaskFuture);
+		manager.startup();
+
+		// @formatter:off
+		ChargeSessionStartInfo info = ChargeSessionStartInfo.builder()
+				.withTimestampStart(Instant.now())
+				.withChargePointId(chargePointId)
+				.withAuthorizationId(idTag)
+				.withConnectorId(1)
+				.withMeterStart(1234)
+				.build();
+		// @formatter:on
+		manager.startChargingSession(info);
+		assertThat("Summary maintained for started session", manager.getSessionSummaryCount(),
+				equalTo(1));
+
+		startupTaskCaptor.getValue().run();
+
+		// then
+		assertThat("Summary evicted for session no longer incomplete",
+				manager.getSessionSummaryCount(), equalTo(0));
+		verify(startupTaskFuture);
+	}
+
 	@Test
 	public void startSession_ok() {
 		// given
@@ -179,10 +272,13 @@ public class SolarNetChargeSessionManagerTests {
 
 		// verify concurrent tx
 		int connectorId = 1;
-		expect(chargeSessionDao.getIncompleteChargeSessionForConnector(cp.getId(), connectorId))
-				.andReturn(null);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+
+		// allocate txid
+		int transactionId = 123;
+		expect(chargeSessionDao.nextTransactionId()).andReturn(transactionId);
 
-		// create new session
+		// create new session, without refresh
 		Capture<ChargeSession> sessionCaptor = new Capture<>();
 		expect(chargeSessionDao.save(capture(sessionCaptor))).andAnswer(new IAnswer<UUID>() {
 
@@ -192,19 +288,6 @@ public class SolarNetChargeSessionManagerTests {
 			}
 		});
 
-		// refresh to get txid
-		Capture<UUID> sessionIdCaptor = new Capture<>();
-		int transactionId = 123;
-		expect(chargeSessionDao.get(capture(sessionIdCaptor))).andAnswer(new IAnswer<ChargeSession>() {
-
-			@Override
-			public ChargeSession answer() throws Throwable {
-				ChargeSession old = sessionCaptor.getValue();
-				return new ChargeSession(old.getId(), old.getCreated(), old.getAuthId(),
-						old.getChargePointId(), old.getConnectorId(), transactionId);
-			}
-		});
-
 		// store initial reading
 		Capture<Iterable<SampledValue>> readingsCaptor = new Capture<>();
 		chargeSessionDao.addReadings(capture(readingsCaptor));
@@ -241,12 +324,13 @@ public class SolarNetChargeSessionManagerTests {
 		assertThat("Stored session connector ID matches request",
 				sessionCaptor.getValue().getConnectorId(), equalTo(info.getConnectorId()));
 
-		assertThat("Created session ID matches refresh ID request", sessionIdCaptor.getValue(),
-				equalTo(sessionCaptor.getValue().getId()));
+		assertThat("Returned session is stored session", sess,
+				sameInstance(sessionCaptor.getValue()));
 		assertThat("Charge Point ID returned", sess.getChargePointId(), equalTo(cp.getId()));
 		assertThat("Auth ID returned", sess.getAuthId(), equalTo(idTag));
 		assertThat("Connector ID returned", sess.getConnectorId(), equalTo(connectorId));
 		assertThat("Transaction ID returned", sess.getTransactionId(), equalTo(transactionId));
+		assertThat("Session start timed", manager.getSessionStartTiming().getCount(), equalTo(1L));
 
 		List<SampledValue> samples = StreamSupport.stream(readingsCaptor.getValue().spliterator(), false)
 				.collect(Collectors.toList());
@@ -280,6 +364,53 @@ public class SolarNetChargeSessionManagerTests {
 				equalTo(sess.getId().toString()));
 	}
 
+	@Test
+	public void startSession_defaultTimestamp() {
+		// given
+		String identifier = UUID.randomUUID().toString();
+		ChargePointIdentity chargePointId = new ChargePointIdentity(identifier, "foo");
+		ChargePoint cp = new ChargePoint(UUID.randomUUID().getMostSignificantBits(), Instant.now(),
+				new ChargePointInfo(identifier));
+		String idTag = UUID.randomUUID().toString().substring(0, 20);
+		AuthorizationInfo authInfo = new AuthorizationInfo(idTag, AuthorizationStatus.Accepted);
+		expect(authService.authorize(chargePointId, idTag)).andReturn(authInfo);
+		expect(chargePointDao.getForIdentity(chargePointId)).andReturn(cp);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(Collections.emptyList());
+		expect(chargeSessionDao.nextTransactionId()).andReturn(123);
+
+		Capture<ChargeSession> sessionCaptor = new Capture<>();
+		expect(chargeSessionDao.save(capture(sessionCaptor))).andAnswer(new IAnswer<UUID>() {
+
+			@Override
+			public UUID answer() throws Throwable {
+				return sessionCaptor.getValue().getId();
+			}
+		});
+		chargeSessionDao.addReadings(anyObject());
+		datumDao.storeDatum(anyObject(GeneralNodeDatum.class));
+
+		// when
+		replayAll();
+
+		// @formatter:off
+		ChargeSessionStartInfo info = ChargeSessionStartInfo.builder()
+				.withChargePointId(chargePointId)
+				.withAuthorizationId(idTag)
+				.withConnectorId(1)
+				.withMeterStart(1234)
+				.build();
+		// @formatter:on
+
+		Instant before = Instant.now();
+		ChargeSession sess = manager.startChargingSession(info);
+
+		// then
+		assertThat("Session created", sess, notNullValue());
+		assertThat("Stored session timestamp set", sess.getCreated(), notNullValue());
+		assertThat("Stored session timestamp defaults to now",
+				sess.getCreated().isBefore(before), equalTo(false));
+	}
+
 	@Test
 	public void startSession_concurrentTx() {
 		// given
@@ -301,8 +432,7 @@ public class SolarNetChargeSessionManagerTests {
 		int transactionId = 123;
 		ChargeSession existingSess = new ChargeSession(UUID.randomUUID(), Instant.now().minusSeconds(60),
 				idTag, cp.getId(), connectorId, transactionId);
-		expect(chargeSessionDao.getIncompleteChargeSessionForConnector(cp.getId(), connectorId))
-				.andReturn(existingSess);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(existingSess));
 
 		// when
 		replayAll();
@@ -343,8 +473,7 @@ public class SolarNetChargeSessionManagerTests {
 
 		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
 				connectorId, transactionId);
-		expect(chargeSessionDao.getIncompleteChargeSessionForTransaction(cp.getId(), transactionId))
-				.andReturn(sess);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess));
 
 		Capture<ChargeSession> updatedCaptor = new Capture<>();
 		expect(chargeSessionDao.save(capture(updatedCaptor))).andReturn(sess.getId());
@@ -445,7 +574,7 @@ public class SolarNetChargeSessionManagerTests {
 		// get current session
 		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
 				connectorId, transactionId);
-		expect(chargeSessionDao.get(sess.getId())).andReturn(sess);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess));
 
 		// get current readings for session
 		expect(chargeSessionDao.findReadingsForSession(sess.getId())).andReturn(Collections.emptyList());
@@ -554,6 +683,172 @@ public class SolarNetChargeSessionManagerTests {
 				hasEntry("wattHours", new BigDecimal(r6.getValue())));
 	}
 
+	@Test
+	public void addReadings_groupByPhase() {
+		// given
+		manager.setSourceIdTemplate("/ocpp/cp/{chargerIdentifier}/{connectorId}/{location}/{phase}");
+
+		String idTag = "tester";
+		String identifier = UUID.randomUUID().toString();
+		ChargePoint cp = new ChargePoint(UUID.randomUUID().getMostSignificantBits(), Instant.now(),
+				new ChargePointInfo(identifier));
+		int connectorId = 1;
+		int transactionId = 123;
+
+		// get ChargePoint
+		expect(chargePointDao.get(cp.getId())).andReturn(cp);
+
+		// get current session
+		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
+				connectorId, transactionId);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess));
+
+		// get current readings for session
+		expect(chargeSessionDao.findReadingsForSession(sess.getId())).andReturn(Collections.emptyList());
+
+		// save readings
+		chargeSessionDao.addReadings(anyObject());
+
+		Capture<GeneralNodeDatum> datumCaptor = new Capture<>(CaptureType.ALL);
+		datumDao.storeDatum(capture(datumCaptor));
+		expectLastCall().times(2);
+
+		// when
+		replayAll();
+
+		// @formatter:off
+		SampledValue r1 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withPhase(Phase.L1)
+				.withMeasurand(Measurand.Voltage)
+				.withValue("230")
+				.build();
+		SampledValue r2 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withPhase(Phase.L2)
+				.withMeasurand(Measurand.Voltage)
+				.withValue("231")
+				.build();
+		SampledValue r3 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withPhase(Phase.L1)
+				.withMeasurand(Measurand.CurrentImport)
+				.withValue("10")
+				.build();
+		// @formatter:on
+		manager.addChargingSessionReadings(asList(r1, r2, r3));
+
+		// then
+		List<GeneralNodeDatum> persistedDatum = datumCaptor.getValues();
+		assertThat("Grouped readings into 1 datum per phase", persistedDatum, hasSize(2));
+
+		String prefix = "/ocpp/cp/" + identifier + "/" + connectorId + "/Outlet/";
+		GeneralNodeDatum l1 = persistedDatum.stream()
+				.filter(d -> d.getSourceId().equals(prefix + Phase.L1)).findFirst().orElse(null);
+		assertThat("L1 datum", l1, notNullValue());
+		assertThat("L1 properties", l1.getSampleData(),
+				allOf(hasEntry(ACEnergyDatum.VOLTAGE_KEY, new BigDecimal(r1.getValue())),
+						hasEntry(ACEnergyDatum.CURRENT_KEY, new BigDecimal(r3.getValue()))));
+
+		GeneralNodeDatum l2 = persistedDatum.stream()
+				.filter(d -> d.getSourceId().equals(prefix + Phase.L2)).findFirst().orElse(null);
+		assertThat("L2 datum", l2, notNullValue());
+		assertThat("L2 properties", l2.getSampleData(),
+				hasEntry(ACEnergyDatum.VOLTAGE_KEY, new BigDecimal(r2.getValue())));
+	}
+
+	private static void completeTransaction(int status) {
+		try {
+			List<TransactionSynchronization> syncs = TransactionSynchronizationManager
+					.getSynchronizations();
+			if ( status == TransactionSynchronization.STATUS_COMMITTED ) {
+				for ( TransactionSynchronization s : syncs ) {
+					s.afterCommit();
+				}
+			}
+			for ( TransactionSynchronization s : syncs ) {
+				s.afterCompletion(status);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void addReadings_aggregate_rollback() {
+		// given
+		manager.setTaskScheduler(null);
+		manager.setDatumAggregationSeconds(60);
+
+		String idTag = "tester";
+		String identifier = UUID.randomUUID().toString();
+		ChargePoint cp = new ChargePoint(UUID.randomUUID().getMostSignificantBits(), Instant.now(),
+				new ChargePointInfo(identifier));
+		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
+				1, 123);
+
+		expect(chargePointDao.get(cp.getId())).andReturn(cp).anyTimes();
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess)).anyTimes();
+		expect(chargeSessionDao.findReadingsForSession(sess.getId()))
+				.andReturn(Collections.emptyList()).anyTimes();
+
+		// readings saved in both transactions
+		chargeSessionDao.addReadings(anyObject());
+		expectLastCall().times(2);
+
+		// only the committed reading is aggregated, stored on shutdown
+		Capture<GeneralNodeDatum> datumCaptor = new Capture<>(CaptureType.ALL);
+		datumDao.storeDatum(capture(datumCaptor));
+
+		// when
+		replayAll();
+		manager.startup();
+
+		// @formatter:off
+		SampledValue r1 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.Voltage)
+				.withValue("230")
+				.build();
+		SampledValue r2 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.Voltage)
+				.withValue("240")
+				.build();
+		// @formatter:on
+
+		TransactionSynchronizationManager.initSynchronization();
+		manager.addChargingSessionReadings(asList(r1));
+		completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		TransactionSynchronizationManager.initSynchronization();
+		manager.addChargingSessionReadings(asList(r2));
+		completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+		manager.shutdown();
+
+		// then
+		assertThat("Aggregate datum stored", datumCaptor.getValues(), hasSize(1));
+		assertThat("Rolled back reading not aggregated",
+				datumCaptor.getValues().get(0).getSampleData(),
+				hasEntry(ACEnergyDatum.VOLTAGE_KEY, new BigDecimal(r2.getValue())));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void addReading_withPlaceholderService() {
@@ -573,7 +868,7 @@ public class SolarNetChargeSessionManagerTests {
 		// get current session
 		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
 				connectorId, transactionId);
-		expect(chargeSessionDao.get(sess.getId())).andReturn(sess);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess));
 
 		// get current readings for session
 		expect(chargeSessionDao.findReadingsForSession(sess.getId())).andReturn(Collections.emptyList());
@@ -626,4 +921,74 @@ public class SolarNetChargeSessionManagerTests {
 				hasEntry("wattHours", new BigDecimal(r1.getValue())));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void addReadings_withPlaceholderService_cached() {
+		// GIVEN
+		manager.setPlaceholderService(new StaticOptionalService<>(placeholderService));
+
+		String idTag = "tester";
+		String identifier = UUID.randomUUID().toString();
+		ChargePoint cp = new ChargePoint(UUID.randomUUID().getMostSignificantBits(), Instant.now(),
+				new ChargePointInfo(identifier));
+		int connectorId = 1;
+		int transactionId = 123;
+
+		// get ChargePoint
+		expect(chargePointDao.get(cp.getId())).andReturn(cp);
+
+		// get current session
+		ChargeSession sess = new ChargeSession(UUID.randomUUID(), Instant.now(), idTag, cp.getId(),
+				connectorId, transactionId);
+		expect(chargeSessionDao.getIncompleteChargeSessions()).andReturn(asList(sess));
+
+		// get current readings for session
+		expect(chargeSessionDao.findReadingsForSession(sess.getId())).andReturn(Collections.emptyList());
+
+		// save readings
+		chargeSessionDao.addReadings(anyObject(Iterable.class));
+
+		// source ID resolved only once for same charge point, connector, location, and phase
+		expect(placeholderService.resolvePlaceholders(
+				eq(SolarNetChargeSessionManager.DEFAULT_SOURCE_ID_TEMPLATE), anyObject(Map.class)))
+						.andReturn("RESOLVED");
+
+		Capture<GeneralNodeDatum> datumCaptor = new Capture<>(CaptureType.ALL);
+		datumDao.storeDatum(capture(datumCaptor));
+		expectLastCall().times(2);
+
+		// when
+		replayAll();
+
+		// @formatter:off
+		SampledValue r1 = SampledValue.builder()
+				.withTimestamp(sess.getCreated())
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.EnergyActiveImportRegister)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue("1234")
+				.build();
+		SampledValue r2 = SampledValue.builder()
+				.withTimestamp(sess.getCreated().plusSeconds(60))
+				.withSessionId(sess.getId())
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.EnergyActiveImportRegister)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue("2345")
+				.build();
+		// @formatter:on
+		manager.addChargingSessionReadings(asList(r1, r2));
+
+		// then
+		List<GeneralNodeDatum> persistedDatum = datumCaptor.getValues();
+		assertThat("Readings into datum based on date", persistedDatum, hasSize(2));
+		for ( int i = 0; i < persistedDatum.size(); i++ ) {
+			assertThat("Datum source ID " + i, persistedDatum.get(i).getSourceId(),
+					equalTo("RESOLVED"));
+		}
+	}
+
 }
@@ -0,0 +1,97 @@
+/* ==================================================================
+ * SourceIdTemplateTests.java - 17/10/2026 1:52:10 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session.test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.cs.session.SolarNetChargeSessionManager;
+import net.solarnetwork.node.ocpp.cs.session.SourceIdTemplate;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Phase;
+import net.solarnetwork.util.StringUtils;
+
+/**
+ * Test cases for the {@link SourceIdTemplate} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class SourceIdTemplateTests {
+
+	@Test
+	public void defaultTemplate() {
+		SourceIdTemplate t = new SourceIdTemplate(
+				SolarNetChargeSessionManager.DEFAULT_SOURCE_ID_TEMPLATE);
+		assertThat("Compiled", t.isCompiled(), equalTo(true));
+		assertThat("Resolved", t.resolve(1L, "CP001", 2, Location.Outlet, null),
+				equalTo("/ocpp/cp/CP001/2/Outlet"));
+	}
+
+	@Test
+	public void allParameters() {
+		SourceIdTemplate t = new SourceIdTemplate(
+				"cp{chargePointId}-{chargerIdentifier}/{connectorId}/{location}/{phase}/end");
+		assertThat("Compiled", t.isCompiled(), equalTo(true));
+		assertThat("Resolved", t.resolve(123L, "foo", 1, Location.Inlet, Phase.L1),
+				equalTo("cp123-foo/1/Inlet/L1/end"));
+	}
+
+	@Test
+	public void sameAsExpandTemplateString() {
+		final String tmpl = "/ocpp/{chargePointId}/{connectorId}/{location}/{phase}";
+		SourceIdTemplate t = new SourceIdTemplate(tmpl);
+		Map<String, Object> params = new HashMap<>(4);
+		params.put("chargePointId", 1L);
+		params.put("chargerIdentifier", "CP001");
+		params.put("connectorId", 2);
+		params.put("location", Location.Outlet);
+		params.put("phase", Phase.L2);
+		assertThat("Resolved same as StringUtils",
+				t.resolve(1L, "CP001", 2, Location.Outlet, Phase.L2),
+				equalTo(StringUtils.expandTemplateString(tmpl, params)));
+	}
+
+	@Test
+	public void noParameters() {
+		SourceIdTemplate t = new SourceIdTemplate("/static");
+		assertThat("Compiled", t.isCompiled(), equalTo(true));
+		assertThat("Resolved", t.resolve(1L, "CP001", 2, Location.Outlet, null),
+				equalTo("/static"));
+	}
+
+	@Test
+	public void unsupportedParameter() {
+		SourceIdTemplate t = new SourceIdTemplate("/ocpp/{siteId}/{connectorId}");
+		assertThat("Not compiled", t.isCompiled(), equalTo(false));
+	}
+
+	@Test
+	public void nullTemplate() {
+		SourceIdTemplate t = new SourceIdTemplate(null);
+		assertThat("Not compiled", t.isCompiled(), equalTo(false));
+	}
+
+}
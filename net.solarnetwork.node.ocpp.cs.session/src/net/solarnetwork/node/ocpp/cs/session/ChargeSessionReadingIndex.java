@@ -0,0 +1,261 @@
+/* ==================================================================
+ * ChargeSessionReadingIndex.java - 17/10/2026 9:12:41 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.UUID;
+import net.solarnetwork.ocpp.domain.SampledValue;
+
+/**
+ * A bounded, in-memory index of the readings already persisted for active
+ * charge sessions, used to de-duplicate incoming readings without re-querying
+ * the full session history.
+ * 
+ * <p>
+ * Each indexed session tracks a timestamp <i>watermark</i> (the newest reading
+ * timestamp seen) along with a window of the most recently added readings. A
+ * reading newer than the oldest timestamp evicted from the window can be
+ * answered definitively from memory; older readings are reported as
+ * <i>unknown</i> so the caller can fall back to a full comparison.
+ * </p>
+ * 
+ * <p>
+ * At most {@code maxSessions} sessions are indexed at once; the least recently
+ * used session is dropped when that limit is exceeded, and will simply be
+ * re-seeded the next time it is needed.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionReadingIndex {
+
+	/** The default {@code windowSize} value. */
+	public static final int DEFAULT_WINDOW_SIZE = 256;
+
+	/** The default {@code maxSessions} value. */
+	public static final int DEFAULT_MAX_SESSIONS = 1024;
+
+	private final Map<UUID, SessionReadings> sessions;
+	private int windowSize = DEFAULT_WINDOW_SIZE;
+	private int maxSessions = DEFAULT_MAX_SESSIONS;
+
+	/**
+	 * Constructor.
+	 */
+	public ChargeSessionReadingIndex() {
+		super();
+		this.sessions = Collections
+				.synchronizedMap(new LinkedHashMap<UUID, SessionReadings>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 6210474927839203711L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, SessionReadings> eldest) {
+				return size() > maxSessions;
+			}
+
+		});
+	}
+
+	/**
+	 * Test if a session has been seeded in this index.
+	 * 
+	 * @param sessionId
+	 *        the session ID
+	 * @return {@literal true} if the session is indexed
+	 */
+	public boolean isIndexed(UUID sessionId) {
+		return sessions.containsKey(sessionId);
+	}
+
+	/**
+	 * Seed the index for a session from the readings already persisted.
+	 * 
+	 * <p>
+	 * Any existing index for the session will be replaced.
+	 * </p>
+	 * 
+	 * @param sessionId
+	 *        the session ID
+	 * @param readings
+	 *        the persisted readings, ideally sorted by timestamp
+	 */
+	public void seed(UUID sessionId, Iterable<SampledValue> readings) {
+		SessionReadings idx = new SessionReadings(windowSize);
+		if ( readings != null ) {
+			for ( SampledValue r : readings ) {
+				idx.record(r);
+			}
+		}
+		sessions.put(sessionId, idx);
+	}
+
+	/**
+	 * Add a reading to the index, if it is not already present.
+	 * 
+	 * @param reading
+	 *        the reading to add
+	 * @return {@literal true} if the reading is new and has been added to the
+	 *         index, {@literal false} if the reading is a duplicate, or
+	 *         {@literal null} if the session is not indexed or the reading is
+	 *         older than the window retained by the index, in which case the
+	 *         caller must determine if the reading is new some other way
+	 */
+	public Boolean add(SampledValue reading) {
+		SessionReadings idx = sessions.get(reading.getSessionId());
+		if ( idx == null ) {
+			return null;
+		}
+		return idx.add(reading);
+	}
+
+	/**
+	 * Remove a session from the index.
+	 * 
+	 * @param sessionId
+	 *        the ID of the session to remove
+	 */
+	public void evict(UUID sessionId) {
+		sessions.remove(sessionId);
+	}
+
+	/**
+	 * Remove all sessions from the index.
+	 */
+	public void clear() {
+		sessions.clear();
+	}
+
+	/**
+	 * Get the number of indexed sessions.
+	 * 
+	 * @return the count of indexed sessions
+	 */
+	public int size() {
+		return sessions.size();
+	}
+
+	/**
+	 * Get the maximum number of recent readings to retain per session.
+	 * 
+	 * @return the window size; defaults to {@link #DEFAULT_WINDOW_SIZE}
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Set the maximum number of recent readings to retain per session.
+	 * 
+	 * <p>
+	 * This should be at least as large as the number of readings a charger
+	 * might re-send in a single message. Changing this value only affects
+	 * sessions seeded afterwards.
+	 * </p>
+	 * 
+	 * @param windowSize
+	 *        the window size to set
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Get the maximum number of sessions to index.
+	 * 
+	 * @return the maximum session count; defaults to
+	 *         {@link #DEFAULT_MAX_SESSIONS}
+	 */
+	public int getMaxSessions() {
+		return maxSessions;
+	}
+
+	/**
+	 * Set the maximum number of sessions to index.
+	 * 
+	 * @param maxSessions
+	 *        the maximum session count to set
+	 */
+	public void setMaxSessions(int maxSessions) {
+		this.maxSessions = maxSessions;
+	}
+
+	private static final class SessionReadings {
+
+		private final int windowSize;
+		private final LinkedHashSet<SampledValue> recent;
+		private Instant watermark;
+		private Instant floor;
+
+		private SessionReadings(int windowSize) {
+			super();
+			this.windowSize = (windowSize > 0 ? windowSize : 1);
+			this.recent = new LinkedHashSet<>(Math.min(this.windowSize, 64));
+		}
+
+		private synchronized void record(SampledValue reading) {
+			Instant ts = reading.getTimestamp();
+			if ( !recent.add(reading) ) {
+				return;
+			}
+			if ( ts != null && (watermark == null || ts.isAfter(watermark)) ) {
+				watermark = ts;
+			}
+			if ( recent.size() > windowSize ) {
+				Iterator<SampledValue> itr = recent.iterator();
+				Instant evictedTs = itr.next().getTimestamp();
+				itr.remove();
+				if ( evictedTs != null && (floor == null || evictedTs.isAfter(floor)) ) {
+					floor = evictedTs;
+				}
+			}
+		}
+
+		private synchronized Boolean add(SampledValue reading) {
+			Instant ts = reading.getTimestamp();
+			if ( ts == null ) {
+				return null;
+			}
+			if ( watermark == null || ts.isAfter(watermark) ) {
+				record(reading);
+				return Boolean.TRUE;
+			}
+			if ( floor != null && !ts.isAfter(floor) ) {
+				// the reading might have been evicted from the window
+				return null;
+			}
+			if ( recent.contains(reading) ) {
+				return Boolean.FALSE;
+			}
+			record(reading);
+			return Boolean.TRUE;
+		}
+	}
+
+}
@@ -0,0 +1,306 @@
+/* ==================================================================
+ * ChargeSessionRegistry.java - 17/10/2026 2:34:48 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.solarnetwork.ocpp.dao.ChargeSessionDao;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+
+/**
+ * An in-memory registry of incomplete charge sessions.
+ * 
+ * <p>
+ * The registry is loaded from {@link ChargeSessionDao#getIncompleteChargeSessions()}
+ * the first time it is used (or after {@link #invalidate()} is called) and
+ * then kept up to date via {@link #put(ChargeSession)} and
+ * {@link #remove(ChargeSession)} as sessions start and end. Sessions are
+ * indexed by ID, by charge point connector, and by charge point transaction,
+ * so lookups do not need to query the database.
+ * </p>
+ * 
+ * <p>
+ * The registry holds its own copies of the sessions, and all lookup methods
+ * return copies, so modifying a returned session does not change the
+ * registry. Pass a modified session to {@link #put(ChargeSession)} once it
+ * has been saved, so a failed save leaves the registry unchanged.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionRegistry {
+
+	private final ChargeSessionDao chargeSessionDao;
+	private final Map<UUID, ChargeSession> sessions = new ConcurrentHashMap<>(16);
+	private final Map<Key, ChargeSession> connectorSessions = new ConcurrentHashMap<>(16);
+	private final Map<Key, ChargeSession> transactionSessions = new ConcurrentHashMap<>(16);
+	private volatile boolean loaded;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargeSessionDao
+	 *        the DAO to load incomplete sessions from
+	 * @throws IllegalArgumentException
+	 *         if {@code chargeSessionDao} is {@literal null}
+	 */
+	public ChargeSessionRegistry(ChargeSessionDao chargeSessionDao) {
+		super();
+		if ( chargeSessionDao == null ) {
+			throw new IllegalArgumentException("The chargeSessionDao parameter must not be null.");
+		}
+		this.chargeSessionDao = chargeSessionDao;
+	}
+
+	/**
+	 * Load the registry from the DAO, replacing any existing sessions.
+	 */
+	public synchronized void reload() {
+		clear();
+		Collection<ChargeSession> incomplete = chargeSessionDao.getIncompleteChargeSessions();
+		if ( incomplete != null ) {
+			for ( ChargeSession sess : incomplete ) {
+				index(sess);
+			}
+		}
+		loaded = true;
+	}
+
+	/**
+	 * Discard all sessions, so the registry will be re-loaded the next time it
+	 * is used.
+	 */
+	public synchronized void invalidate() {
+		loaded = false;
+		clear();
+	}
+
+	/**
+	 * Test if the registry has been loaded.
+	 * 
+	 * @return {@literal true} if the registry has been loaded
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	private void ensureLoaded() {
+		if ( !loaded ) {
+			synchronized ( this ) {
+				if ( !loaded ) {
+					reload();
+				}
+			}
+		}
+	}
+
+	private void clear() {
+		sessions.clear();
+		connectorSessions.clear();
+		transactionSessions.clear();
+	}
+
+	private void index(ChargeSession sess) {
+		if ( sess == null || sess.getId() == null || sess.getEnded() != null ) {
+			return;
+		}
+		sessions.put(sess.getId(), sess);
+		connectorSessions.put(new Key(sess.getChargePointId(), sess.getConnectorId()), sess);
+		transactionSessions.put(new Key(sess.getChargePointId(), sess.getTransactionId()), sess);
+	}
+
+	private void unindex(ChargeSession sess) {
+		ChargeSession existing = sessions.remove(sess.getId());
+		if ( existing == null ) {
+			existing = sess;
+		}
+		connectorSessions.remove(new Key(existing.getChargePointId(), existing.getConnectorId()),
+				existing);
+		transactionSessions.remove(
+				new Key(existing.getChargePointId(), existing.getTransactionId()), existing);
+	}
+
+	/**
+	 * Add or update a session.
+	 * 
+	 * <p>
+	 * A copy of the session is stored, so later changes to {@code sess} do not
+	 * change the registry. If the session has ended it will be removed from the
+	 * registry instead.
+	 * </p>
+	 * 
+	 * @param sess
+	 *        the session to add
+	 */
+	public synchronized void put(ChargeSession sess) {
+		if ( sess == null || sess.getId() == null || !loaded ) {
+			return;
+		}
+		unindex(sess);
+		index(copy(sess));
+	}
+
+	/**
+	 * Remove a session.
+	 * 
+	 * @param sess
+	 *        the session to remove
+	 */
+	public synchronized void remove(ChargeSession sess) {
+		if ( sess == null || sess.getId() == null ) {
+			return;
+		}
+		unindex(sess);
+	}
+
+	/**
+	 * Get an incomplete session by ID.
+	 * 
+	 * @param sessionId
+	 *        the session ID
+	 * @return a copy of the session, or {@literal null} if not available
+	 */
+	public ChargeSession get(UUID sessionId) {
+		ensureLoaded();
+		return copy(sessions.get(sessionId));
+	}
+
+	/**
+	 * Get the incomplete session for a charge point connector.
+	 * 
+	 * @param chargePointId
+	 *        the charge point ID
+	 * @param connectorId
+	 *        the connector ID
+	 * @return a copy of the session, or {@literal null} if not available
+	 */
+	public ChargeSession getForConnector(long chargePointId, int connectorId) {
+		ensureLoaded();
+		return copy(connectorSessions.get(new Key(chargePointId, connectorId)));
+	}
+
+	/**
+	 * Get the incomplete session for a charge point transaction.
+	 * 
+	 * @param chargePointId
+	 *        the charge point ID
+	 * @param transactionId
+	 *        the transaction ID
+	 * @return a copy of the session, or {@literal null} if not available
+	 */
+	public ChargeSession getForTransaction(long chargePointId, int transactionId) {
+		ensureLoaded();
+		return copy(transactionSessions.get(new Key(chargePointId, transactionId)));
+	}
+
+	/**
+	 * Get all incomplete sessions for a charge point.
+	 * 
+	 * @param chargePointId
+	 *        the charge point ID
+	 * @return copies of the sessions, never {@literal null}
+	 */
+	public List<ChargeSession> getForChargePoint(long chargePointId) {
+		ensureLoaded();
+		List<ChargeSession> result = new ArrayList<>(4);
+		for ( ChargeSession sess : sessions.values() ) {
+			if ( sess.getChargePointId() == chargePointId ) {
+				result.add(copy(sess));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get all incomplete sessions.
+	 * 
+	 * @return copies of the sessions, never {@literal null}
+	 */
+	public List<ChargeSession> getAll() {
+		ensureLoaded();
+		List<ChargeSession> result = new ArrayList<>(sessions.size());
+		for ( ChargeSession sess : sessions.values() ) {
+			result.add(copy(sess));
+		}
+		return result;
+	}
+
+	/**
+	 * Get the number of incomplete sessions.
+	 * 
+	 * @return the session count
+	 */
+	public int size() {
+		ensureLoaded();
+		return sessions.size();
+	}
+
+	private static ChargeSession copy(ChargeSession sess) {
+		if ( sess == null ) {
+			return null;
+		}
+		ChargeSession c = new ChargeSession(sess.getId(), sess.getCreated(), sess.getAuthId(),
+				sess.getChargePointId(), sess.getConnectorId(), sess.getTransactionId());
+		c.setEnded(sess.getEnded());
+		c.setEndReason(sess.getEndReason());
+		c.setEndAuthId(sess.getEndAuthId());
+		c.setPosted(sess.getPosted());
+		return c;
+	}
+
+	private static final class Key {
+
+		private final long chargePointId;
+		private final int id;
+
+		private Key(long chargePointId, int id) {
+			super();
+			this.chargePointId = chargePointId;
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Long.hashCode(chargePointId) + id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof Key) ) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return chargePointId == other.chargePointId && id == other.id;
+		}
+
+	}
+
+}
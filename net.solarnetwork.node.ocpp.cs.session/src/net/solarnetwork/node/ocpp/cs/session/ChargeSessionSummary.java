@@ -0,0 +1,192 @@
+/* ==================================================================
+ * ChargeSessionSummary.java - 17/10/2026 6:31:05 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.UUID;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Phase;
+import net.solarnetwork.ocpp.domain.SampledValue;
+
+/**
+ * A running summary of the energy and power readings of a charge session.
+ * 
+ * <p>
+ * Readings are added as they arrive, so a summary of the session is available
+ * when it ends without having to load all the session readings again. Only
+ * readings at the outlet (or with no location) are considered. Energy and
+ * power use readings with no phase (or {@link Phase#Unknown}), while the
+ * maximum current is taken across all phases.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargeSessionSummary {
+
+	private final UUID sessionId;
+	private BigDecimal energyStart;
+	private BigDecimal energyEnd;
+	private BigDecimal powerSum;
+	private int powerCount;
+	private BigDecimal powerMax;
+	private BigDecimal currentMax;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sessionId
+	 *        the session ID
+	 */
+	public ChargeSessionSummary(UUID sessionId) {
+		super();
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Add a reading to the summary.
+	 * 
+	 * <p>
+	 * Readings that do not apply to the summary, or have values that cannot be
+	 * parsed, are ignored.
+	 * </p>
+	 * 
+	 * @param reading
+	 *        the reading to add
+	 */
+	public void add(SampledValue reading) {
+		if ( reading == null || reading.getValue() == null ) {
+			return;
+		}
+		final BigDecimal value;
+		try {
+			value = SampledValueConverter.parseDecimal(reading.getValue());
+		} catch ( NumberFormatException e ) {
+			return;
+		}
+		add(reading, value);
+	}
+
+	/**
+	 * Add a reading to the summary, with its already parsed value.
+	 * 
+	 * <p>
+	 * Readings that do not apply to the summary, or have no value, are
+	 * ignored.
+	 * </p>
+	 * 
+	 * @param reading
+	 *        the reading to add
+	 * @param value
+	 *        the value of {@code reading}
+	 */
+	public synchronized void add(SampledValue reading, BigDecimal value) {
+		if ( reading == null || reading.getMeasurand() == null || value == null
+				|| !(reading.getLocation() == null || reading.getLocation() == Location.Outlet) ) {
+			return;
+		}
+		final boolean total = (reading.getPhase() == null || reading.getPhase() == Phase.Unknown);
+		final BigDecimal n = SampledValueConverter.normalizedUnit(value, reading.getUnit(), -1);
+		switch (reading.getMeasurand()) {
+			case EnergyActiveImportRegister:
+				if ( total ) {
+					if ( energyStart == null || n.compareTo(energyStart) < 0 ) {
+						energyStart = n;
+					}
+					if ( energyEnd == null || n.compareTo(energyEnd) > 0 ) {
+						energyEnd = n;
+					}
+				}
+				break;
+
+			case PowerActiveImport:
+				if ( total ) {
+					powerSum = (powerSum != null ? powerSum.add(n) : n);
+					powerCount++;
+					powerMax = max(powerMax, n);
+				}
+				break;
+
+			case CurrentImport:
+				currentMax = max(currentMax, n);
+				break;
+
+			default:
+				// ignore
+		}
+	}
+
+	private static BigDecimal max(BigDecimal a, BigDecimal b) {
+		return (a == null || b.compareTo(a) > 0 ? b : a);
+	}
+
+	/**
+	 * Get the session ID.
+	 * 
+	 * @return the session ID
+	 */
+	public UUID getSessionId() {
+		return sessionId;
+	}
+
+	/**
+	 * Get the energy delivered, in watt hours.
+	 * 
+	 * @return the energy delivered, or {@literal null} if not known
+	 */
+	public synchronized BigDecimal getEnergyDelivered() {
+		return (energyStart != null ? energyEnd.subtract(energyStart) : null);
+	}
+
+	/**
+	 * Get the average power, in watts.
+	 * 
+	 * @return the average power, or {@literal null} if not known
+	 */
+	public synchronized BigDecimal getPowerAverage() {
+		if ( powerCount < 1 ) {
+			return null;
+		}
+		return powerSum.divide(BigDecimal.valueOf(powerCount), MathContext.DECIMAL64);
+	}
+
+	/**
+	 * Get the peak power, in watts.
+	 * 
+	 * @return the peak power, or {@literal null} if not known
+	 */
+	public synchronized BigDecimal getPowerMax() {
+		return powerMax;
+	}
+
+	/**
+	 * Get the maximum current, in amps.
+	 * 
+	 * @return the maximum current, or {@literal null} if not known
+	 */
+	public synchronized BigDecimal getCurrentMax() {
+		return currentMax;
+	}
+
+}
@@ -0,0 +1,398 @@
+/* ==================================================================
+ * ChunkedPurgePostedChargeSessionsTask.java - 17/10/2026 7:40:18 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import net.solarnetwork.node.ocpp.dao.ExtendedChargeSessionDao;
+import net.solarnetwork.ocpp.dao.PurgePostedChargeSessionsTask;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+import net.solarnetwork.ocpp.domain.SampledValue;
+
+/**
+ * Task to delete posted charge sessions in small chunks, optionally archiving
+ * them to a file first.
+ * 
+ * <p>
+ * Unlike {@link PurgePostedChargeSessionsTask}, which deletes all expired
+ * sessions in a single statement, this task deletes at most
+ * {@code chunkSize} sessions per transaction, pausing for {@code yieldMs}
+ * between chunks, and stops once {@code timeBudgetMs} has elapsed. Any
+ * remaining sessions are purged the next time the task runs. This keeps the
+ * locks taken by each delete short, so readings for active sessions can still
+ * be stored while a purge is in progress.
+ * </p>
+ * 
+ * <p>
+ * If {@code archiveDirectory} is configured, each chunk of sessions (and
+ * their readings) is written to a gzip compressed CSV file in that directory
+ * before being deleted. Session rows start with {@literal S} and reading rows
+ * start with {@literal R}. The file is first written with a {@literal .tmp}
+ * suffix and only renamed to its final name once the chunk's transaction
+ * commits; if the transaction rolls back the temporary file is deleted, so the
+ * directory never holds an archive of sessions that were not purged.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChunkedPurgePostedChargeSessionsTask implements Runnable {
+
+	/** The default {@code chunkSize} value. */
+	public static final int DEFAULT_CHUNK_SIZE = 50;
+
+	/** The default {@code timeBudgetMs} value. */
+	public static final long DEFAULT_TIME_BUDGET_MS = 30_000L;
+
+	/** The default {@code yieldMs} value. */
+	public static final long DEFAULT_YIELD_MS = 250L;
+
+	/** The archive file name prefix. */
+	public static final String ARCHIVE_FILE_PREFIX = "ocpp-charge-sess-";
+
+	/** The archive file name suffix. */
+	public static final String ARCHIVE_FILE_SUFFIX = ".csv.gz";
+
+	/**
+	 * The suffix added to an archive file name while it is being written.
+	 */
+	public static final String ARCHIVE_TEMP_FILE_SUFFIX = ".tmp";
+
+	private static final Logger log = LoggerFactory
+			.getLogger(ChunkedPurgePostedChargeSessionsTask.class);
+
+	private final ExtendedChargeSessionDao chargeSessionDao;
+	private final AtomicInteger archiveCounter = new AtomicInteger(0);
+	private TransactionTemplate transactionTemplate;
+	private int expirationHours = PurgePostedChargeSessionsTask.DEFAULT_EXPIRATION_HOURS;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private long timeBudgetMs = DEFAULT_TIME_BUDGET_MS;
+	private long yieldMs = DEFAULT_YIELD_MS;
+	private String archiveDirectory;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargeSessionDao
+	 *        the DAO to use
+	 * @throws IllegalArgumentException
+	 *         if {@code chargeSessionDao} is {@literal null}
+	 */
+	public ChunkedPurgePostedChargeSessionsTask(ExtendedChargeSessionDao chargeSessionDao) {
+		super();
+		if ( chargeSessionDao == null ) {
+			throw new IllegalArgumentException("The chargeSessionDao parameter must not be null.");
+		}
+		this.chargeSessionDao = chargeSessionDao;
+	}
+
+	@Override
+	public void run() {
+		final Instant expirationDate = Instant.now().minus(expirationHours, ChronoUnit.HOURS);
+		final long deadline = System.currentTimeMillis() + timeBudgetMs;
+		final int max = (chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE);
+		int total = 0;
+		try {
+			while ( true ) {
+				final TransactionTemplate tt = transactionTemplate;
+				int count = (tt != null ? tt.execute(status -> purgeChunk(expirationDate, max))
+						: purgeChunk(expirationDate, max));
+				total += count;
+				if ( count < max || System.currentTimeMillis() >= deadline ) {
+					break;
+				}
+				if ( yieldMs > 0 ) {
+					Thread.sleep(yieldMs);
+				}
+			}
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		} catch ( RuntimeException e ) {
+			log.warn("Error purging posted OCPP charge sessions older than {}: {}", expirationDate,
+					e.toString());
+		}
+		if ( total > 0 ) {
+			log.info("Purged {} posted OCPP charge sessions older than {} hours.", total,
+					expirationHours);
+		}
+	}
+
+	private int purgeChunk(Instant expirationDate, int max) {
+		List<ChargeSession> sessions = chargeSessionDao.findPostedChargeSessions(expirationDate,
+				max);
+		if ( sessions == null || sessions.isEmpty() ) {
+			return 0;
+		}
+		Path archive = null;
+		if ( archiveDirectory != null && !archiveDirectory.trim().isEmpty() ) {
+			archive = archive(sessions);
+		}
+		final boolean tx = TransactionSynchronizationManager.isSynchronizationActive();
+		if ( archive != null && tx ) {
+			final Path tmp = archive;
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+						@Override
+						public void afterCompletion(int status) {
+							if ( status == STATUS_COMMITTED ) {
+								publishArchive(tmp);
+							} else {
+								discardArchive(tmp);
+							}
+						}
+
+					});
+		}
+		try {
+			for ( ChargeSession sess : sessions ) {
+				chargeSessionDao.delete(sess);
+			}
+		} catch ( RuntimeException e ) {
+			if ( archive != null && !tx ) {
+				discardArchive(archive);
+			}
+			throw e;
+		}
+		if ( archive != null && !tx ) {
+			publishArchive(archive);
+		}
+		return sessions.size();
+	}
+
+	/**
+	 * Write sessions to a temporary archive file.
+	 * 
+	 * @param sessions
+	 *        the sessions to archive
+	 * @return the temporary archive file
+	 */
+	private Path archive(List<ChargeSession> sessions) {
+		Path dir = Paths.get(archiveDirectory.trim());
+		Path file = dir.resolve(String.format("%s%d-%d%s%s", ARCHIVE_FILE_PREFIX,
+				System.currentTimeMillis(), archiveCounter.incrementAndGet(), ARCHIVE_FILE_SUFFIX,
+				ARCHIVE_TEMP_FILE_SUFFIX));
+		try {
+			Files.createDirectories(dir);
+			try (Writer out = new BufferedWriter(new OutputStreamWriter(
+					new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+				for ( ChargeSession sess : sessions ) {
+					writeRow(out, "S", sess.getId(), sess.getCreated(), sess.getAuthId(),
+							sess.getChargePointId(), sess.getConnectorId(), sess.getTransactionId(),
+							sess.getEnded(), sess.getEndReason(), sess.getEndAuthId(),
+							sess.getPosted());
+					chargeSessionDao.processReadingsForSession(sess.getId(), null, r -> {
+						try {
+							writeRow(out, "R", r.getSessionId(), r.getTimestamp(), r.getLocation(),
+									r.getUnit(), r.getContext(), r.getMeasurand(), r.getPhase(),
+									r.getValue());
+						} catch ( IOException e ) {
+							throw new UncheckedIOException(e);
+						}
+					});
+				}
+			}
+		} catch ( IOException e ) {
+			discardArchive(file);
+			throw new UncheckedIOException(
+					String.format("Error archiving charge sessions to %s", file), e);
+		} catch ( RuntimeException e ) {
+			discardArchive(file);
+			throw e;
+		}
+		return file;
+	}
+
+	private void publishArchive(Path tmp) {
+		String name = tmp.getFileName().toString();
+		Path file = tmp.resolveSibling(
+				name.substring(0, name.length() - ARCHIVE_TEMP_FILE_SUFFIX.length()));
+		try {
+			Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+			log.debug("Archived posted OCPP charge sessions to {}", file);
+		} catch ( IOException e ) {
+			log.error("Error moving OCPP charge session archive {} to {}: {}", tmp, file,
+					e.toString());
+		}
+	}
+
+	private void discardArchive(Path tmp) {
+		try {
+			Files.deleteIfExists(tmp);
+		} catch ( IOException e ) {
+			log.warn("Error deleting OCPP charge session archive {}: {}", tmp, e.toString());
+		}
+	}
+
+	private static void writeRow(Writer out, Object... values) throws IOException {
+		for ( int i = 0; i < values.length; i++ ) {
+			if ( i > 0 ) {
+				out.write(',');
+			}
+			if ( values[i] != null ) {
+				out.write(csvValue(values[i].toString()));
+			}
+		}
+		out.write('\n');
+	}
+
+	private static String csvValue(String s) {
+		if ( s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0
+				&& s.indexOf('\r') < 0 ) {
+			return s;
+		}
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Set a transaction template to purge each chunk within.
+	 * 
+	 * @param transactionTemplate
+	 *        the template to use
+	 */
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	/**
+	 * Get the number of hours after which posted sessions may be purged.
+	 * 
+	 * @return the expiration hours
+	 */
+	public int getExpirationHours() {
+		return expirationHours;
+	}
+
+	/**
+	 * Set the number of hours after which posted sessions may be purged.
+	 * 
+	 * @param expirationHours
+	 *        the expiration hours to set
+	 */
+	public void setExpirationHours(int expirationHours) {
+		this.expirationHours = expirationHours;
+	}
+
+	/**
+	 * Get the maximum number of sessions to delete per transaction.
+	 * 
+	 * @return the chunk size; defaults to {@link #DEFAULT_CHUNK_SIZE}
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Set the maximum number of sessions to delete per transaction.
+	 * 
+	 * @param chunkSize
+	 *        the chunk size to set
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Get the maximum amount of time to spend purging each time the task runs.
+	 * 
+	 * @return the time budget, in milliseconds; defaults to
+	 *         {@link #DEFAULT_TIME_BUDGET_MS}
+	 */
+	public long getTimeBudgetMs() {
+		return timeBudgetMs;
+	}
+
+	/**
+	 * Set the maximum amount of time to spend purging each time the task runs.
+	 * 
+	 * <p>
+	 * At least one chunk is purged each time the task runs.
+	 * </p>
+	 * 
+	 * @param timeBudgetMs
+	 *        the time budget to set, in milliseconds
+	 */
+	public void setTimeBudgetMs(long timeBudgetMs) {
+		this.timeBudgetMs = timeBudgetMs;
+	}
+
+	/**
+	 * Get the amount of time to pause between chunks.
+	 * 
+	 * @return the pause time, in milliseconds; defaults to
+	 *         {@link #DEFAULT_YIELD_MS}
+	 */
+	public long getYieldMs() {
+		return yieldMs;
+	}
+
+	/**
+	 * Set the amount of time to pause between chunks.
+	 * 
+	 * @param yieldMs
+	 *        the pause time to set, in milliseconds
+	 */
+	public void setYieldMs(long yieldMs) {
+		this.yieldMs = yieldMs;
+	}
+
+	/**
+	 * Get the directory to archive sessions to before deleting them.
+	 * 
+	 * @return the archive directory, or {@literal null} if archiving is
+	 *         disabled
+	 */
+	public String getArchiveDirectory() {
+		return archiveDirectory;
+	}
+
+	/**
+	 * Set the directory to archive sessions to before deleting them.
+	 * 
+	 * @param archiveDirectory
+	 *        the archive directory to set, or {@literal null} to disable
+	 *        archiving
+	 */
+	public void setArchiveDirectory(String archiveDirectory) {
+		this.archiveDirectory = archiveDirectory;
+	}
+
+}
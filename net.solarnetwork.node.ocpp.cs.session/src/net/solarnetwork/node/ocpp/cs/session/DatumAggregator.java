@@ -0,0 +1,307 @@
+/* ==================================================================
+ * DatumAggregator.java - 17/10/2026 5:22:40 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import net.solarnetwork.domain.GeneralDatumSamples;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.util.NumberUtils;
+
+/**
+ * Aggregate datum into fixed-length time buckets, per source ID.
+ * 
+ * <p>
+ * Each bucket produces a single datum when it completes, with the average of
+ * each instantaneous property along with {@literal _min} and {@literal _max}
+ * properties, and the last value of each accumulating and status property.
+ * The datum date is the start of the bucket.
+ * </p>
+ * 
+ * <p>
+ * A bucket completes when a datum for the same source ID arrives for a later
+ * bucket, when it is explicitly flushed, or when no datum has been added to
+ * it for longer than the bucket period. Datum older than the active bucket of
+ * their source are returned as-is.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class DatumAggregator {
+
+	/** The property name suffix used for minimum values. */
+	public static final String MIN_PROPERTY_SUFFIX = "_min";
+
+	/** The property name suffix used for maximum values. */
+	public static final String MAX_PROPERTY_SUFFIX = "_max";
+
+	private final long periodMs;
+	private final Map<String, Bucket> buckets = new LinkedHashMap<>(8);
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param periodMs
+	 *        the bucket period, in milliseconds
+	 * @throws IllegalArgumentException
+	 *         if {@code periodMs} is less than {@literal 1}
+	 */
+	public DatumAggregator(long periodMs) {
+		super();
+		if ( periodMs < 1 ) {
+			throw new IllegalArgumentException("The periodMs parameter must be greater than 0.");
+		}
+		this.periodMs = periodMs;
+	}
+
+	/**
+	 * Get the bucket period.
+	 * 
+	 * @return the period, in milliseconds
+	 */
+	public long getPeriodMs() {
+		return periodMs;
+	}
+
+	/**
+	 * Add a datum.
+	 * 
+	 * @param groupId
+	 *        an identifier for the group the datum belongs to, for use with
+	 *        {@link #flushGroup(Object)}
+	 * @param datum
+	 *        the datum to add
+	 * @return any datum that are ready to be stored, never {@literal null}
+	 */
+	public synchronized List<GeneralNodeDatum> add(Object groupId, GeneralNodeDatum datum) {
+		final long now = System.currentTimeMillis();
+		List<GeneralNodeDatum> result = expired(now, null);
+		if ( datum == null || datum.getSourceId() == null || datum.getCreated() == null ) {
+			return result;
+		}
+		final long date = datum.getCreated().getTime();
+		final long start = date - Math.floorMod(date, periodMs);
+		Bucket b = buckets.get(datum.getSourceId());
+		if ( b != null && start < b.start ) {
+			result.add(datum);
+			return result;
+		}
+		if ( b != null && start > b.start ) {
+			buckets.remove(datum.getSourceId());
+			result.add(b.toDatum());
+			b = null;
+		}
+		if ( b == null ) {
+			b = new Bucket(groupId, datum.getSourceId(), start);
+			buckets.put(datum.getSourceId(), b);
+		}
+		b.add(datum, now);
+		return result;
+	}
+
+	/**
+	 * Complete the active bucket for a source ID.
+	 * 
+	 * @param sourceId
+	 *        the source ID of the bucket to complete
+	 * @return any datum that are ready to be stored, never {@literal null}
+	 */
+	public synchronized List<GeneralNodeDatum> flush(String sourceId) {
+		Bucket b = buckets.remove(sourceId);
+		return (b != null ? append(null, b.toDatum()) : Collections.emptyList());
+	}
+
+	/**
+	 * Complete the active buckets for a group.
+	 * 
+	 * @param groupId
+	 *        the group ID of the buckets to complete
+	 * @return any datum that are ready to be stored, never {@literal null}
+	 */
+	public synchronized List<GeneralNodeDatum> flushGroup(Object groupId) {
+		List<GeneralNodeDatum> result = null;
+		for ( Iterator<Bucket> itr = buckets.values().iterator(); itr.hasNext(); ) {
+			Bucket b = itr.next();
+			if ( Objects.equals(groupId, b.groupId) ) {
+				itr.remove();
+				result = append(result, b.toDatum());
+			}
+		}
+		return (result != null ? result : Collections.emptyList());
+	}
+
+	/**
+	 * Complete any buckets that have not been added to within the bucket
+	 * period.
+	 * 
+	 * @return any datum that are ready to be stored, never {@literal null}
+	 */
+	public synchronized List<GeneralNodeDatum> flushExpired() {
+		return expired(System.currentTimeMillis(), null);
+	}
+
+	/**
+	 * Complete all active buckets.
+	 * 
+	 * @return any datum that are ready to be stored, never {@literal null}
+	 */
+	public synchronized List<GeneralNodeDatum> flushAll() {
+		List<GeneralNodeDatum> result = new ArrayList<>(buckets.size());
+		for ( Bucket b : buckets.values() ) {
+			result.add(b.toDatum());
+		}
+		buckets.clear();
+		return result;
+	}
+
+	/**
+	 * Get the number of active buckets.
+	 * 
+	 * @return the count
+	 */
+	public synchronized int size() {
+		return buckets.size();
+	}
+
+	private List<GeneralNodeDatum> expired(long now, List<GeneralNodeDatum> result) {
+		for ( Iterator<Bucket> itr = buckets.values().iterator(); itr.hasNext(); ) {
+			Bucket b = itr.next();
+			if ( now - b.updated > periodMs ) {
+				itr.remove();
+				result = append(result, b.toDatum());
+			}
+		}
+		return (result != null ? result : new ArrayList<>(2));
+	}
+
+	private static List<GeneralNodeDatum> append(List<GeneralNodeDatum> list, GeneralNodeDatum d) {
+		if ( list == null ) {
+			list = new ArrayList<>(2);
+		}
+		list.add(d);
+		return list;
+	}
+
+	private static final class Stats {
+
+		private BigDecimal sum;
+		private BigDecimal min;
+		private BigDecimal max;
+		private int count;
+
+		private void add(BigDecimal n) {
+			if ( count == 0 ) {
+				sum = n;
+				min = n;
+				max = n;
+			} else {
+				sum = sum.add(n);
+				if ( n.compareTo(min) < 0 ) {
+					min = n;
+				}
+				if ( n.compareTo(max) > 0 ) {
+					max = n;
+				}
+			}
+			count++;
+		}
+
+		private BigDecimal average() {
+			if ( count == 1 ) {
+				return sum;
+			}
+			return sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+		}
+
+	}
+
+	private static final class Bucket {
+
+		private final Object groupId;
+		private final String sourceId;
+		private final long start;
+		private final Map<String, Stats> instantaneous = new LinkedHashMap<>(8);
+		private final Map<String, Number> accumulating = new LinkedHashMap<>(4);
+		private final Map<String, Object> status = new LinkedHashMap<>(4);
+		private long updated;
+
+		private Bucket(Object groupId, String sourceId, long start) {
+			super();
+			this.groupId = groupId;
+			this.sourceId = sourceId;
+			this.start = start;
+		}
+
+		private void add(GeneralNodeDatum datum, long now) {
+			updated = now;
+			GeneralDatumSamples s = datum.getSamples();
+			if ( s == null ) {
+				return;
+			}
+			if ( s.getInstantaneous() != null ) {
+				for ( Map.Entry<String, Number> e : s.getInstantaneous().entrySet() ) {
+					if ( e.getValue() != null ) {
+						instantaneous.computeIfAbsent(e.getKey(), k -> new Stats())
+								.add(NumberUtils.bigDecimalForNumber(e.getValue()));
+					}
+				}
+			}
+			if ( s.getAccumulating() != null ) {
+				accumulating.putAll(s.getAccumulating());
+			}
+			if ( s.getStatus() != null ) {
+				status.putAll(s.getStatus());
+			}
+		}
+
+		private GeneralNodeDatum toDatum() {
+			GeneralNodeDatum d = new GeneralNodeDatum();
+			d.setCreated(new Date(start));
+			d.setSourceId(sourceId);
+			for ( Map.Entry<String, Stats> e : instantaneous.entrySet() ) {
+				Stats stats = e.getValue();
+				d.putInstantaneousSampleValue(e.getKey(), stats.average());
+				d.putInstantaneousSampleValue(e.getKey() + MIN_PROPERTY_SUFFIX, stats.min);
+				d.putInstantaneousSampleValue(e.getKey() + MAX_PROPERTY_SUFFIX, stats.max);
+			}
+			for ( Map.Entry<String, Number> e : accumulating.entrySet() ) {
+				d.putAccumulatingSampleValue(e.getKey(), e.getValue());
+			}
+			for ( Map.Entry<String, Object> e : status.entrySet() ) {
+				d.putStatusSampleValue(e.getKey(), e.getValue());
+			}
+			return d;
+		}
+
+	}
+
+}
@@ -0,0 +1,477 @@
+/* ==================================================================
+ * DatumQueue.java - 17/10/2026 11:04:22 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import static java.util.Collections.singletonList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import net.solarnetwork.node.dao.DatumDao;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.util.OptionalService;
+
+/**
+ * A bounded queue of datum that are stored in batches by a background thread.
+ * 
+ * <p>
+ * This allows datum generated from charge session readings to be persisted
+ * outside of the OCPP request that produced them. Datum are stored in batches
+ * of up to {@code batchSize} elements, waiting at most {@code lingerMs} for a
+ * batch to fill once the first datum of the batch is available. Each batch is
+ * stored within a single transaction if a {@link TransactionTemplate} is
+ * configured. That transaction is always a new one, so datum stored on the
+ * caller thread by {@link OverflowPolicy#CallerRuns} never join a transaction
+ * the caller might have open, or one that has already completed, such as when
+ * datum are offered from a transaction synchronization callback.
+ * </p>
+ * 
+ * <p>
+ * When the queue is full the configured {@link OverflowPolicy} determines what
+ * happens to the offered datum.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class DatumQueue {
+
+	/** The default {@code batchSize} value. */
+	public static final int DEFAULT_BATCH_SIZE = 50;
+
+	/** The default {@code lingerMs} value. */
+	public static final long DEFAULT_LINGER_MS = 200L;
+
+	/** The default {@code overflowPolicy} value. */
+	public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.CallerRuns;
+
+	/**
+	 * Policy for handling datum offered to a full queue.
+	 */
+	public enum OverflowPolicy {
+
+		/** Discard the offered datum. */
+		DropNewest,
+
+		/** Discard the oldest queued datum to make room for the offered one. */
+		DropOldest,
+
+		/** Store the offered datum on the calling thread. */
+		CallerRuns;
+
+	}
+
+	private static final long POLL_TIMEOUT_MS = 1000L;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final OptionalService<DatumDao<GeneralNodeDatum>> datumDao;
+	private final int capacity;
+	private final BlockingQueue<Entry> queue;
+	private final AtomicLong storedCount = new AtomicLong(0);
+	private final AtomicLong droppedCount = new AtomicLong(0);
+	private final AtomicLong failedCount = new AtomicLong(0);
+	private volatile long lastLagMs = 0;
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile long lingerMs = DEFAULT_LINGER_MS;
+	private volatile OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+	private volatile TransactionTemplate transactionTemplate;
+
+	private Thread worker;
+	private volatile boolean running;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param datumDao
+	 *        the DAO to store datum with
+	 * @param capacity
+	 *        the maximum number of datum to queue
+	 * @throws IllegalArgumentException
+	 *         if {@code datumDao} is {@literal null} or {@code capacity} is
+	 *         less than {@literal 1}
+	 */
+	public DatumQueue(OptionalService<DatumDao<GeneralNodeDatum>> datumDao, int capacity) {
+		super();
+		if ( datumDao == null ) {
+			throw new IllegalArgumentException("The datumDao parameter must not be null.");
+		}
+		if ( capacity < 1 ) {
+			throw new IllegalArgumentException("The capacity parameter must be greater than 0.");
+		}
+		this.datumDao = datumDao;
+		this.capacity = capacity;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/**
+	 * Start the background storage thread.
+	 */
+	public synchronized void startup() {
+		if ( worker != null ) {
+			return;
+		}
+		running = true;
+		worker = new Thread(new Worker(), "OCPP Datum Queue");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Stop the background storage thread, storing any datum still queued on
+	 * the calling thread.
+	 */
+	public void shutdown() {
+		Thread t;
+		synchronized ( this ) {
+			running = false;
+			t = worker;
+			worker = null;
+		}
+		if ( t != null ) {
+			t.interrupt();
+			try {
+				t.join(POLL_TIMEOUT_MS);
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		List<Entry> remaining = new ArrayList<>(queue.size());
+		queue.drainTo(remaining);
+		if ( !remaining.isEmpty() ) {
+			log.info("Storing {} queued datum on shutdown.", remaining.size());
+			store(remaining);
+		}
+	}
+
+	/**
+	 * Offer a datum to the queue.
+	 * 
+	 * @param datum
+	 *        the datum to offer
+	 * @return {@literal true} if the datum was queued or stored,
+	 *         {@literal false} if it was dropped
+	 */
+	public boolean offer(GeneralNodeDatum datum) {
+		if ( datum == null ) {
+			return false;
+		}
+		Entry e = new Entry(datum);
+		if ( queue.offer(e) ) {
+			return true;
+		}
+		switch (overflowPolicy) {
+			case DropOldest:
+				while ( !queue.offer(e) ) {
+					Entry dropped = queue.poll();
+					if ( dropped != null ) {
+						droppedCount.incrementAndGet();
+						log.debug("Datum queue full; dropped oldest datum {}", dropped.datum);
+					}
+				}
+				return true;
+
+			case CallerRuns:
+				log.debug("Datum queue full; storing datum {} on calling thread", datum);
+				return store(singletonList(e));
+
+			default:
+				droppedCount.incrementAndGet();
+				log.debug("Datum queue full; dropped datum {}", datum);
+				return false;
+		}
+	}
+
+	/**
+	 * Offer a set of datum to the queue.
+	 * 
+	 * @param datum
+	 *        the datum to offer
+	 */
+	public void offerAll(Iterable<GeneralNodeDatum> datum) {
+		if ( datum == null ) {
+			return;
+		}
+		for ( GeneralNodeDatum d : datum ) {
+			offer(d);
+		}
+	}
+
+	private boolean store(final List<Entry> batch) {
+		final DatumDao<GeneralNodeDatum> dao = (datumDao != null ? datumDao.service() : null);
+		if ( dao == null ) {
+			droppedCount.addAndGet(batch.size());
+			log.warn("No DatumDao available; {} datum dropped.", batch.size());
+			return false;
+		}
+		try {
+			if ( transactionTemplate != null ) {
+				transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+					@Override
+					protected void doInTransactionWithoutResult(TransactionStatus status) {
+						storeAll(dao, batch);
+					}
+				});
+			} else {
+				storeAll(dao, batch);
+			}
+		} catch ( RuntimeException e ) {
+			failedCount.addAndGet(batch.size());
+			log.error("Error storing {} queued datum: {}", batch.size(), e.toString(), e);
+			return false;
+		}
+		storedCount.addAndGet(batch.size());
+		lastLagMs = System.currentTimeMillis() - batch.get(0).enqueued;
+		return true;
+	}
+
+	private static void storeAll(DatumDao<GeneralNodeDatum> dao, List<Entry> batch) {
+		for ( Entry e : batch ) {
+			dao.storeDatum(e.datum);
+		}
+	}
+
+	private static final class Entry {
+
+		private final GeneralNodeDatum datum;
+		private final long enqueued;
+
+		private Entry(GeneralNodeDatum datum) {
+			super();
+			this.datum = datum;
+			this.enqueued = System.currentTimeMillis();
+		}
+
+	}
+
+	private final class Worker implements Runnable {
+
+		@Override
+		public void run() {
+			while ( running ) {
+				List<Entry> batch = null;
+				try {
+					Entry first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+					if ( first == null ) {
+						continue;
+					}
+					final int max = (batchSize > 0 ? batchSize : 1);
+					batch = new ArrayList<>(max);
+					batch.add(first);
+					final long deadline = System.nanoTime()
+							+ TimeUnit.MILLISECONDS.toNanos(lingerMs);
+					while ( batch.size() < max ) {
+						queue.drainTo(batch, max - batch.size());
+						long remaining = deadline - System.nanoTime();
+						if ( batch.size() >= max || remaining <= 0 ) {
+							break;
+						}
+						Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+						if ( next == null ) {
+							break;
+						}
+						batch.add(next);
+					}
+					store(batch);
+				} catch ( InterruptedException e ) {
+					// shutting down; store any datum already taken from the queue, as
+					// shutdown() only stores what remains in the queue
+					if ( batch != null && !batch.isEmpty() ) {
+						log.info("Storing {} batched datum on shutdown.", batch.size());
+						store(batch);
+					}
+					break;
+				} catch ( RuntimeException e ) {
+					log.error("Unexpected error processing datum queue: {}", e.toString(), e);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Get the maximum number of datum that may be queued.
+	 * 
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Get the number of datum currently queued.
+	 * 
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Get the age of the oldest queued datum.
+	 * 
+	 * @return the age of the oldest queued datum, in milliseconds, or
+	 *         {@literal 0} if the queue is empty
+	 */
+	public long getOldestLagMs() {
+		Entry e = queue.peek();
+		return (e != null ? System.currentTimeMillis() - e.enqueued : 0);
+	}
+
+	/**
+	 * Get the time the oldest datum of the most recently stored batch spent in
+	 * the queue.
+	 * 
+	 * @return the lag, in milliseconds
+	 */
+	public long getLastLagMs() {
+		return lastLagMs;
+	}
+
+	/**
+	 * Get the count of datum stored.
+	 * 
+	 * @return the stored count
+	 */
+	public long getStoredCount() {
+		return storedCount.get();
+	}
+
+	/**
+	 * Get the count of datum dropped because the queue was full or no
+	 * {@link DatumDao} was available.
+	 * 
+	 * @return the dropped count
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Get the count of datum that failed to be stored.
+	 * 
+	 * @return the failed count
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * Get the maximum number of datum to store per batch.
+	 * 
+	 * @return the batch size; defaults to {@link #DEFAULT_BATCH_SIZE}
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Set the maximum number of datum to store per batch.
+	 * 
+	 * @param batchSize
+	 *        the batch size to set
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Get the maximum amount of time to wait for a batch to fill.
+	 * 
+	 * @return the linger time, in milliseconds; defaults to
+	 *         {@link #DEFAULT_LINGER_MS}
+	 */
+	public long getLingerMs() {
+		return lingerMs;
+	}
+
+	/**
+	 * Set the maximum amount of time to wait for a batch to fill.
+	 * 
+	 * @param lingerMs
+	 *        the linger time to set, in milliseconds
+	 */
+	public void setLingerMs(long lingerMs) {
+		this.lingerMs = lingerMs;
+	}
+
+	/**
+	 * Get the queue overflow policy.
+	 * 
+	 * @return the policy; defaults to {@link #DEFAULT_OVERFLOW_POLICY}
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Set the queue overflow policy.
+	 * 
+	 * @param overflowPolicy
+	 *        the policy to set; if {@literal null} then
+	 *        {@link #DEFAULT_OVERFLOW_POLICY} will be used
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = (overflowPolicy != null ? overflowPolicy : DEFAULT_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * Get the transaction template.
+	 * 
+	 * @return the transaction template
+	 */
+	public TransactionTemplate getTransactionTemplate() {
+		return transactionTemplate;
+	}
+
+	/**
+	 * Set a transaction template to store each batch within.
+	 * 
+	 * <p>
+	 * A copy of the given template is used, configured with
+	 * {@link TransactionDefinition#PROPAGATION_REQUIRES_NEW} propagation.
+	 * </p>
+	 * 
+	 * @param transactionTemplate
+	 *        the transaction template to set
+	 */
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		TransactionTemplate tt = null;
+		if ( transactionTemplate != null ) {
+			tt = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+					transactionTemplate);
+			tt.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		}
+		this.transactionTemplate = tt;
+	}
+
+}
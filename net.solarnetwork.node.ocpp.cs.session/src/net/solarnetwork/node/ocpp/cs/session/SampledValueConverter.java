@@ -0,0 +1,270 @@
+/* ==================================================================
+ * SampledValueConverter.java - 17/10/2026 4:12:09 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import static net.solarnetwork.node.domain.Datum.REVERSE_ACCUMULATING_SUFFIX_KEY;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import net.solarnetwork.domain.GeneralDatumSamplesType;
+import net.solarnetwork.node.domain.ACEnergyDatum;
+import net.solarnetwork.node.domain.AtmosphericDatum;
+import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+import net.solarnetwork.util.NumberUtils;
+
+/**
+ * Convert OCPP sampled values into datum properties.
+ * 
+ * <p>
+ * The measurand property names and types are held in pre-computed lookup
+ * tables, and the numeric constants used for unit conversion are shared, so
+ * converting a reading allocates little more than the resulting
+ * {@link BigDecimal}.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SampledValueConverter {
+
+	/** The maximum number of digits the fast decimal parser supports. */
+	private static final int MAX_FAST_PARSE_DIGITS = 18;
+
+	private static final BigDecimal FAHRENHEIT_OFFSET = new BigDecimal("32");
+	private static final BigDecimal FAHRENHEIT_MULTIPLIER = new BigDecimal("5");
+	private static final BigDecimal FAHRENHEIT_DIVISOR = new BigDecimal("9");
+	private static final BigDecimal KELVIN_OFFSET = new BigDecimal("-273.15");
+
+	private static final Map<Measurand, String> PROPERTY_NAMES = propertyNames();
+
+	private static final Set<Measurand> ACCUMULATING_MEASURANDS = Collections.unmodifiableSet(
+			EnumSet.of(Measurand.EnergyActiveExportRegister, Measurand.EnergyActiveImportRegister,
+					Measurand.EnergyReactiveExportRegister, Measurand.EnergyReactiveImportRegister,
+					Measurand.PowerReactiveExport, Measurand.PowerReactiveImport));
+
+	private static Map<Measurand, String> propertyNames() {
+		Map<Measurand, String> m = new EnumMap<>(Measurand.class);
+		m.put(Measurand.CurrentExport, ACEnergyDatum.CURRENT_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.CurrentImport, ACEnergyDatum.CURRENT_KEY);
+		m.put(Measurand.CurrentOffered, ACEnergyDatum.CURRENT_KEY + "Offered");
+		m.put(Measurand.EnergyActiveExportInterval,
+				ACEnergyDatum.WATT_HOUR_READING_KEY + "Diff" + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.EnergyActiveExportRegister,
+				ACEnergyDatum.WATT_HOUR_READING_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.EnergyActiveImportInterval, ACEnergyDatum.WATT_HOUR_READING_KEY + "Diff");
+		m.put(Measurand.EnergyActiveImportRegister, ACEnergyDatum.WATT_HOUR_READING_KEY);
+		m.put(Measurand.EnergyReactiveExportInterval,
+				"reactiveEnergyDiff" + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.EnergyReactiveExportRegister,
+				"reactiveEnergy" + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.EnergyReactiveImportInterval, "reactiveEnergyDiff");
+		m.put(Measurand.EnergyReactiveImportRegister, "reactiveEnergy");
+		m.put(Measurand.Frequency, ACEnergyDatum.FREQUENCY_KEY);
+		m.put(Measurand.PowerActiveExport,
+				ACEnergyDatum.WATTS_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.PowerActiveImport, ACEnergyDatum.WATTS_KEY);
+		m.put(Measurand.PowerFactor, ACEnergyDatum.POWER_FACTOR_KEY);
+		m.put(Measurand.PowerOffered, ACEnergyDatum.WATTS_KEY + "Offered");
+		m.put(Measurand.PowerReactiveExport,
+				ACEnergyDatum.REACTIVE_POWER_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY);
+		m.put(Measurand.PowerReactiveImport, ACEnergyDatum.REACTIVE_POWER_KEY);
+		m.put(Measurand.RPM, "rpm");
+		m.put(Measurand.SoC, "soc");
+		m.put(Measurand.Temperature, AtmosphericDatum.TEMPERATURE_KEY);
+		m.put(Measurand.Voltage, ACEnergyDatum.VOLTAGE_KEY);
+		return Collections.unmodifiableMap(m);
+	}
+
+	private SampledValueConverter() {
+		// not available
+	}
+
+	/**
+	 * Get the datum property name to use for a measurand.
+	 * 
+	 * @param measurand
+	 *        the measurand
+	 * @return the property name, or {@literal null} if the measurand is not
+	 *         supported
+	 */
+	public static String propertyName(Measurand measurand) {
+		return (measurand != null ? PROPERTY_NAMES.get(measurand) : null);
+	}
+
+	/**
+	 * Get the datum property type to use for a measurand.
+	 * 
+	 * @param measurand
+	 *        the measurand
+	 * @return the property type, never {@literal null}
+	 */
+	public static GeneralDatumSamplesType propertyType(Measurand measurand) {
+		return (measurand != null && ACCUMULATING_MEASURANDS.contains(measurand)
+				? GeneralDatumSamplesType.Accumulating
+				: GeneralDatumSamplesType.Instantaneous);
+	}
+
+	/**
+	 * Populate a datum property from a sampled value.
+	 * 
+	 * @param datum
+	 *        the datum to populate
+	 * @param measurand
+	 *        the measurand
+	 * @param unit
+	 *        the unit
+	 * @param value
+	 *        the value, either a {@link Number} or a string
+	 * @param maxTemperatureScale
+	 *        the maximum scale to use for converted temperature values, or
+	 *        {@literal -1} for no limit
+	 * @return {@literal true} if a property was populated
+	 * @throws NumberFormatException
+	 *         if {@code value} cannot be parsed as a number
+	 */
+	public static boolean populateProperty(GeneralNodeDatum datum, Measurand measurand,
+			UnitOfMeasure unit, Object value, int maxTemperatureScale) {
+		if ( value == null ) {
+			return false;
+		}
+		final String propName = propertyName(measurand);
+		if ( propName == null ) {
+			return false;
+		}
+		BigDecimal num = (value instanceof Number ? NumberUtils.bigDecimalForNumber((Number) value)
+				: parseDecimal(value.toString()));
+		num = normalizedUnit(num, unit, maxTemperatureScale);
+		datum.putSampleValue(propertyType(measurand), propName, num);
+		return true;
+	}
+
+	/**
+	 * Parse a decimal string.
+	 * 
+	 * <p>
+	 * Plain decimal values with up to 18 digits, like {@literal 123} or
+	 * {@literal -1.05}, are parsed directly into an unscaled {@code long}
+	 * value. Anything else is parsed via {@link BigDecimal#BigDecimal(String)}.
+	 * </p>
+	 * 
+	 * @param s
+	 *        the string to parse
+	 * @return the parsed value
+	 * @throws NumberFormatException
+	 *         if {@code s} is not a valid decimal number
+	 */
+	public static BigDecimal parseDecimal(String s) {
+		final int len = s.length();
+		int i = 0;
+		boolean negative = false;
+		if ( len > 0 ) {
+			char c = s.charAt(0);
+			if ( c == '-' || c == '+' ) {
+				negative = (c == '-');
+				i++;
+			}
+		}
+		long unscaled = 0;
+		int digits = 0;
+		int scale = -1;
+		for ( ; i < len; i++ ) {
+			char c = s.charAt(i);
+			if ( c >= '0' && c <= '9' ) {
+				if ( ++digits > MAX_FAST_PARSE_DIGITS ) {
+					return new BigDecimal(s);
+				}
+				unscaled = unscaled * 10 + (c - '0');
+				if ( scale >= 0 ) {
+					scale++;
+				}
+			} else if ( c == '.' && scale < 0 ) {
+				scale = 0;
+			} else {
+				// exponent or invalid; let BigDecimal handle (or reject) it
+				return new BigDecimal(s);
+			}
+		}
+		if ( digits == 0 ) {
+			throw new NumberFormatException("Invalid decimal value [" + s + "]");
+		}
+		return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale < 0 ? 0 : scale);
+	}
+
+	/**
+	 * Normalize a value into the standard unit used by datum properties.
+	 * 
+	 * <p>
+	 * Temperatures are converted to degrees Celsius and kilo-units are
+	 * converted to base units.
+	 * </p>
+	 * 
+	 * @param num
+	 *        the value to normalize
+	 * @param unit
+	 *        the unit of {@code num}
+	 * @param maxTemperatureScale
+	 *        the maximum scale to use for converted temperature values, or
+	 *        {@literal -1} for no limit
+	 * @return the normalized value
+	 */
+	public static BigDecimal normalizedUnit(BigDecimal num, UnitOfMeasure unit,
+			int maxTemperatureScale) {
+		if ( unit == null ) {
+			return num;
+		}
+		switch (unit) {
+			case Fahrenheit:
+				// convert to C
+				return temperatureScale(num.subtract(FAHRENHEIT_OFFSET)
+						.multiply(FAHRENHEIT_MULTIPLIER).divide(FAHRENHEIT_DIVISOR),
+						maxTemperatureScale);
+
+			case K:
+				return temperatureScale(num.subtract(KELVIN_OFFSET), maxTemperatureScale);
+
+			case kVA:
+			case kvar:
+			case kvarh:
+			case kW:
+			case kWh:
+				return num.movePointRight(3);
+
+			default:
+				return num;
+		}
+	}
+
+	private static BigDecimal temperatureScale(BigDecimal celsius, int maxTemperatureScale) {
+		if ( maxTemperatureScale >= 0 && celsius.scale() > maxTemperatureScale ) {
+			return celsius.setScale(maxTemperatureScale, RoundingMode.HALF_UP);
+		}
+		return celsius;
+	}
+
+}
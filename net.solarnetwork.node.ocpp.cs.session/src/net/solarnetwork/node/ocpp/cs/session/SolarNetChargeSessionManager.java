@@ -23,43 +23,56 @@
 package net.solarnetwork.node.ocpp.cs.session;
 
 import static java.util.Collections.singleton;
-import static net.solarnetwork.node.domain.Datum.REVERSE_ACCUMULATING_SUFFIX_KEY;
+import static java.util.Collections.singletonList;
 import static net.solarnetwork.util.OptionalService.service;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import net.solarnetwork.domain.GeneralDatumSamplesType;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import net.solarnetwork.node.PlaceholderService;
 import net.solarnetwork.node.dao.DatumDao;
 import net.solarnetwork.node.domain.ACEnergyDatum;
-import net.solarnetwork.node.domain.AtmosphericDatum;
 import net.solarnetwork.node.domain.Datum;
 import net.solarnetwork.node.domain.GeneralNodeDatum;
+import net.solarnetwork.node.ocpp.dao.ExtendedChargeSessionDao;
 import net.solarnetwork.node.settings.SettingSpecifier;
 import net.solarnetwork.node.settings.SettingSpecifierProvider;
+import net.solarnetwork.node.settings.support.BasicMultiValueSettingSpecifier;
 import net.solarnetwork.node.settings.support.BasicTextFieldSettingSpecifier;
+import net.solarnetwork.node.settings.support.BasicTitleSettingSpecifier;
+import net.solarnetwork.node.settings.support.BasicToggleSettingSpecifier;
 import net.solarnetwork.node.support.BaseIdentifiable;
 import net.solarnetwork.ocpp.dao.ChargePointDao;
-import net.solarnetwork.ocpp.dao.ChargeSessionDao;
 import net.solarnetwork.ocpp.dao.PurgePostedChargeSessionsTask;
 import net.solarnetwork.ocpp.domain.AuthorizationInfo;
 import net.solarnetwork.ocpp.domain.AuthorizationStatus;
@@ -78,7 +91,6 @@ import net.solarnetwork.ocpp.service.AuthorizationException;
 import net.solarnetwork.ocpp.service.AuthorizationService;
 import net.solarnetwork.ocpp.service.cs.ChargeSessionManager;
 import net.solarnetwork.settings.SettingsChangeObserver;
-import net.solarnetwork.util.NumberUtils;
 import net.solarnetwork.util.OptionalService;
 import net.solarnetwork.util.StringUtils;
 
@@ -87,7 +99,7 @@ import net.solarnetwork.util.StringUtils;
  * session transaction data.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class SolarNetChargeSessionManager extends BaseIdentifiable
 		implements ChargeSessionManager, SettingSpecifierProvider, SettingsChangeObserver {
@@ -95,25 +107,102 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	/** A datum property name for a charging session ID. */
 	public static final String SESSION_ID_PROPERTY = "sessionId";
 
+	/** A suffix added to the outlet source ID for charge session summary datum. */
+	public static final String SESSION_SUMMARY_SOURCE_ID_SUFFIX = "/summary";
+
+	/** A summary datum property name for the energy delivered, in Wh. */
+	public static final String ENERGY_DELIVERED_PROPERTY = "wattHoursDelivered";
+
+	/** A summary datum property name for the session duration, in seconds. */
+	public static final String DURATION_PROPERTY = "duration";
+
 	/** The default {@code sourceIdTemplate} value. */
 	public static final String DEFAULT_SOURCE_ID_TEMPLATE = "/ocpp/cp/{chargerIdentifier}/{connectorId}/{location}";
 
 	/** The default {@code maxTemperatureScale} value. */
 	public static final int DEFAULT_MAX_TEMPERATURE_SCALE = 1;
 
+	/**
+	 * The default {@code datumAggregationSeconds} value.
+	 * 
+	 * <p>
+	 * A value of {@literal 0} disables aggregation, so every reading produces
+	 * datum.
+	 * </p>
+	 */
+	public static final int DEFAULT_DATUM_AGGREGATION_SECONDS = 0;
+
+	/**
+	 * The default {@code datumQueueCapacity} value.
+	 * 
+	 * <p>
+	 * A value of {@literal 0} disables the datum queue, so datum are stored
+	 * synchronously.
+	 * </p>
+	 */
+	public static final int DEFAULT_DATUM_QUEUE_CAPACITY = 0;
+
+	/** The maximum number of resolved source IDs to cache. */
+	private static final int MAX_SOURCE_ID_CACHE_SIZE = 4096;
+
+	/**
+	 * The maximum time to cache a source ID resolved by a
+	 * {@link PlaceholderService}, whose values can change at any time.
+	 */
+	private static final long PLACEHOLDER_SOURCE_ID_CACHE_MS = TimeUnit.MINUTES.toMillis(1);
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
 	private final AuthorizationService authService;
 	private final ChargePointDao chargePointDao;
-	private final ChargeSessionDao chargeSessionDao;
+	private final ExtendedChargeSessionDao chargeSessionDao;
 	private final OptionalService<DatumDao<GeneralNodeDatum>> datumDao;
 	private String sourceIdTemplate = DEFAULT_SOURCE_ID_TEMPLATE;
+	private volatile SourceIdTemplate compiledSourceIdTemplate = new SourceIdTemplate(
+			DEFAULT_SOURCE_ID_TEMPLATE);
+	private final Map<SourceIdKey, CachedSourceId> sourceIdCache = Collections
+			.synchronizedMap(new LinkedHashMap<SourceIdKey, CachedSourceId>(64, 0.75f, true) {
+
+				private static final long serialVersionUID = -2418613400637582911L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<SourceIdKey, CachedSourceId> eldest) {
+					return size() > MAX_SOURCE_ID_CACHE_SIZE;
+				}
+
+			});
+	private volatile PlaceholderService sourceIdCacheService;
 	private int maxTemperatureScale = DEFAULT_MAX_TEMPERATURE_SCALE;
+	private int datumAggregationSeconds = DEFAULT_DATUM_AGGREGATION_SECONDS;
+	private volatile DatumAggregator datumAggregator;
+	private boolean publishSessionSummary;
+	private final ConcurrentMap<UUID, ChargeSessionSummary> sessionSummaries = new ConcurrentHashMap<>(
+			8);
 	private TaskScheduler taskScheduler;
+	private TransactionTemplate transactionTemplate;
+	private int datumQueueCapacity = DEFAULT_DATUM_QUEUE_CAPACITY;
+	private int datumQueueBatchSize = DatumQueue.DEFAULT_BATCH_SIZE;
+	private long datumQueueLingerMs = DatumQueue.DEFAULT_LINGER_MS;
+	private DatumQueue.OverflowPolicy datumQueueOverflowPolicy = DatumQueue.DEFAULT_OVERFLOW_POLICY;
+
+	private volatile DatumQueue datumQueue;
+	private final ChargeSessionRegistry sessionRegistry;
+	private final TimingStats sessionStartTiming = new TimingStats();
+	private final ChargeSessionReadingIndex readingIndex = new ChargeSessionReadingIndex();
+	private final PurgePostedChargeSessionsTask purgePostedTask = new PurgePostedChargeSessionsTask() {
+
+		@Override
+		public void run() {
+			super.run();
+			evictSessionSummaries();
+		}
 
-	private final PurgePostedChargeSessionsTask purgePostedTask = new PurgePostedChargeSessionsTask();
+	};
+	private final ChunkedPurgePostedChargeSessionsTask chunkedPurgePostedTask;
+	private int purgePostedChargeSessionsChunkSize = ChunkedPurgePostedChargeSessionsTask.DEFAULT_CHUNK_SIZE;
 	private ScheduledFuture<?> configurationFuture;
 	private ScheduledFuture<?> purgePostedFuture;
+	private ScheduledFuture<?> datumAggregatorFuture;
 
 	/**
 	 * Constructor.
@@ -128,18 +217,31 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	 *        the DAO for saving Datum
 	 */
 	public SolarNetChargeSessionManager(AuthorizationService authService, ChargePointDao chargePointDao,
-			ChargeSessionDao chargeSessionDao, OptionalService<DatumDao<GeneralNodeDatum>> datumDao) {
+			ExtendedChargeSessionDao chargeSessionDao,
+			OptionalService<DatumDao<GeneralNodeDatum>> datumDao) {
 		super();
 		this.authService = authService;
 		this.chargePointDao = chargePointDao;
 		this.chargeSessionDao = chargeSessionDao;
 		this.datumDao = datumDao;
+		this.sessionRegistry = new ChargeSessionRegistry(chargeSessionDao);
+		this.chunkedPurgePostedTask = new ChunkedPurgePostedChargeSessionsTask(chargeSessionDao) {
+
+			@Override
+			public void run() {
+				super.run();
+				evictSessionSummaries();
+			}
+
+		};
 	}
 
 	/**
 	 * Initialize after properties configured.
 	 */
 	public void startup() {
+		configureDatumAggregator();
+		configureDatumQueue();
 		reconfigure();
 	}
 
@@ -148,6 +250,11 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	 */
 	public void shutdown() {
 		stopTasks();
+		stopDatumAggregator();
+		stopDatumQueue();
+		readingIndex.clear();
+		sessionSummaries.clear();
+		sessionRegistry.invalidate();
 	}
 
 	@Override
@@ -155,9 +262,213 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		if ( properties == null || properties.isEmpty() ) {
 			return;
 		}
+		sourceIdCache.clear();
+		configureDatumAggregator();
+		configureDatumQueue();
 		reconfigure();
 	}
 
+	private synchronized void stopDatumAggregator() {
+		if ( datumAggregatorFuture != null ) {
+			if ( !datumAggregatorFuture.isDone() ) {
+				datumAggregatorFuture.cancel(false);
+			}
+			datumAggregatorFuture = null;
+		}
+		DatumAggregator agg = datumAggregator;
+		if ( agg != null ) {
+			datumAggregator = null;
+			storeDatum(agg.flushAll());
+		}
+	}
+
+	private synchronized void configureDatumAggregator() {
+		DatumAggregator agg = datumAggregator;
+		if ( datumAggregationSeconds < 1 ) {
+			stopDatumAggregator();
+			return;
+		}
+		final long periodMs = TimeUnit.SECONDS.toMillis(datumAggregationSeconds);
+		if ( agg == null || agg.getPeriodMs() != periodMs ) {
+			stopDatumAggregator();
+			log.info("Aggregating OCPP datum into {} second periods.", datumAggregationSeconds);
+			datumAggregator = new DatumAggregator(periodMs);
+			if ( taskScheduler != null ) {
+				datumAggregatorFuture = taskScheduler.scheduleAtFixedRate(
+						new DatumAggregatorFlushTask(),
+						new Date(System.currentTimeMillis() + periodMs), periodMs);
+			}
+		}
+	}
+
+	/**
+	 * Task to store the datum of aggregation buckets that have stopped
+	 * receiving readings, such as when a charger goes quiet.
+	 */
+	private final class DatumAggregatorFlushTask implements Runnable {
+
+		@Override
+		public void run() {
+			final DatumAggregator agg = datumAggregator;
+			if ( agg == null ) {
+				return;
+			}
+			try {
+				List<GeneralNodeDatum> datum = agg.flushExpired();
+				if ( !datum.isEmpty() ) {
+					log.debug("Storing {} expired OCPP aggregate datum.", datum.size());
+					storeDatum(datum);
+				}
+			} catch ( RuntimeException e ) {
+				log.warn("Error storing expired OCPP aggregate datum: {}", e.toString(), e);
+			}
+		}
+
+	}
+
+	private synchronized void stopDatumQueue() {
+		DatumQueue q = datumQueue;
+		if ( q != null ) {
+			datumQueue = null;
+			q.shutdown();
+		}
+	}
+
+	private synchronized void configureDatumQueue() {
+		DatumQueue q = datumQueue;
+		if ( datumQueueCapacity < 1 ) {
+			stopDatumQueue();
+			return;
+		}
+		if ( q == null || q.getCapacity() != datumQueueCapacity ) {
+			stopDatumQueue();
+			log.info("Starting OCPP datum queue with capacity {}.", datumQueueCapacity);
+			q = new DatumQueue(datumDao, datumQueueCapacity);
+		}
+		q.setBatchSize(datumQueueBatchSize);
+		q.setLingerMs(datumQueueLingerMs);
+		q.setOverflowPolicy(datumQueueOverflowPolicy);
+		q.setTransactionTemplate(transactionTemplate);
+		if ( datumQueue != q ) {
+			q.startup();
+			datumQueue = q;
+		}
+	}
+
+	private boolean isDatumStorageAvailable() {
+		return (datumQueue != null || datumDao.service() != null);
+	}
+
+	/**
+	 * Store datum, either directly via the {@link DatumDao} or by handing them
+	 * to the datum queue once the active transaction commits.
+	 * 
+	 * @param datum
+	 *        the datum to store
+	 */
+	private void storeDatum(final List<GeneralNodeDatum> datum) {
+		if ( datum.isEmpty() ) {
+			return;
+		}
+		final DatumQueue queue = datumQueue;
+		if ( queue == null ) {
+			DatumDao<GeneralNodeDatum> dao = datumDao.service();
+			if ( dao != null ) {
+				for ( GeneralNodeDatum d : datum ) {
+					dao.storeDatum(d);
+				}
+			}
+			return;
+		}
+		if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+			queue.offerAll(datum);
+			return;
+		}
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCommit() {
+				queue.offerAll(datum);
+			}
+
+		});
+	}
+
+	/**
+	 * Store datum from a transaction synchronization callback, after the
+	 * active transaction has committed.
+	 * 
+	 * <p>
+	 * Synchronizations registered at this point would never be invoked, so the
+	 * datum are offered to the datum queue directly or, if there is no queue,
+	 * stored via the {@link DatumDao} within a new transaction.
+	 * </p>
+	 * 
+	 * @param datum
+	 *        the datum to store
+	 */
+	private void storeDatumAfterCommit(final List<GeneralNodeDatum> datum) {
+		if ( datum.isEmpty() ) {
+			return;
+		}
+		final DatumQueue queue = datumQueue;
+		if ( queue != null ) {
+			queue.offerAll(datum);
+			return;
+		}
+		final DatumDao<GeneralNodeDatum> dao = datumDao.service();
+		if ( dao == null ) {
+			return;
+		}
+		final TransactionTemplate tt = transactionTemplate;
+		if ( tt == null ) {
+			for ( GeneralNodeDatum d : datum ) {
+				dao.storeDatum(d);
+			}
+			return;
+		}
+		TransactionTemplate newTx = new TransactionTemplate(tt.getTransactionManager(), tt);
+		newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		newTx.execute(new TransactionCallbackWithoutResult() {
+
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				for ( GeneralNodeDatum d : datum ) {
+					dao.storeDatum(d);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Run a datum aggregator task once the active transaction commits, so the
+	 * aggregator never holds readings that were rolled back.
+	 * 
+	 * <p>
+	 * If no transaction is active the task is run immediately. The datum
+	 * returned by the task are then stored.
+	 * </p>
+	 * 
+	 * @param task
+	 *        the task to run, returning the datum to store
+	 */
+	private void aggregateAfterCommit(final Supplier<List<GeneralNodeDatum>> task) {
+		if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+			storeDatum(task.get());
+			return;
+		}
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCommit() {
+				storeDatumAfterCommit(task.get());
+			}
+
+		});
+	}
+
 	private synchronized void stopTasks() {
 		if ( purgePostedFuture != null ) {
 			if ( !purgePostedFuture.isDone() ) {
@@ -191,12 +502,28 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 			synchronized ( SolarNetChargeSessionManager.this ) {
 				configurationFuture = null;
 				stopTasks();
+				try {
+					sessionRegistry.reload();
+					log.info("Loaded {} incomplete OCPP charge sessions.", sessionRegistry.size());
+					evictSessionSummaries();
+				} catch ( RuntimeException e ) {
+					log.warn("Error loading incomplete OCPP charge sessions: {}", e.toString());
+					sessionRegistry.invalidate();
+					sessionSummaries.clear();
+				}
 				int purgeHours = getPurgePostedChargeSessionsExpirationHours();
 				if ( purgeHours > 0 ) {
 					log.info("Scheduling OCPP posted charge session purge task at {} hours.",
 							purgeHours);
 					long purgeMs = TimeUnit.HOURS.toMillis(purgeHours) / 4;
-					purgePostedFuture = scheduler.scheduleWithFixedDelay(purgePostedTask,
+					Runnable purgeTask = purgePostedTask;
+					if ( purgePostedChargeSessionsChunkSize > 0 ) {
+						chunkedPurgePostedTask.setExpirationHours(purgeHours);
+						chunkedPurgePostedTask.setChunkSize(purgePostedChargeSessionsChunkSize);
+						chunkedPurgePostedTask.setTransactionTemplate(transactionTemplate);
+						purgeTask = chunkedPurgePostedTask;
+					}
+					purgePostedFuture = scheduler.scheduleWithFixedDelay(purgeTask,
 							new Date(System.currentTimeMillis() + purgeMs), purgeMs);
 				}
 			}
@@ -204,6 +531,55 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 
 	}
 
+	/**
+	 * Discard the session registry if the active transaction does not commit,
+	 * so it is re-loaded from what was actually persisted.
+	 */
+	private void invalidateSessionRegistryOnRollback() {
+		if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+			return;
+		}
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCompletion(int status) {
+				if ( status != STATUS_COMMITTED ) {
+					sessionRegistry.invalidate();
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Evict sessions from the reading index and session summaries if the
+	 * active transaction does not commit, so they are re-seeded from what was
+	 * actually persisted.
+	 * 
+	 * @param sessionIds
+	 *        the IDs of the sessions modified in the active transaction
+	 */
+	private void evictReadingIndexOnRollback(Collection<UUID> sessionIds) {
+		if ( sessionIds.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive() ) {
+			return;
+		}
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCompletion(int status) {
+				if ( status != STATUS_COMMITTED ) {
+					for ( UUID sessionId : sessionIds ) {
+						readingIndex.evict(sessionId);
+						sessionSummaries.remove(sessionId);
+					}
+				}
+			}
+
+		});
+	}
+
 	private ChargePoint chargePoint(ChargePointIdentity identifier, String authId) {
 		ChargePoint cp = chargePointDao.getForIdentity(identifier);
 		if ( cp == null ) {
@@ -218,6 +594,18 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	@Override
 	public ChargeSession startChargingSession(ChargeSessionStartInfo info)
 			throws AuthorizationException {
+		final long start = System.nanoTime();
+		try {
+			return startSession(info);
+		} finally {
+			long duration = System.nanoTime() - start;
+			sessionStartTiming.record(duration);
+			log.debug("Charge session start for {} connector {} took {}ms", info.getChargePointId(),
+					info.getConnectorId(), TimeUnit.NANOSECONDS.toMillis(duration));
+		}
+	}
+
+	private ChargeSession startSession(ChargeSessionStartInfo info) throws AuthorizationException {
 		// check authorization
 		AuthorizationInfo authInfo = authService.authorize(info.getChargePointId(),
 				info.getAuthorizationId());
@@ -228,8 +616,7 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		ChargePoint cp = chargePoint(info.getChargePointId(), info.getAuthorizationId());
 
 		// check for existing session, e.g. ConcurrentTx
-		ChargeSession sess = chargeSessionDao.getIncompleteChargeSessionForConnector(cp.getId(),
-				info.getConnectorId());
+		ChargeSession sess = sessionRegistry.getForConnector(cp.getId(), info.getConnectorId());
 		if ( sess != null ) {
 			throw new AuthorizationException(
 					String.format("ChargeSession %s already active for Charge Point %s connector %d",
@@ -237,11 +624,15 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 					new AuthorizationInfo(info.getAuthorizationId(), AuthorizationStatus.ConcurrentTx));
 		}
 
-		// persist a new session and then re-load to get the generated transaction ID
 		try {
-			sess = new ChargeSession(UUID.randomUUID(), info.getTimestampStart(),
-					info.getAuthorizationId(), cp.getId(), info.getConnectorId(), 0);
-			sess = chargeSessionDao.get(chargeSessionDao.save(sess));
+			// allocate the transaction ID up front, so no need to re-load after persisting
+			int txId = chargeSessionDao.nextTransactionId();
+			sess = new ChargeSession(UUID.randomUUID(),
+					info.getTimestampStart() != null ? info.getTimestampStart() : Instant.now(),
+					info.getAuthorizationId(), cp.getId(), info.getConnectorId(), txId);
+			chargeSessionDao.save(sess);
+			sessionRegistry.put(sess);
+			invalidateSessionRegistryOnRollback();
 		} catch ( DataIntegrityViolationException e ) {
 			// assume this is from no matching Charge Point for the given chargePointId value
 			throw new AuthorizationException(new AuthorizationInfo(info.getAuthorizationId(),
@@ -262,11 +653,18 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 				.build();
 		// @formatter:on
 		chargeSessionDao.addReadings(singleton(reading));
-		DatumDao<GeneralNodeDatum> dao = datumDao.service();
-		if ( dao != null ) {
+		readingIndex.seed(sess.getId(), singleton(reading));
+		if ( publishSessionSummary ) {
+			ChargeSessionSummary summary = new ChargeSessionSummary(sess.getId());
+			summary.add(reading);
+			sessionSummaries.put(sess.getId(), summary);
+		}
+		evictReadingIndexOnRollback(singleton(sess.getId()));
+
+		if ( isDatumStorageAvailable() ) {
 			GeneralNodeDatum d = datum(cp, sess, reading);
 			if ( d != null ) {
-				dao.storeDatum(d);
+				storeDatum(singletonList(d));
 			}
 		}
 
@@ -278,7 +676,7 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	public ChargeSession getActiveChargingSession(ChargePointIdentity identifier, int transactionId)
 			throws AuthorizationException {
 		ChargePoint cp = chargePoint(identifier, null);
-		return chargeSessionDao.getIncompleteChargeSessionForTransaction(cp.getId(), transactionId);
+		return sessionRegistry.getForTransaction(cp.getId(), transactionId);
 	}
 
 	@Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
@@ -286,17 +684,16 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	public Collection<ChargeSession> getActiveChargingSessions(ChargePointIdentity identifier) {
 		if ( identifier != null ) {
 			ChargePoint cp = chargePoint(identifier, null);
-			return chargeSessionDao.getIncompleteChargeSessionsForChargePoint(cp.getId());
+			return sessionRegistry.getForChargePoint(cp.getId());
 		}
-		return chargeSessionDao.getIncompleteChargeSessions();
+		return sessionRegistry.getAll();
 	}
 
 	@Transactional(readOnly = false, propagation = Propagation.REQUIRED)
 	@Override
 	public AuthorizationInfo endChargingSession(ChargeSessionEndInfo info) {
 		ChargePoint cp = chargePoint(info.getChargePointId(), info.getAuthorizationId());
-		ChargeSession sess = chargeSessionDao.getIncompleteChargeSessionForTransaction(cp.getId(),
-				info.getTransactionId());
+		ChargeSession sess = sessionRegistry.getForTransaction(cp.getId(), info.getTransactionId());
 		if ( sess == null ) {
 			throw new AuthorizationException("No active charging session found.", new AuthorizationInfo(
 					info.getAuthorizationId(), AuthorizationStatus.Invalid, null, null));
@@ -306,7 +703,9 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		sess.setEnded(info.getTimestampEnd());
 		sess.setEndReason(info.getReason());
 		sess.setPosted(Instant.now());
+		invalidateSessionRegistryOnRollback();
 		chargeSessionDao.save(sess);
+		sessionRegistry.remove(sess);
 
 		// generate reading from end meter value
 
@@ -335,11 +734,76 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		Map<Long, ChargePoint> chargePoints = new HashMap<>(2);
 		chargePoints.put(cp.getId(), cp);
 		addReadings(readings, sessions, chargePoints);
+		readingIndex.evict(sess.getId());
+
+		final DatumAggregator agg = datumAggregator;
+		if ( agg != null ) {
+			aggregateAfterCommit(() -> agg.flushGroup(sess.getId()));
+		}
+
+		if ( publishSessionSummary && isDatumStorageAvailable() ) {
+			storeDatum(singletonList(summaryDatum(cp, sess, sessionSummary(sess.getId()))));
+		}
+		sessionSummaries.remove(sess.getId());
 
 		return new AuthorizationInfo(info.getAuthorizationId(), AuthorizationStatus.Accepted, null,
 				null);
 	}
 
+	/**
+	 * Remove the summaries of sessions that are no longer incomplete, for
+	 * example sessions ended elsewhere or purged.
+	 * 
+	 * <p>
+	 * Summaries are seeded from the persisted readings when needed, so any
+	 * evicted too early are rebuilt.
+	 * </p>
+	 */
+	private void evictSessionSummaries() {
+		if ( sessionSummaries.isEmpty() || !sessionRegistry.isLoaded() ) {
+			return;
+		}
+		sessionSummaries.keySet().removeIf(id -> sessionRegistry.get(id) == null);
+	}
+
+	private ChargeSessionSummary sessionSummary(UUID sessionId) {
+		return sessionSummaries.computeIfAbsent(sessionId, k -> {
+			// seed from persisted readings, e.g. after a restart
+			ChargeSessionSummary s = new ChargeSessionSummary(k);
+			chargeSessionDao.processReadingValuesForSession(k, null, s::add);
+			return s;
+		});
+	}
+
+	private GeneralNodeDatum summaryDatum(ChargePoint chargePoint, ChargeSession sess,
+			ChargeSessionSummary summary) {
+		GeneralNodeDatum d = new GeneralNodeDatum();
+		Instant ended = (sess.getEnded() != null ? sess.getEnded() : Instant.now());
+		d.setCreated(new Date(ended.toEpochMilli()));
+		d.setSourceId(sourceId(chargePoint, sess.getConnectorId(), Location.Outlet, null)
+				+ SESSION_SUMMARY_SOURCE_ID_SUFFIX);
+		if ( summary.getEnergyDelivered() != null ) {
+			d.putInstantaneousSampleValue(ENERGY_DELIVERED_PROPERTY, summary.getEnergyDelivered());
+		}
+		if ( summary.getPowerAverage() != null ) {
+			d.putInstantaneousSampleValue(ACEnergyDatum.WATTS_KEY, summary.getPowerAverage());
+			d.putInstantaneousSampleValue(
+					ACEnergyDatum.WATTS_KEY + DatumAggregator.MAX_PROPERTY_SUFFIX,
+					summary.getPowerMax());
+		}
+		if ( summary.getCurrentMax() != null ) {
+			d.putInstantaneousSampleValue(
+					ACEnergyDatum.CURRENT_KEY + DatumAggregator.MAX_PROPERTY_SUFFIX,
+					summary.getCurrentMax());
+		}
+		if ( sess.getCreated() != null ) {
+			d.putInstantaneousSampleValue(DURATION_PROPERTY,
+					Duration.between(sess.getCreated(), ended).getSeconds());
+		}
+		d.putStatusSampleValue(SESSION_ID_PROPERTY, sess.getId().toString());
+		return d;
+	}
+
 	private GeneralNodeDatum datum(ChargePoint chargePoint, ChargeSession sess, SampledValue reading) {
 		GeneralNodeDatum d = new GeneralNodeDatum();
 		populateProperty(d, reading.getMeasurand(), reading.getUnit(), reading.getValue());
@@ -370,225 +834,255 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		if ( readings == null ) {
 			return;
 		}
-		Map<UUID, Set<SampledValue>> currentReadings = new HashMap<>(2);
 		List<SampledValue> sorted = StreamSupport.stream(readings.spliterator(), false).sorted()
 				.collect(Collectors.toList());
 		List<SampledValue> newReadings = new ArrayList<>();
+		Map<UUID, Set<SampledValue>> persistedReadings = null;
 		for ( SampledValue r : sorted ) {
-			Set<SampledValue> current = currentReadings.get(r.getSessionId());
-			if ( current == null ) {
-				ChargeSession sess = sessions.get(r.getSessionId());
+			final UUID sessionId = r.getSessionId();
+			if ( !sessions.containsKey(sessionId) ) {
+				ChargeSession sess = sessionRegistry.get(sessionId);
 				if ( sess == null ) {
-					sess = chargeSessionDao.get(r.getSessionId());
-					if ( sess == null ) {
-						throw new AuthorizationException("No active charging session found.",
-								new AuthorizationInfo(null, AuthorizationStatus.Invalid, null, null));
-					}
-					sessions.put(r.getSessionId(), sess);
+					sess = chargeSessionDao.get(sessionId);
 				}
-				current = new HashSet<>(getChargingSessionReadings(r.getSessionId()));
-				currentReadings.put(r.getSessionId(), current);
+				if ( sess == null ) {
+					// session might have been purged
+					readingIndex.evict(sessionId);
+					throw new AuthorizationException("No active charging session found.",
+							new AuthorizationInfo(null, AuthorizationStatus.Invalid, null, null));
+				}
+				sessions.put(sessionId, sess);
+			}
+			if ( !readingIndex.isIndexed(sessionId) ) {
+				readingIndex.seed(sessionId, chargeSessionDao.findReadingsForSession(sessionId));
 			}
-			if ( !current.contains(r) ) {
+			Boolean added = readingIndex.add(r);
+			if ( added == null ) {
+				// reading older than the index window: compare against full session history
+				if ( persistedReadings == null ) {
+					persistedReadings = new HashMap<>(2);
+				}
+				Set<SampledValue> persisted = persistedReadings.computeIfAbsent(sessionId,
+						k -> new HashSet<>(chargeSessionDao.findReadingsForSession(k)));
+				if ( persisted.add(r) ) {
+					newReadings.add(r);
+				}
+			} else if ( added.booleanValue() ) {
 				newReadings.add(r);
 			}
 		}
+		evictReadingIndexOnRollback(new ArrayList<>(sessions.keySet()));
 		if ( !newReadings.isEmpty() ) {
+			if ( publishSessionSummary ) {
+				// update summaries before persisting, as they might be seeded from persisted readings
+				for ( SampledValue r : newReadings ) {
+					sessionSummary(r.getSessionId()).add(r);
+				}
+			}
 			chargeSessionDao.addReadings(newReadings);
-			DatumDao<GeneralNodeDatum> dao = datumDao.service();
-			if ( dao != null ) {
-				// group readings by timestamp into Datum
-				GeneralNodeDatum d = null;
+			if ( isDatumStorageAvailable() ) {
+				// group readings by session, timestamp, and source (location, phase) into Datum
+				Map<DatumGroupKey, GeneralNodeDatum> groups = new LinkedHashMap<>(8);
+				Set<DatumGroupKey> transactionGroups = null;
 				for ( SampledValue reading : newReadings ) {
-					if ( d == null
-							|| d.getCreated().getTime() != reading.getTimestamp().toEpochMilli() ) {
-						if ( d != null ) {
-							dao.storeDatum(d);
-							d = null;
-						}
-
-						ChargeSession s = sessions.get(reading.getSessionId());
-						ChargePoint cp = chargePoints.get(s.getChargePointId());
+					ChargeSession s = sessions.get(reading.getSessionId());
+					ChargePoint cp = chargePoints.get(s.getChargePointId());
+					if ( cp == null ) {
+						cp = chargePointDao.get(s.getChargePointId());
 						if ( cp == null ) {
-							cp = chargePointDao.get(s.getChargePointId());
-							if ( cp == null ) {
-								throw new AuthorizationException(
-										String.format("ChargePoint %d not available.",
-												s.getChargePointId()),
-										new AuthorizationInfo(s.getAuthId(),
-												AuthorizationStatus.Invalid));
-							}
-							chargePoints.put(cp.getId(), cp);
+							throw new AuthorizationException(
+									String.format("ChargePoint %d not available.",
+											s.getChargePointId()),
+									new AuthorizationInfo(s.getAuthId(),
+											AuthorizationStatus.Invalid));
 						}
-						d = datum(cp, sessions.get(reading.getSessionId()), reading);
-					} else {
+						chargePoints.put(cp.getId(), cp);
+					}
+					DatumGroupKey key = new DatumGroupKey(s.getId(), reading.getTimestamp(),
+							sourceId(cp, s.getConnectorId(), reading.getLocation(),
+									reading.getPhase()));
+					if ( reading.getContext() == ReadingContext.TransactionBegin
+							|| reading.getContext() == ReadingContext.TransactionEnd ) {
+						if ( transactionGroups == null ) {
+							transactionGroups = new HashSet<>(2);
+						}
+						transactionGroups.add(key);
+					}
+					GeneralNodeDatum d = groups.get(key);
+					if ( d != null ) {
 						populateProperty(d, reading.getMeasurand(), reading.getUnit(),
 								reading.getValue());
+					} else {
+						d = datum(cp, s, reading);
+						if ( d != null ) {
+							groups.put(key, d);
+						}
 					}
 				}
-				if ( d != null ) {
-					dao.storeDatum(d);
+				final DatumAggregator agg = datumAggregator;
+				if ( agg == null ) {
+					storeDatum(new ArrayList<>(groups.values()));
+				} else {
+					final Set<DatumGroupKey> txGroups = transactionGroups;
+					aggregateAfterCommit(() -> aggregate(agg, groups, txGroups));
 				}
 			}
 		}
 	}
 
-	private String sourceId(ChargePoint chargePoint, int connectorId, Location location, Phase phase) {
-		Map<String, Object> params = new HashMap<>(4);
-		params.put("chargePointId", chargePoint.getId());
-		params.put("chargerIdentifier", chargePoint.getInfo().getId());
-		params.put("connectorId", connectorId);
-		params.put("location", location);
-		params.put("phase", phase);
-		PlaceholderService service = service(getPlaceholderService());
-		return (service != null ? service.resolvePlaceholders(sourceIdTemplate, params)
-				: StringUtils.expandTemplateString(sourceIdTemplate, params));
-	}
-
-	private void populateProperty(GeneralNodeDatum datum, Measurand measurand, UnitOfMeasure unit,
-			Object value) {
-		if ( value == null ) {
-			return;
-		}
-		BigDecimal num = null;
-		if ( value instanceof Number ) {
-			num = NumberUtils.bigDecimalForNumber((Number) value);
-		} else {
-			try {
-				num = new BigDecimal(value.toString());
-			} catch ( NumberFormatException e ) {
-				log.debug("Error parsing OCPP {} sampled value [{}]: {}", measurand, value,
-						e.getMessage());
-				return;
+	private static List<GeneralNodeDatum> aggregate(DatumAggregator agg,
+			Map<DatumGroupKey, GeneralNodeDatum> groups, Set<DatumGroupKey> transactionGroups) {
+		// transaction begin/end datum pass through, others are aggregated
+		List<GeneralNodeDatum> datum = new ArrayList<>(groups.size());
+		for ( Map.Entry<DatumGroupKey, GeneralNodeDatum> e : groups.entrySet() ) {
+			GeneralNodeDatum d = e.getValue();
+			if ( transactionGroups != null && transactionGroups.contains(e.getKey()) ) {
+				datum.addAll(agg.flush(d.getSourceId()));
+				datum.add(d);
+			} else {
+				datum.addAll(agg.add(e.getKey().sessionId, d));
 			}
 		}
-		num = normalizedUnit(num, unit);
-		String propName = propertyName(measurand);
-		if ( propName != null ) {
-			datum.putSampleValue(propertyType(measurand), propName, num);
-		}
+		return datum;
 	}
 
-	private BigDecimal normalizedUnit(BigDecimal num, UnitOfMeasure unit) {
-		if ( unit == null ) {
-			return num;
-		}
-		switch (unit) {
-			case Fahrenheit: {
-				// convert to C
-				BigDecimal celsius = num.subtract(new BigDecimal("32")).multiply(new BigDecimal("5"))
-						.divide(new BigDecimal("9"));
-				if ( maxTemperatureScale >= 0 && celsius.scale() > maxTemperatureScale ) {
-					celsius = celsius.setScale(maxTemperatureScale, RoundingMode.HALF_UP);
-				}
-				return celsius;
-			}
-
-			case K: {
-				BigDecimal celsius = num.subtract(new BigDecimal("-273.15"));
-				if ( maxTemperatureScale >= 0 && celsius.scale() > maxTemperatureScale ) {
-					celsius = celsius.setScale(maxTemperatureScale, RoundingMode.HALF_UP);
-				}
-				return celsius;
-			}
+	private static final class DatumGroupKey {
 
-			case kVA:
-			case kvar:
-			case kvarh:
-			case kW:
-			case kWh:
-				return num.movePointRight(3);
+		private final UUID sessionId;
+		private final long timestamp;
+		private final String sourceId;
 
-			default:
-				return num;
+		private DatumGroupKey(UUID sessionId, Instant timestamp, String sourceId) {
+			super();
+			this.sessionId = sessionId;
+			this.timestamp = timestamp.toEpochMilli();
+			this.sourceId = sourceId;
 		}
-	}
 
-	private GeneralDatumSamplesType propertyType(Measurand measurand) {
-		switch (measurand) {
-			case EnergyActiveExportRegister:
-			case EnergyActiveImportRegister:
-			case EnergyReactiveExportRegister:
-			case EnergyReactiveImportRegister:
-			case PowerReactiveExport:
-			case PowerReactiveImport:
-				return GeneralDatumSamplesType.Accumulating;
-
-			default:
-				return GeneralDatumSamplesType.Instantaneous;
+		@Override
+		public int hashCode() {
+			int result = Objects.hashCode(sessionId);
+			result = 31 * result + Long.hashCode(timestamp);
+			result = 31 * result + Objects.hashCode(sourceId);
+			return result;
 		}
-	}
-
-	private String propertyName(Measurand measurand) {
-		switch (measurand) {
-			case CurrentExport:
-				return ACEnergyDatum.CURRENT_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
-
-			case CurrentImport:
-				return ACEnergyDatum.CURRENT_KEY;
-
-			case CurrentOffered:
-				return ACEnergyDatum.CURRENT_KEY + "Offered";
-
-			case EnergyActiveExportInterval:
-				return ACEnergyDatum.WATT_HOUR_READING_KEY + "Diff" + REVERSE_ACCUMULATING_SUFFIX_KEY;
-
-			case EnergyActiveExportRegister:
-				return ACEnergyDatum.WATT_HOUR_READING_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
-
-			case EnergyActiveImportInterval:
-				return ACEnergyDatum.WATT_HOUR_READING_KEY + "Diff";
 
-			case EnergyActiveImportRegister:
-				return ACEnergyDatum.WATT_HOUR_READING_KEY;
-
-			case EnergyReactiveExportInterval:
-				return "reactiveEnergyDiff" + REVERSE_ACCUMULATING_SUFFIX_KEY;
-
-			case EnergyReactiveExportRegister:
-				return "reactiveEnergy" + REVERSE_ACCUMULATING_SUFFIX_KEY;
-
-			case EnergyReactiveImportInterval:
-				return "reactiveEnergyDiff";
-
-			case EnergyReactiveImportRegister:
-				return "reactiveEnergy";
-
-			case Frequency:
-				return ACEnergyDatum.FREQUENCY_KEY;
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof DatumGroupKey) ) {
+				return false;
+			}
+			DatumGroupKey other = (DatumGroupKey) obj;
+			return timestamp == other.timestamp && Objects.equals(sessionId, other.sessionId)
+					&& Objects.equals(sourceId, other.sourceId);
+		}
 
-			case PowerActiveExport:
-				return ACEnergyDatum.WATTS_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
+	}
 
-			case PowerActiveImport:
-				return ACEnergyDatum.WATTS_KEY;
+	private static final class SourceIdKey {
+
+		private final long chargePointId;
+		private final String chargerIdentifier;
+		private final int connectorId;
+		private final Location location;
+		private final Phase phase;
+
+		private SourceIdKey(long chargePointId, String chargerIdentifier, int connectorId,
+				Location location, Phase phase) {
+			super();
+			this.chargePointId = chargePointId;
+			this.chargerIdentifier = chargerIdentifier;
+			this.connectorId = connectorId;
+			this.location = location;
+			this.phase = phase;
+		}
 
-			case PowerFactor:
-				return ACEnergyDatum.POWER_FACTOR_KEY;
+		@Override
+		public int hashCode() {
+			int result = Long.hashCode(chargePointId);
+			result = 31 * result + connectorId;
+			result = 31 * result + Objects.hashCode(location);
+			result = 31 * result + Objects.hashCode(phase);
+			return result;
+		}
 
-			case PowerOffered:
-				return ACEnergyDatum.WATTS_KEY + "Offered";
+		@Override
+		public boolean equals(Object obj) {
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof SourceIdKey) ) {
+				return false;
+			}
+			SourceIdKey other = (SourceIdKey) obj;
+			return chargePointId == other.chargePointId && connectorId == other.connectorId
+					&& location == other.location && phase == other.phase
+					&& Objects.equals(chargerIdentifier, other.chargerIdentifier);
+		}
 
-			case PowerReactiveExport:
-				return ACEnergyDatum.REACTIVE_POWER_KEY + REVERSE_ACCUMULATING_SUFFIX_KEY;
+	}
 
-			case PowerReactiveImport:
-				return ACEnergyDatum.REACTIVE_POWER_KEY;
+	private static final class CachedSourceId {
 
-			case RPM:
-				return "rpm";
+		private final String sourceId;
+		private final long expires;
 
-			case SoC:
-				return "soc";
+		private CachedSourceId(String sourceId, long expires) {
+			super();
+			this.sourceId = sourceId;
+			this.expires = expires;
+		}
 
-			case Temperature:
-				return AtmosphericDatum.TEMPERATURE_KEY;
+	}
 
-			case Voltage:
-				return ACEnergyDatum.VOLTAGE_KEY;
+	private String sourceId(ChargePoint chargePoint, int connectorId, Location location, Phase phase) {
+		final PlaceholderService service = service(getPlaceholderService());
+		if ( service != sourceIdCacheService ) {
+			sourceIdCache.clear();
+			sourceIdCacheService = service;
+		}
+		final SourceIdTemplate template = compiledSourceIdTemplate;
+		final String chargerIdentifier = chargePoint.getInfo().getId();
+		final SourceIdKey key = new SourceIdKey(chargePoint.getId(), chargerIdentifier, connectorId,
+				location, phase);
+		final long now = System.currentTimeMillis();
+		final CachedSourceId cached = sourceIdCache.get(key);
+		if ( cached != null && cached.expires > now ) {
+			return cached.sourceId;
+		}
+		String result;
+		if ( service == null && template.isCompiled() ) {
+			result = template.resolve(chargePoint.getId(), chargerIdentifier, connectorId, location,
+					phase);
+		} else {
+			Map<String, Object> params = new HashMap<>(4);
+			params.put("chargePointId", chargePoint.getId());
+			params.put("chargerIdentifier", chargerIdentifier);
+			params.put("connectorId", connectorId);
+			params.put("location", location);
+			params.put("phase", phase);
+			result = (service != null ? service.resolvePlaceholders(template.getTemplate(), params)
+					: StringUtils.expandTemplateString(template.getTemplate(), params));
+		}
+		if ( result != null && template == compiledSourceIdTemplate ) {
+			// placeholder values can change without notice, so only cache those briefly
+			sourceIdCache.put(key, new CachedSourceId(result,
+					service != null ? now + PLACEHOLDER_SOURCE_ID_CACHE_MS : Long.MAX_VALUE));
+		}
+		return result;
+	}
 
-			default:
-				return null;
+	private void populateProperty(GeneralNodeDatum datum, Measurand measurand, UnitOfMeasure unit,
+			Object value) {
+		try {
+			SampledValueConverter.populateProperty(datum, measurand, unit, value,
+					maxTemperatureScale);
+		} catch ( NumberFormatException e ) {
+			log.debug("Error parsing OCPP {} sampled value [{}]: {}", measurand, value,
+					e.getMessage());
 		}
 	}
 
@@ -603,13 +1097,66 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	public List<SettingSpecifier> getSettingSpecifiers() {
 		List<SettingSpecifier> results = new ArrayList<>(2);
 		results.add(new BasicTextFieldSettingSpecifier("sourceIdTemplate", DEFAULT_SOURCE_ID_TEMPLATE));
+		results.add(new BasicTextFieldSettingSpecifier("datumAggregationSeconds",
+				String.valueOf(DEFAULT_DATUM_AGGREGATION_SECONDS)));
+		results.add(new BasicToggleSettingSpecifier("publishSessionSummary", Boolean.FALSE));
 		results.add(new BasicTextFieldSettingSpecifier("maxTemperatureScale",
 				String.valueOf(DEFAULT_MAX_TEMPERATURE_SCALE)));
 		results.add(new BasicTextFieldSettingSpecifier("purgePostedChargeSessionsExpirationHours",
 				String.valueOf(PurgePostedChargeSessionsTask.DEFAULT_EXPIRATION_HOURS)));
+		results.add(new BasicTextFieldSettingSpecifier("purgePostedChargeSessionsChunkSize",
+				String.valueOf(ChunkedPurgePostedChargeSessionsTask.DEFAULT_CHUNK_SIZE)));
+		results.add(new BasicTextFieldSettingSpecifier("purgePostedChargeSessionsArchiveDirectory",
+				""));
+
+		if ( sessionStartTiming.getCount() > 0 ) {
+			results.add(0, new BasicTitleSettingSpecifier("sessionStartStatus",
+					sessionStartStatus(), true));
+		}
+
+		DatumQueue queue = datumQueue;
+		if ( queue != null ) {
+			results.add(0, new BasicTitleSettingSpecifier("datumQueueStatus",
+					datumQueueStatus(queue), true));
+		}
+		results.add(new BasicTextFieldSettingSpecifier("datumQueueCapacity",
+				String.valueOf(DEFAULT_DATUM_QUEUE_CAPACITY)));
+		results.add(new BasicTextFieldSettingSpecifier("datumQueueBatchSize",
+				String.valueOf(DatumQueue.DEFAULT_BATCH_SIZE)));
+		results.add(new BasicTextFieldSettingSpecifier("datumQueueLingerMs",
+				String.valueOf(DatumQueue.DEFAULT_LINGER_MS)));
+		BasicMultiValueSettingSpecifier overflowSpec = new BasicMultiValueSettingSpecifier(
+				"datumQueueOverflowPolicyValue", DatumQueue.DEFAULT_OVERFLOW_POLICY.name());
+		Map<String, String> overflowTitles = new LinkedHashMap<>(4);
+		for ( DatumQueue.OverflowPolicy p : DatumQueue.OverflowPolicy.values() ) {
+			overflowTitles.put(p.name(), getMessageSource().getMessage(
+					"datumQueueOverflowPolicy." + p.name(), null, p.name(), Locale.getDefault()));
+		}
+		overflowSpec.setValueTitles(overflowTitles);
+		results.add(overflowSpec);
 		return results;
 	}
 
+	private String sessionStartStatus() {
+		Object[] params = new Object[] { sessionStartTiming.getCount(),
+				String.format("%.1f", sessionStartTiming.getAverageMs()),
+				String.format("%.1f", sessionStartTiming.getMaxMs()),
+				String.format("%.1f", sessionStartTiming.getLastMs()) };
+		return getMessageSource().getMessage("sessionStartStatus.info", params,
+				String.format("Started: %s; average: %s ms; max: %s ms; last: %s ms", params),
+				Locale.getDefault());
+	}
+
+	private String datumQueueStatus(DatumQueue queue) {
+		Object[] params = new Object[] { queue.getQueueDepth(), queue.getCapacity(),
+				queue.getOldestLagMs(), queue.getLastLagMs(), queue.getStoredCount(),
+				queue.getDroppedCount(), queue.getFailedCount() };
+		return getMessageSource().getMessage("datumQueueStatus.info", params,
+				String.format("Queued: %d/%d; lag: %d ms (last %d ms); stored: %d; "
+						+ "dropped: %d; failed: %d", params),
+				Locale.getDefault());
+	}
+
 	/**
 	 * Get the source ID template.
 	 * 
@@ -635,11 +1182,92 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 	 * <li><code>{phase}</code> - the phase (string)</li>
 	 * </ol>
 	 * 
+	 * <p>
+	 * The template is parsed once and resolved source IDs are cached; calling
+	 * this method clears that cache.
+	 * </p>
+	 * 
 	 * @param sourceIdTemplate
 	 *        the template to set
 	 */
 	public void setSourceIdTemplate(String sourceIdTemplate) {
 		this.sourceIdTemplate = sourceIdTemplate;
+		this.compiledSourceIdTemplate = new SourceIdTemplate(sourceIdTemplate);
+		sourceIdCache.clear();
+	}
+
+	/**
+	 * Set the placeholder service.
+	 * 
+	 * <p>
+	 * This clears the resolved source ID cache. Source IDs resolved with
+	 * placeholders are cached for at most one minute, so changes to
+	 * placeholder values are picked up within that time.
+	 * </p>
+	 */
+	@Override
+	public void setPlaceholderService(OptionalService<PlaceholderService> placeholderService) {
+		super.setPlaceholderService(placeholderService);
+		sourceIdCache.clear();
+	}
+
+	/**
+	 * Get the datum aggregation period.
+	 * 
+	 * @return the period, in seconds; defaults to
+	 *         {@link #DEFAULT_DATUM_AGGREGATION_SECONDS}
+	 */
+	public int getDatumAggregationSeconds() {
+		return datumAggregationSeconds;
+	}
+
+	/**
+	 * Set the datum aggregation period.
+	 * 
+	 * <p>
+	 * When greater than {@literal 0}, readings are aggregated per source into
+	 * periods of this many seconds, and a single datum is generated for each
+	 * period with the average, minimum, and maximum of instantaneous values and
+	 * the last value of accumulating values. Readings at the start or end of a
+	 * transaction are not aggregated. Periods that stop receiving readings are
+	 * stored by a task run on the {@code taskScheduler} once per period, and
+	 * any remaining periods are stored on shutdown.
+	 * </p>
+	 * 
+	 * @param datumAggregationSeconds
+	 *        the period to set, or {@literal 0} to disable aggregation
+	 */
+	public void setDatumAggregationSeconds(int datumAggregationSeconds) {
+		this.datumAggregationSeconds = datumAggregationSeconds;
+	}
+
+	/**
+	 * Get the "publish session summary" setting.
+	 * 
+	 * @return {@literal true} to generate a summary datum when a charge session
+	 *         ends; defaults to {@literal false}
+	 */
+	public boolean isPublishSessionSummary() {
+		return publishSessionSummary;
+	}
+
+	/**
+	 * Set the "publish session summary" setting.
+	 * 
+	 * <p>
+	 * When enabled, a running summary of each charge session is maintained as
+	 * readings arrive, and a single datum with the energy delivered, average
+	 * and peak power, maximum current, and duration of the session is
+	 * generated when the session ends. The datum source ID is the session's
+	 * outlet source ID with {@link #SESSION_SUMMARY_SOURCE_ID_SUFFIX} appended.
+	 * </p>
+	 * 
+	 * @param publishSessionSummary
+	 *        {@literal true} to generate a summary datum when a charge session
+	 *        ends
+	 */
+	public void setPublishSessionSummary(boolean publishSessionSummary) {
+		this.publishSessionSummary = publishSessionSummary;
 	}
 
 	/**
@@ -667,6 +1295,192 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		this.maxTemperatureScale = maxTemperatureScale;
 	}
 
+	/**
+	 * Get the maximum number of recent readings kept in memory per active
+	 * session for de-duplication.
+	 * 
+	 * @return the window size; defaults to
+	 *         {@link ChargeSessionReadingIndex#DEFAULT_WINDOW_SIZE}
+	 */
+	public int getReadingIndexWindowSize() {
+		return readingIndex.getWindowSize();
+	}
+
+	/**
+	 * Set the maximum number of recent readings kept in memory per active
+	 * session for de-duplication.
+	 * 
+	 * <p>
+	 * Readings older than this window are de-duplicated by querying the
+	 * persisted session readings instead.
+	 * </p>
+	 * 
+	 * @param windowSize
+	 *        the window size to set
+	 */
+	public void setReadingIndexWindowSize(int windowSize) {
+		readingIndex.setWindowSize(windowSize);
+	}
+
+	/**
+	 * Get the datum queue capacity.
+	 * 
+	 * @return the capacity; defaults to {@link #DEFAULT_DATUM_QUEUE_CAPACITY}
+	 */
+	public int getDatumQueueCapacity() {
+		return datumQueueCapacity;
+	}
+
+	/**
+	 * Set the datum queue capacity.
+	 * 
+	 * <p>
+	 * When greater than {@literal 0} datum generated from charge session
+	 * readings are handed to a bounded queue after the charge session
+	 * transaction commits, and stored in batches by a background thread. When
+	 * {@literal 0} datum are stored synchronously within the charge session
+	 * transaction.
+	 * </p>
+	 * 
+	 * @param datumQueueCapacity
+	 *        the capacity to set
+	 */
+	public void setDatumQueueCapacity(int datumQueueCapacity) {
+		this.datumQueueCapacity = datumQueueCapacity;
+	}
+
+	/**
+	 * Get the maximum number of queued datum to store per batch.
+	 * 
+	 * @return the batch size; defaults to {@link DatumQueue#DEFAULT_BATCH_SIZE}
+	 */
+	public int getDatumQueueBatchSize() {
+		return datumQueueBatchSize;
+	}
+
+	/**
+	 * Set the maximum number of queued datum to store per batch.
+	 * 
+	 * @param datumQueueBatchSize
+	 *        the batch size to set
+	 */
+	public void setDatumQueueBatchSize(int datumQueueBatchSize) {
+		this.datumQueueBatchSize = datumQueueBatchSize;
+	}
+
+	/**
+	 * Get the maximum time to wait for a queued datum batch to fill.
+	 * 
+	 * @return the linger time, in milliseconds; defaults to
+	 *         {@link DatumQueue#DEFAULT_LINGER_MS}
+	 */
+	public long getDatumQueueLingerMs() {
+		return datumQueueLingerMs;
+	}
+
+	/**
+	 * Set the maximum time to wait for a queued datum batch to fill.
+	 * 
+	 * @param datumQueueLingerMs
+	 *        the linger time to set, in milliseconds
+	 */
+	public void setDatumQueueLingerMs(long datumQueueLingerMs) {
+		this.datumQueueLingerMs = datumQueueLingerMs;
+	}
+
+	/**
+	 * Get the datum queue overflow policy.
+	 * 
+	 * @return the policy; defaults to
+	 *         {@link DatumQueue#DEFAULT_OVERFLOW_POLICY}
+	 */
+	public DatumQueue.OverflowPolicy getDatumQueueOverflowPolicy() {
+		return datumQueueOverflowPolicy;
+	}
+
+	/**
+	 * Set the datum queue overflow policy.
+	 * 
+	 * @param datumQueueOverflowPolicy
+	 *        the policy to set; if {@literal null} then
+	 *        {@link DatumQueue#DEFAULT_OVERFLOW_POLICY} will be used
+	 */
+	public void setDatumQueueOverflowPolicy(DatumQueue.OverflowPolicy datumQueueOverflowPolicy) {
+		this.datumQueueOverflowPolicy = (datumQueueOverflowPolicy != null
+				? datumQueueOverflowPolicy
+				: DatumQueue.DEFAULT_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * Get the datum queue overflow policy as a string value.
+	 * 
+	 * @return the policy name
+	 */
+	public String getDatumQueueOverflowPolicyValue() {
+		return datumQueueOverflowPolicy.name();
+	}
+
+	/**
+	 * Set the datum queue overflow policy as a string value.
+	 * 
+	 * @param value
+	 *        the policy name to set; unsupported values will be ignored
+	 */
+	public void setDatumQueueOverflowPolicyValue(String value) {
+		try {
+			setDatumQueueOverflowPolicy(DatumQueue.OverflowPolicy.valueOf(value));
+		} catch ( IllegalArgumentException | NullPointerException e ) {
+			log.warn("Unsupported datum queue overflow policy [{}]", value);
+		}
+	}
+
+	/**
+	 * Get the charge session start timing statistics.
+	 * 
+	 * @return the statistics, never {@literal null}
+	 */
+	public TimingStats getSessionStartTiming() {
+		return sessionStartTiming;
+	}
+
+	/**
+	 * Get the number of charge session summaries being maintained.
+	 * 
+	 * @return the summary count
+	 */
+	public int getSessionSummaryCount() {
+		return sessionSummaries.size();
+	}
+
+	/**
+	 * Get the datum queue, if enabled.
+	 * 
+	 * @return the datum queue, or {@literal null} if datum are stored
+	 *         synchronously
+	 */
+	public DatumQueue getDatumQueue() {
+		return datumQueue;
+	}
+
+	/**
+	 * Get the transaction template.
+	 * 
+	 * @return the transaction template
+	 */
+	public TransactionTemplate getTransactionTemplate() {
+		return transactionTemplate;
+	}
+
+	/**
+	 * Set a transaction template to store queued datum batches within.
+	 * 
+	 * @param transactionTemplate
+	 *        the transaction template to set
+	 */
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
 	/**
 	 * Get the task scheduler.
 	 * 
@@ -707,4 +1521,60 @@ public class SolarNetChargeSessionManager extends BaseIdentifiable
 		purgePostedTask.setExpirationHours(hours);
 	}
 
+	/**
+	 * Get the maximum number of posted charge sessions to purge per
+	 * transaction.
+	 * 
+	 * @return the chunk size; defaults to
+	 *         {@link ChunkedPurgePostedChargeSessionsTask#DEFAULT_CHUNK_SIZE}
+	 */
+	public int getPurgePostedChargeSessionsChunkSize() {
+		return purgePostedChargeSessionsChunkSize;
+	}
+
+	/**
+	 * Set the maximum number of posted charge sessions to purge per
+	 * transaction.
+	 * 
+	 * <p>
+	 * When greater than {@literal 0}, posted charge sessions are purged in
+	 * chunks of this many sessions by a
+	 * {@link ChunkedPurgePostedChargeSessionsTask}. Otherwise all expired
+	 * sessions are purged at once.
+	 * </p>
+	 * 
+	 * @param chunkSize
+	 *        the chunk size to set, or {@literal 0} to purge all sessions at
+	 *        once
+	 */
+	public void setPurgePostedChargeSessionsChunkSize(int chunkSize) {
+		this.purgePostedChargeSessionsChunkSize = chunkSize;
+	}
+
+	/**
+	 * Get the directory to archive posted charge sessions to before purging
+	 * them.
+	 * 
+	 * @return the directory, or {@literal null} if archiving is disabled
+	 */
+	public String getPurgePostedChargeSessionsArchiveDirectory() {
+		return chunkedPurgePostedTask.getArchiveDirectory();
+	}
+
+	/**
+	 * Set the directory to archive posted charge sessions to before purging
+	 * them.
+	 * 
+	 * <p>
+	 * This only applies when purging in chunks; see
+	 * {@link #setPurgePostedChargeSessionsChunkSize(int)}.
+	 * </p>
+	 * 
+	 * @param directory
+	 *        the directory to set, or {@literal null} to disable archiving
+	 */
+	public void setPurgePostedChargeSessionsArchiveDirectory(String directory) {
+		chunkedPurgePostedTask.setArchiveDirectory(directory);
+	}
+
 }
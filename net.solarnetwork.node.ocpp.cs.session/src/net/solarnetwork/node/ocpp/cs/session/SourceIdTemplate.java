@@ -0,0 +1,187 @@
+/* ==================================================================
+ * SourceIdTemplate.java - 17/10/2026 1:21:37 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Phase;
+
+/**
+ * A pre-parsed source ID template.
+ * 
+ * <p>
+ * The template is parsed once into literal and parameter segments, so
+ * resolving a source ID does not need to re-scan the template or populate a
+ * parameter map. Only templates that use just the parameters supported by
+ * {@link SolarNetChargeSessionManager#setSourceIdTemplate(String)} can be
+ * compiled; see {@link #isCompiled()}.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public final class SourceIdTemplate {
+
+	private static final Pattern PARAM_PATTERN = Pattern.compile("\\{([^}]+)\\}");
+
+	private enum Param {
+
+		chargePointId,
+
+		chargerIdentifier,
+
+		connectorId,
+
+		location,
+
+		phase;
+
+	}
+
+	private final String template;
+	private final String[] literals;
+	private final Param[] params;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param template
+	 *        the template to compile
+	 */
+	public SourceIdTemplate(String template) {
+		super();
+		this.template = template;
+		List<String> lits = new ArrayList<>(6);
+		List<Param> ps = new ArrayList<>(5);
+		boolean ok = (template != null);
+		if ( ok ) {
+			Matcher m = PARAM_PATTERN.matcher(template);
+			int start = 0;
+			while ( m.find() ) {
+				Param p;
+				try {
+					p = Param.valueOf(m.group(1));
+				} catch ( IllegalArgumentException e ) {
+					ok = false;
+					break;
+				}
+				lits.add(template.substring(start, m.start()));
+				ps.add(p);
+				start = m.end();
+			}
+			lits.add(template.substring(start));
+		}
+		if ( ok ) {
+			this.literals = lits.toArray(new String[lits.size()]);
+			this.params = ps.toArray(new Param[ps.size()]);
+		} else {
+			this.literals = null;
+			this.params = null;
+		}
+	}
+
+	/**
+	 * Get the template.
+	 * 
+	 * @return the template
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Test if the template could be compiled.
+	 * 
+	 * @return {@literal true} if {@link #resolve(long, String, int, Location, Phase)}
+	 *         can be used, {@literal false} if the template contains
+	 *         unsupported parameters and must be resolved some other way
+	 */
+	public boolean isCompiled() {
+		return literals != null;
+	}
+
+	/**
+	 * Resolve a source ID.
+	 * 
+	 * <p>
+	 * Parameters with {@literal null} values resolve to an empty string.
+	 * </p>
+	 * 
+	 * @param chargePointId
+	 *        the charge point ID
+	 * @param chargerIdentifier
+	 *        the charge point identifier
+	 * @param connectorId
+	 *        the connector ID
+	 * @param location
+	 *        the location
+	 * @param phase
+	 *        the phase
+	 * @return the resolved source ID
+	 * @throws IllegalStateException
+	 *         if the template could not be compiled
+	 */
+	public String resolve(long chargePointId, String chargerIdentifier, int connectorId,
+			Location location, Phase phase) {
+		if ( literals == null ) {
+			throw new IllegalStateException("Template not compiled.");
+		}
+		StringBuilder buf = new StringBuilder(template.length() + 16);
+		for ( int i = 0; i < params.length; i++ ) {
+			buf.append(literals[i]);
+			switch (params[i]) {
+				case chargePointId:
+					buf.append(chargePointId);
+					break;
+
+				case chargerIdentifier:
+					if ( chargerIdentifier != null ) {
+						buf.append(chargerIdentifier);
+					}
+					break;
+
+				case connectorId:
+					buf.append(connectorId);
+					break;
+
+				case location:
+					if ( location != null ) {
+						buf.append(location);
+					}
+					break;
+
+				case phase:
+					if ( phase != null ) {
+						buf.append(phase);
+					}
+					break;
+			}
+		}
+		buf.append(literals[params.length]);
+		return buf.toString();
+	}
+
+}
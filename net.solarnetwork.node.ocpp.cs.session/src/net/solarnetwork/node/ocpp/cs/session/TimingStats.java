@@ -0,0 +1,104 @@
+/* ==================================================================
+ * TimingStats.java - 17/10/2026 4:12:53 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.cs.session;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple thread-safe statistics on the duration of an operation.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class TimingStats {
+
+	private final AtomicLong count = new AtomicLong(0);
+	private final AtomicLong totalNanos = new AtomicLong(0);
+	private final AtomicLong maxNanos = new AtomicLong(0);
+	private volatile long lastNanos = 0;
+
+	/**
+	 * Record the duration of one operation.
+	 * 
+	 * @param nanos
+	 *        the duration, in nanoseconds
+	 */
+	public void record(long nanos) {
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		lastNanos = nanos;
+		long max = maxNanos.get();
+		while ( nanos > max && !maxNanos.compareAndSet(max, nanos) ) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Reset all statistics.
+	 */
+	public void reset() {
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+		lastNanos = 0;
+	}
+
+	/**
+	 * Get the number of recorded operations.
+	 * 
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Get the average duration.
+	 * 
+	 * @return the average duration, in milliseconds
+	 */
+	public double getAverageMs() {
+		long c = count.get();
+		return (c > 0 ? (totalNanos.get() / (double) c) / TimeUnit.MILLISECONDS.toNanos(1) : 0.0);
+	}
+
+	/**
+	 * Get the maximum duration.
+	 * 
+	 * @return the maximum duration, in milliseconds
+	 */
+	public double getMaxMs() {
+		return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * Get the most recent duration.
+	 * 
+	 * @return the most recent duration, in milliseconds
+	 */
+	public double getLastMs() {
+		return lastNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+}
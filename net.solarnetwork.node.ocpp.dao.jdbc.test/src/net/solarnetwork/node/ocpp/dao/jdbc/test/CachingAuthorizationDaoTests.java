@@ -0,0 +1,221 @@
+/* ==================================================================
+ * CachingAuthorizationDaoTests.java - 17/10/2026 11:20:48 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc.test;
+
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.dao.jdbc.CachingAuthorizationDao;
+import net.solarnetwork.ocpp.dao.AuthorizationDao;
+import net.solarnetwork.ocpp.domain.Authorization;
+
+/**
+ * Test cases for the {@link CachingAuthorizationDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class CachingAuthorizationDaoTests {
+
+	private AuthorizationDao delegate;
+	private CachingAuthorizationDao dao;
+
+	@Before
+	public void setup() {
+		delegate = EasyMock.createMock(AuthorizationDao.class);
+		dao = new CachingAuthorizationDao(delegate);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(delegate);
+	}
+
+	private static Authorization auth(Long id, String token) {
+		Authorization auth = new Authorization(id, Instant.now());
+		auth.setToken(token);
+		auth.setEnabled(true);
+		return auth;
+	}
+
+	@Test
+	public void getForToken_cached() {
+		// given
+		Authorization auth = auth(1L, "foo");
+		expect(delegate.getForToken("foo")).andReturn(auth).once();
+
+		// when
+		EasyMock.replay(delegate);
+		Authorization r1 = dao.getForToken("foo");
+		Authorization r2 = dao.getForToken("foo");
+
+		// then
+		assertThat("First result from delegate", r1, sameInstance(auth));
+		assertThat("Second result from cache", r2, equalTo(auth));
+		assertThat("Cached result is a copy", r2, not(sameInstance(auth)));
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+		assertThat("Miss count", dao.getMissCount(), equalTo(1L));
+	}
+
+	@Test
+	public void getForToken_invalidatedWhileLoading() {
+		// given
+		Authorization old = auth(1L, "foo");
+		Authorization updated = auth(1L, "foo");
+		updated.setEnabled(false);
+		expect(delegate.getForToken("foo")).andAnswer(() -> {
+			// another thread saves the authorization while this lookup is loading
+			dao.clear();
+			return old;
+		});
+		expect(delegate.getForToken("foo")).andReturn(updated);
+
+		// when
+		EasyMock.replay(delegate);
+		Authorization r1 = dao.getForToken("foo");
+		Authorization r2 = dao.getForToken("foo");
+
+		// then
+		assertThat("First result from delegate", r1, sameInstance(old));
+		assertThat("Stale result not cached", r2, sameInstance(updated));
+		assertThat("Miss count", dao.getMissCount(), equalTo(2L));
+	}
+
+	@Test
+	public void getForToken_notFoundCached() {
+		// given
+		expect(delegate.getForToken("foo")).andReturn(null).once();
+
+		// when
+		EasyMock.replay(delegate);
+		Authorization r1 = dao.getForToken("foo");
+		Authorization r2 = dao.getForToken("foo");
+
+		// then
+		assertThat("Not found", r1, nullValue());
+		assertThat("Not found from cache", r2, nullValue());
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void getForToken_disabled() {
+		// given
+		dao.setTtlSeconds(0);
+		Authorization auth = auth(1L, "foo");
+		expect(delegate.getForToken("foo")).andReturn(auth).times(2);
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForToken("foo");
+		dao.getForToken("foo");
+
+		// then
+		assertThat("Nothing cached", dao.getCacheSize(), equalTo(0));
+	}
+
+	@Test
+	public void maxSizeEvictsLeastRecentlyUsed() {
+		// given
+		dao.setMaxSize(2);
+		expect(delegate.getForToken("a")).andReturn(auth(1L, "a")).once();
+		expect(delegate.getForToken("b")).andReturn(auth(2L, "b")).times(2);
+		expect(delegate.getForToken("c")).andReturn(auth(3L, "c")).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForToken("a");
+		dao.getForToken("b");
+		dao.getForToken("a"); // hit, so b is now least recently used
+		dao.getForToken("c"); // evicts b
+		dao.getForToken("a"); // hit
+		dao.getForToken("b"); // miss
+
+		// then
+		assertThat("Cache size limited", dao.getCacheSize(), equalTo(2));
+		assertThat("Hit count", dao.getHitCount(), equalTo(2L));
+		assertThat("Miss count", dao.getMissCount(), equalTo(4L));
+	}
+
+	@Test
+	public void saveInvalidates() {
+		// given
+		Authorization auth = auth(1L, "foo");
+		expect(delegate.getForToken("foo")).andReturn(auth).times(2);
+		expect(delegate.save(auth)).andReturn(auth.getId());
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForToken("foo");
+		dao.save(auth);
+		dao.getForToken("foo");
+
+		// then
+		assertThat("Miss count", dao.getMissCount(), equalTo(2L));
+	}
+
+	@Test
+	public void saveChangedTokenInvalidatesById() {
+		// given
+		Authorization auth = auth(1L, "foo");
+		expect(delegate.getForToken("foo")).andReturn(auth).once();
+		Authorization changed = auth(1L, "bar");
+		expect(delegate.save(changed)).andReturn(changed.getId());
+		expect(delegate.getForToken("foo")).andReturn(null).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForToken("foo");
+		dao.save(changed);
+		Authorization result = dao.getForToken("foo");
+
+		// then
+		assertThat("Old token no longer cached", result, nullValue());
+	}
+
+	@Test
+	public void deleteInvalidates() {
+		// given
+		Authorization auth = auth(1L, "foo");
+		expect(delegate.getForToken("foo")).andReturn(auth).once();
+		delegate.delete(auth);
+		expect(delegate.getForToken("foo")).andReturn(null).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForToken("foo");
+		dao.delete(auth);
+		Authorization result = dao.getForToken("foo");
+
+		// then
+		assertThat("Deleted token not found", result, nullValue());
+	}
+
+}
@@ -0,0 +1,222 @@
+/* ==================================================================
+ * CachingChargePointDaoTests.java - 18/10/2026 9:40:17 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc.test;
+
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.dao.jdbc.CachingChargePointDao;
+import net.solarnetwork.ocpp.dao.ChargePointDao;
+import net.solarnetwork.ocpp.domain.ChargePoint;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.ChargePointInfo;
+import net.solarnetwork.ocpp.domain.RegistrationStatus;
+
+/**
+ * Test cases for the {@link CachingChargePointDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class CachingChargePointDaoTests {
+
+	private ChargePointDao delegate;
+	private CachingChargePointDao dao;
+
+	@Before
+	public void setup() {
+		delegate = EasyMock.createMock(ChargePointDao.class);
+		dao = new CachingChargePointDao(delegate);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(delegate);
+	}
+
+	private static ChargePoint chargePoint(Long id, String identifier) {
+		ChargePointInfo info = new ChargePointInfo(identifier);
+		info.setChargePointVendor("foo");
+		info.setChargePointModel("bar");
+		ChargePoint cp = new ChargePoint(id, Instant.now(), info);
+		cp.setEnabled(true);
+		cp.setRegistrationStatus(RegistrationStatus.Accepted);
+		cp.setConnectorCount(2);
+		return cp;
+	}
+
+	private static ChargePointIdentity identity(String identifier) {
+		return new ChargePointIdentity(identifier, ChargePointIdentity.ANY_USER);
+	}
+
+	@Test
+	public void getForIdentity_cached() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(cp).once();
+
+		// when
+		EasyMock.replay(delegate);
+		ChargePoint r1 = dao.getForIdentity(identity("foo"));
+		ChargePoint r2 = dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("First result from delegate", r1, sameInstance(cp));
+		assertThat("Second result from cache", r2.isSameAs(cp), equalTo(true));
+		assertThat("Cached result is a copy", r2, not(sameInstance(cp)));
+		assertThat("Cached info is a copy", r2.getInfo(), not(sameInstance(cp.getInfo())));
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+		assertThat("Miss count", dao.getMissCount(), equalTo(1L));
+	}
+
+	@Test
+	public void getForIdentity_thenById() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(cp).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForIdentity(identity("foo"));
+		ChargePoint result = dao.get(1L);
+
+		// then
+		assertThat("Found by ID from cache", result.isSameAs(cp), equalTo(true));
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void getById_thenForIdentity() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.get(1L)).andReturn(cp).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.get(1L);
+		ChargePoint result = dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Found by identity from cache", result.isSameAs(cp), equalTo(true));
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void getForIdentity_notFoundNotCached() {
+		// given
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(null).times(2);
+
+		// when
+		EasyMock.replay(delegate);
+		ChargePoint r1 = dao.getForIdentity(identity("foo"));
+		ChargePoint r2 = dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Not found", r1, nullValue());
+		assertThat("Still not found", r2, nullValue());
+		assertThat("Nothing cached", dao.getCacheSize(), equalTo(0));
+	}
+
+	@Test
+	public void getForIdentity_disabled() {
+		// given
+		dao.setTtlSeconds(0);
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(cp).times(2);
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForIdentity(identity("foo"));
+		dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Nothing cached", dao.getCacheSize(), equalTo(0));
+	}
+
+	@Test
+	public void saveInvalidatesBothIndexes() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(cp).once();
+		expect(delegate.save(cp)).andReturn(cp.getId());
+		expect(delegate.get(1L)).andReturn(cp).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForIdentity(identity("foo"));
+		dao.save(cp);
+		dao.get(1L);
+		dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Miss count", dao.getMissCount(), equalTo(2L));
+		assertThat("Hit count", dao.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void saveChangedIdentifierInvalidatesOldIdentifier() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(cp).once();
+		ChargePoint changed = chargePoint(1L, "bar");
+		expect(delegate.save(changed)).andReturn(changed.getId());
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(null).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.getForIdentity(identity("foo"));
+		dao.save(changed);
+		ChargePoint result = dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Old identifier no longer cached", result, nullValue());
+	}
+
+	@Test
+	public void deleteInvalidates() {
+		// given
+		ChargePoint cp = chargePoint(1L, "foo");
+		expect(delegate.get(1L)).andReturn(cp).once();
+		delegate.delete(cp);
+		expect(delegate.getForIdentity(identity("foo"))).andReturn(null).once();
+
+		// when
+		EasyMock.replay(delegate);
+		dao.get(1L);
+		dao.delete(cp);
+		ChargePoint result = dao.getForIdentity(identity("foo"));
+
+		// then
+		assertThat("Deleted charge point not found", result, nullValue());
+		assertThat("Nothing cached", dao.getCacheSize(), equalTo(0));
+	}
+
+}
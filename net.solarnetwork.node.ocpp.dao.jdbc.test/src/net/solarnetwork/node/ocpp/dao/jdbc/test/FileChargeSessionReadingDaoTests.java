@@ -0,0 +1,329 @@
+/* ==================================================================
+ * FileChargeSessionReadingDaoTests.java - 17/10/2026 10:21:37 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc.test;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import net.solarnetwork.node.ocpp.dao.jdbc.FileChargeSessionReadingDao;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.Phase;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Test cases for the {@link FileChargeSessionReadingDao} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class FileChargeSessionReadingDaoTests {
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	private Path dir;
+	private FileChargeSessionReadingDao dao;
+
+	@Before
+	public void setup() throws IOException {
+		dir = tmpDir.newFolder().toPath();
+		dao = new FileChargeSessionReadingDao(dir);
+	}
+
+	@After
+	public void teardown() {
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static void completeTransaction(boolean commit) {
+		for ( TransactionSynchronization s : TransactionSynchronizationManager
+				.getSynchronizations() ) {
+			if ( commit ) {
+				s.afterCommit();
+			}
+			s.afterCompletion(commit ? TransactionSynchronization.STATUS_COMMITTED
+					: TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private Path segmentFile(UUID sessionId) {
+		return dir.resolve(sessionId + FileChargeSessionReadingDao.SEGMENT_FILE_SUFFIX);
+	}
+
+	private static SampledValue reading(UUID sessionId, Instant ts, Measurand measurand,
+			Phase phase, String value) {
+		// @formatter:off
+		SampledValue.Builder b = SampledValue.builder().withSessionId(sessionId)
+				.withTimestamp(ts)
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(measurand)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue(value);
+		// @formatter:on
+		if ( phase != null ) {
+			b.withPhase(phase);
+		}
+		return b.build();
+	}
+
+	@Test
+	public void findReadings_none() {
+		List<SampledValue> results = dao.findReadingsForSession(UUID.randomUUID());
+		assertThat("No readings", results, hasSize(0));
+	}
+
+	@Test
+	public void processReadings_none() {
+		List<SampledValue> results = new ArrayList<>();
+		boolean found = dao.processReadingsForSession(UUID.randomUUID(), null, results::add);
+		assertThat("No readings stored", found, equalTo(false));
+		assertThat("No readings processed", results, hasSize(0));
+	}
+
+	@Test
+	public void processReadings_since() {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		SampledValue r1 = reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1");
+		SampledValue r2 = reading(sessionId, ts.plusSeconds(1),
+				Measurand.EnergyActiveImportRegister, null, "2");
+		SampledValue r3 = reading(sessionId, ts.plusSeconds(2),
+				Measurand.EnergyActiveImportRegister, null, "3");
+		SampledValue r4 = reading(sessionId, ts.plusSeconds(3),
+				Measurand.EnergyActiveImportRegister, null, "4");
+		dao.addReadings(Arrays.asList(r1));
+		dao.addReadings(Arrays.asList(r3, r2));
+		dao.addReadings(Arrays.asList(r4));
+
+		List<SampledValue> results = new ArrayList<>();
+		boolean found = dao.processReadingsForSession(sessionId, r2.getTimestamp(), results::add);
+		assertThat("Readings stored", found, equalTo(true));
+		assertThat("Readings since processed in time order", results, contains(r2, r3, r4));
+	}
+
+	@Test
+	public void addReadings_transactionCommit() {
+		UUID sessionId = UUID.randomUUID();
+		SampledValue r1 = reading(sessionId, Instant.ofEpochMilli(System.currentTimeMillis()),
+				Measurand.EnergyActiveImportRegister, null, "1");
+
+		TransactionSynchronizationManager.initSynchronization();
+		dao.addReadings(Arrays.asList(r1));
+		assertThat("Segment file created before commit", Files.exists(segmentFile(sessionId)),
+				equalTo(true));
+		assertThat("Readings visible within transaction", dao.findReadingsForSession(sessionId),
+				contains(r1));
+
+		completeTransaction(true);
+		assertThat("Readings kept after commit", dao.findReadingsForSession(sessionId),
+				contains(r1));
+		assertThat("Only segment file in directory", dir.toFile().list(),
+				arrayContaining(segmentFile(sessionId).getFileName().toString()));
+	}
+
+	@Test
+	public void addReadings_transactionRollback() {
+		UUID sessionId = UUID.randomUUID();
+		SampledValue r1 = reading(sessionId, Instant.ofEpochMilli(System.currentTimeMillis()),
+				Measurand.EnergyActiveImportRegister, null, "1");
+
+		TransactionSynchronizationManager.initSynchronization();
+		dao.addReadings(Arrays.asList(r1));
+
+		completeTransaction(false);
+		assertThat("Segment file deleted after rollback", Files.exists(segmentFile(sessionId)),
+				equalTo(false));
+	}
+
+	@Test
+	public void addReadings_transactionRollback_append() {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		SampledValue r1 = reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1");
+		SampledValue r2 = reading(sessionId, ts.plusSeconds(1),
+				Measurand.EnergyActiveImportRegister, null, "2");
+		SampledValue r3 = reading(sessionId, ts.plusSeconds(2),
+				Measurand.EnergyActiveImportRegister, null, "3");
+		dao.addReadings(Arrays.asList(r1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		dao.addReadings(Arrays.asList(r2));
+		assertThat("Readings visible within transaction", dao.findReadingsForSession(sessionId),
+				contains(r1, r2));
+
+		completeTransaction(false);
+		assertThat("Rolled back readings discarded", dao.findReadingsForSession(sessionId),
+				contains(r1));
+
+		dao.addReadings(Arrays.asList(r3));
+		assertThat("Readings appended after discarded block", dao.findReadingsForSession(sessionId),
+				contains(r1, r3));
+	}
+
+	@Test
+	public void addReadings() {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		List<SampledValue> readings = Arrays.asList(
+				reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1234"),
+				reading(sessionId, ts.plusMillis(1), Measurand.CurrentImport, Phase.L1, "16.50"),
+				reading(sessionId, ts.plusSeconds(60), Measurand.EnergyActiveImportRegister, null,
+						"-0.001"));
+		dao.addReadings(readings);
+
+		assertThat("Segment file created",
+				Files.exists(segmentFile(sessionId)),
+				equalTo(true));
+		assertThat("Readings restored", dao.findReadingsForSession(sessionId),
+				contains(readings.get(0), readings.get(1), readings.get(2)));
+	}
+
+	@Test
+	public void addReadings_stringValues() {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		List<SampledValue> readings = Arrays.asList(
+				reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1E3"),
+				reading(sessionId, ts.plusMillis(1), Measurand.EnergyActiveImportRegister, null,
+						"12345678901234567890.5"),
+				reading(sessionId, ts.plusMillis(2), Measurand.EnergyActiveImportRegister, null,
+						"n/a"),
+				reading(sessionId, ts.plusMillis(3), Measurand.EnergyActiveImportRegister, null,
+						null));
+		dao.addReadings(readings);
+
+		assertThat("Readings restored", dao.findReadingsForSession(sessionId), equalTo(readings));
+	}
+
+	@Test
+	public void addReadings_appendAndOrder() {
+		UUID sessionId = UUID.randomUUID();
+		UUID otherSessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		SampledValue r1 = reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1");
+		SampledValue r2 = reading(sessionId, ts.plusSeconds(1),
+				Measurand.EnergyActiveImportRegister, null, "2");
+		SampledValue r3 = reading(sessionId, ts.plusSeconds(2),
+				Measurand.EnergyActiveImportRegister, null, "3");
+		SampledValue o1 = reading(otherSessionId, ts, Measurand.EnergyActiveImportRegister, null,
+				"4");
+
+		dao.addReadings(Arrays.asList(r3, o1));
+		dao.addReadings(Arrays.asList(r1));
+		dao.addReadings(Arrays.asList(r2));
+
+		assertThat("Readings from all blocks restored in time order",
+				dao.findReadingsForSession(sessionId), contains(r1, r2, r3));
+		assertThat("Other session readings", dao.findReadingsForSession(otherSessionId),
+				contains(o1));
+	}
+
+	@Test
+	public void addReadings_many() {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		List<SampledValue> readings = new ArrayList<>();
+		for ( int i = 0; i < 1000; i++ ) {
+			readings.add(reading(sessionId, ts.plusSeconds(i), Measurand.EnergyActiveImportRegister,
+					null, String.valueOf(i * 10) + ".5"));
+		}
+		dao.addReadings(readings);
+		assertThat("Readings restored", dao.findReadingsForSession(sessionId), equalTo(readings));
+	}
+
+	@Test
+	public void deleteReadings() {
+		UUID sessionId = UUID.randomUUID();
+		dao.addReadings(Arrays.asList(reading(sessionId,
+				Instant.ofEpochMilli(System.currentTimeMillis()),
+				Measurand.EnergyActiveImportRegister, null, "1")));
+
+		dao.deleteReadingsForSession(sessionId);
+
+		assertThat("Segment file deleted",
+				Files.exists(segmentFile(sessionId)),
+				equalTo(false));
+		assertThat("No readings", dao.findReadingsForSession(sessionId), hasSize(0));
+	}
+
+	@Test
+	public void deleteReadings_transactionRollback() {
+		UUID sessionId = UUID.randomUUID();
+		SampledValue r1 = reading(sessionId, Instant.ofEpochMilli(System.currentTimeMillis()),
+				Measurand.EnergyActiveImportRegister, null, "1");
+		dao.addReadings(Arrays.asList(r1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		dao.deleteReadingsForSession(sessionId);
+
+		completeTransaction(false);
+		assertThat("Readings kept after rollback", dao.findReadingsForSession(sessionId),
+				contains(r1));
+	}
+
+	@Test
+	public void findReadings_ignoreIncompleteBlock() throws IOException {
+		UUID sessionId = UUID.randomUUID();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis());
+		SampledValue r1 = reading(sessionId, ts, Measurand.EnergyActiveImportRegister, null, "1");
+		dao.addReadings(Arrays.asList(r1));
+		dao.addReadings(Arrays.asList(reading(sessionId, ts.plusSeconds(1),
+				Measurand.EnergyActiveImportRegister, null, "2")));
+
+		// simulate an interrupted write by chopping off the end of the file
+		Path file = segmentFile(sessionId);
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ch.truncate(ch.size() - 3);
+		}
+
+		assertThat("Complete blocks restored", dao.findReadingsForSession(sessionId),
+				contains(r1));
+	}
+
+}
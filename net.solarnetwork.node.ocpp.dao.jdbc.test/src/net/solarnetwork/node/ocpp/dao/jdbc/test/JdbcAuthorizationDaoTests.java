@@ -29,12 +29,17 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import javax.annotation.Resource;
 import javax.sql.DataSource;
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import net.solarnetwork.node.dao.jdbc.DatabaseSetup;
 import net.solarnetwork.node.ocpp.dao.jdbc.JdbcAuthorizationDao;
 import net.solarnetwork.node.test.AbstractNodeTransactionalTest;
@@ -44,10 +49,12 @@ import net.solarnetwork.ocpp.domain.Authorization;
  * Test cases for the {@link JdbcAuthorizationDao} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcAuthorizationDaoTests extends AbstractNodeTransactionalTest {
 
+	private static final Logger log = LoggerFactory.getLogger(JdbcAuthorizationDaoTests.class);
+
 	@Resource(name = "dataSource")
 	private DataSource dataSource;
 
@@ -145,4 +152,85 @@ public class JdbcAuthorizationDaoTests extends AbstractNodeTransactionalTest {
 		assertThat("Match", entity, notNullValue());
 		assertThat("Token matches", entity.getToken(), equalTo("b"));
 	}
+
+	private static Authorization bulkAuthorization(String token, boolean enabled,
+			Instant expires, String parentId) {
+		Authorization auth = new Authorization(null, null);
+		auth.setToken(token);
+		auth.setEnabled(enabled);
+		auth.setExpiryDate(expires);
+		auth.setParentId(parentId);
+		return auth;
+	}
+
+	@Test
+	public void saveAuthorizations_insert() {
+		Instant exp = Instant.ofEpochMilli(System.currentTimeMillis()).plus(1, ChronoUnit.DAYS);
+		int count = dao.saveAuthorizations(Arrays.asList(bulkAuthorization("a", true, exp, null),
+				bulkAuthorization("b", false, null, "a")));
+		assertThat("Saved count", count, equalTo(2));
+
+		Authorization a = dao.getForToken("a");
+		assertThat("A inserted", a, notNullValue());
+		assertThat("A ID generated", a.getId(), notNullValue());
+		assertThat("A created", a.getCreated(), notNullValue());
+		assertThat("A enabled", a.isEnabled(), equalTo(true));
+		assertThat("A expires", a.getExpiryDate(), equalTo(exp));
+
+		Authorization b = dao.getForToken("b");
+		assertThat("B inserted", b, notNullValue());
+		assertThat("B disabled", b.isEnabled(), equalTo(false));
+		assertThat("B parent", b.getParentId(), equalTo("a"));
+	}
+
+	@Test
+	public void saveAuthorizations_update() {
+		insert();
+		int count = dao.saveAuthorizations(
+				Arrays.asList(bulkAuthorization(last.getToken(), false, null, "foo")));
+		assertThat("Saved count", count, equalTo(1));
+
+		Authorization entity = dao.get(last.getId());
+		assertThat("ID unchanged", entity.getId(), equalTo(last.getId()));
+		assertThat("Created unchanged", entity.getCreated(), equalTo(last.getCreated()));
+		assertThat("Enabled updated", entity.isEnabled(), equalTo(false));
+		assertThat("Expiry updated", entity.getExpiryDate(), nullValue());
+		assertThat("Parent ID updated", entity.getParentId(), equalTo("foo"));
+		assertThat("No row added", dao.getAll(null).size(), equalTo(1));
+	}
+
+	@Test
+	public void processAuthorizations() {
+		dao.saveAuthorizations(Arrays.asList(bulkAuthorization("c", true, null, null),
+				bulkAuthorization("a", true, null, null),
+				bulkAuthorization("b", true, null, null)));
+		List<String> tokens = new ArrayList<>();
+		int count = dao.processAuthorizations(auth -> tokens.add(auth.getToken()));
+		assertThat("Processed count", count, equalTo(3));
+		assertThat("Processed in token order", tokens, contains("a", "b", "c"));
+	}
+
+	@Test
+	public void saveAuthorizations_many() {
+		// set the ocpp.test.bulkAuthorizationCount system property to try large lists
+		final int total = Integer.getInteger("ocpp.test.bulkAuthorizationCount", 2000);
+		List<Authorization> batch = new ArrayList<>(dao.getBulkBatchSize());
+		long start = System.currentTimeMillis();
+		for ( int i = 0; i < total; i++ ) {
+			batch.add(bulkAuthorization(String.format("tok%08d", i), true, null, null));
+			if ( batch.size() >= dao.getBulkBatchSize() || i + 1 == total ) {
+				dao.saveAuthorizations(batch);
+				batch.clear();
+			}
+		}
+		long saved = System.currentTimeMillis();
+		int count = dao.processAuthorizations(auth -> {
+			// nothing to do
+		});
+		long processed = System.currentTimeMillis();
+		log.info("Saved {} authorizations in {}ms, processed in {}ms", total, saved - start,
+				processed - saved);
+		assertThat("All processed", count, equalTo(total));
+	}
+
 }
@@ -27,6 +27,7 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -61,7 +62,7 @@ import net.solarnetwork.util.StaticOptionalService;
  * Test cases for the {@link JdbcChargePointConnectorDao}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcChargePointConnectorDaoTests extends AbstractNodeTransactionalTest {
 
@@ -316,4 +317,107 @@ public class JdbcChargePointConnectorDaoTests extends AbstractNodeTransactionalT
 				equalTo(last.getInfo().getStatus()));
 	}
 
+	@Test
+	public void saveStatusInfo_insert() {
+		ChargePoint cp = createTestChargePoint("foo", "bar");
+		cp = chargePointDao.get(chargePointDao.save(cp));
+
+		// @formatter:off
+		StatusNotification info = StatusNotification.builder()
+				.withConnectorId(1)
+				.withStatus(ChargePointStatus.Available)
+				.withErrorCode(ChargePointErrorCode.NoError)
+				.withTimestamp(Instant.ofEpochMilli(System.currentTimeMillis())).build();
+		// @formatter:on
+
+		// when
+		ChargePointConnectorKey pk = dao.saveStatusInfo(cp.getId(), info);
+
+		// then
+		assertThat("PK returned", pk, equalTo(new ChargePointConnectorKey(cp.getId(), 1)));
+		ChargePointConnector entity = dao.get(pk);
+		assertThat("Connector inserted", entity, notNullValue());
+		assertThat("Created set", entity.getCreated(), notNullValue());
+		assertThat("Connector info", entity.getInfo(), equalTo(info));
+	}
+
+	@Test
+	public void saveStatusInfo_update() {
+		insert();
+		ChargePointConnector orig = dao.get(last.getId());
+
+		// @formatter:off
+		StatusNotification info = StatusNotification.builder()
+				.withConnectorId(last.getId().getConnectorId())
+				.withStatus(ChargePointStatus.Faulted)
+				.withErrorCode(ChargePointErrorCode.Unknown)
+				.withInfo("Oops")
+				.withVendorId(UUID.randomUUID().toString())
+				.withVendorErrorCode("E1")
+				.withTimestamp(Instant.ofEpochMilli(System.currentTimeMillis() + 1000L)).build();
+		// @formatter:on
+
+		// when
+		ChargePointConnectorKey pk = dao.saveStatusInfo(last.getId().getChargePointId(), info);
+
+		// then
+		assertThat("PK unchanged", pk, equalTo(last.getId()));
+		ChargePointConnector entity = dao.get(pk);
+		assertThat("Created unchanged", entity.getCreated(), equalTo(orig.getCreated()));
+		assertThat("Connector info updated", entity.getInfo(), equalTo(info));
+	}
+
+	@Test
+	public void saveStatusInfo_noTimestamp() {
+		ChargePoint cp = createTestChargePoint("foo", "bar");
+		cp = chargePointDao.get(chargePointDao.save(cp));
+
+		// @formatter:off
+		StatusNotification info = StatusNotification.builder()
+				.withConnectorId(2)
+				.withStatus(ChargePointStatus.Available)
+				.withErrorCode(ChargePointErrorCode.NoError).build();
+		// @formatter:on
+
+		// when
+		ChargePointConnectorKey pk = dao.saveStatusInfo(cp.getId(), info);
+
+		// then
+		ChargePointConnector entity = dao.get(pk);
+		assertThat("Status saved", entity.getInfo().getStatus(),
+				equalTo(ChargePointStatus.Available));
+		assertThat("Timestamp defaulted", entity.getInfo().getTimestamp(), notNullValue());
+	}
+
+	@Test
+	public void saveStatusInfo_postStoredEvent() {
+		insert();
+
+		EventAdmin eventAdmin = EasyMock.createMock(EventAdmin.class);
+		dao.setEventAdmin(new StaticOptionalService<EventAdmin>(eventAdmin));
+
+		Capture<Event> eventCaptor = new Capture<>();
+		eventAdmin.postEvent(capture(eventCaptor));
+
+		// when
+		replay(eventAdmin);
+		StatusNotification info = last.getInfo().toBuilder().withStatus(ChargePointStatus.Charging)
+				.build();
+		dao.saveStatusInfo(last.getId().getChargePointId(), info);
+
+		// then
+		verify(eventAdmin);
+
+		Event event = eventCaptor.getValue();
+		assertThat("Event topic", event.getTopic(),
+				equalTo("net/solarnetwork/dao/ChargePointConnector/STORED"));
+		assertThat("Event prop ID", event.getProperty(GenericDao.ENTITY_EVENT_ENTITY_ID_PROPERTY),
+				equalTo(last.getId()));
+		ChargePointConnector entity = (ChargePointConnector) event
+				.getProperty(GenericDao.ENTITY_EVENT_ENTITY_PROPERTY);
+		assertThat("Event prop entity info", entity.getInfo(), equalTo(info));
+		assertThat("Event prop entity stored creation date", entity.getCreated(),
+				equalTo(last.getCreated()));
+	}
+
 }
@@ -0,0 +1,364 @@
+/* ==================================================================
+ * JdbcChargeSessionDaoBenchmarks.java - 18/10/2026 9:12:04 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc.test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.node.dao.jdbc.DatabaseSetup;
+import net.solarnetwork.node.ocpp.dao.jdbc.JdbcChargePointDao;
+import net.solarnetwork.node.ocpp.dao.jdbc.JdbcChargeSessionDao;
+import net.solarnetwork.node.test.AbstractNodeTransactionalTest;
+import net.solarnetwork.ocpp.domain.ChargePoint;
+import net.solarnetwork.ocpp.domain.ChargePointInfo;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.RegistrationStatus;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * Benchmarks for the {@link JdbcChargeSessionDao} class.
+ *
+ * <p>
+ * These are skipped unless the {@link #BENCHMARK_PROP} system property is
+ * {@literal true}, and then run with the data set sizes given by their own
+ * system properties.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class JdbcChargeSessionDaoBenchmarks extends AbstractNodeTransactionalTest {
+
+	/** A system property to enable the benchmarks with. */
+	public static final String BENCHMARK_PROP = "ocpp.test.benchmark";
+
+	/** A system property with the number of readings to insert. */
+	public static final String READING_COUNT_PROP = "ocpp.test.benchmark.readingCount";
+
+	/** A system property with the number of typed storage readings. */
+	public static final String TYPED_READING_COUNT_PROP = "ocpp.test.benchmark.typedReadingCount";
+
+	/**
+	 * A system property with a comma-delimited list of historical session
+	 * counts to look up incomplete sessions with.
+	 */
+	public static final String SESSION_COUNTS_PROP = "ocpp.test.benchmark.sessionCounts";
+
+	private static final int INSERT_CHUNK_SIZE = 10_000;
+
+	private static final Logger log = LoggerFactory.getLogger(JdbcChargeSessionDaoBenchmarks.class);
+
+	@Resource(name = "dataSource")
+	private DataSource dataSource;
+
+	private JdbcChargePointDao chargePointDao;
+	private JdbcChargeSessionDao dao;
+
+	@Before
+	public void setup() {
+		assumeTrue("Benchmarks enabled", Boolean.getBoolean(BENCHMARK_PROP));
+
+		DatabaseSetup setup = new DatabaseSetup();
+		setup.setDataSource(dataSource);
+		setup.init();
+
+		chargePointDao = new JdbcChargePointDao();
+		chargePointDao.setDataSource(dataSource);
+		chargePointDao.init();
+
+		dao = new JdbcChargeSessionDao();
+		dao.setDataSource(dataSource);
+		dao.init();
+	}
+
+	private ChargeSession createSession() {
+		ChargePointInfo info = new ChargePointInfo(UUID.randomUUID().toString());
+		ChargePoint cp = new ChargePoint(null, Instant.ofEpochMilli(System.currentTimeMillis()), info);
+		cp.setEnabled(true);
+		cp.setRegistrationStatus(RegistrationStatus.Accepted);
+		cp.setConnectorCount(1);
+		cp = chargePointDao.get(chargePointDao.save(cp));
+		ChargeSession sess = new ChargeSession(UUID.randomUUID(),
+				Instant.ofEpochMilli(System.currentTimeMillis()), "bench", cp.getId(), 1, 0);
+		dao.save(sess);
+		return sess;
+	}
+
+	private static SampledValue reading(UUID sessionId, Instant ts, String value) {
+		// @formatter:off
+		return SampledValue.builder().withSessionId(sessionId)
+				.withTimestamp(ts)
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(Measurand.EnergyActiveImportRegister)
+				.withUnit(UnitOfMeasure.Wh)
+				.withValue(value)
+				.build();
+		// @formatter:on
+	}
+
+	private static List<SampledValue> readings(UUID sessionId, int count) {
+		final Instant start = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(count);
+		List<SampledValue> result = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			result.add(reading(sessionId, start.plusSeconds(i), String.valueOf(i)));
+		}
+		return result;
+	}
+
+	private int readingCount(UUID sessionId) {
+		return jdbcTemplate.queryForObject(
+				"select count(*) from solarnode.ocpp_charge_sess_reading "
+						+ "where sess_id_hi = ? and sess_id_lo = ?",
+				Integer.class, sessionId.getMostSignificantBits(),
+				sessionId.getLeastSignificantBits());
+	}
+
+	private long insertReadings(UUID sessionId, List<SampledValue> readings) {
+		final long start = System.nanoTime();
+		dao.addReadings(readings);
+		final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertThat("Readings persisted", readingCount(sessionId), equalTo(readings.size()));
+		return ms;
+	}
+
+	/**
+	 * Compare inserting readings with a JDBC batch size of 1 and the default
+	 * batch size.
+	 *
+	 * <p>
+	 * Both must persist every reading, and the batched readings must be found
+	 * in order. Set the {@link #READING_COUNT_PROP} system property to change
+	 * the default of 100k readings.
+	 * </p>
+	 */
+	@Test
+	public void addReadings() {
+		final int count = Integer.getInteger(READING_COUNT_PROP, 100_000);
+		final int batchSize = dao.getReadingBatchSize();
+
+		dao.setReadingBatchSize(1);
+		final ChargeSession singleSess = createSession();
+		final long singleMs = insertReadings(singleSess.getId(),
+				readings(singleSess.getId(), count));
+
+		dao.setReadingBatchSize(batchSize);
+		final ChargeSession batchSess = createSession();
+		final List<SampledValue> batchReadings = readings(batchSess.getId(), count);
+		final long batchMs = insertReadings(batchSess.getId(), batchReadings);
+
+		log.info("Inserted {} readings in {}ms with batch size 1, {}ms with batch size {}", count,
+				singleMs, batchMs, batchSize);
+
+		assertThat("Batched readings found", dao.findReadingsForSession(batchSess.getId()),
+				equalTo(batchReadings));
+	}
+
+	private static String typedReadingValue(int i) {
+		return String.valueOf(i * 1000L + 123) + ".45";
+	}
+
+	private void addTypedReadings(UUID sessionId, int count) {
+		final Instant start = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(count);
+		List<SampledValue> readings = new ArrayList<>(INSERT_CHUNK_SIZE);
+		for ( int i = 0; i < count; i++ ) {
+			readings.add(reading(sessionId, start.plusSeconds(i), typedReadingValue(i)));
+			if ( readings.size() >= INSERT_CHUNK_SIZE || i + 1 == count ) {
+				dao.addReadings(readings);
+				readings.clear();
+			}
+		}
+	}
+
+	private long readingTableBytes() {
+		return jdbcTemplate.queryForObject("select sum(numallocatedpages * pagesize) "
+				+ "from table (syscs_diag.space_table('SOLARNODE', 'OCPP_CHARGE_SESS_READING')) t",
+				Long.class);
+	}
+
+	/**
+	 * Compare the storage size and scan speed of string and typed reading
+	 * storage.
+	 *
+	 * <p>
+	 * The string readings are scanned by parsing each reading value, and the
+	 * typed readings by consuming the typed values directly. Both must produce
+	 * the same total, and the typed readings must use less space. Set the
+	 * {@link #TYPED_READING_COUNT_PROP} system property to change the default
+	 * of 1M readings.
+	 * </p>
+	 */
+	@Test
+	public void typedReadings() {
+		final int count = Integer.getInteger(TYPED_READING_COUNT_PROP, 1_000_000);
+		final BigDecimal expectedSum = BigDecimal.valueOf(1000L * count * (count - 1L) / 2)
+				.add(new BigDecimal("123.45").multiply(BigDecimal.valueOf(count)));
+
+		// string storage
+		dao.setTypedReadingStorage(false);
+		final ChargeSession stringSess = createSession();
+		long bytesBefore = readingTableBytes();
+		addTypedReadings(stringSess.getId(), count);
+		final long stringBytes = readingTableBytes() - bytesBefore;
+
+		final BigDecimal[] stringSum = new BigDecimal[] { BigDecimal.ZERO };
+		long start = System.nanoTime();
+		dao.processReadingsForSession(stringSess.getId(), null,
+				r -> stringSum[0] = stringSum[0].add(new BigDecimal(r.getValue())));
+		final long stringScanMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// typed storage
+		dao.setTypedReadingStorage(true);
+		final ChargeSession typedSess = createSession();
+		bytesBefore = readingTableBytes();
+		addTypedReadings(typedSess.getId(), count);
+		final long typedBytes = readingTableBytes() - bytesBefore;
+
+		final BigDecimal[] typedSum = new BigDecimal[] { BigDecimal.ZERO };
+		start = System.nanoTime();
+		dao.processReadingValuesForSession(typedSess.getId(), null,
+				(r, v) -> typedSum[0] = typedSum[0].add(v));
+		final long typedScanMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		log.info("{} string readings: ~{} bytes, scanned in {}ms", count, stringBytes,
+				stringScanMs);
+		log.info("{} typed readings: ~{} bytes, scanned in {}ms", count, typedBytes, typedScanMs);
+
+		assertThat("String readings scanned", stringSum[0], equalTo(expectedSum));
+		assertThat("Typed readings scanned", typedSum[0], equalTo(expectedSum));
+		assertThat("Typed readings use less space", typedBytes, lessThan(stringBytes));
+	}
+
+	private void insertHistoricalSessions(long chargePointId, int start, int count) {
+		final Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+		List<Object[]> batch = new ArrayList<>(INSERT_CHUNK_SIZE);
+		for ( int i = start; i < start + count; i++ ) {
+			UUID id = UUID.randomUUID();
+			Instant created = now.minusSeconds(count - i);
+			// @formatter:off
+			batch.add(new Object[] {
+					id.getMostSignificantBits(), id.getLeastSignificantBits(),
+					Timestamp.from(created), "hist", chargePointId, (i % 2) + 1, i + 1,
+					Timestamp.from(created.plusSeconds(1)),
+					Timestamp.from(created.plusSeconds(2))
+			});
+			// @formatter:on
+			if ( batch.size() >= INSERT_CHUNK_SIZE || i + 1 == start + count ) {
+				jdbcTemplate.batchUpdate("insert into solarnode.ocpp_charge_sess "
+						+ "(id_hi,id_lo,created,auth_id,cp_id,conn_id,tx_id,ended,posted) "
+						+ "values (?,?,?,?,?,?,?,?,?)", batch);
+				batch.clear();
+			}
+		}
+	}
+
+	private static long timeLookups(int iterations, Runnable r) {
+		final long start = System.nanoTime();
+		for ( int i = 0; i < iterations; i++ ) {
+			r.run();
+		}
+		return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / iterations;
+	}
+
+	private String lookupPlan(Runnable r) {
+		jdbcTemplate.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+		try {
+			r.run();
+			return jdbcTemplate.queryForObject("VALUES SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()",
+					String.class);
+		} finally {
+			jdbcTemplate.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+		}
+	}
+
+	/**
+	 * Time incomplete session lookups as the number of historical (ended)
+	 * sessions grows.
+	 *
+	 * <p>
+	 * Every lookup must find the one active session, and the transaction and
+	 * connector lookups must use their indexes rather than scan the table. Set
+	 * the {@link #SESSION_COUNTS_PROP} system property to change the default
+	 * counts of {@literal 10000,100000,1000000}.
+	 * </p>
+	 */
+	@Test
+	public void findIncomplete() {
+		final ChargeSession active = dao.get(createSession().getId());
+		final int lookups = 100;
+		final Runnable txLookup = () -> assertThat("Active session found by transaction",
+				dao.getIncompleteChargeSessionForTransaction(active.getChargePointId(),
+						active.getTransactionId()),
+				equalTo(active));
+		final Runnable connLookup = () -> assertThat("Active session found by connector",
+				dao.getIncompleteChargeSessionForConnector(active.getChargePointId(),
+						active.getConnectorId()),
+				equalTo(active));
+		final Runnable cpLookup = () -> assertThat("Active session found by charge point",
+				dao.getIncompleteChargeSessionsForChargePoint(active.getChargePointId()),
+				contains(active));
+		int inserted = 0;
+		for ( String c : System.getProperty(SESSION_COUNTS_PROP, "10000,100000,1000000")
+				.split(",") ) {
+			final int total = Integer.parseInt(c.trim());
+			if ( total > inserted ) {
+				insertHistoricalSessions(active.getChargePointId(), inserted, total - inserted);
+				inserted = total;
+			}
+			final long txMicros = timeLookups(lookups, txLookup);
+			final long connMicros = timeLookups(lookups, connLookup);
+			final long cpMicros = timeLookups(lookups, cpLookup);
+			log.info("Incomplete session lookups with {} historical sessions: tx {}us, conn {}us, "
+					+ "cp {}us", inserted, txMicros, connMicros, cpMicros);
+
+			assertThat("Transaction lookup uses index", lookupPlan(txLookup),
+					containsString("OCPP_CHARGE_SESS_CP_TX_IDX"));
+			assertThat("Connector lookup uses index", lookupPlan(connLookup),
+					containsString("OCPP_CHARGE_SESS_CP_CONN_IDX"));
+			assertThat("Charge point lookup does not scan table", lookupPlan(cpLookup),
+					not(containsString("Table Scan ResultSet for OCPP_CHARGE_SESS ")));
+		}
+	}
+
+}
@@ -23,22 +23,34 @@
 package net.solarnetwork.node.ocpp.dao.jdbc.test;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Resource;
 import javax.sql.DataSource;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import net.solarnetwork.node.dao.jdbc.DatabaseSetup;
+import net.solarnetwork.node.ocpp.dao.jdbc.FileChargeSessionReadingDao;
 import net.solarnetwork.node.ocpp.dao.jdbc.JdbcChargePointDao;
 import net.solarnetwork.node.ocpp.dao.jdbc.JdbcChargeSessionDao;
 import net.solarnetwork.node.test.AbstractNodeTransactionalTest;
@@ -48,6 +60,7 @@ import net.solarnetwork.ocpp.domain.ChargeSession;
 import net.solarnetwork.ocpp.domain.ChargeSessionEndReason;
 import net.solarnetwork.ocpp.domain.Location;
 import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.Phase;
 import net.solarnetwork.ocpp.domain.ReadingContext;
 import net.solarnetwork.ocpp.domain.RegistrationStatus;
 import net.solarnetwork.ocpp.domain.SampledValue;
@@ -57,10 +70,13 @@ import net.solarnetwork.ocpp.domain.UnitOfMeasure;
  * Test cases for the {@link JdbcChargeSessionDao}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
 	@Resource(name = "dataSource")
 	private DataSource dataSource;
 
@@ -68,6 +84,8 @@ public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 
 	private JdbcChargeSessionDao dao;
 	private ChargeSession last;
+	private final Set<TransactionSynchronization> committedSynchronizations = Collections
+			.newSetFromMap(new IdentityHashMap<>());
 
 	@Before
 	public void setup() {
@@ -141,6 +159,40 @@ public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 		assertThat("Posted updated", entity.getPosted(), equalTo(sess.getPosted()));
 	}
 
+	@Test
+	public void nextTransactionId() {
+		dao.setTransactionIdBlockSize(3);
+		dao.init();
+		final int first = dao.nextTransactionId();
+		for ( int i = 1; i < 7; i++ ) {
+			assertThat("Transaction IDs allocated from consecutive blocks", dao.nextTransactionId(),
+					equalTo(first + i));
+		}
+		assertThat("Sequence incremented by block size", jdbcTemplate.queryForObject(
+				"values next value for solarnode.ocpp_charge_tx_seq", Integer.class),
+				equalTo(first + 9));
+	}
+
+	@Test
+	public void insert_withTransactionId() {
+		ChargePoint cp = createTestChargePoint("foo", "bar");
+		cp = chargePointDao.get(chargePointDao.save(cp));
+
+		int txId = dao.nextTransactionId();
+		ChargeSession sess = new ChargeSession(UUID.randomUUID(),
+				Instant.ofEpochMilli(System.currentTimeMillis()),
+				UUID.randomUUID().toString().substring(0, 20), cp.getId(), 1, txId);
+		UUID pk = dao.save(sess);
+		assertThat("PK preserved", pk, equalTo(sess.getId()));
+
+		ChargeSession entity = dao.get(pk);
+		assertThat("Transaction ID preserved", entity.getTransactionId(), equalTo(txId));
+
+		ChargeSession next = dao.get(dao.save(createTestChargeSession(cp.getId())));
+		assertThat("Generated transaction ID does not collide", next.getTransactionId(),
+				greaterThan(txId));
+	}
+
 	@Test
 	public void findIncomplete_tx_none() {
 		ChargeSession sess = dao.getIncompleteChargeSessionForTransaction(1L, 1);
@@ -268,6 +320,35 @@ public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 				"select count(*) from solarnode.ocpp_charge_sess_reading", Integer.class), equalTo(2));
 	}
 
+	@Test
+	public void addReadings_batch() {
+		insert();
+		dao.setReadingBatchSize(3);
+		List<SampledValue> readings = createTestReadings(10);
+		dao.addReadings(readings);
+		assertThat("Readings persisted", jdbcTemplate.queryForObject(
+				"select count(*) from solarnode.ocpp_charge_sess_reading", Integer.class), equalTo(10));
+		assertThat("Readings found", dao.findReadingsForSession(last.getId()), equalTo(readings));
+	}
+
+	private List<SampledValue> createTestReadings(int count) {
+		final Instant start = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(count);
+		List<SampledValue> result = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			// @formatter:off
+			result.add(SampledValue.builder().withSessionId(last.getId())
+					.withTimestamp(start.plusSeconds(i))
+					.withContext(ReadingContext.SamplePeriodic)
+					.withLocation(Location.Outlet)
+					.withMeasurand(Measurand.EnergyActiveImportRegister)
+					.withUnit(UnitOfMeasure.Wh)
+					.withValue(String.valueOf(i))
+					.build());
+			// @formatter:on
+		}
+		return result;
+	}
+
 	@Test
 	public void findReadings() {
 		insert();
@@ -278,6 +359,99 @@ public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 		assertThat("Readings found", results, equalTo(expected));
 	}
 
+	@Test
+	public void processReadings() {
+		insert();
+		List<SampledValue> expected = createTestReadings(5);
+		dao.addReadings(expected);
+
+		List<SampledValue> results = new ArrayList<>();
+		dao.setReadingFetchSize(2);
+		dao.processReadingsForSession(last.getId(), null, results::add);
+		assertThat("Readings processed", results, equalTo(expected));
+	}
+
+	@Test
+	public void processReadings_since() {
+		insert();
+		List<SampledValue> expected = createTestReadings(5);
+		dao.addReadings(expected);
+
+		List<SampledValue> results = new ArrayList<>();
+		dao.processReadingsForSession(last.getId(), expected.get(3).getTimestamp(), results::add);
+		assertThat("Readings since date processed", results,
+				equalTo(expected.subList(3, expected.size())));
+	}
+
+	@Test
+	public void findReadings_since() {
+		insert();
+		List<SampledValue> expected = createTestReadings(5);
+		dao.addReadings(expected);
+
+		List<SampledValue> results = dao.findReadingsForSession(last.getId(),
+				expected.get(2).getTimestamp());
+		assertThat("Readings since date found", results,
+				equalTo(expected.subList(2, expected.size())));
+	}
+
+	private SampledValue reading(Instant ts, Measurand measurand, Phase phase, String value) {
+		// @formatter:off
+		SampledValue.Builder b = SampledValue.builder().withSessionId(last.getId())
+				.withTimestamp(ts)
+				.withContext(ReadingContext.SamplePeriodic)
+				.withLocation(Location.Outlet)
+				.withMeasurand(measurand)
+				.withUnit(UnitOfMeasure.Unknown)
+				.withValue(value);
+		// @formatter:on
+		if ( phase != null ) {
+			b.withPhase(phase);
+		}
+		return b.build();
+	}
+
+	@Test
+	public void findReadings_measurand() {
+		insert();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(60);
+		SampledValue e1 = reading(ts, Measurand.EnergyActiveImportRegister, null, "1");
+		SampledValue p1 = reading(ts, Measurand.PowerActiveImport, null, "2");
+		SampledValue e2 = reading(ts.plusSeconds(1), Measurand.EnergyActiveImportRegister, null,
+				"3");
+		dao.addReadings(Arrays.asList(e1, p1, e2));
+
+		List<SampledValue> results = dao.findReadingsForSession(last.getId(),
+				Measurand.EnergyActiveImportRegister);
+		assertThat("Readings for measurand found", results, contains(e1, e2));
+	}
+
+	@Test
+	public void findLatestReadings() {
+		insert();
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(60);
+		SampledValue e1 = reading(ts, Measurand.EnergyActiveImportRegister, null, "1");
+		SampledValue c1a = reading(ts, Measurand.CurrentImport, Phase.L1, "2");
+		SampledValue c1b = reading(ts, Measurand.CurrentImport, Phase.L2, "3");
+		SampledValue e2 = reading(ts.plusSeconds(1), Measurand.EnergyActiveImportRegister, null,
+				"4");
+		SampledValue c2a = reading(ts.plusSeconds(2), Measurand.CurrentImport, Phase.L1, "5");
+		SampledValue c2b = reading(ts.plusSeconds(2), Measurand.CurrentImport, Phase.L2, "6");
+		dao.addReadings(Arrays.asList(e1, c1a, c1b, e2, c2a, c2b));
+
+		List<SampledValue> results = dao.findLatestReadingsForSession(last.getId());
+		assertThat("Latest readings per measurand found", results,
+				containsInAnyOrder(e2, c2a, c2b));
+	}
+
+	@Test
+	public void findLatestReadings_none() {
+		insert();
+
+		List<SampledValue> results = dao.findLatestReadingsForSession(last.getId());
+		assertThat("No readings found", results, hasSize(0));
+	}
+
 	@Test
 	public void findReadings_none() {
 		insert();
@@ -334,4 +508,253 @@ public class JdbcChargeSessionDaoTests extends AbstractNodeTransactionalTest {
 		assertThat("Deleted posted", result, equalTo(0));
 		assertThat("Remaining sessions", dao.getAll(null), contains(s, two));
 	}
+
+	@Test
+	public void findPosted_limited() {
+		insert();
+
+		ChargeSession s = dao.get(last.getId());
+		s.setPosted(Instant.ofEpochMilli(System.currentTimeMillis()));
+		dao.save(s);
+
+		ChargeSession two = new ChargeSession(UUID.randomUUID(), s.getCreated(), s.getAuthId(),
+				s.getChargePointId(), s.getConnectorId() + 1, s.getTransactionId() + 1);
+		two.setPosted(s.getPosted().minusSeconds(1));
+		dao.save(two);
+
+		ChargeSession three = new ChargeSession(UUID.randomUUID(), s.getCreated(), s.getAuthId(),
+				s.getChargePointId(), s.getConnectorId() + 2, s.getTransactionId() + 2);
+		dao.save(three);
+
+		List<ChargeSession> results = dao.findPostedChargeSessions(s.getPosted().plusSeconds(1), 1);
+		assertThat("Oldest posted session found", results, contains(two));
+
+		results = dao.findPostedChargeSessions(s.getPosted().plusSeconds(1), 10);
+		assertThat("Posted sessions found in posted order", results, contains(two, s));
+	}
+
+	@Test
+	public void typedReadingValue() {
+		assertThat("Integer", JdbcChargeSessionDao.typedReadingValue("1234"),
+				equalTo(new BigDecimal("1234")));
+		assertThat("Decimal", JdbcChargeSessionDao.typedReadingValue("-1.050"),
+				equalTo(new BigDecimal("-1.050")));
+		assertThat("Not a number", JdbcChargeSessionDao.typedReadingValue("abc"), nullValue());
+		assertThat("Exponent", JdbcChargeSessionDao.typedReadingValue("1E3"), nullValue());
+		assertThat("Leading zero", JdbcChargeSessionDao.typedReadingValue("007"), nullValue());
+		assertThat("Leading plus", JdbcChargeSessionDao.typedReadingValue("+1"), nullValue());
+		assertThat("Too large", JdbcChargeSessionDao.typedReadingValue("99999999999999999999"),
+				nullValue());
+		assertThat("Empty", JdbcChargeSessionDao.typedReadingValue(""), nullValue());
+	}
+
+	private List<SampledValue> createMixedTestReadings() {
+		Instant ts = Instant.ofEpochMilli(System.currentTimeMillis()).minusSeconds(60);
+		return Arrays.asList(reading(ts, Measurand.EnergyActiveImportRegister, null, "1234"),
+				reading(ts.plusSeconds(1), Measurand.EnergyActiveImportRegister, null, "-1.050"),
+				reading(ts.plusSeconds(2), Measurand.EnergyActiveImportRegister, null, "1E3"),
+				reading(ts.plusSeconds(3), Measurand.EnergyActiveImportRegister, null, "n/a"));
+	}
+
+	private List<Map<String, Object>> storedReadings() {
+		return jdbcTemplate.queryForList("select reading, reading_num, reading_scale "
+				+ "from solarnode.ocpp_charge_sess_reading order by ts");
+	}
+
+	private void assertStoredReading(Map<String, Object> row, String reading, Long num,
+			Integer scale) {
+		assertThat("String value", row.get("READING"), equalTo(reading));
+		assertThat("Numeric value", row.get("READING_NUM"), equalTo(num));
+		assertThat("Scale value", row.get("READING_SCALE") != null
+				? ((Number) row.get("READING_SCALE")).intValue()
+				: null, equalTo(scale));
+	}
+
+	@Test
+	public void addReadings_typed() {
+		insert();
+		dao.setTypedReadingStorage(true);
+		List<SampledValue> expected = createMixedTestReadings();
+		dao.addReadings(expected);
+
+		List<Map<String, Object>> rows = storedReadings();
+		assertThat("Rows stored", rows, hasSize(4));
+		assertStoredReading(rows.get(0), null, 1234L, 0);
+		assertStoredReading(rows.get(1), null, -1050L, 3);
+		assertStoredReading(rows.get(2), "1E3", null, null);
+		assertStoredReading(rows.get(3), "n/a", null, null);
+
+		assertThat("Readings restored", dao.findReadingsForSession(last.getId()),
+				equalTo(expected));
+	}
+
+	@Test
+	public void convertReadingsToTyped() {
+		insert();
+		List<SampledValue> expected = createMixedTestReadings();
+		dao.addReadings(expected);
+		assertStoredReading(storedReadings().get(0), "1234", null, null);
+
+		int result = dao.convertReadingsToTypedStorage();
+		assertThat("Converted count", result, equalTo(2));
+
+		List<Map<String, Object>> rows = storedReadings();
+		assertStoredReading(rows.get(0), null, 1234L, 0);
+		assertStoredReading(rows.get(1), null, -1050L, 3);
+		assertStoredReading(rows.get(2), "1E3", null, null);
+		assertThat("Readings restored", dao.findReadingsForSession(last.getId()),
+				equalTo(expected));
+	}
+
+	@Test
+	public void processReadingValues_typed() {
+		insert();
+		dao.setTypedReadingStorage(true);
+		List<SampledValue> expected = createMixedTestReadings();
+		dao.addReadings(expected);
+
+		List<SampledValue> readings = new ArrayList<>(4);
+		List<BigDecimal> values = new ArrayList<>(4);
+		dao.processReadingValuesForSession(last.getId(), null, (r, v) -> {
+			readings.add(r);
+			values.add(v);
+		});
+		assertThat("Readings processed", readings, equalTo(expected));
+		assertThat("Typed values processed", values, equalTo(Arrays.asList(new BigDecimal("1234"),
+				new BigDecimal("-1.050"), new BigDecimal("1E3"), null)));
+	}
+
+	@Test
+	public void init_convertReadingsToTypedOnce() {
+		insert();
+		List<SampledValue> expected = createMixedTestReadings();
+		dao.addReadings(expected.subList(0, 2));
+
+		dao.setTypedReadingStorage(true);
+		dao.init();
+		List<Map<String, Object>> rows = storedReadings();
+		assertStoredReading(rows.get(0), null, 1234L, 0);
+		assertStoredReading(rows.get(1), null, -1050L, 3);
+
+		// a string reading added later is not converted when init() is called again
+		dao.setTypedReadingStorage(false);
+		Instant ts = expected.get(1).getTimestamp().plusSeconds(1);
+		dao.addReadings(Collections
+				.singletonList(reading(ts, Measurand.EnergyActiveImportRegister, null, "42")));
+		dao.setTypedReadingStorage(true);
+		dao.init();
+		rows = storedReadings();
+		assertThat("Rows stored", rows, hasSize(3));
+		assertStoredReading(rows.get(2), "42", null, null);
+	}
+
+	/**
+	 * Run the after-commit tasks registered with the test transaction, which
+	 * is otherwise rolled back.
+	 */
+	private void commitReadingFiles() {
+		for ( TransactionSynchronization s : TransactionSynchronizationManager
+				.getSynchronizations() ) {
+			if ( committedSynchronizations.add(s) ) {
+				s.afterCommit();
+			}
+		}
+	}
+
+	@Test
+	public void readingDao_addAndFind() throws Exception {
+		dao.setReadingDao(new FileChargeSessionReadingDao(tmpDir.newFolder().toPath()));
+		insert();
+		List<SampledValue> expected = createTestReadings(5);
+		dao.addReadings(expected);
+
+		assertThat("Reading table not used", jdbcTemplate.queryForObject(
+				"select count(*) from solarnode.ocpp_charge_sess_reading", Integer.class),
+				equalTo(0));
+		assertThat("Readings found", dao.findReadingsForSession(last.getId()), equalTo(expected));
+		assertThat("Readings since found",
+				dao.findReadingsForSession(last.getId(), expected.get(3).getTimestamp()),
+				equalTo(expected.subList(3, expected.size())));
+		assertThat("Latest readings found", dao.findLatestReadingsForSession(last.getId()),
+				contains(expected.get(expected.size() - 1)));
+	}
+
+	@Test
+	public void readingDao_deleteCascade() throws Exception {
+		FileChargeSessionReadingDao readingDao = new FileChargeSessionReadingDao(
+				tmpDir.newFolder().toPath());
+		dao.setReadingDao(readingDao);
+		insert();
+		dao.addReadings(createTestReadings(2));
+
+		dao.delete(dao.get(last.getId()));
+		commitReadingFiles();
+		assertThat("Readings deleted with session",
+				readingDao.findReadingsForSession(last.getId()), hasSize(0));
+	}
+
+	@Test
+	public void readingDao_deletePostedCascade() throws Exception {
+		FileChargeSessionReadingDao readingDao = new FileChargeSessionReadingDao(
+				tmpDir.newFolder().toPath());
+		dao.setReadingDao(readingDao);
+		insert();
+		dao.addReadings(createTestReadings(2));
+
+		ChargeSession s = dao.get(last.getId());
+		s.setPosted(Instant.ofEpochMilli(System.currentTimeMillis()));
+		dao.save(s);
+
+		int result = dao.deletePostedChargeSessions(s.getPosted().plusSeconds(1));
+		commitReadingFiles();
+		assertThat("Deleted posted", result, equalTo(1));
+		assertThat("Readings deleted with posted session",
+				readingDao.findReadingsForSession(last.getId()), hasSize(0));
+	}
+
+	@Test
+	public void readingDao_visibleInTransaction() throws Exception {
+		FileChargeSessionReadingDao readingDao = new FileChargeSessionReadingDao(
+				tmpDir.newFolder().toPath());
+		dao.setReadingDao(readingDao);
+		insert();
+		dao.addReadings(createTestReadings(2));
+
+		assertThat("Readings stored before commit",
+				readingDao.findReadingsForSession(last.getId()), hasSize(2));
+	}
+
+	@Test
+	public void readingDao_deleteChargePointCascade() throws Exception {
+		FileChargeSessionReadingDao readingDao = new FileChargeSessionReadingDao(
+				tmpDir.newFolder().toPath());
+		dao.setReadingDao(readingDao);
+		chargePointDao.setChargeSessionDao(dao);
+		insert();
+		dao.addReadings(createTestReadings(2));
+
+		chargePointDao.delete(chargePointDao.get(last.getChargePointId()));
+		commitReadingFiles();
+		assertThat("Session deleted with charge point", dao.get(last.getId()), nullValue());
+		assertThat("Readings deleted with charge point",
+				readingDao.findReadingsForSession(last.getId()), hasSize(0));
+	}
+
+	@Test
+	public void readingDao_fallbackToReadingTable() throws Exception {
+		insert();
+		List<SampledValue> expected = createTestReadings(3);
+		dao.addReadings(expected);
+		dao.setReadingDao(new FileChargeSessionReadingDao(tmpDir.newFolder().toPath()));
+
+		assertThat("Reading table readings found", dao.findReadingsForSession(last.getId()),
+				equalTo(expected));
+		List<SampledValue> processed = new ArrayList<>();
+		dao.processReadingsForSession(last.getId(), null, processed::add);
+		assertThat("Reading table readings processed", processed, equalTo(expected));
+		assertThat("Reading table latest readings found",
+				dao.findLatestReadingsForSession(last.getId()),
+				contains(expected.get(expected.size() - 1)));
+	}
+
 }
@@ -34,12 +34,17 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 import javax.sql.DataSource;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import net.solarnetwork.dao.GenericDao;
 import net.solarnetwork.node.dao.jdbc.DatabaseSetup;
 import net.solarnetwork.node.ocpp.dao.jdbc.JdbcSystemUserDao;
@@ -50,7 +55,7 @@ import net.solarnetwork.ocpp.domain.SystemUser;
  * Test cases for the {@link JdbcSystemUserDao} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcSystemUserDaoTests extends AbstractNodeTransactionalTest {
 
@@ -59,6 +64,7 @@ public class JdbcSystemUserDaoTests extends AbstractNodeTransactionalTest {
 
 	private JdbcSystemUserDao dao;
 	private SystemUser last;
+	private AtomicInteger statementCount;
 
 	@Before
 	public void setup() {
@@ -69,6 +75,19 @@ public class JdbcSystemUserDaoTests extends AbstractNodeTransactionalTest {
 		dao = new JdbcSystemUserDao();
 		dao.setDataSource(dataSource);
 		dao.init();
+
+		// count each statement round trip, where a batch counts as one
+		statementCount = new AtomicInteger();
+		dao.setJdbcTemplate(new JdbcTemplate(dataSource) {
+
+			@Override
+			public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
+					throws DataAccessException {
+				statementCount.incrementAndGet();
+				return super.execute(psc, action);
+			}
+
+		});
 	}
 
 	private SystemUser createTestSystemUser() {
@@ -239,4 +258,63 @@ public class JdbcSystemUserDaoTests extends AbstractNodeTransactionalTest {
 		assertThat("Username matches", entity.getUsername(), equalTo("foobar"));
 		assertThat("Allowed charge points", entity.getAllowedChargePoints(), contains("one", "two"));
 	}
+
+	private static Set<String> chargePointIds(int from, int to) {
+		Set<String> set = new LinkedHashSet<>(to - from);
+		for ( int i = from; i < to; i++ ) {
+			set.add(String.format("cp-%04d", i));
+		}
+		return set;
+	}
+
+	@Test
+	public void update_allowedChargePointsUnchanged() {
+		SystemUser entity = createTestSystemUser();
+		entity.setAllowedChargePoints(chargePointIds(0, 500));
+		Long pk = dao.save(entity);
+		SystemUser obj = dao.get(pk);
+
+		statementCount.set(0);
+		dao.save(obj);
+
+		assertThat("Update user and query charge points only", statementCount.get(), equalTo(2));
+		assertThat("Allowed charge points", dao.get(pk).getAllowedChargePoints(),
+				equalTo(chargePointIds(0, 500)));
+	}
+
+	@Test
+	public void update_allowedChargePointsDiff() {
+		SystemUser entity = createTestSystemUser();
+		entity.setAllowedChargePoints(chargePointIds(0, 500));
+		Long pk = dao.save(entity);
+		SystemUser obj = dao.get(pk);
+		obj.getAllowedChargePoints().removeAll(chargePointIds(100, 300));
+		obj.getAllowedChargePoints().addAll(chargePointIds(500, 700));
+
+		statementCount.set(0);
+		dao.save(obj);
+
+		assertThat("Update user, query charge points, delete batch, insert batch",
+				statementCount.get(), equalTo(4));
+		Set<String> expected = chargePointIds(0, 100);
+		expected.addAll(chargePointIds(300, 700));
+		assertThat("Allowed charge points", dao.get(pk).getAllowedChargePoints(),
+				contains(expected.toArray(new String[expected.size()])));
+	}
+
+	@Test
+	public void update_allowedChargePointsRemoveAll() {
+		insert_withAllowedChargePoints();
+		SystemUser obj = dao.get(last.getId());
+		obj.setAllowedChargePoints(null);
+
+		statementCount.set(0);
+		dao.save(obj);
+
+		assertThat("Update user, query charge points, delete batch", statementCount.get(),
+				equalTo(3));
+		assertThat("Allowed charge points removed", dao.get(last.getId()).getAllowedChargePoints(),
+				nullValue());
+	}
+
 }
@@ -0,0 +1,363 @@
+/* ==================================================================
+ * CachingAuthorizationDao.java - 17/10/2026 10:58:14 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import net.solarnetwork.domain.SortDescriptor;
+import net.solarnetwork.node.ocpp.dao.BulkAuthorizationDao;
+import net.solarnetwork.node.ocpp.dao.CachingDao;
+import net.solarnetwork.ocpp.dao.AuthorizationDao;
+import net.solarnetwork.ocpp.domain.Authorization;
+
+/**
+ * Caching decorator for {@link AuthorizationDao}.
+ * 
+ * <p>
+ * The results of {@link #getForToken(String)}, including tokens that are not
+ * found, are cached in memory for up to {@code ttlSeconds}, with at most
+ * {@code maxSize} tokens cached (the least recently used tokens are evicted
+ * first). Saving or deleting an authorization through this DAO removes its
+ * token from the cache, both immediately and again once any active
+ * transaction completes. A lookup that was in progress while a token was
+ * removed is not cached, as it might have read the old value. All other
+ * methods pass straight through to the delegate DAO.
+ * </p>
+ * 
+ * <p>
+ * Copies of cached authorizations are returned, so callers may modify them
+ * without affecting the cache.
+ * </p>
+ * 
+ * <p>
+ * The {@link BulkAuthorizationDao} methods are passed to the delegate if it
+ * also implements that API, otherwise they fall back to the standard
+ * {@link AuthorizationDao} methods. Saving authorizations in bulk clears the
+ * cache.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class CachingAuthorizationDao implements BulkAuthorizationDao, CachingDao {
+
+	/** The default {@code ttlSeconds} value. */
+	public static final int DEFAULT_TTL_SECONDS = 300;
+
+	/** The default {@code maxSize} value. */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final AuthorizationDao delegate;
+	private final Map<String, CachedToken> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private final AtomicLong hitCount = new AtomicLong(0);
+	private final AtomicLong missCount = new AtomicLong(0);
+	private long generation; // guarded by cache
+	private int ttlSeconds = DEFAULT_TTL_SECONDS;
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param delegate
+	 *        the DAO to cache
+	 * @throws IllegalArgumentException
+	 *         if {@code delegate} is {@literal null}
+	 */
+	public CachingAuthorizationDao(AuthorizationDao delegate) {
+		super();
+		if ( delegate == null ) {
+			throw new IllegalArgumentException("The delegate parameter must not be null.");
+		}
+		this.delegate = delegate;
+	}
+
+	private static final class CachedToken {
+
+		private final Authorization value;
+		private final long expires;
+
+		private CachedToken(Authorization value, long expires) {
+			super();
+			this.value = value;
+			this.expires = expires;
+		}
+
+	}
+
+	@Override
+	public Authorization getForToken(String token) {
+		if ( token == null || ttlSeconds < 1 || maxSize < 1 ) {
+			return delegate.getForToken(token);
+		}
+		final long now = System.currentTimeMillis();
+		final long gen;
+		synchronized ( cache ) {
+			CachedToken c = cache.get(token);
+			if ( c != null && c.expires > now ) {
+				hitCount.incrementAndGet();
+				return copy(c.value);
+			}
+			gen = generation;
+		}
+		missCount.incrementAndGet();
+		Authorization auth = delegate.getForToken(token);
+		synchronized ( cache ) {
+			// skip if anything was invalidated while loading, as auth might be stale
+			if ( gen == generation ) {
+				cache.put(token, new CachedToken(copy(auth), now + ttlSeconds * 1000L));
+				evict();
+			}
+		}
+		return auth;
+	}
+
+	private void evict() {
+		for ( Iterator<CachedToken> itr = cache.values().iterator(); itr.hasNext()
+				&& cache.size() > maxSize; ) {
+			itr.next();
+			itr.remove();
+		}
+	}
+
+	private static Authorization copy(Authorization auth) {
+		return (auth != null ? new Authorization(auth) : null);
+	}
+
+	@Override
+	public Long save(Authorization entity) {
+		Long result = delegate.save(entity);
+		invalidate(entity);
+		return result;
+	}
+
+	@Override
+	public void delete(Authorization entity) {
+		delegate.delete(entity);
+		invalidate(entity);
+	}
+
+	@Override
+	public Authorization get(Long id) {
+		return delegate.get(id);
+	}
+
+	@Override
+	public Collection<Authorization> getAll(List<SortDescriptor> sorts) {
+		return delegate.getAll(sorts);
+	}
+
+	@Override
+	public int saveAuthorizations(List<Authorization> authorizations) {
+		if ( authorizations == null || authorizations.isEmpty() ) {
+			return 0;
+		}
+		int result = 0;
+		try {
+			if ( delegate instanceof BulkAuthorizationDao ) {
+				result = ((BulkAuthorizationDao) delegate).saveAuthorizations(authorizations);
+			} else {
+				for ( Authorization auth : authorizations ) {
+					Authorization entity = delegate.getForToken(auth.getToken());
+					if ( entity == null ) {
+						entity = new Authorization(null, auth.getCreated() != null
+								? auth.getCreated()
+								: Instant.now());
+						entity.setToken(auth.getToken());
+					}
+					entity.setEnabled(auth.isEnabled());
+					entity.setExpiryDate(auth.getExpiryDate());
+					entity.setParentId(auth.getParentId());
+					delegate.save(entity);
+					result++;
+				}
+			}
+		} finally {
+			invalidateAll();
+		}
+		return result;
+	}
+
+	@Override
+	public int processAuthorizations(Consumer<Authorization> processor) {
+		if ( delegate instanceof BulkAuthorizationDao ) {
+			return ((BulkAuthorizationDao) delegate).processAuthorizations(processor);
+		}
+		List<Authorization> all = new ArrayList<>(delegate.getAll(null));
+		all.sort(Comparator.comparing(Authorization::getToken,
+				Comparator.nullsFirst(Comparator.naturalOrder())));
+		all.forEach(processor);
+		return all.size();
+	}
+
+	@Override
+	public Class<? extends Authorization> getObjectType() {
+		return Authorization.class;
+	}
+
+	private void invalidate(Authorization entity) {
+		if ( entity == null ) {
+			return;
+		}
+		final String token = entity.getToken();
+		final Long id = entity.getId();
+		evict(token, id);
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			// evict again once committed, in case another thread cached the old value meanwhile
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+						@Override
+						public void afterCompletion(int status) {
+							evict(token, id);
+						}
+
+					});
+		}
+	}
+
+	private void invalidateAll() {
+		clear();
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+						@Override
+						public void afterCompletion(int status) {
+							clear();
+						}
+
+					});
+		}
+	}
+
+	private void evict(String token, Long id) {
+		synchronized ( cache ) {
+			generation++;
+			if ( token != null ) {
+				cache.remove(token);
+			}
+			if ( id != null ) {
+				// the token itself may have changed, so also remove by ID
+				for ( Iterator<CachedToken> itr = cache.values().iterator(); itr.hasNext(); ) {
+					Authorization auth = itr.next().value;
+					if ( auth != null && id.equals(auth.getId()) ) {
+						itr.remove();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached tokens.
+	 */
+	public void clear() {
+		synchronized ( cache ) {
+			generation++;
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Get the number of cached tokens.
+	 * 
+	 * @return the number of tokens
+	 */
+	@Override
+	public int getCacheSize() {
+		synchronized ( cache ) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Get the number of token lookups served from the cache.
+	 * 
+	 * @return the hit count
+	 */
+	@Override
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Get the number of token lookups passed to the delegate DAO.
+	 * 
+	 * @return the miss count
+	 */
+	@Override
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Get the maximum amount of time to cache a token lookup.
+	 * 
+	 * @return the time to live, in seconds; defaults to
+	 *         {@link #DEFAULT_TTL_SECONDS}
+	 */
+	public int getTtlSeconds() {
+		return ttlSeconds;
+	}
+
+	/**
+	 * Set the maximum amount of time to cache a token lookup.
+	 * 
+	 * @param ttlSeconds
+	 *        the time to live to set, in seconds, or {@literal 0} to disable
+	 *        caching
+	 */
+	public void setTtlSeconds(int ttlSeconds) {
+		this.ttlSeconds = ttlSeconds;
+	}
+
+	/**
+	 * Get the maximum number of tokens to cache.
+	 * 
+	 * @return the maximum size; defaults to {@link #DEFAULT_MAX_SIZE}
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Set the maximum number of tokens to cache.
+	 * 
+	 * @param maxSize
+	 *        the maximum size to set, or {@literal 0} to disable caching
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+}
@@ -0,0 +1,323 @@
+/* ==================================================================
+ * CachingChargePointDao.java - 18/10/2026 9:12:44 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import net.solarnetwork.domain.SortDescriptor;
+import net.solarnetwork.node.ocpp.dao.CachingDao;
+import net.solarnetwork.ocpp.dao.ChargePointDao;
+import net.solarnetwork.ocpp.domain.ChargePoint;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.ChargePointInfo;
+
+/**
+ * Caching decorator for {@link ChargePointDao}.
+ * 
+ * <p>
+ * The results of {@link #get(Long)} and
+ * {@link #getForIdentity(ChargePointIdentity)} are cached in memory for up to
+ * {@code ttlSeconds}, indexed by both charge point ID and identifier so a
+ * charge point loaded one way is then found either way. Saving or deleting a
+ * charge point through this DAO removes it from both indexes, both
+ * immediately and again once any active transaction completes. Charge points
+ * that are not found are not cached.
+ * </p>
+ * 
+ * <p>
+ * Copies of cached charge points are returned, so callers may modify them
+ * without affecting the cache. Callers do modify them: for example the OCPP
+ * controller updates the registration info or connector count of the charge
+ * point it looked up and then saves it. If that save fails or is rolled
+ * back, a shared cached instance would keep the unsaved changes. Copying a
+ * charge point is cheap compared to the query a cache hit avoids.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class CachingChargePointDao implements ChargePointDao, CachingDao {
+
+	/** The default {@code ttlSeconds} value. */
+	public static final int DEFAULT_TTL_SECONDS = 300;
+
+	private final ChargePointDao delegate;
+	private final Map<Long, CachedChargePoint> idCache = new ConcurrentHashMap<>(16, 0.75f, 2);
+	private final Map<String, CachedChargePoint> identCache = new ConcurrentHashMap<>(16, 0.75f,
+			2);
+	private final AtomicLong generation = new AtomicLong(0);
+	private final AtomicLong hitCount = new AtomicLong(0);
+	private final AtomicLong missCount = new AtomicLong(0);
+	private int ttlSeconds = DEFAULT_TTL_SECONDS;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param delegate
+	 *        the DAO to cache
+	 * @throws IllegalArgumentException
+	 *         if {@code delegate} is {@literal null}
+	 */
+	public CachingChargePointDao(ChargePointDao delegate) {
+		super();
+		if ( delegate == null ) {
+			throw new IllegalArgumentException("The delegate parameter must not be null.");
+		}
+		this.delegate = delegate;
+	}
+
+	private static final class CachedChargePoint {
+
+		private final ChargePoint value;
+		private final long expires;
+
+		private CachedChargePoint(ChargePoint value, long expires) {
+			super();
+			this.value = value;
+			this.expires = expires;
+		}
+
+	}
+
+	@Override
+	public ChargePoint getForIdentity(ChargePointIdentity identity) {
+		final String ident = (identity != null ? identity.getIdentifier() : null);
+		if ( ident == null || ttlSeconds < 1 ) {
+			return delegate.getForIdentity(identity);
+		}
+		CachedChargePoint c = identCache.get(ident);
+		if ( c != null && c.expires > System.currentTimeMillis() ) {
+			hitCount.incrementAndGet();
+			return copy(c.value);
+		}
+		missCount.incrementAndGet();
+		final long gen = generation.get();
+		ChargePoint cp = delegate.getForIdentity(identity);
+		cache(cp, gen);
+		return cp;
+	}
+
+	@Override
+	public ChargePoint get(Long id) {
+		if ( id == null || ttlSeconds < 1 ) {
+			return delegate.get(id);
+		}
+		CachedChargePoint c = idCache.get(id);
+		if ( c != null && c.expires > System.currentTimeMillis() ) {
+			hitCount.incrementAndGet();
+			return copy(c.value);
+		}
+		missCount.incrementAndGet();
+		final long gen = generation.get();
+		ChargePoint cp = delegate.get(id);
+		cache(cp, gen);
+		return cp;
+	}
+
+	private void cache(ChargePoint cp, long gen) {
+		if ( cp == null || cp.getId() == null ) {
+			return;
+		}
+		CachedChargePoint c = new CachedChargePoint(copy(cp),
+				System.currentTimeMillis() + ttlSeconds * 1000L);
+		synchronized ( generation ) {
+			// skip if anything was invalidated while loading, as cp might be stale
+			if ( gen != generation.get() ) {
+				return;
+			}
+			idCache.put(cp.getId(), c);
+			String ident = identifier(cp);
+			if ( ident != null ) {
+				identCache.put(ident, c);
+			}
+		}
+	}
+
+	private static String identifier(ChargePoint cp) {
+		return (cp.getInfo() != null ? cp.getInfo().getId() : null);
+	}
+
+	private static ChargePoint copy(ChargePoint cp) {
+		if ( cp == null ) {
+			return null;
+		}
+		ChargePointInfo info = null;
+		if ( cp.getInfo() != null ) {
+			ChargePointInfo orig = cp.getInfo();
+			info = new ChargePointInfo(orig.getId());
+			info.setChargePointVendor(orig.getChargePointVendor());
+			info.setChargePointModel(orig.getChargePointModel());
+			info.setChargePointSerialNumber(orig.getChargePointSerialNumber());
+			info.setChargeBoxSerialNumber(orig.getChargeBoxSerialNumber());
+			info.setFirmwareVersion(orig.getFirmwareVersion());
+			info.setIccid(orig.getIccid());
+			info.setImsi(orig.getImsi());
+			info.setMeterType(orig.getMeterType());
+			info.setMeterSerialNumber(orig.getMeterSerialNumber());
+		}
+		ChargePoint result = new ChargePoint(cp.getId(), cp.getCreated(), info);
+		result.setEnabled(cp.isEnabled());
+		result.setRegistrationStatus(cp.getRegistrationStatus());
+		result.setConnectorCount(cp.getConnectorCount());
+		return result;
+	}
+
+	@Override
+	public Long save(ChargePoint entity) {
+		try {
+			return delegate.save(entity);
+		} finally {
+			invalidate(entity);
+		}
+	}
+
+	@Override
+	public void delete(ChargePoint entity) {
+		try {
+			delegate.delete(entity);
+		} finally {
+			invalidate(entity);
+		}
+	}
+
+	@Override
+	public Collection<ChargePoint> getAll(List<SortDescriptor> sorts) {
+		return delegate.getAll(sorts);
+	}
+
+	@Override
+	public Class<? extends ChargePoint> getObjectType() {
+		return ChargePoint.class;
+	}
+
+	private void invalidate(ChargePoint entity) {
+		if ( entity == null ) {
+			return;
+		}
+		final Long id = entity.getId();
+		final String ident = identifier(entity);
+		evict(id, ident);
+		if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+			// evict again once committed, in case another thread cached the old value meanwhile
+			TransactionSynchronizationManager
+					.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+						@Override
+						public void afterCompletion(int status) {
+							evict(id, ident);
+						}
+
+					});
+		}
+	}
+
+	private void evict(Long id, String ident) {
+		synchronized ( generation ) {
+			generation.incrementAndGet();
+			if ( id != null ) {
+				CachedChargePoint c = idCache.remove(id);
+				if ( c != null ) {
+					// the identifier itself may have changed, so also remove the cached one
+					String cachedIdent = identifier(c.value);
+					if ( cachedIdent != null ) {
+						identCache.remove(cachedIdent);
+					}
+				}
+			}
+			if ( ident != null ) {
+				CachedChargePoint c = identCache.remove(ident);
+				if ( c != null ) {
+					idCache.remove(c.value.getId());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached charge points.
+	 */
+	public void clear() {
+		synchronized ( generation ) {
+			generation.incrementAndGet();
+			idCache.clear();
+			identCache.clear();
+		}
+	}
+
+	/**
+	 * Get the number of cached charge points.
+	 * 
+	 * @return the number of charge points
+	 */
+	@Override
+	public int getCacheSize() {
+		return idCache.size();
+	}
+
+	/**
+	 * Get the number of lookups served from the cache.
+	 * 
+	 * @return the hit count
+	 */
+	@Override
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Get the number of lookups passed to the delegate DAO.
+	 * 
+	 * @return the miss count
+	 */
+	@Override
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Get the maximum amount of time to cache a charge point.
+	 * 
+	 * @return the time to live, in seconds; defaults to
+	 *         {@link #DEFAULT_TTL_SECONDS}
+	 */
+	public int getTtlSeconds() {
+		return ttlSeconds;
+	}
+
+	/**
+	 * Set the maximum amount of time to cache a charge point.
+	 * 
+	 * @param ttlSeconds
+	 *        the time to live to set, in seconds, or {@literal 0} to disable
+	 *        caching
+	 */
+	public void setTtlSeconds(int ttlSeconds) {
+		this.ttlSeconds = ttlSeconds;
+	}
+
+}
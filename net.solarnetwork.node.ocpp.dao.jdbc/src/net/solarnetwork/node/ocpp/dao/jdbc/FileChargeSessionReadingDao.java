@@ -0,0 +1,592 @@
+/* ==================================================================
+ * FileChargeSessionReadingDao.java - 17/10/2026 9:52:40 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao.jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import net.solarnetwork.node.ocpp.dao.ChargeSessionReadingDao;
+import net.solarnetwork.ocpp.domain.Location;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.Phase;
+import net.solarnetwork.ocpp.domain.ReadingContext;
+import net.solarnetwork.ocpp.domain.SampledValue;
+import net.solarnetwork.ocpp.domain.UnitOfMeasure;
+
+/**
+ * File based {@link ChargeSessionReadingDao} that stores the readings of each
+ * charge session in an append-only segment file.
+ * 
+ * <p>
+ * Each call to {@link #addReadings(Iterable)} appends one block per session
+ * to that session's segment file, so existing data is never re-written. Within
+ * a block the readings are stored by column: timestamps as variable-length
+ * deltas, the location, unit, context, measurand and phase codes as single
+ * bytes, and the values as doubles along with their decimal scale. Values that
+ * cannot be restored exactly from a double are stored as strings instead.
+ * Segment files are memory-mapped for reading, and decoded one block at a
+ * time.
+ * </p>
+ * 
+ * <p>
+ * Readings are written and synced to disk as soon as they are added, so they
+ * are visible to reads made within the same transaction and are durable
+ * before the transaction commits. A new segment file is first written to a
+ * temporary file that is then renamed, so a segment file always starts with a
+ * complete header. If the transaction rolls back, the blocks it appended are
+ * marked as discarded by negating their length, and are skipped when read.
+ * Segment files are deleted only after the transaction commits. Timestamps are
+ * stored with millisecond precision.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class FileChargeSessionReadingDao implements ChargeSessionReadingDao {
+
+	/** The segment file name suffix. */
+	public static final String SEGMENT_FILE_SUFFIX = ".seg";
+
+	/** The temporary segment file name suffix. */
+	public static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	/** The segment file header length. */
+	private static final int HEADER_LENGTH = 4;
+
+	/** The segment file header value. */
+	private static final int SEGMENT_MAGIC = 0x4F435231;
+
+	/** The maximum number of significant digits a double can restore. */
+	private static final int MAX_DOUBLE_PRECISION = 15;
+
+	private static final int NULL_CODE = 0xFF;
+	private static final byte STRING_VALUE = -1;
+	private static final byte NULL_VALUE = -2;
+
+	private static final Comparator<SampledValue> READING_ORDER = Comparator
+			.<SampledValue, Instant> comparing(SampledValue::getTimestamp,
+					Comparator.nullsFirst(Comparator.naturalOrder()))
+			.thenComparingInt(r -> code(r.getContext()))
+			.thenComparingInt(r -> code(r.getLocation()))
+			.thenComparingInt(r -> code(r.getMeasurand()));
+
+	private final Path directory;
+	private final ConcurrentMap<UUID, Object> locks = new ConcurrentHashMap<>(16);
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param directory
+	 *        the directory to store segment files in
+	 * @throws IllegalArgumentException
+	 *         if {@code directory} is {@literal null}
+	 */
+	public FileChargeSessionReadingDao(Path directory) {
+		super();
+		if ( directory == null ) {
+			throw new IllegalArgumentException("The directory parameter must not be null.");
+		}
+		this.directory = directory;
+	}
+
+	/**
+	 * Get the segment file directory.
+	 * 
+	 * @return the directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	private Object lock(UUID sessionId) {
+		return locks.computeIfAbsent(sessionId, k -> new Object());
+	}
+
+	private Path segmentFile(UUID sessionId) {
+		return directory.resolve(sessionId.toString() + SEGMENT_FILE_SUFFIX);
+	}
+
+	@Override
+	public void addReadings(Iterable<SampledValue> readings) {
+		if ( readings == null ) {
+			return;
+		}
+		Map<UUID, List<SampledValue>> sessions = new LinkedHashMap<>(4);
+		for ( SampledValue r : readings ) {
+			if ( r != null && r.getSessionId() != null ) {
+				sessions.computeIfAbsent(r.getSessionId(), k -> new ArrayList<>(8)).add(r);
+			}
+		}
+		if ( sessions.isEmpty() ) {
+			return;
+		}
+		for ( Map.Entry<UUID, List<SampledValue>> e : sessions.entrySet() ) {
+			final UUID sessionId = e.getKey();
+			final long offset;
+			synchronized ( lock(sessionId) ) {
+				offset = append(sessionId, e.getValue());
+			}
+			if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+				TransactionSynchronizationManager
+						.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+							@Override
+							public void afterCompletion(int status) {
+								if ( status != STATUS_COMMITTED ) {
+									discard(sessionId, offset);
+								}
+							}
+
+						});
+			}
+		}
+	}
+
+	private static void afterCommit(Runnable task) {
+		if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+			task.run();
+			return;
+		}
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+					@Override
+					public void afterCommit() {
+						task.run();
+					}
+
+				});
+	}
+
+	/**
+	 * Append a block of readings to a segment file, and sync it to disk.
+	 * 
+	 * @param sessionId
+	 *        the session ID of the readings
+	 * @param readings
+	 *        the readings to append
+	 * @return the file offset of the appended block
+	 */
+	private long append(UUID sessionId, List<SampledValue> readings) {
+		final Path file = segmentFile(sessionId);
+		try {
+			ByteBuffer block = ByteBuffer.wrap(encodeBlock(readings));
+			Files.createDirectories(directory);
+			if ( !Files.exists(file) ) {
+				// write new files in full before renaming, so they always start with a header
+				Path tmp = file.resolveSibling(file.getFileName() + TEMP_FILE_SUFFIX);
+				try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					write(ch, ByteBuffer.allocate(HEADER_LENGTH).putInt(0, SEGMENT_MAGIC));
+					write(ch, block);
+					ch.force(true);
+				}
+				Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+				return HEADER_LENGTH;
+			}
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND)) {
+				final long offset = ch.size();
+				write(ch, block);
+				ch.force(true);
+				return offset;
+			}
+		} catch ( IOException e ) {
+			throw new DataAccessResourceFailureException(
+					"Error appending charge session readings to " + file, e);
+		}
+	}
+
+	private static void write(FileChannel ch, ByteBuffer buf) throws IOException {
+		while ( buf.hasRemaining() ) {
+			ch.write(buf);
+		}
+	}
+
+	/**
+	 * Discard a block appended to a segment file, by negating its length.
+	 * 
+	 * <p>
+	 * The block is left in place so the offsets of blocks appended after it
+	 * do not change. If the block is the only one in the file, the file is
+	 * deleted instead.
+	 * </p>
+	 * 
+	 * @param sessionId
+	 *        the session ID of the segment file
+	 * @param offset
+	 *        the file offset of the block to discard
+	 */
+	private void discard(UUID sessionId, long offset) {
+		final Path file = segmentFile(sessionId);
+		synchronized ( lock(sessionId) ) {
+			try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer buf = ByteBuffer.allocate(4);
+				if ( ch.read(buf, offset) < 4 ) {
+					return;
+				}
+				final int len = buf.getInt(0);
+				if ( len <= 0 ) {
+					return;
+				}
+				if ( offset == HEADER_LENGTH && ch.size() == offset + 4 + len ) {
+					Files.delete(file);
+					return;
+				}
+				buf.putInt(0, -len).rewind();
+				while ( buf.hasRemaining() ) {
+					ch.write(buf, offset + buf.position());
+				}
+				ch.force(true);
+			} catch ( NoSuchFileException e ) {
+				// deleted already
+			} catch ( IOException e ) {
+				throw new DataAccessResourceFailureException(
+						"Error discarding charge session readings from " + file, e);
+			}
+		}
+	}
+
+	@Override
+	public List<SampledValue> findReadingsForSession(UUID sessionId) {
+		List<SampledValue> result = new ArrayList<>(32);
+		processReadingsForSession(sessionId, null, result::add);
+		return result;
+	}
+
+	@Override
+	public boolean processReadingsForSession(UUID sessionId, Instant since,
+			Consumer<SampledValue> handler) {
+		final Path file = segmentFile(sessionId);
+		final long sinceMs = (since != null ? since.toEpochMilli() : Long.MIN_VALUE);
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			// appends never re-write existing data, so read up to the current size without locking
+			final long size = ch.size();
+			if ( size < HEADER_LENGTH ) {
+				return true;
+			}
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if ( buf.getInt() != SEGMENT_MAGIC ) {
+				throw new DataAccessResourceFailureException(
+						"Invalid charge session reading segment file " + file);
+			}
+
+			// find the blocks to decode, and if their time ranges overlap
+			List<ByteBuffer> blocks = new ArrayList<>(8);
+			boolean ordered = true;
+			long prevMaxTs = Long.MIN_VALUE;
+			while ( buf.remaining() >= 4 ) {
+				final int len = buf.getInt();
+				if ( len < 0 && len != Integer.MIN_VALUE && -len <= buf.remaining() ) {
+					// discarded block from a rolled back transaction
+					buf.position(buf.position() - len);
+					continue;
+				}
+				if ( len < 0 || len > buf.remaining() ) {
+					// incomplete block from an interrupted write
+					break;
+				}
+				ByteBuffer block = buf.slice();
+				block.limit(len);
+				buf.position(buf.position() + len);
+				long[] range = timestampRange(block.duplicate());
+				if ( range[1] < sinceMs ) {
+					continue;
+				}
+				if ( range[0] <= prevMaxTs ) {
+					ordered = false;
+				}
+				prevMaxTs = Math.max(prevMaxTs, range[1]);
+				blocks.add(block);
+			}
+
+			List<SampledValue> readings = new ArrayList<>(32);
+			for ( ByteBuffer block : blocks ) {
+				decodeBlock(sessionId, block, sinceMs, readings);
+				if ( ordered ) {
+					readings.sort(READING_ORDER);
+					readings.forEach(handler);
+					readings.clear();
+				}
+			}
+			if ( !ordered ) {
+				// blocks were added out of time order, so sort them all together
+				readings.sort(READING_ORDER);
+				readings.forEach(handler);
+			}
+			return true;
+		} catch ( NoSuchFileException e ) {
+			return false;
+		} catch ( IOException e ) {
+			throw new DataAccessResourceFailureException(
+					"Error reading charge session readings from " + file, e);
+		}
+	}
+
+	@Override
+	public void deleteReadingsForSession(UUID sessionId) {
+		afterCommit(() -> {
+			Path file = segmentFile(sessionId);
+			synchronized ( lock(sessionId) ) {
+				try {
+					Files.deleteIfExists(file);
+				} catch ( IOException e ) {
+					throw new DataAccessResourceFailureException(
+							"Error deleting charge session readings " + file, e);
+				}
+				locks.remove(sessionId);
+			}
+		});
+	}
+
+	private static byte[] encodeBlock(List<SampledValue> readings) throws IOException {
+		final int n = readings.size();
+		ByteArrayOutputStream byos = new ByteArrayOutputStream(64 + n * 20);
+		DataOutputStream out = new DataOutputStream(byos);
+		out.writeInt(0); // block length placeholder
+		out.writeInt(n);
+
+		// timestamps, as zig-zag encoded variable-length deltas
+		long prev = 0;
+		for ( SampledValue r : readings ) {
+			long ts = (r.getTimestamp() != null ? r.getTimestamp().toEpochMilli() : 0);
+			long delta = ts - prev;
+			writeVarLong(out, (delta << 1) ^ (delta >> 63));
+			prev = ts;
+		}
+
+		// enumeration codes
+		for ( SampledValue r : readings ) {
+			out.writeByte(byteCode(r.getLocation() != null ? r.getLocation() : Location.Outlet));
+		}
+		for ( SampledValue r : readings ) {
+			out.writeByte(byteCode(r.getUnit() != null ? r.getUnit() : UnitOfMeasure.Unknown));
+		}
+		for ( SampledValue r : readings ) {
+			out.writeByte(
+					byteCode(r.getContext() != null ? r.getContext() : ReadingContext.Unknown));
+		}
+		for ( SampledValue r : readings ) {
+			out.writeByte(
+					byteCode(r.getMeasurand() != null ? r.getMeasurand() : Measurand.Unknown));
+		}
+		for ( SampledValue r : readings ) {
+			out.writeByte(r.getPhase() != null && r.getPhase() != Phase.Unknown
+					? byteCode(r.getPhase())
+					: NULL_CODE);
+		}
+
+		// values, as scale + double with strings for anything else
+		BigDecimal[] nums = new BigDecimal[n];
+		for ( int i = 0; i < n; i++ ) {
+			String v = readings.get(i).getValue();
+			if ( v == null ) {
+				out.writeByte(NULL_VALUE);
+				continue;
+			}
+			BigDecimal num = JdbcChargeSessionDao.typedReadingValue(v);
+			if ( num != null && num.precision() <= MAX_DOUBLE_PRECISION
+					&& num.scale() <= Byte.MAX_VALUE ) {
+				nums[i] = num;
+				out.writeByte(num.scale());
+			} else {
+				out.writeByte(STRING_VALUE);
+			}
+		}
+		for ( int i = 0; i < n; i++ ) {
+			out.writeDouble(nums[i] != null ? nums[i].doubleValue() : 0.0);
+		}
+		for ( int i = 0; i < n; i++ ) {
+			String v = readings.get(i).getValue();
+			if ( v != null && nums[i] == null ) {
+				byte[] data = v.getBytes(StandardCharsets.UTF_8);
+				if ( data.length > 0xFFFF ) {
+					throw new IllegalArgumentException("Reading value too long.");
+				}
+				out.writeShort(data.length);
+				out.write(data);
+			}
+		}
+		out.flush();
+
+		byte[] block = byos.toByteArray();
+		ByteBuffer.wrap(block).putInt(0, block.length - 4);
+		return block;
+	}
+
+	private static long[] timestampRange(ByteBuffer block) {
+		final int n = block.getInt();
+		long min = Long.MAX_VALUE;
+		long max = Long.MIN_VALUE;
+		long prev = 0;
+		for ( int i = 0; i < n; i++ ) {
+			long zz = readVarLong(block);
+			prev += (zz >>> 1) ^ -(zz & 1);
+			min = Math.min(min, prev);
+			max = Math.max(max, prev);
+		}
+		return new long[] { min, max };
+	}
+
+	private static void decodeBlock(UUID sessionId, ByteBuffer block, long sinceMs,
+			List<SampledValue> result) {
+		final int n = block.getInt();
+		long[] ts = new long[n];
+		long prev = 0;
+		for ( int i = 0; i < n; i++ ) {
+			long zz = readVarLong(block);
+			prev += (zz >>> 1) ^ -(zz & 1);
+			ts[i] = prev;
+		}
+		byte[] locations = bytes(block, n);
+		byte[] units = bytes(block, n);
+		byte[] contexts = bytes(block, n);
+		byte[] measurands = bytes(block, n);
+		byte[] phases = bytes(block, n);
+		byte[] scales = bytes(block, n);
+		double[] values = new double[n];
+		for ( int i = 0; i < n; i++ ) {
+			values[i] = block.getDouble();
+		}
+		for ( int i = 0; i < n; i++ ) {
+			String value;
+			if ( scales[i] == NULL_VALUE ) {
+				value = null;
+			} else if ( scales[i] == STRING_VALUE ) {
+				byte[] data = new byte[block.getShort() & 0xFFFF];
+				block.get(data);
+				value = new String(data, StandardCharsets.UTF_8);
+			} else {
+				value = BigDecimal.valueOf(values[i]).setScale(scales[i], RoundingMode.HALF_UP)
+						.toPlainString();
+			}
+			if ( ts[i] < sinceMs ) {
+				continue;
+			}
+			// @formatter:off
+			SampledValue.Builder r = SampledValue.builder()
+					.withSessionId(sessionId)
+					.withTimestamp(Instant.ofEpochMilli(ts[i]))
+					.withLocation(Location.forCode(locations[i] & 0xFF))
+					.withUnit(UnitOfMeasure.forCode(units[i] & 0xFF))
+					.withContext(ReadingContext.forCode(contexts[i] & 0xFF))
+					.withMeasurand(Measurand.forCode(measurands[i] & 0xFF))
+					.withValue(value);
+			// @formatter:on
+			if ( (phases[i] & 0xFF) != NULL_CODE ) {
+				r.withPhase(Phase.forCode(phases[i] & 0xFF));
+			}
+			result.add(r.build());
+		}
+	}
+
+	private static byte[] bytes(ByteBuffer buf, int n) {
+		byte[] result = new byte[n];
+		buf.get(result);
+		return result;
+	}
+
+	private static int code(Enum<?> e) {
+		if ( e instanceof Location ) {
+			return ((Location) e).getCode();
+		} else if ( e instanceof ReadingContext ) {
+			return ((ReadingContext) e).getCode();
+		} else if ( e instanceof Measurand ) {
+			return ((Measurand) e).getCode();
+		}
+		return -1;
+	}
+
+	private static int byteCode(Location e) {
+		return checkedByteCode(e.getCode(), e);
+	}
+
+	private static int byteCode(UnitOfMeasure e) {
+		return checkedByteCode(e.getCode(), e);
+	}
+
+	private static int byteCode(ReadingContext e) {
+		return checkedByteCode(e.getCode(), e);
+	}
+
+	private static int byteCode(Measurand e) {
+		return checkedByteCode(e.getCode(), e);
+	}
+
+	private static int byteCode(Phase e) {
+		return checkedByteCode(e.getCode(), e);
+	}
+
+	private static int checkedByteCode(int code, Enum<?> e) {
+		if ( code < 0 || code >= NULL_CODE ) {
+			throw new IllegalArgumentException("Code for " + e + " does not fit in a byte.");
+		}
+		return code;
+	}
+
+	private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+		while ( (v & ~0x7FL) != 0 ) {
+			out.writeByte((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	private static long readVarLong(ByteBuffer buf) {
+		long result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buf.get();
+			result |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ( (b & 0x80) != 0 );
+		return result;
+	}
+
+}
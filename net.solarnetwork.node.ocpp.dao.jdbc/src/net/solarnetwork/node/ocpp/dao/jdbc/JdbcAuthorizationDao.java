@@ -23,23 +23,38 @@
 package net.solarnetwork.node.ocpp.dao.jdbc;
 
 import static net.solarnetwork.node.ocpp.dao.jdbc.Constants.TABLE_NAME_TEMPALTE;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import net.solarnetwork.node.dao.jdbc.BaseJdbcGenericDao;
+import net.solarnetwork.node.ocpp.dao.BulkAuthorizationDao;
 import net.solarnetwork.ocpp.dao.AuthorizationDao;
 import net.solarnetwork.ocpp.domain.Authorization;
 
 /**
  * JDBC based implementation of {@link AuthorizationDao}.
  * 
+ * <p>
+ * {@link #saveAuthorizations(List)} saves authorizations with a
+ * {@literal MERGE} statement executed in JDBC batches of
+ * {@code bulkBatchSize}, and {@link #processAuthorizations(Consumer)} streams
+ * rows with a fetch size of {@code bulkFetchSize}.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcAuthorizationDao extends BaseJdbcGenericDao<Authorization, Long>
-		implements AuthorizationDao {
+		implements BulkAuthorizationDao {
 
 	/**
 	 * Enumeration of SQL resources.
@@ -47,7 +62,13 @@ public class JdbcAuthorizationDao extends BaseJdbcGenericDao<Authorization, Long
 	public enum SqlResource {
 
 		/** Find by token. */
-		GetByToken("get-token");
+		GetByToken("get-token"),
+
+		/** Insert or update by token. */
+		UpsertByToken("upsert-token"),
+
+		/** Find all, ordered by token. */
+		FindAllByToken("find-all-token");
 
 		private final String resource;
 
@@ -71,11 +92,22 @@ public class JdbcAuthorizationDao extends BaseJdbcGenericDao<Authorization, Long
 	/** The charge point table version. */
 	public static final int VERSION = 1;
 
+	/** The default {@code bulkBatchSize} value. */
+	public static final int DEFAULT_BULK_BATCH_SIZE = 500;
+
+	/** The default {@code bulkFetchSize} value. */
+	public static final int DEFAULT_BULK_FETCH_SIZE = 500;
+
+	private static final RowMapper<Authorization> ROW_MAPPER = new AuthorizationRowMapper();
+
+	private int bulkBatchSize = DEFAULT_BULK_BATCH_SIZE;
+	private int bulkFetchSize = DEFAULT_BULK_FETCH_SIZE;
+
 	/**
 	 * Constructor.
 	 */
 	public JdbcAuthorizationDao() {
-		super(Authorization.class, Long.class, new AuthorizationRowMapper(), TABLE_NAME_TEMPALTE,
+		super(Authorization.class, Long.class, ROW_MAPPER, TABLE_NAME_TEMPALTE,
 				TABLE_NAME, VERSION);
 		setUseAutogeneratedKeys(true);
 	}
@@ -85,6 +117,75 @@ public class JdbcAuthorizationDao extends BaseJdbcGenericDao<Authorization, Long
 		return findFirst(getSqlResource(SqlResource.GetByToken.getResource()), token);
 	}
 
+	@Override
+	public int saveAuthorizations(List<Authorization> authorizations) {
+		if ( authorizations == null || authorizations.isEmpty() ) {
+			return 0;
+		}
+		final int batchSize = (bulkBatchSize > 0 ? bulkBatchSize : 1);
+		final Instant now = Instant.now();
+		return getJdbcTemplate().execute(getSqlResource(SqlResource.UpsertByToken.getResource()),
+				new PreparedStatementCallback<Integer>() {
+
+					@Override
+					public Integer doInPreparedStatement(PreparedStatement ps)
+							throws SQLException, DataAccessException {
+						int count = 0;
+						int total = 0;
+						for ( Authorization auth : authorizations ) {
+							ps.setString(1, auth.getToken());
+							setUpsertValues(auth, ps, 1);
+							setInstantParameter(ps, 5,
+									auth.getCreated() != null ? auth.getCreated() : now);
+							ps.setString(6, auth.getToken());
+							setUpsertValues(auth, ps, 6);
+							ps.addBatch();
+							total++;
+							if ( ++count >= batchSize ) {
+								ps.executeBatch();
+								count = 0;
+							}
+						}
+						if ( count > 0 ) {
+							ps.executeBatch();
+						}
+						return total;
+					}
+				});
+	}
+
+	private void setUpsertValues(Authorization obj, PreparedStatement ps, int offset)
+			throws SQLException {
+		ps.setBoolean(1 + offset, obj.isEnabled());
+		setInstantParameter(ps, 2 + offset, obj.getExpiryDate());
+		ps.setString(3 + offset, obj.getParentId());
+	}
+
+	@Override
+	public int processAuthorizations(Consumer<Authorization> processor) {
+		final int[] count = new int[] { 0 };
+		getJdbcTemplate().query(new PreparedStatementCreator() {
+
+			@Override
+			public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+				PreparedStatement ps = con.prepareStatement(
+						getSqlResource(SqlResource.FindAllByToken.getResource()),
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				if ( bulkFetchSize > 0 ) {
+					ps.setFetchSize(bulkFetchSize);
+				}
+				return ps;
+			}
+		}, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				processor.accept(ROW_MAPPER.mapRow(rs, count[0]++));
+			}
+		});
+		return count[0];
+	}
+
 	@Override
 	protected void setStoreStatementValues(Authorization obj, PreparedStatement ps) throws SQLException {
 		setInstantParameter(ps, 1, obj.getCreated() != null ? obj.getCreated() : Instant.now());
@@ -127,4 +228,44 @@ public class JdbcAuthorizationDao extends BaseJdbcGenericDao<Authorization, Long
 
 	}
 
+	/**
+	 * Get the JDBC batch size to use in {@link #saveAuthorizations(List)}.
+	 * 
+	 * @return the batch size; defaults to {@link #DEFAULT_BULK_BATCH_SIZE}
+	 */
+	public int getBulkBatchSize() {
+		return bulkBatchSize;
+	}
+
+	/**
+	 * Set the JDBC batch size to use in {@link #saveAuthorizations(List)}.
+	 * 
+	 * @param bulkBatchSize
+	 *        the batch size to set
+	 */
+	public void setBulkBatchSize(int bulkBatchSize) {
+		this.bulkBatchSize = bulkBatchSize;
+	}
+
+	/**
+	 * Get the JDBC fetch size to use in
+	 * {@link #processAuthorizations(Consumer)}.
+	 * 
+	 * @return the fetch size; defaults to {@link #DEFAULT_BULK_FETCH_SIZE}
+	 */
+	public int getBulkFetchSize() {
+		return bulkFetchSize;
+	}
+
+	/**
+	 * Set the JDBC fetch size to use in
+	 * {@link #processAuthorizations(Consumer)}.
+	 * 
+	 * @param bulkFetchSize
+	 *        the fetch size to set
+	 */
+	public void setBulkFetchSize(int bulkFetchSize) {
+		this.bulkFetchSize = bulkFetchSize;
+	}
+
 }
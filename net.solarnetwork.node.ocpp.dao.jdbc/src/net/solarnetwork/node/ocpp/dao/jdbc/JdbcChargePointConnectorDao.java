@@ -28,7 +28,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Collection;
+import org.osgi.service.event.EventAdmin;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
+import net.solarnetwork.dao.GenericDao.EntityEventType;
 import net.solarnetwork.node.dao.jdbc.BaseJdbcGenericDao;
 import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
 import net.solarnetwork.ocpp.domain.ChargePointConnector;
@@ -36,12 +39,22 @@ import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
 import net.solarnetwork.ocpp.domain.ChargePointErrorCode;
 import net.solarnetwork.ocpp.domain.ChargePointStatus;
 import net.solarnetwork.ocpp.domain.StatusNotification;
+import net.solarnetwork.util.OptionalService;
 
 /**
  * JDBC implementation of {@link ChargePointConnectorDao}.
  * 
+ * <p>
+ * {@link #saveStatusInfo(long, StatusNotification)} stores the status with a
+ * single {@literal MERGE} statement, rather than loading the existing entity
+ * first, so a burst of status notifications costs one statement each. The
+ * stored entity is only loaded afterwards when an {@link EventAdmin} is
+ * available, to post the entity {@literal STORED} event with its stored
+ * creation date.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcChargePointConnectorDao
 		extends BaseJdbcGenericDao<ChargePointConnector, ChargePointConnectorKey>
@@ -58,6 +71,9 @@ public class JdbcChargePointConnectorDao
 		/** Update the status of a specific connector. */
 		UpdateStatus("update-status"),
 
+		/** Insert or update the status info of a specific connector. */
+		UpsertStatus("upsert-status"),
+
 		/** Update the status of all connectors with a given Charge Point ID. */
 		UpdateStatusForChargePoint("update-status-for-charge-point");
 
@@ -100,14 +116,35 @@ public class JdbcChargePointConnectorDao
 	@Override
 	public ChargePointConnectorKey saveStatusInfo(long chargePointId, StatusNotification info) {
 		ChargePointConnectorKey pk = new ChargePointConnectorKey(chargePointId, info.getConnectorId());
-		ChargePointConnector entity = get(pk);
-		if ( entity == null ) {
-			entity = new ChargePointConnector(pk, Instant.now());
-		} else if ( info.isSameAs(entity.getInfo()) ) {
-			return pk;
-		}
+		final ChargePointConnector entity = new ChargePointConnector(pk, Instant.now());
 		entity.setInfo(info);
-		return save(entity);
+		getJdbcTemplate().update(getSqlResource(SqlResource.UpsertStatus.getResource()),
+				new PreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps) throws SQLException {
+						ps.setLong(1, chargePointId);
+						ps.setInt(2, info.getConnectorId());
+						setStatusValues(entity, ps, 2);
+						ps.setLong(9, chargePointId);
+						ps.setInt(10, info.getConnectorId());
+						setInstantParameter(ps, 11, entity.getCreated());
+						setStatusValues(entity, ps, 11);
+					}
+				});
+		final OptionalService<EventAdmin> eventAdmin = getEventAdmin();
+		if ( eventAdmin != null && eventAdmin.service() != null ) {
+			postEntityEvent(pk, get(pk), EntityEventType.STORED);
+		}
+		return pk;
+	}
+
+	private void setStatusValues(ChargePointConnector obj, PreparedStatement ps, int offset)
+			throws SQLException {
+		setUpdateStatementValues(obj, ps, offset);
+		if ( obj.getInfo() == null || obj.getInfo().getTimestamp() == null ) {
+			setInstantParameter(ps, 3 + offset, obj.getCreated());
+		}
 	}
 
 	@Override
@@ -38,8 +38,14 @@ import net.solarnetwork.ocpp.domain.RegistrationStatus;
 /**
  * JDBC based implementation of {@link ChargePointDao}.
  * 
+ * <p>
+ * If a {@code chargeSessionDao} is configured, the readings it stores outside
+ * the database for the sessions of a charge point are deleted along with that
+ * charge point.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcChargePointDao extends BaseJdbcGenericDao<ChargePoint, Long> implements ChargePointDao {
 
@@ -73,6 +79,8 @@ public class JdbcChargePointDao extends BaseJdbcGenericDao<ChargePoint, Long> im
 	/** The charge point table version. */
 	public static final int VERSION = 1;
 
+	private JdbcChargeSessionDao chargeSessionDao;
+
 	/**
 	 * Constructor.
 	 */
@@ -82,6 +90,15 @@ public class JdbcChargePointDao extends BaseJdbcGenericDao<ChargePoint, Long> im
 		setUseAutogeneratedKeys(true);
 	}
 
+	@Override
+	public void delete(ChargePoint domainObject) {
+		final JdbcChargeSessionDao sessionDao = this.chargeSessionDao;
+		if ( sessionDao != null && domainObject != null ) {
+			sessionDao.deleteReadingsForChargePoint(domainObject.getId());
+		}
+		super.delete(domainObject);
+	}
+
 	@Override
 	public ChargePoint getForIdentity(ChargePointIdentity identity) {
 		return findFirst(getSqlResource(SqlResource.GetByIdentifier.getResource()),
@@ -120,6 +137,28 @@ public class JdbcChargePointDao extends BaseJdbcGenericDao<ChargePoint, Long> im
 		ps.setInt(13 + offset, obj.getConnectorCount());
 	}
 
+	/**
+	 * Get the charge session DAO.
+	 * 
+	 * @return the charge session DAO
+	 * @since 1.1
+	 */
+	public JdbcChargeSessionDao getChargeSessionDao() {
+		return chargeSessionDao;
+	}
+
+	/**
+	 * Set the charge session DAO, to delete the readings of the sessions of
+	 * deleted charge points with.
+	 * 
+	 * @param chargeSessionDao
+	 *        the charge session DAO to use
+	 * @since 1.1
+	 */
+	public void setChargeSessionDao(JdbcChargeSessionDao chargeSessionDao) {
+		this.chargeSessionDao = chargeSessionDao;
+	}
+
 	/**
 	 * A row mapper for {@link ChargePoint} entities.
 	 */
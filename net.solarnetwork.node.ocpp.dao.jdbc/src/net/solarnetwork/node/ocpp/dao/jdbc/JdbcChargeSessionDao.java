@@ -23,18 +23,34 @@
 package net.solarnetwork.node.ocpp.dao.jdbc;
 
 import static net.solarnetwork.node.ocpp.dao.jdbc.Constants.TABLE_NAME_TEMPALTE;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import net.solarnetwork.node.dao.jdbc.BaseJdbcGenericDao;
+import net.solarnetwork.node.ocpp.dao.ChargeSessionReadingDao;
+import net.solarnetwork.node.ocpp.dao.ExtendedChargeSessionDao;
 import net.solarnetwork.ocpp.dao.ChargeSessionDao;
 import net.solarnetwork.ocpp.domain.ChargeSession;
 import net.solarnetwork.ocpp.domain.ChargeSessionEndReason;
@@ -48,11 +64,54 @@ import net.solarnetwork.ocpp.domain.UnitOfMeasure;
 /**
  * JDBC based implementation of {@link ChargeSessionDao}.
  * 
+ * <p>
+ * Transaction IDs are allocated from the {@code ocpp_charge_tx_seq} sequence
+ * in blocks of {@code transactionIdBlockSize} values, so that
+ * {@link #nextTransactionId()} does not need to query the database for every
+ * new session. The sequence is incremented by the block size, so that each
+ * sequence value {@code v} reserves the IDs {@code [v, v + blockSize)}; when
+ * {@link #init()} finds the sequence using a different increment it is
+ * re-created with the block size as its increment, continuing from its current
+ * value. Allocated values that are never used (for example when the
+ * application is restarted) are simply skipped.
+ * </p>
+ * 
+ * <p>
+ * Readings are inserted using JDBC batch statements of up to
+ * {@code readingBatchSize} rows at a time, and streamed with a JDBC fetch
+ * size of {@code readingFetchSize} rows.
+ * </p>
+ * 
+ * <p>
+ * When {@code typedReadingStorage} is enabled, reading values that are plain
+ * decimal numbers are stored as an unscaled {@code BIGINT} value and a
+ * {@code SMALLINT} scale rather than as a string. Values that cannot be stored
+ * exactly that way are still stored as strings. Either form is read back as
+ * the same string value, so the setting can be changed at any time. Existing
+ * string readings are converted the first time {@link #init()} is called with
+ * the setting enabled, which is then recorded in the settings table so the
+ * conversion is not repeated. Typed values are passed to consumers as-is by
+ * {@link #processReadingValuesForSession(UUID, Instant, BiConsumer)}.
+ * </p>
+ * 
+ * <p>
+ * If a {@code readingDao} is configured, all new readings are stored with
+ * that instead of the reading table, and the readings of deleted sessions are
+ * deleted from it as well. Readings are queried from the {@code readingDao}
+ * first, falling back to the reading table for sessions it has no readings
+ * for, so readings stored before the {@code readingDao} was configured can
+ * still be found. A session that was in progress when the {@code readingDao}
+ * was configured will only return the readings added after that. Sessions
+ * deleted along with their charge point are not seen by this DAO, so
+ * {@link #deleteReadingsForChargePoint(Long)} must be called before a charge
+ * point is deleted.
+ * </p>
+ * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID>
-		implements ChargeSessionDao {
+		implements ExtendedChargeSessionDao {
 
 	/** SQL resource enumeration. */
 	public enum SqlResource {
@@ -83,11 +142,68 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 		/** Find entities with a {@literal null} {@code ended} value. */
 		FindByIncomplete("find-for-incomplete"),
 
+		/** Find entities for a given charge point ID. */
+		FindByChargePoint("find-for-cp"),
+
+		/**
+		 * Find entities with a {@code posted} date older than a given date.
+		 */
+		FindByPosted("find-for-posted"),
+
 		/** Find all sampled value readings for a charge session ID. */
 		FindReadingBySession("find-reading-for-session"),
 
+		/**
+		 * Find sampled value readings for a charge session ID since a given
+		 * date.
+		 */
+		FindReadingBySessionSince("find-reading-for-session-since"),
+
+		/**
+		 * Find sampled value readings for a charge session ID and measurand.
+		 */
+		FindReadingBySessionMeasurand("find-reading-for-session-measurand"),
+
+		/**
+		 * Find the latest sampled value readings for each measurand of a
+		 * charge session ID.
+		 */
+		FindLatestReadingBySession("find-reading-latest-for-session"),
+
+		/**
+		 * Find sampled value readings stored only as strings, for update.
+		 */
+		FindUntypedReadings("find-reading-untyped"),
+
 		/** Insert a sampled value reading. */
-		InsertReading("insert-reading");
+		InsertReading("insert-reading"),
+
+		/** Insert an entity with a pre-allocated transaction ID. */
+		InsertWithTransaction("insert-tx"),
+
+		/** Get the next transaction ID block. */
+		NextTransactionId("next-tx-id"),
+
+		/** Get the transaction ID sequence increment and next value. */
+		GetTransactionIdSequence("get-tx-seq"),
+
+		/** Drop the transaction ID sequence. */
+		DropTransactionIdSequence("drop-tx-seq"),
+
+		/**
+		 * Create the transaction ID sequence, formatted with the start and
+		 * increment values.
+		 */
+		CreateTransactionIdSequence("create-tx-seq"),
+
+		/**
+		 * Get the version of the typed reading conversion, if it has been
+		 * run.
+		 */
+		GetTypedReadingsVersion("get-typed-readings-version"),
+
+		/** Record that the typed reading conversion has been run. */
+		InsertTypedReadingsVersion("insert-typed-readings-version");
 
 		private final String resource;
 
@@ -108,11 +224,47 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 	/** The table name for {@link ChargeSession} entities. */
 	public static final String TABLE_NAME = "charge_sess";
 
-	/** The charge point table version. */
-	public static final int VERSION = 1;
+	/**
+	 * The charge session table version.
+	 * 
+	 * <p>
+	 * Version 2 adds indexes to support the incomplete session and posted
+	 * session queries. Version 3 adds typed reading value columns.
+	 * </p>
+	 */
+	public static final int VERSION = 3;
+
+	/** The default {@code transactionIdBlockSize} value. */
+	public static final int DEFAULT_TRANSACTION_ID_BLOCK_SIZE = 10;
+
+	/** The default {@code readingBatchSize} value. */
+	public static final int DEFAULT_READING_BATCH_SIZE = 100;
+
+	/**
+	 * The maximum length of a reading value that can be stored as a typed
+	 * value.
+	 */
+	public static final int MAX_TYPED_READING_LENGTH = 21;
+
+	/** The default {@code readingFetchSize} value. */
+	public static final int DEFAULT_READING_FETCH_SIZE = 100;
 
 	private static final RowMapper<SampledValue> READING_ROW_MAPPER = new ReadingRowMapper();
 
+	private static final Comparator<SampledValue> LATEST_READING_ORDER = Comparator
+			.<SampledValue> comparingInt(r -> r.getMeasurand().getCode())
+			.thenComparingInt(r -> r.getLocation() != null ? r.getLocation().getCode() : 0)
+			.thenComparingInt(r -> r.getPhase() != null ? r.getPhase().getCode() : -1);
+
+	private final Deque<Integer> transactionIds = new ArrayDeque<>(
+			DEFAULT_TRANSACTION_ID_BLOCK_SIZE);
+	private int transactionIdBlockSize = DEFAULT_TRANSACTION_ID_BLOCK_SIZE;
+	private int transactionIdIncrement = 1;
+	private int readingBatchSize = DEFAULT_READING_BATCH_SIZE;
+	private int readingFetchSize = DEFAULT_READING_FETCH_SIZE;
+	private boolean typedReadingStorage;
+	private ChargeSessionReadingDao readingDao;
+
 	/**
 	 * Constructor.
 	 */
@@ -121,6 +273,54 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 				TABLE_NAME, VERSION);
 	}
 
+	@Override
+	public void init() {
+		super.init();
+		setupTransactionIdSequence();
+		if ( typedReadingStorage && !isReadingsConvertedToTypedStorage() ) {
+			int count = convertReadingsToTypedStorage();
+			getJdbcTemplate()
+					.update(getSqlResource(SqlResource.InsertTypedReadingsVersion.getResource()));
+			log.info("Converted {} OCPP charge session readings to typed storage.", count);
+		}
+	}
+
+	private void setupTransactionIdSequence() {
+		final int blockSize = (transactionIdBlockSize > 0 ? transactionIdBlockSize : 1);
+		final long[] seq = getJdbcTemplate().queryForObject(
+				getSqlResource(SqlResource.GetTransactionIdSequence.getResource()),
+				(rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) });
+		final long increment = seq[0];
+		if ( increment != blockSize ) {
+			// Derby cannot alter a sequence, so re-create it from its next value
+			final long start = (seq[1] > 0 ? seq[1] : 1L);
+			getJdbcTemplate()
+					.execute(getSqlResource(SqlResource.DropTransactionIdSequence.getResource()));
+			getJdbcTemplate().execute(String.format(
+					getSqlResource(SqlResource.CreateTransactionIdSequence.getResource()), start,
+					blockSize));
+			log.info("Changed OCPP charge session transaction ID sequence increment from {} to {}, "
+					+ "starting at {}", increment, blockSize, start);
+		}
+		synchronized ( transactionIds ) {
+			transactionIds.clear();
+			transactionIdIncrement = blockSize;
+		}
+	}
+
+	private boolean isReadingsConvertedToTypedStorage() {
+		List<String> versions = getJdbcTemplate().queryForList(
+				getSqlResource(SqlResource.GetTypedReadingsVersion.getResource()), String.class);
+		return !versions.isEmpty();
+	}
+
+	@Override
+	protected void insertDomainObject(ChargeSession obj, String sqlInsert) {
+		super.insertDomainObject(obj, obj.getTransactionId() > 0
+				? getSqlResource(SqlResource.InsertWithTransaction.getResource())
+				: sqlInsert);
+	}
+
 	@Override
 	protected void setStoreStatementValues(ChargeSession obj, PreparedStatement ps) throws SQLException {
 		setUuidParameters(ps, 1, obj.getId());
@@ -128,7 +328,34 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 		ps.setString(4, obj.getAuthId());
 		ps.setLong(5, obj.getChargePointId());
 		ps.setInt(6, obj.getConnectorId());
-		setUpdateStatementValues(obj, ps, 6);
+		if ( obj.getTransactionId() > 0 ) {
+			ps.setInt(7, obj.getTransactionId());
+			setUpdateStatementValues(obj, ps, 7);
+		} else {
+			setUpdateStatementValues(obj, ps, 6);
+		}
+	}
+
+	@Override
+	public int nextTransactionId() {
+		synchronized ( transactionIds ) {
+			if ( transactionIds.isEmpty() ) {
+				allocateTransactionIds();
+			}
+			return transactionIds.removeFirst();
+		}
+	}
+
+	private void allocateTransactionIds() {
+		Integer first = getJdbcTemplate().queryForObject(
+				getSqlResource(SqlResource.NextTransactionId.getResource()), Integer.class);
+		if ( first == null || first.intValue() < 1 ) {
+			throw new IllegalStateException("Unable to allocate charge session transaction ID.");
+		}
+		final long end = Math.min((long) first + transactionIdIncrement, Integer.MAX_VALUE + 1L);
+		for ( long txId = first; txId < end; txId++ ) {
+			transactionIds.addLast((int) txId);
+		}
 	}
 
 	@Override
@@ -159,6 +386,12 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 
 	@Override
 	public int deletePostedChargeSessions(Instant expirationDate) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			for ( ChargeSession sess : findPostedChargeSessions(expirationDate, 0) ) {
+				readingDao.deleteReadingsForSession(sess.getId());
+			}
+		}
 		return getJdbcTemplate().update(getSqlResource(SqlResource.DeleteByPosted.getResource()),
 				new PreparedStatementSetter() {
 
@@ -171,17 +404,76 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 				});
 	}
 
+	@Override
+	public List<ChargeSession> findPostedChargeSessions(Instant expirationDate, int max) {
+		return getJdbcTemplate().query(new PreparedStatementCreator() {
+
+			@Override
+			public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+				PreparedStatement ps = con
+						.prepareStatement(getSqlResource(SqlResource.FindByPosted.getResource()));
+				setInstantParameter(ps, 1, expirationDate != null ? expirationDate : Instant.now());
+				if ( max > 0 ) {
+					ps.setMaxRows(max);
+				}
+				return ps;
+			}
+		}, getRowMapper());
+	}
+
+	@Override
+	public void delete(ChargeSession domainObject) {
+		super.delete(domainObject);
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null && domainObject != null && domainObject.getId() != null ) {
+			readingDao.deleteReadingsForSession(domainObject.getId());
+		}
+	}
+
+	/**
+	 * Delete the readings stored with the {@code readingDao} for all sessions
+	 * of a charge point.
+	 * 
+	 * <p>
+	 * The database deletes the sessions of a charge point along with the
+	 * charge point itself, which would leave their readings behind in the
+	 * {@code readingDao}. This method does nothing if no {@code readingDao} is
+	 * configured.
+	 * </p>
+	 * 
+	 * @param chargePointId
+	 *        the ID of the charge point about to be deleted
+	 */
+	public void deleteReadingsForChargePoint(Long chargePointId) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao == null || chargePointId == null ) {
+			return;
+		}
+		for ( ChargeSession sess : getJdbcTemplate().query(
+				getSqlResource(SqlResource.FindByChargePoint.getResource()), getRowMapper(),
+				chargePointId) ) {
+			readingDao.deleteReadingsForSession(sess.getId());
+		}
+	}
+
 	@Override
 	public void addReadings(Iterable<SampledValue> readings) {
 		if ( readings == null ) {
 			return;
 		}
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			readingDao.addReadings(readings);
+			return;
+		}
+		final int batchSize = (readingBatchSize > 0 ? readingBatchSize : 1);
 		getJdbcTemplate().execute(getSqlResource(SqlResource.InsertReading.getResource()),
 				new PreparedStatementCallback<Object>() {
 
 					@Override
 					public Object doInPreparedStatement(PreparedStatement ps)
 							throws SQLException, DataAccessException {
+						int count = 0;
 						for ( SampledValue v : readings ) {
 							setUuidParameters(ps, 1, v.getSessionId());
 							setInstantParameter(ps, 3, v.getTimestamp());
@@ -197,8 +489,25 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 									v.getPhase() != null && v.getPhase() != Phase.Unknown
 											? v.getPhase().getCode()
 											: null);
-							ps.setString(9, v.getValue());
-							ps.executeUpdate();
+							BigDecimal num = (typedReadingStorage ? typedReadingValue(v.getValue())
+									: null);
+							if ( num != null ) {
+								ps.setNull(9, Types.VARCHAR);
+								ps.setLong(10, num.unscaledValue().longValue());
+								ps.setShort(11, (short) num.scale());
+							} else {
+								ps.setString(9, v.getValue());
+								ps.setNull(10, Types.BIGINT);
+								ps.setNull(11, Types.SMALLINT);
+							}
+							ps.addBatch();
+							if ( ++count >= batchSize ) {
+								ps.executeBatch();
+								count = 0;
+							}
+						}
+						if ( count > 0 ) {
+							ps.executeBatch();
 						}
 						return null;
 					}
@@ -209,32 +518,262 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 
 		@Override
 		public SampledValue mapRow(ResultSet rs, int rowNum) throws SQLException {
-			// @formatter:off
-			SampledValue.Builder result = SampledValue.builder()
-					.withSessionId(getUuidColumns(rs, 1))
-					.withTimestamp(getInstantColumn(rs, 3))
-					.withLocation(Location.forCode(rs.getInt(4)))
-					.withUnit(UnitOfMeasure.forCode(rs.getInt(5)))
-					.withContext(ReadingContext.forCode(rs.getInt(6)))
-					.withMeasurand(Measurand.forCode(rs.getInt(7)))
-					.withValue(rs.getString(9));
-			// @formatter:onf
-			int phase = rs.getInt(8);
-			if ( !rs.wasNull() ) {
-				result.withPhase(Phase.forCode(phase));
-			}
-			return result.build();
+			BigDecimal num = readingNumber(rs);
+			return reading(rs, num != null ? num.toPlainString() : rs.getString(9));
 		}
 
 	}
 
+	private static SampledValue reading(ResultSet rs, String value) throws SQLException {
+		// @formatter:off
+		SampledValue.Builder result = SampledValue.builder()
+				.withSessionId(getUuidColumns(rs, 1))
+				.withTimestamp(getInstantColumn(rs, 3))
+				.withLocation(Location.forCode(rs.getInt(4)))
+				.withUnit(UnitOfMeasure.forCode(rs.getInt(5)))
+				.withContext(ReadingContext.forCode(rs.getInt(6)))
+				.withMeasurand(Measurand.forCode(rs.getInt(7)))
+				.withValue(value);
+		// @formatter:on
+		int phase = rs.getInt(8);
+		if ( !rs.wasNull() ) {
+			result.withPhase(Phase.forCode(phase));
+		}
+		return result.build();
+	}
+
+	private static BigDecimal readingNumber(ResultSet rs) throws SQLException {
+		long num = rs.getLong(10);
+		return (rs.wasNull() ? null : BigDecimal.valueOf(num, rs.getShort(11)));
+	}
+
+	/**
+	 * Get a reading value as a decimal that can be stored as an unscaled
+	 * {@code BIGINT} and scale and later restored to exactly the same string.
+	 * 
+	 * @param value
+	 *        the reading value
+	 * @return the decimal, or {@literal null} if the value cannot be stored
+	 *         exactly as a typed value
+	 */
+	public static BigDecimal typedReadingValue(String value) {
+		if ( value == null || value.isEmpty() || value.length() > MAX_TYPED_READING_LENGTH ) {
+			return null;
+		}
+		BigDecimal num;
+		try {
+			num = new BigDecimal(value);
+		} catch ( NumberFormatException e ) {
+			return null;
+		}
+		if ( num.scale() < 0 || num.scale() > Short.MAX_VALUE
+				|| num.unscaledValue().bitLength() > 63 || !num.toPlainString().equals(value) ) {
+			return null;
+		}
+		return num;
+	}
+
+	/**
+	 * Convert all readings stored as strings into typed values, where
+	 * possible.
+	 * 
+	 * @return the number of readings converted
+	 */
+	public int convertReadingsToTypedStorage() {
+		return getJdbcTemplate().execute(new PreparedStatementCreator() {
+
+			@Override
+			public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+				return con.prepareStatement(
+						getSqlResource(SqlResource.FindUntypedReadings.getResource()),
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE);
+			}
+		}, new PreparedStatementCallback<Integer>() {
+
+			@Override
+			public Integer doInPreparedStatement(PreparedStatement ps)
+					throws SQLException, DataAccessException {
+				int count = 0;
+				try (ResultSet rs = ps.executeQuery()) {
+					while ( rs.next() ) {
+						BigDecimal num = typedReadingValue(rs.getString(1));
+						if ( num != null ) {
+							rs.updateNull(1);
+							rs.updateLong(2, num.unscaledValue().longValue());
+							rs.updateShort(3, (short) num.scale());
+							rs.updateRow();
+							count++;
+						}
+					}
+				}
+				return count;
+			}
+		});
+	}
+
 	@Override
 	public List<SampledValue> findReadingsForSession(UUID sessionId) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			List<SampledValue> result = readingDao.findReadingsForSession(sessionId);
+			if ( !result.isEmpty() ) {
+				return result;
+			}
+		}
 		return getJdbcTemplate().query(getSqlResource(SqlResource.FindReadingBySession.getResource()),
 				new Object[] { sessionId.getMostSignificantBits(), sessionId.getLeastSignificantBits() },
 				READING_ROW_MAPPER);
 	}
 
+	@Override
+	public void processReadingsForSession(UUID sessionId, Instant since,
+			Consumer<SampledValue> handler) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null
+				&& readingDao.processReadingsForSession(sessionId, since, handler) ) {
+			return;
+		}
+		processReadingRows(sessionId, since, new RowCallbackHandler() {
+
+			private int rowNum = 0;
+
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				handler.accept(READING_ROW_MAPPER.mapRow(rs, rowNum++));
+			}
+		});
+	}
+
+	@Override
+	public void processReadingValuesForSession(UUID sessionId, Instant since,
+			BiConsumer<SampledValue, BigDecimal> handler) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null && readingDao.processReadingsForSession(sessionId, since,
+				r -> handler.accept(r, decimalValue(r.getValue()))) ) {
+			return;
+		}
+		processReadingRows(sessionId, since, new RowCallbackHandler() {
+
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				BigDecimal num = readingNumber(rs);
+				if ( num != null ) {
+					handler.accept(reading(rs, num.toPlainString()), num);
+				} else {
+					String value = rs.getString(9);
+					handler.accept(reading(rs, value), decimalValue(value));
+				}
+			}
+		});
+	}
+
+	private void processReadingRows(UUID sessionId, Instant since, RowCallbackHandler handler) {
+		getJdbcTemplate().query(readingsStatementCreator(
+				since != null ? SqlResource.FindReadingBySessionSince
+						: SqlResource.FindReadingBySession,
+				sessionId, ps -> {
+					if ( since != null ) {
+						setInstantParameter(ps, 3, since);
+					}
+				}), handler);
+	}
+
+	private static BigDecimal decimalValue(String value) {
+		if ( value == null ) {
+			return null;
+		}
+		try {
+			return new BigDecimal(value);
+		} catch ( NumberFormatException e ) {
+			return null;
+		}
+	}
+
+	@Override
+	public List<SampledValue> findReadingsForSession(UUID sessionId, Instant since) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			List<SampledValue> result = new ArrayList<>(16);
+			if ( readingDao.processReadingsForSession(sessionId, since, result::add) ) {
+				return result;
+			}
+		}
+		return getJdbcTemplate().query(
+				readingsStatementCreator(SqlResource.FindReadingBySessionSince, sessionId,
+						ps -> setInstantParameter(ps, 3,
+								since != null ? since : Instant.ofEpochMilli(0))),
+				READING_ROW_MAPPER);
+	}
+
+	@Override
+	public List<SampledValue> findReadingsForSession(UUID sessionId, Measurand measurand) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			List<SampledValue> result = new ArrayList<>(16);
+			if ( readingDao.processReadingsForSession(sessionId, null, r -> {
+				if ( r.getMeasurand() == measurand ) {
+					result.add(r);
+				}
+			}) ) {
+				return result;
+			}
+		}
+		return getJdbcTemplate().query(
+				readingsStatementCreator(SqlResource.FindReadingBySessionMeasurand, sessionId,
+						ps -> ps.setInt(3, measurand != null ? measurand.getCode()
+								: Measurand.Unknown.getCode())),
+				READING_ROW_MAPPER);
+	}
+
+	@Override
+	public List<SampledValue> findLatestReadingsForSession(UUID sessionId) {
+		final ChargeSessionReadingDao readingDao = this.readingDao;
+		if ( readingDao != null ) {
+			List<SampledValue> readings = readingDao.findReadingsForSession(sessionId);
+			if ( !readings.isEmpty() ) {
+				return latestReadings(readings);
+			}
+		}
+		return getJdbcTemplate().query(
+				readingsStatementCreator(SqlResource.FindLatestReadingBySession, sessionId, null),
+				READING_ROW_MAPPER);
+	}
+
+	private static List<SampledValue> latestReadings(List<SampledValue> readings) {
+		Map<Measurand, Instant> latest = new EnumMap<>(Measurand.class);
+		for ( SampledValue r : readings ) {
+			latest.merge(r.getMeasurand(), r.getTimestamp(), (a, b) -> b.isAfter(a) ? b : a);
+		}
+		List<SampledValue> result = new ArrayList<>(latest.size());
+		for ( SampledValue r : readings ) {
+			if ( r.getTimestamp().equals(latest.get(r.getMeasurand())) ) {
+				result.add(r);
+			}
+		}
+		result.sort(LATEST_READING_ORDER);
+		return result;
+	}
+
+	private PreparedStatementCreator readingsStatementCreator(SqlResource sql, UUID sessionId,
+			PreparedStatementSetter extraParameters) {
+		return new PreparedStatementCreator() {
+
+			@Override
+			public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+				PreparedStatement ps = con.prepareStatement(getSqlResource(sql.getResource()),
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+				if ( readingFetchSize > 0 ) {
+					ps.setFetchSize(readingFetchSize);
+				}
+				setUuidParameters(ps, 1, sessionId);
+				if ( extraParameters != null ) {
+					extraParameters.setValues(ps);
+				}
+				return ps;
+			}
+		};
+	}
+
 	@Override
 	protected void setUpdateStatementValues(ChargeSession obj, PreparedStatement ps)
 			throws SQLException {
@@ -251,6 +790,129 @@ public class JdbcChargeSessionDao extends BaseJdbcGenericDao<ChargeSession, UUID
 		setInstantParameter(ps, 4 + offset, obj.getPosted());
 	}
 
+	/**
+	 * Get the number of transaction IDs to allocate at once.
+	 * 
+	 * @return the block size; defaults to
+	 *         {@link #DEFAULT_TRANSACTION_ID_BLOCK_SIZE}
+	 */
+	public int getTransactionIdBlockSize() {
+		return transactionIdBlockSize;
+	}
+
+	/**
+	 * Set the number of transaction IDs to allocate at once.
+	 * 
+	 * <p>
+	 * This is applied to the transaction ID sequence when {@link #init()} is
+	 * called.
+	 * </p>
+	 * 
+	 * @param transactionIdBlockSize
+	 *        the block size to set
+	 */
+	public void setTransactionIdBlockSize(int transactionIdBlockSize) {
+		this.transactionIdBlockSize = transactionIdBlockSize;
+	}
+
+	/**
+	 * Get the maximum number of readings to insert per JDBC batch.
+	 * 
+	 * @return the batch size; defaults to {@link #DEFAULT_READING_BATCH_SIZE}
+	 */
+	public int getReadingBatchSize() {
+		return readingBatchSize;
+	}
+
+	/**
+	 * Set the maximum number of readings to insert per JDBC batch.
+	 * 
+	 * @param readingBatchSize
+	 *        the batch size to set
+	 */
+	public void setReadingBatchSize(int readingBatchSize) {
+		this.readingBatchSize = readingBatchSize;
+	}
+
+	/**
+	 * Get the JDBC fetch size to use when querying readings.
+	 * 
+	 * @return the fetch size; defaults to {@link #DEFAULT_READING_FETCH_SIZE}
+	 */
+	public int getReadingFetchSize() {
+		return readingFetchSize;
+	}
+
+	/**
+	 * Set the JDBC fetch size to use when querying readings.
+	 * 
+	 * @param readingFetchSize
+	 *        the fetch size to set, or {@literal 0} to use the driver default
+	 */
+	public void setReadingFetchSize(int readingFetchSize) {
+		this.readingFetchSize = readingFetchSize;
+	}
+
+	/**
+	 * Get the typed reading storage mode.
+	 * 
+	 * @return {@literal true} to store numeric reading values as typed values;
+	 *         defaults to {@literal false}
+	 */
+	public boolean isTypedReadingStorage() {
+		return typedReadingStorage;
+	}
+
+	/**
+	 * Set the typed reading storage mode.
+	 * 
+	 * @param typedReadingStorage
+	 *        {@literal true} to store numeric reading values as typed values
+	 *        rather than strings
+	 */
+	public void setTypedReadingStorage(boolean typedReadingStorage) {
+		this.typedReadingStorage = typedReadingStorage;
+	}
+
+	/**
+	 * Get the reading DAO.
+	 * 
+	 * @return the reading DAO, or {@literal null} if readings are stored in
+	 *         the reading table
+	 */
+	public ChargeSessionReadingDao getReadingDao() {
+		return readingDao;
+	}
+
+	/**
+	 * Set a reading DAO to store readings with, instead of the reading table.
+	 * 
+	 * @param readingDao
+	 *        the reading DAO to use, or {@literal null} to use the reading
+	 *        table
+	 */
+	public void setReadingDao(ChargeSessionReadingDao readingDao) {
+		this.readingDao = readingDao;
+	}
+
+	/**
+	 * Set a directory to store readings in, using a
+	 * {@link FileChargeSessionReadingDao}.
+	 * 
+	 * <p>
+	 * This is a convenience for configuring {@link #setReadingDao(ChargeSessionReadingDao)}.
+	 * </p>
+	 * 
+	 * @param directory
+	 *        the directory to store readings in, or {@literal null} or an empty
+	 *        string to use the reading table
+	 */
+	public void setReadingFileStoreDirectory(String directory) {
+		setReadingDao(directory != null && !directory.trim().isEmpty()
+				? new FileChargeSessionReadingDao(Paths.get(directory.trim()))
+				: null);
+	}
+
 	/**
 	 * A row mapper for {@link ChargeSession} entities.
 	 */
@@ -31,14 +31,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import net.solarnetwork.domain.SortDescriptor;
@@ -50,7 +49,7 @@ import net.solarnetwork.ocpp.domain.SystemUser;
  * JDBC implementation of {@link SystemUserDao}.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcSystemUserDao extends BaseJdbcGenericDao<SystemUser, Long> implements SystemUserDao {
 
@@ -65,11 +64,19 @@ public class JdbcSystemUserDao extends BaseJdbcGenericDao<SystemUser, Long> impl
 		/** Insert an allowed charge point. */
 		InsertAllowedChargePoint("insert-cp"),
 
-		/** Update an allowed charge point. */
-		UpdateAllowedChargePoint("update-cp"),
+		/**
+		 * Find the allowed charge points of a user.
+		 * 
+		 * @since 1.1
+		 */
+		FindAllowedChargePoints("find-cp"),
 
-		/** Delete allowed charge points with an index over a given value. */
-		DeleteAllowedChargePointsOver("delete-cp-over");
+		/**
+		 * Delete an allowed charge point by index.
+		 * 
+		 * @since 1.1
+		 */
+		DeleteAllowedChargePoint("delete-cp");
 
 		private final String resource;
 
@@ -141,17 +148,14 @@ public class JdbcSystemUserDao extends BaseJdbcGenericDao<SystemUser, Long> impl
 	@Override
 	protected Long storeDomainObject(SystemUser obj, String sqlInsert) {
 		Long pk = super.storeDomainObject(obj, sqlInsert);
-		insertAllowedChargePoints(pk, obj);
+		if ( obj.getAllowedChargePoints() != null && !obj.getAllowedChargePoints().isEmpty() ) {
+			insertAllowedChargePoints(pk, new ArrayList<>(obj.getAllowedChargePoints()), 0);
+		}
 		return pk;
 	}
 
-	private void insertAllowedChargePoints(Long userId, SystemUser obj) {
-		List<String> chargePointIds = (obj.getAllowedChargePoints() != null
-				? new ArrayList<>(obj.getAllowedChargePoints())
-				: null);
-		if ( chargePointIds == null || chargePointIds.isEmpty() ) {
-			return;
-		}
+	private void insertAllowedChargePoints(Long userId, List<String> chargePointIds,
+			int startIndex) {
 		getJdbcTemplate().batchUpdate(getSqlResource(SqlResource.InsertAllowedChargePoint.getResource()),
 				new BatchPreparedStatementSetter() {
 
@@ -159,7 +163,7 @@ public class JdbcSystemUserDao extends BaseJdbcGenericDao<SystemUser, Long> impl
 					public void setValues(PreparedStatement ps, int i) throws SQLException {
 						String chargePointId = chargePointIds.get(i);
 						ps.setLong(1, userId);
-						ps.setInt(2, i);
+						ps.setInt(2, startIndex + i);
 						ps.setString(3, chargePointId);
 					}
 
@@ -180,41 +184,64 @@ public class JdbcSystemUserDao extends BaseJdbcGenericDao<SystemUser, Long> impl
 		return result;
 	}
 
+	/**
+	 * Update the allowed charge points of a user to match the given entity.
+	 * 
+	 * <p>
+	 * The stored charge point IDs are loaded and compared to the entity's
+	 * set, so that only the differences are written: removed charge points are
+	 * deleted in one batch and added charge points are appended after the
+	 * highest stored index in another batch. Charge points present in both
+	 * are left untouched, so an unchanged set costs a single query.
+	 * </p>
+	 * 
+	 * @param obj
+	 *        the entity to save the allowed charge points of
+	 */
 	private void updateAllowedChargePoints(SystemUser obj) {
-		List<String> chargePointIds = new ArrayList<>(
-				obj.getAllowedChargePoints() != null ? obj.getAllowedChargePoints()
-						: Collections.emptySet());
-		for ( ListIterator<String> itr = chargePointIds.listIterator(); itr.hasNext(); ) {
-			String chargePointId = itr.next();
-			int count = getJdbcTemplate().update(
-					getSqlResource(SqlResource.UpdateAllowedChargePoint.getResource()),
-					new PreparedStatementSetter() {
+		final Set<String> chargePointIds = (obj.getAllowedChargePoints() != null
+				? obj.getAllowedChargePoints()
+				: Collections.emptySet());
+		final Map<String, Integer> stored = new LinkedHashMap<>(
+				Math.max(16, (int) (chargePointIds.size() / 0.75f) + 1));
+		getJdbcTemplate().query(getSqlResource(SqlResource.FindAllowedChargePoints.getResource()),
+				new Object[] { obj.getId() }, rs -> {
+					stored.put(rs.getString(2), rs.getInt(1));
+				});
+		int nextIndex = 0;
+		final List<Integer> removed = new ArrayList<>(4);
+		for ( Map.Entry<String, Integer> e : stored.entrySet() ) {
+			nextIndex = Math.max(nextIndex, e.getValue() + 1);
+			if ( !chargePointIds.contains(e.getKey()) ) {
+				removed.add(e.getValue());
+			}
+		}
+		final List<String> added = new ArrayList<>(4);
+		for ( String chargePointId : chargePointIds ) {
+			if ( !stored.containsKey(chargePointId) ) {
+				added.add(chargePointId);
+			}
+		}
+		if ( !removed.isEmpty() ) {
+			getJdbcTemplate().batchUpdate(
+					getSqlResource(SqlResource.DeleteAllowedChargePoint.getResource()),
+					new BatchPreparedStatementSetter() {
 
 						@Override
-						public void setValues(PreparedStatement ps) throws SQLException {
-							ps.setString(1, chargePointId);
-							ps.setLong(2, obj.getId());
-							ps.setInt(3, itr.previousIndex());
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							ps.setLong(1, obj.getId());
+							ps.setInt(2, removed.get(i));
 						}
 
+						@Override
+						public int getBatchSize() {
+							return removed.size();
+						}
 					});
-			if ( count < 1 ) {
-				getJdbcTemplate().update(
-						getSqlResource(SqlResource.InsertAllowedChargePoint.getResource()),
-						new PreparedStatementSetter() {
-
-							@Override
-							public void setValues(PreparedStatement ps) throws SQLException {
-								ps.setLong(1, obj.getId());
-								ps.setInt(2, itr.previousIndex());
-								ps.setString(3, chargePointId);
-							}
-
-						});
-			}
 		}
-		getJdbcTemplate().update(getSqlResource(SqlResource.DeleteAllowedChargePointsOver.getResource()),
-				obj.getId(), chargePointIds.size());
+		if ( !added.isEmpty() ) {
+			insertAllowedChargePoints(obj.getId(), added, nextIndex);
+		}
 	}
 
 	/**
@@ -0,0 +1,4 @@
+SELECT
+	id,created,token,enabled,expires,parent_id
+FROM solarnode.ocpp_authorization
+ORDER BY token
\ No newline at end of file
@@ -0,0 +1,11 @@
+MERGE INTO solarnode.ocpp_authorization t
+USING SYSIBM.SYSDUMMY1
+ON t.token = CAST(? AS VARCHAR(20))
+WHEN MATCHED THEN UPDATE SET
+	enabled = CAST(? AS BOOLEAN)
+	,expires = CAST(? AS TIMESTAMP)
+	,parent_id = CAST(? AS VARCHAR(20))
+WHEN NOT MATCHED THEN INSERT
+	(created,token,enabled,expires,parent_id)
+VALUES 
+	(CAST(? AS TIMESTAMP),CAST(? AS VARCHAR(20)),CAST(? AS BOOLEAN),CAST(? AS TIMESTAMP),CAST(? AS VARCHAR(20)))
\ No newline at end of file
@@ -0,0 +1,16 @@
+MERGE INTO solarnode.ocpp_charge_point_conn t
+USING SYSIBM.SYSDUMMY1
+ON t.cp_id = CAST(? AS BIGINT) AND t.conn_id = CAST(? AS INTEGER)
+WHEN MATCHED THEN UPDATE SET
+	status = CAST(? AS SMALLINT)
+	,error_code = CAST(? AS SMALLINT)
+	,ts = CAST(? AS TIMESTAMP)
+	,info = CAST(? AS VARCHAR(50))
+	,vendor_id = CAST(? AS VARCHAR(255))
+	,vendor_error = CAST(? AS VARCHAR(50))
+WHEN NOT MATCHED THEN INSERT
+	(cp_id,conn_id,created,status,error_code
+	,ts,info,vendor_id,vendor_error)
+VALUES 
+	(CAST(? AS BIGINT),CAST(? AS INTEGER),CAST(? AS TIMESTAMP),CAST(? AS SMALLINT),CAST(? AS SMALLINT)
+	,CAST(? AS TIMESTAMP),CAST(? AS VARCHAR(50)),CAST(? AS VARCHAR(255)),CAST(? AS VARCHAR(50)))
\ No newline at end of file
@@ -0,0 +1,2 @@
+CREATE SEQUENCE solarnode.ocpp_charge_tx_seq
+AS INT START WITH %d INCREMENT BY %d MINVALUE 1 CYCLE
\ No newline at end of file
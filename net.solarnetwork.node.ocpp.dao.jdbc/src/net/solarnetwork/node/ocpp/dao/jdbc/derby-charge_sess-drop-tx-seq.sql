@@ -0,0 +1 @@
+DROP SEQUENCE solarnode.ocpp_charge_tx_seq RESTRICT
\ No newline at end of file
@@ -0,0 +1,6 @@
+SELECT
+	id_hi,id_lo,created,auth_id,cp_id,conn_id,tx_id
+	,ended,end_reason,end_auth_id,posted
+FROM solarnode.ocpp_charge_sess
+WHERE posted IS NOT NULL AND posted < ?
+ORDER BY posted, id_hi, id_lo
\ No newline at end of file
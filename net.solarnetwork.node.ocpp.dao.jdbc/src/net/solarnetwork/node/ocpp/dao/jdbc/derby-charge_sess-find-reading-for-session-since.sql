@@ -0,0 +1,7 @@
+SELECT
+	sess_id_hi,sess_id_lo,ts,location,unit
+	,context,measurand,phase,reading
+	,reading_num,reading_scale
+FROM solarnode.ocpp_charge_sess_reading
+WHERE sess_id_hi = ? AND sess_id_lo = ? AND ts >= ?
+ORDER BY ts,context,location,measurand
\ No newline at end of file
@@ -0,0 +1,12 @@
+SELECT
+	r.sess_id_hi,r.sess_id_lo,r.ts,r.location,r.unit
+	,r.context,r.measurand,r.phase,r.reading
+	,r.reading_num,r.reading_scale
+FROM solarnode.ocpp_charge_sess_reading r
+WHERE r.sess_id_hi = ? AND r.sess_id_lo = ?
+	AND r.ts = (
+		SELECT MAX(m.ts) FROM solarnode.ocpp_charge_sess_reading m
+		WHERE m.sess_id_hi = r.sess_id_hi AND m.sess_id_lo = r.sess_id_lo
+			AND m.measurand = r.measurand
+	)
+ORDER BY r.measurand,r.location,r.phase
\ No newline at end of file
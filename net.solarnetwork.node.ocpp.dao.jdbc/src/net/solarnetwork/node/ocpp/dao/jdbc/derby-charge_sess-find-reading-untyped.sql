@@ -0,0 +1,4 @@
+SELECT reading,reading_num,reading_scale
+FROM solarnode.ocpp_charge_sess_reading
+WHERE reading IS NOT NULL
+FOR UPDATE OF reading,reading_num,reading_scale
\ No newline at end of file
@@ -0,0 +1,4 @@
+SELECT s.increment, SYSCS_UTIL.SYSCS_PEEK_AT_SEQUENCE('SOLARNODE', 'OCPP_CHARGE_TX_SEQ')
+FROM sys.syssequences s
+INNER JOIN sys.sysschemas c ON c.schemaid = s.schemaid
+WHERE c.schemaname = 'SOLARNODE' AND s.sequencename = 'OCPP_CHARGE_TX_SEQ'
\ No newline at end of file
@@ -0,0 +1,2 @@
+SELECT svalue FROM solarnode.sn_settings
+WHERE skey = 'solarnode.ocpp_charge_sess_reading_typed.version'
\ No newline at end of file
@@ -1,5 +1,5 @@
 CREATE SEQUENCE solarnode.ocpp_charge_tx_seq
-AS INT START WITH 1 INCREMENT BY 1 CYCLE;
+AS INT START WITH 1 INCREMENT BY 10 MINVALUE 1 CYCLE;
 
 CREATE TABLE solarnode.ocpp_charge_sess (
 	id_hi				BIGINT NOT NULL,
@@ -19,6 +19,15 @@ CREATE TABLE solarnode.ocpp_charge_sess (
 		ON DELETE CASCADE
 );
 
+CREATE INDEX ocpp_charge_sess_cp_tx_idx
+ON solarnode.ocpp_charge_sess (cp_id, tx_id, ended);
+
+CREATE INDEX ocpp_charge_sess_cp_conn_idx
+ON solarnode.ocpp_charge_sess (cp_id, conn_id, ended);
+
+CREATE INDEX ocpp_charge_sess_posted_idx
+ON solarnode.ocpp_charge_sess (posted);
+
 CREATE TABLE solarnode.ocpp_charge_sess_reading (
 	sess_id_hi			BIGINT NOT NULL,
 	sess_id_lo			BIGINT NOT NULL,
@@ -28,7 +37,9 @@ CREATE TABLE solarnode.ocpp_charge_sess_reading (
 	context 			SMALLINT NOT NULL DEFAULT 0,
 	measurand			SMALLINT NOT NULL DEFAULT 0,
 	phase				SMALLINT,
-	reading 			VARCHAR(64) NOT NULL,
+	reading 			VARCHAR(64),
+	reading_num			BIGINT,
+	reading_scale		SMALLINT,
 	CONSTRAINT ocpp_charge_sess_reading_charge_sess_fk FOREIGN KEY (sess_id_hi, sess_id_lo)
 		REFERENCES solarnode.ocpp_charge_sess (id_hi, id_lo)
 		ON DELETE CASCADE
@@ -38,4 +49,4 @@ CREATE INDEX ocpp_charge_sess_reading_sess_id_idx
 ON solarnode.ocpp_charge_sess_reading (sess_id_hi, sess_id_lo);
 
 INSERT INTO solarnode.sn_settings (skey, svalue) 
-VALUES ('solarnode.ocpp_charge_sess.version', '1');
+VALUES ('solarnode.ocpp_charge_sess.version', '3');
@@ -1,6 +1,8 @@
 INSERT INTO solarnode.ocpp_charge_sess_reading
 	(sess_id_hi,sess_id_lo,ts,location,unit
-	,context,measurand,phase,reading)
+	,context,measurand,phase,reading
+	,reading_num,reading_scale)
 VALUES 
 	(?,?,?,?,?
-	,?,?,?,?)
\ No newline at end of file
+	,?,?,?,?
+	,?,?)
\ No newline at end of file
@@ -0,0 +1,6 @@
+INSERT INTO solarnode.ocpp_charge_sess
+	(id_hi,id_lo,created,auth_id,cp_id,conn_id,tx_id
+	,ended,end_reason,end_auth_id,posted)
+VALUES 
+	(?,?,?,?,?,?,?
+	,?,?,?,?)
\ No newline at end of file
@@ -0,0 +1,2 @@
+INSERT INTO solarnode.sn_settings (skey, svalue)
+VALUES ('solarnode.ocpp_charge_sess_reading_typed.version', '1')
\ No newline at end of file
@@ -0,0 +1 @@
+VALUES NEXT VALUE FOR solarnode.ocpp_charge_tx_seq
\ No newline at end of file
@@ -0,0 +1,11 @@
+CREATE INDEX ocpp_charge_sess_cp_tx_idx
+ON solarnode.ocpp_charge_sess (cp_id, tx_id, ended);
+
+CREATE INDEX ocpp_charge_sess_cp_conn_idx
+ON solarnode.ocpp_charge_sess (cp_id, conn_id, ended);
+
+CREATE INDEX ocpp_charge_sess_posted_idx
+ON solarnode.ocpp_charge_sess (posted);
+
+UPDATE solarnode.sn_settings SET svalue = '2' 
+WHERE skey = 'solarnode.ocpp_charge_sess.version';
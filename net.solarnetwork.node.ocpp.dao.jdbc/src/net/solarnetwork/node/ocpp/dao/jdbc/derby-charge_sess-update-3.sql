@@ -0,0 +1,11 @@
+ALTER TABLE solarnode.ocpp_charge_sess_reading
+ADD COLUMN reading_num BIGINT;
+
+ALTER TABLE solarnode.ocpp_charge_sess_reading
+ADD COLUMN reading_scale SMALLINT;
+
+ALTER TABLE solarnode.ocpp_charge_sess_reading
+ALTER COLUMN reading NULL;
+
+UPDATE solarnode.sn_settings SET svalue = '3' 
+WHERE skey = 'solarnode.ocpp_charge_sess.version';
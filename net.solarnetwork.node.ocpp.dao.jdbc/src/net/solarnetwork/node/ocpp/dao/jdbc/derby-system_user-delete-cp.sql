@@ -1,2 +1,2 @@
 DELETE FROM solarnode.ocpp_system_user_cp
-WHERE user_id = ? AND idx >= ?
\ No newline at end of file
+WHERE user_id = ? AND idx = ?
\ No newline at end of file
@@ -0,0 +1,4 @@
+SELECT idx, cp_id
+FROM solarnode.ocpp_system_user_cp
+WHERE user_id = ?
+ORDER BY idx
\ No newline at end of file
@@ -1,3 +0,0 @@
-UPDATE solarnode.ocpp_system_user_cp
-SET cp_id  = ?
-WHERE user_id = ? AND idx = ?
\ No newline at end of file
@@ -0,0 +1,392 @@
+/* ==================================================================
+ * AuthorizationListServiceTests.java - 18/10/2026 12:52:09 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.util.FileSystemUtils;
+import net.solarnetwork.node.ocpp.dao.BulkAuthorizationDao;
+import net.solarnetwork.node.ocpp.v16.cs.controller.AuthorizationListService;
+import net.solarnetwork.node.ocpp.v16.cs.controller.AuthorizationListService.Format;
+import net.solarnetwork.node.reactor.Instruction;
+import net.solarnetwork.node.reactor.InstructionStatus.InstructionState;
+import net.solarnetwork.node.reactor.support.BasicInstruction;
+import net.solarnetwork.ocpp.domain.Authorization;
+
+/**
+ * Test cases for the {@link AuthorizationListService} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class AuthorizationListServiceTests {
+
+	private BulkAuthorizationDao authorizationDao;
+	private AuthorizationListService service;
+	private Path dir;
+
+	@Before
+	public void setup() throws IOException {
+		authorizationDao = EasyMock.createMock(BulkAuthorizationDao.class);
+		dir = Files.createTempDirectory("ocpp-auth-");
+		service = new AuthorizationListService(authorizationDao);
+		service.setDirectory(dir.toString());
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(authorizationDao);
+		FileSystemUtils.deleteRecursively(dir.toFile());
+	}
+
+	private static BasicInstruction instruction(String topic, String path) {
+		BasicInstruction instr = new BasicInstruction(topic, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		if ( path != null ) {
+			instr.addParameter(AuthorizationListService.PARAM_PATH, path);
+		}
+		return instr;
+	}
+
+	private static Authorization auth(String token, boolean enabled, Instant expires,
+			String parentId) {
+		Authorization auth = new Authorization(null, null);
+		auth.setToken(token);
+		auth.setEnabled(enabled);
+		auth.setExpiryDate(expires);
+		auth.setParentId(parentId);
+		return auth;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Capture<List<Authorization>> expectSave(int times) {
+		Capture<List<Authorization>> captor = new Capture<>(CaptureType.ALL);
+		expect(authorizationDao.saveAuthorizations(capture(captor)))
+				.andAnswer(() -> ((List<Authorization>) EasyMock.getCurrentArguments()[0]).size())
+				.times(times);
+		return captor;
+	}
+
+	@Test
+	public void importCsv() throws Exception {
+		// given
+		Capture<List<Authorization>> captor = expectSave(1);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		// @formatter:off
+		String csv = "token,enabled,expires,parentId\n"
+				+ "a,true,2026-01-01T00:00:00Z,\n"
+				+ "\"b,2\",false,,a\n"
+				+ "\n"
+				+ "c\n";
+		// @formatter:on
+		int count = service.importAuthorizations(new StringReader(csv), Format.Csv);
+
+		// then
+		assertThat("Imported count", count, equalTo(3));
+		List<Authorization> saved = captor.getValue();
+		assertThat("Tokens", saved.stream().map(Authorization::getToken)
+				.collect(Collectors.toList()), contains("a", "b,2", "c"));
+		assertThat("A expires", saved.get(0).getExpiryDate(),
+				equalTo(Instant.parse("2026-01-01T00:00:00Z")));
+		assertThat("A parent", saved.get(0).getParentId(), nullValue());
+		assertThat("B disabled", saved.get(1).isEnabled(), equalTo(false));
+		assertThat("B parent", saved.get(1).getParentId(), equalTo("a"));
+		assertThat("C enabled by default", saved.get(2).isEnabled(), equalTo(true));
+	}
+
+	@Test
+	public void importCsv_batched() throws Exception {
+		// given
+		service.setTransactionSize(2);
+		Capture<List<Authorization>> captor = expectSave(3);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		int count = service.importAuthorizations(new StringReader("a\nb\nc\nd\ne\n"), Format.Csv);
+
+		// then
+		assertThat("Imported count", count, equalTo(5));
+		assertThat("Batches", captor.getValues(), hasSize(3));
+		assertThat("Last batch", captor.getValues().get(2), hasSize(1));
+	}
+
+	@Test
+	public void importCsv_skipInvalid() throws Exception {
+		// given
+		Capture<List<Authorization>> captor = expectSave(1);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		int count = service.importAuthorizations(
+				new StringReader("a,true,not a date\n,true\n012345678901234567890\nb\n"),
+				Format.Csv);
+
+		// then
+		assertThat("Imported count", count, equalTo(1));
+		assertThat("Valid row saved", captor.getValue().get(0).getToken(), equalTo("b"));
+	}
+
+	@Test
+	public void importJson() throws Exception {
+		// given
+		Capture<List<Authorization>> captor = expectSave(1);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		// @formatter:off
+		String json = "[{\"token\":\"a\",\"enabled\":true,\"expires\":\"2026-01-01T00:00:00Z\"},"
+				+ "{\"token\":\"b\",\"enabled\":false,\"parentId\":\"a\",\"extra\":{\"x\":1}}]";
+		// @formatter:on
+		int count = service.importAuthorizations(new StringReader(json), Format.Json);
+
+		// then
+		assertThat("Imported count", count, equalTo(2));
+		List<Authorization> saved = captor.getValue();
+		assertThat("A expires", saved.get(0).getExpiryDate(),
+				equalTo(Instant.parse("2026-01-01T00:00:00Z")));
+		assertThat("B disabled", saved.get(1).isEnabled(), equalTo(false));
+		assertThat("B parent", saved.get(1).getParentId(), equalTo("a"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expectProcess(List<Authorization> list) {
+		Capture<Consumer<Authorization>> captor = new Capture<>();
+		expect(authorizationDao.processAuthorizations(capture(captor))).andAnswer(() -> {
+			list.forEach(captor.getValue());
+			return list.size();
+		});
+	}
+
+	@Test
+	public void exportCsv() throws Exception {
+		// given
+		List<Authorization> list = new ArrayList<>();
+		list.add(auth("a", true, Instant.parse("2026-01-01T00:00:00Z"), null));
+		list.add(auth("b,2", false, null, "a"));
+		expectProcess(list);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		StringWriter out = new StringWriter();
+		int count = service.exportAuthorizations(out, Format.Csv);
+
+		// then
+		assertThat("Exported count", count, equalTo(2));
+		// @formatter:off
+		assertThat("CSV", out.toString(), equalTo(
+				"token,enabled,expires,parentId\n"
+				+ "a,true,2026-01-01T00:00:00Z,\n"
+				+ "\"b,2\",false,,a\n"));
+		// @formatter:on
+	}
+
+	@Test
+	public void exportJson() throws Exception {
+		// given
+		List<Authorization> list = new ArrayList<>();
+		list.add(auth("a", true, Instant.parse("2026-01-01T00:00:00Z"), null));
+		list.add(auth("b", false, null, "a"));
+		expectProcess(list);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		StringWriter out = new StringWriter();
+		int count = service.exportAuthorizations(out, Format.Json);
+
+		// then
+		assertThat("Exported count", count, equalTo(2));
+		// @formatter:off
+		assertThat("JSON", out.toString(), equalTo(
+				"[{\"token\":\"a\",\"enabled\":true,\"expires\":\"2026-01-01T00:00:00Z\"},"
+				+ "{\"token\":\"b\",\"enabled\":false,\"parentId\":\"a\"}]"));
+		// @formatter:on
+	}
+
+	@Test
+	public void instruction_importData() {
+		// given
+		Capture<List<Authorization>> captor = expectSave(1);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		BasicInstruction instr = new BasicInstruction(
+				AuthorizationListService.TOPIC_IMPORT_AUTHORIZATIONS, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		instr.addParameter(AuthorizationListService.PARAM_FORMAT, "json");
+		instr.addParameter(AuthorizationListService.PARAM_DATA, "[{\"token\":\"a\"}]");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction completed", result, equalTo(InstructionState.Completed));
+		assertThat("Token saved", captor.getValue().get(0).getToken(), equalTo("a"));
+	}
+
+	@Test
+	public void instruction_importMissingParameters() {
+		// when
+		EasyMock.replay(authorizationDao);
+		BasicInstruction instr = new BasicInstruction(
+				AuthorizationListService.TOPIC_IMPORT_AUTHORIZATIONS, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_otherTopic() {
+		// when
+		EasyMock.replay(authorizationDao);
+		BasicInstruction instr = new BasicInstruction("foo", new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction not handled", result, nullValue());
+	}
+
+	@Test
+	public void instruction_importSaveFails() {
+		// given
+		service.setTransactionSize(1);
+		expect(authorizationDao.saveAuthorizations(EasyMock.anyObject())).andReturn(1);
+		expect(authorizationDao.saveAuthorizations(EasyMock.anyObject()))
+				.andThrow(new DataRetrievalFailureException("test"));
+
+		// when
+		EasyMock.replay(authorizationDao);
+		BasicInstruction instr = instruction(AuthorizationListService.TOPIC_IMPORT_AUTHORIZATIONS,
+				null);
+		instr.addParameter(AuthorizationListService.PARAM_DATA, "a\nb\nc\n");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_importFromDirectory() throws IOException {
+		// given
+		Files.write(dir.resolve("list.csv"), "a\n".getBytes(StandardCharsets.UTF_8));
+		Capture<List<Authorization>> captor = expectSave(1);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		InstructionState result = service.processInstruction(
+				instruction(AuthorizationListService.TOPIC_IMPORT_AUTHORIZATIONS, "list.csv"));
+
+		// then
+		assertThat("Instruction completed", result, equalTo(InstructionState.Completed));
+		assertThat("Token saved", captor.getValue().get(0).getToken(), equalTo("a"));
+	}
+
+	@Test
+	public void instruction_rejectParentPath() {
+		// when
+		EasyMock.replay(authorizationDao);
+		InstructionState result = service.processInstruction(instruction(
+				AuthorizationListService.TOPIC_EXPORT_AUTHORIZATIONS, "sub/../../list.csv"));
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_rejectAbsolutePath() {
+		// when
+		EasyMock.replay(authorizationDao);
+		InstructionState result = service.processInstruction(
+				instruction(AuthorizationListService.TOPIC_IMPORT_AUTHORIZATIONS,
+						dir.resolve("list.csv").toAbsolutePath().toString()));
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_exportExistingFile() throws IOException {
+		// given
+		Path file = dir.resolve("list.csv");
+		Files.write(file, "a\n".getBytes(StandardCharsets.UTF_8));
+
+		// when
+		EasyMock.replay(authorizationDao);
+		InstructionState result = service.processInstruction(
+				instruction(AuthorizationListService.TOPIC_EXPORT_AUTHORIZATIONS, "list.csv"));
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+		assertThat("File unchanged", new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+				equalTo("a\n"));
+	}
+
+	@Test
+	public void instruction_exportOverwrite() throws IOException {
+		// given
+		Path file = dir.resolve("list.csv");
+		Files.write(file, "a\n".getBytes(StandardCharsets.UTF_8));
+		List<Authorization> list = new ArrayList<>();
+		list.add(auth("b", true, null, null));
+		expectProcess(list);
+
+		// when
+		EasyMock.replay(authorizationDao);
+		BasicInstruction instr = instruction(AuthorizationListService.TOPIC_EXPORT_AUTHORIZATIONS,
+				"list.csv");
+		instr.addParameter(AuthorizationListService.PARAM_OVERWRITE, "true");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction completed", result, equalTo(InstructionState.Completed));
+		assertThat("File replaced", new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+				equalTo("token,enabled,expires,parentId\nb,true,,\n"));
+	}
+
+}
@@ -0,0 +1,324 @@
+/* ==================================================================
+ * BulkChargePointOperationServiceTests.java - 18/10/2026 2:05:17 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.node.ocpp.v16.cs.controller.BulkChargePointOperationService;
+import net.solarnetwork.node.ocpp.v16.cs.controller.BulkOperationResult;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointCallDispatcher;
+import net.solarnetwork.node.reactor.Instruction;
+import net.solarnetwork.node.reactor.InstructionStatus.InstructionState;
+import net.solarnetwork.node.reactor.support.BasicInstruction;
+import net.solarnetwork.ocpp.domain.ActionMessage;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
+import net.solarnetwork.ocpp.service.ChargePointBroker;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+import net.solarnetwork.test.CallingThreadExecutorService;
+import ocpp.domain.ErrorCodeException;
+import ocpp.v16.ActionErrorCode;
+import ocpp.v16.ChargePointAction;
+import ocpp.v16.cp.ChangeConfigurationRequest;
+import ocpp.v16.cp.ChangeConfigurationResponse;
+import ocpp.v16.cp.ConfigurationStatus;
+
+/**
+ * Test cases for the {@link BulkChargePointOperationService} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class BulkChargePointOperationServiceTests {
+
+	private ChargePointRouter chargePointRouter;
+	private ChargePointBroker chargePointBroker;
+	private TaskScheduler taskScheduler;
+	private ChargePointCallDispatcher callDispatcher;
+	private BulkChargePointOperationService service;
+
+	@Before
+	public void setup() {
+		chargePointRouter = EasyMock.createMock(ChargePointRouter.class);
+		chargePointBroker = EasyMock.createMock(ChargePointBroker.class);
+		taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		callDispatcher = new ChargePointCallDispatcher(chargePointRouter,
+				new CallingThreadExecutorService(), taskScheduler);
+		callDispatcher.setTimeoutSeconds(0);
+		service = new BulkChargePointOperationService(chargePointRouter, callDispatcher);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargePointRouter, chargePointBroker, taskScheduler);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargePointRouter, chargePointBroker, taskScheduler);
+	}
+
+	private static ChargePointIdentity identity(String identifier) {
+		return new ChargePointIdentity(identifier, ChargePointIdentity.ANY_USER);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T argument(int idx) {
+		return (T) EasyMock.getCurrentArguments()[idx];
+	}
+
+	private static ChangeConfigurationResponse accepted() {
+		return configurationResponse(ConfigurationStatus.ACCEPTED);
+	}
+
+	private static ChangeConfigurationResponse configurationResponse(ConfigurationStatus status) {
+		ChangeConfigurationResponse res = new ChangeConfigurationResponse();
+		res.setStatus(status);
+		return res;
+	}
+
+	private Capture<ActionMessageResultHandler<Object, Object>> expectSends() {
+		Capture<ActionMessageResultHandler<Object, Object>> captor = new Capture<>(
+				CaptureType.ALL);
+		expect(chargePointRouter.brokerForChargePoint(anyObject())).andReturn(chargePointBroker)
+				.anyTimes();
+		expect(chargePointBroker.sendMessageToChargePoint(anyObject(), capture(captor)))
+				.andReturn(true).anyTimes();
+		return captor;
+	}
+
+	@Test
+	public void execute_boundedParallelism() {
+		// given
+		service.setMaxParallel(2);
+		List<ChargePointIdentity> ids = Arrays.asList(identity("a"), identity("b"), identity("c"));
+		Capture<ActionMessageResultHandler<Object, Object>> captor = expectSends();
+
+		// when
+		replayAll();
+		CompletableFuture<BulkOperationResult<Object>> future = service.execute(ids,
+				ChargePointAction.ChangeConfiguration, new ChangeConfigurationRequest());
+
+		// then
+		assertThat("Only first two charge points sent to", captor.getValues(), hasSize(2));
+
+		captor.getValues().get(0).handleActionMessageResult(null, accepted(), null);
+		assertThat("Third charge point sent to after first response", captor.getValues(),
+				hasSize(3));
+		assertThat("Not done yet", future.isDone(), equalTo(false));
+
+		captor.getValues().get(1).handleActionMessageResult(null, accepted(), null);
+		captor.getValues().get(2).handleActionMessageResult(null, accepted(), null);
+		assertThat("Done after all responses", future.isDone(), equalTo(true));
+
+		BulkOperationResult<Object> result = future.join();
+		assertThat("Results in charge point order",
+				result.getResults().stream().map(r -> r.getIdentity().getIdentifier())
+						.collect(Collectors.toList()),
+				contains("a", "b", "c"));
+		assertThat("All succeeded", result.getSuccessCount(), equalTo(3));
+		assertThat("No errors", result.getErrorCount(), equalTo(0));
+	}
+
+	@Test
+	public void execute_selector_errors() {
+		// given
+		expect(chargePointRouter.availableChargePointsIds()).andReturn(
+				new HashSet<>(Arrays.asList(identity("c"), identity("a"), identity("b"))));
+		Capture<ActionMessageResultHandler<Object, Object>> captor = expectSends();
+
+		// when
+		replayAll();
+		CompletableFuture<BulkOperationResult<Object>> future = service.execute(
+				id -> !"b".equals(id.getIdentifier()), ChargePointAction.ChangeConfiguration,
+				new ChangeConfigurationRequest());
+		captor.getValues().get(0).handleActionMessageResult(null, accepted(), null);
+		captor.getValues().get(1).handleActionMessageResult(null, null,
+				new ErrorCodeException(ActionErrorCode.GenericError, "Timeout."));
+
+		// then
+		BulkOperationResult<Object> result = future.join();
+		assertThat("Selected charge points sent to, in identifier order",
+				result.getResults().stream().map(r -> r.getIdentity().getIdentifier())
+						.collect(Collectors.toList()),
+				contains("a", "c"));
+		assertThat("Success count", result.getSuccessCount(), equalTo(1));
+		assertThat("Error count", result.getErrorCount(), equalTo(1));
+		assertThat("Error saved", result.getResults().get(1).getError(),
+				instanceOf(ErrorCodeException.class));
+	}
+
+	@Test
+	public void execute_rejectedCalls() {
+		// given
+		service.setMaxParallel(1);
+		final int count = 10_000;
+		List<ChargePointIdentity> ids = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			ids.add(identity(String.valueOf(i)));
+		}
+		expect(chargePointRouter.brokerForChargePoint(anyObject())).andReturn(null).times(count);
+
+		// when
+		replayAll();
+		CompletableFuture<BulkOperationResult<Object>> future = service.execute(ids,
+				ChargePointAction.ChangeConfiguration, new ChangeConfigurationRequest());
+
+		// then
+		assertThat("Done after all calls rejected", future.isDone(), equalTo(true));
+		BulkOperationResult<Object> result = future.join();
+		assertThat("All charge points tried", result.getResults(), hasSize(count));
+		assertThat("All failed", result.getErrorCount(), equalTo(count));
+	}
+
+	@Test
+	public void execute_none() {
+		// when
+		replayAll();
+		BulkOperationResult<Object> result = service
+				.execute(new ArrayList<ChargePointIdentity>(), ChargePointAction.Reset, null)
+				.join();
+
+		// then
+		assertThat("No results", result.getResults(), hasSize(0));
+	}
+
+	@Test
+	public void instruction_changeConfiguration() {
+		// given
+		expect(chargePointRouter.availableChargePointsIds()).andReturn(
+				new HashSet<>(Arrays.asList(identity("a"), identity("b"), identity("c"))));
+		expect(chargePointRouter.brokerForChargePoint(anyObject())).andReturn(chargePointBroker)
+				.times(2);
+		List<ChangeConfigurationRequest> sent = new ArrayList<>();
+		expect(chargePointBroker.sendMessageToChargePoint(anyObject(), anyObject()))
+				.andAnswer(() -> {
+					ActionMessage<Object> msg = argument(0);
+					ActionMessageResultHandler<Object, Object> handler = argument(1);
+					sent.add((ChangeConfigurationRequest) msg.getMessage());
+					handler.handleActionMessageResult(msg, accepted(), null);
+					return true;
+				}).times(2);
+
+		// when
+		replayAll();
+		BasicInstruction instr = new BasicInstruction(
+				BulkChargePointOperationService.TOPIC_BULK_OPERATION, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		instr.addParameter(BulkChargePointOperationService.PARAM_ACTION, "ChangeConfiguration");
+		instr.addParameter(BulkChargePointOperationService.PARAM_CHARGE_POINTS, "a, c, d");
+		instr.addParameter(BulkChargePointOperationService.PARAM_KEY, "HeartbeatInterval");
+		instr.addParameter(BulkChargePointOperationService.PARAM_VALUE, "600");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction completed", result, equalTo(InstructionState.Completed));
+		assertThat("Sent to connected charge points", sent, hasSize(2));
+		assertThat("Key sent", sent.get(0).getKey(), equalTo("HeartbeatInterval"));
+		assertThat("Value sent", sent.get(0).getValue(), equalTo("600"));
+	}
+
+	@Test
+	public void instruction_changeConfiguration_rejected() {
+		// given
+		expect(chargePointRouter.availableChargePointsIds()).andReturn(
+				new HashSet<>(Arrays.asList(identity("a"), identity("b"), identity("c"))));
+		expect(chargePointRouter.brokerForChargePoint(anyObject())).andReturn(chargePointBroker)
+				.times(3);
+		expect(chargePointBroker.sendMessageToChargePoint(anyObject(), anyObject()))
+				.andAnswer(() -> {
+					ActionMessage<Object> msg = argument(0);
+					ActionMessageResultHandler<Object, Object> handler = argument(1);
+					ConfigurationStatus status = ConfigurationStatus.ACCEPTED;
+					if ( "b".equals(msg.getClientId().getIdentifier()) ) {
+						status = ConfigurationStatus.REJECTED;
+					} else if ( "c".equals(msg.getClientId().getIdentifier()) ) {
+						status = ConfigurationStatus.REBOOT_REQUIRED;
+					}
+					handler.handleActionMessageResult(msg, configurationResponse(status), null);
+					return true;
+				}).times(3);
+
+		// when
+		replayAll();
+		BasicInstruction instr = new BasicInstruction(
+				BulkChargePointOperationService.TOPIC_BULK_OPERATION, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		instr.addParameter(BulkChargePointOperationService.PARAM_ACTION, "ChangeConfiguration");
+		instr.addParameter(BulkChargePointOperationService.PARAM_KEY, "HeartbeatInterval");
+		instr.addParameter(BulkChargePointOperationService.PARAM_VALUE, "600");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction declined when a charge point rejects it", result,
+				equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_missingKey() {
+		// when
+		replayAll();
+		BasicInstruction instr = new BasicInstruction(
+				BulkChargePointOperationService.TOPIC_BULK_OPERATION, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		instr.addParameter(BulkChargePointOperationService.PARAM_ACTION, "ChangeConfiguration");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+	@Test
+	public void instruction_unsupportedAction() {
+		// when
+		replayAll();
+		BasicInstruction instr = new BasicInstruction(
+				BulkChargePointOperationService.TOPIC_BULK_OPERATION, new Date(),
+				Instruction.LOCAL_INSTRUCTION_ID, Instruction.LOCAL_INSTRUCTION_ID, null);
+		instr.addParameter(BulkChargePointOperationService.PARAM_ACTION, "UpdateFirmware");
+		InstructionState result = service.processInstruction(instr);
+
+		// then
+		assertThat("Instruction declined", result, equalTo(InstructionState.Declined));
+	}
+
+}
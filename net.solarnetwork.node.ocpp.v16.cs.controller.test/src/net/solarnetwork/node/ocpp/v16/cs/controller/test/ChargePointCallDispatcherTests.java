@@ -0,0 +1,265 @@
+/* ==================================================================
+ * ChargePointCallDispatcherTests.java - 18/10/2026 12:02:41 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointCallDispatcher;
+import net.solarnetwork.ocpp.domain.ActionMessage;
+import net.solarnetwork.ocpp.domain.BasicActionMessage;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
+import net.solarnetwork.ocpp.service.ChargePointBroker;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+import net.solarnetwork.test.CallingThreadExecutorService;
+import ocpp.domain.ErrorCodeException;
+import ocpp.v16.ChargePointAction;
+import ocpp.v16.cp.GetConfigurationRequest;
+
+/**
+ * Test cases for the {@link ChargePointCallDispatcher} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargePointCallDispatcherTests {
+
+	private final Executor executor = new CallingThreadExecutorService();
+	private ChargePointRouter chargePointRouter;
+	private ChargePointBroker chargePointBroker;
+	private TaskScheduler taskScheduler;
+	private ScheduledFuture<?> future;
+	private ChargePointCallDispatcher dispatcher;
+	private List<Object> results;
+
+	@Before
+	public void setup() {
+		chargePointRouter = EasyMock.createMock(ChargePointRouter.class);
+		chargePointBroker = EasyMock.createMock(ChargePointBroker.class);
+		taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		future = EasyMock.createMock(ScheduledFuture.class);
+		dispatcher = new ChargePointCallDispatcher(chargePointRouter, executor, taskScheduler);
+		results = new ArrayList<>();
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargePointRouter, chargePointBroker, taskScheduler, future);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargePointRouter, chargePointBroker, taskScheduler, future);
+	}
+
+	private static ChargePointIdentity identity(String identifier) {
+		return new ChargePointIdentity(identifier, ChargePointIdentity.ANY_USER);
+	}
+
+	private static ActionMessage<Object> message(ChargePointIdentity identity) {
+		return new BasicActionMessage<Object>(identity, UUID.randomUUID().toString(),
+				ChargePointAction.GetConfiguration, new GetConfigurationRequest());
+	}
+
+	private ActionMessageResultHandler<Object, Object> handler() {
+		return (msg, res, err) -> {
+			results.add(err != null ? err : res);
+			return true;
+		};
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Capture<Runnable> expectTimeout() {
+		Capture<Runnable> captor = new Capture<>(CaptureType.ALL);
+		expect(taskScheduler.schedule(capture(captor), anyObject(Date.class)))
+				.andReturn((ScheduledFuture) future);
+		return captor;
+	}
+
+	@Test
+	public void oneInFlightPerChargePoint() {
+		// given
+		ChargePointIdentity identity = identity("foo");
+		ActionMessage<Object> msg1 = message(identity);
+		ActionMessage<Object> msg2 = message(identity);
+
+		Capture<ActionMessageResultHandler<Object, Object>> handlerCaptor = new Capture<>(
+				CaptureType.ALL);
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg1), capture(handlerCaptor)))
+				.andReturn(true);
+		expect(future.cancel(false)).andReturn(true);
+
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg2), capture(handlerCaptor)))
+				.andReturn(true);
+
+		// when
+		replayAll();
+		dispatcher.send(msg1, handler());
+		dispatcher.send(msg2, handler());
+
+		// then
+		assertThat("Second message queued while first in flight",
+				dispatcher.getQueueDepth(identity), equalTo(1));
+		assertThat("One in flight", dispatcher.getInFlightCount(), equalTo(1));
+
+		handlerCaptor.getValues().get(0).handleActionMessageResult(msg1, "one", null);
+
+		assertThat("First result handled", results, contains("one"));
+		assertThat("Second message sent after first response", dispatcher.getQueueDepth(identity),
+				equalTo(0));
+		assertThat("Second in flight", dispatcher.getInFlightCount(), equalTo(1));
+		assertThat("Completed count", dispatcher.getCompletedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void independentChargePoints() {
+		// given
+		ChargePointIdentity id1 = identity("foo");
+		ChargePointIdentity id2 = identity("bar");
+		ActionMessage<Object> msg1 = message(id1);
+		ActionMessage<Object> msg2 = message(id2);
+
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(id1)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg1), anyObject())).andReturn(true);
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(id2)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg2), anyObject())).andReturn(true);
+
+		// when
+		replayAll();
+		dispatcher.send(msg1, handler());
+		dispatcher.send(msg2, handler());
+
+		// then
+		assertThat("Both in flight", dispatcher.getInFlightCount(), equalTo(2));
+		assertThat("Nothing queued", dispatcher.getTotalQueueDepth(), equalTo(0));
+	}
+
+	@Test
+	public void timeout() {
+		// given
+		ChargePointIdentity identity = identity("foo");
+		ActionMessage<Object> msg1 = message(identity);
+		ActionMessage<Object> msg2 = message(identity);
+
+		Capture<ActionMessageResultHandler<Object, Object>> handlerCaptor = new Capture<>();
+		Capture<Runnable> timeoutCaptor = expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg1), capture(handlerCaptor)))
+				.andReturn(true);
+		expect(future.cancel(false)).andReturn(false);
+
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg2), anyObject())).andReturn(true);
+
+		// when
+		replayAll();
+		dispatcher.send(msg1, handler());
+		dispatcher.send(msg2, handler());
+		timeoutCaptor.getValues().get(0).run();
+
+		// then
+		assertThat("Timeout passed to handler", results.get(0),
+				instanceOf(ErrorCodeException.class));
+		assertThat("Timeout count", dispatcher.getTimeoutCount(), equalTo(1L));
+		assertThat("Second message sent after timeout", dispatcher.getQueueDepth(identity),
+				equalTo(0));
+
+		handlerCaptor.getValue().handleActionMessageResult(msg1, "late", null);
+		assertThat("Late response ignored", results, hasSize(1));
+	}
+
+	@Test
+	public void queueFull() {
+		// given
+		dispatcher.setMaxQueueSize(1);
+		ChargePointIdentity identity = identity("foo");
+		ActionMessage<Object> msg1 = message(identity);
+
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+		expect(chargePointBroker.sendMessageToChargePoint(eq(msg1), anyObject())).andReturn(true);
+
+		// when
+		replayAll();
+		dispatcher.send(msg1, handler());
+		dispatcher.send(message(identity), handler());
+		dispatcher.send(message(identity), handler());
+
+		// then
+		assertThat("One queued", dispatcher.getQueueDepth(identity), equalTo(1));
+		assertThat("Rejected count", dispatcher.getRejectedCount(), equalTo(1L));
+		assertThat("Rejection passed to handler", results.get(0),
+				instanceOf(ErrorCodeException.class));
+	}
+
+	@Test
+	public void clientNotAvailable() {
+		// given
+		ChargePointIdentity identity = identity("foo");
+		ActionMessage<Object> msg1 = message(identity);
+
+		expectTimeout();
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(null);
+		expect(future.cancel(false)).andReturn(true);
+
+		// when
+		replayAll();
+		dispatcher.send(msg1, handler());
+
+		// then
+		assertThat("Error passed to handler", results.get(0), instanceOf(ErrorCodeException.class));
+		assertThat("Nothing in flight", dispatcher.getInFlightCount(), equalTo(0));
+		assertThat("Nothing queued", dispatcher.getQueueDepth(identity), equalTo(0));
+		assertThat("Unknown charge point has no queue", dispatcher.getQueueDepth(identity("bar")),
+				equalTo(0));
+		assertThat("Not a timeout", dispatcher.getTimeoutCount(), equalTo(0L));
+		assertThat("One result", results, hasSize(1));
+	}
+
+}
@@ -0,0 +1,210 @@
+/* ==================================================================
+ * ChargePointStatusSnapshotTests.java - 18/10/2026 3:26:11 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointStatusSnapshot;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointStatusSnapshot.ConnectionFilter;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointStatusSnapshot.Page;
+import net.solarnetwork.ocpp.dao.ChargePointDao;
+import net.solarnetwork.ocpp.domain.ChargePoint;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.ChargePointInfo;
+import net.solarnetwork.ocpp.domain.RegistrationStatus;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+
+/**
+ * Test cases for the {@link ChargePointStatusSnapshot} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargePointStatusSnapshotTests {
+
+	private ChargePointDao chargePointDao;
+	private ChargePointRouter chargePointRouter;
+	private ChargePointStatusSnapshot snapshot;
+
+	@Before
+	public void setup() {
+		chargePointDao = EasyMock.createMock(ChargePointDao.class);
+		chargePointRouter = EasyMock.createMock(ChargePointRouter.class);
+		snapshot = new ChargePointStatusSnapshot(chargePointDao, chargePointRouter);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargePointDao, chargePointRouter);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargePointDao, chargePointRouter);
+	}
+
+	private static ChargePoint chargePoint(long id, String identifier, RegistrationStatus status) {
+		ChargePoint cp = new ChargePoint(id, Instant.now(), new ChargePointInfo(identifier));
+		cp.setEnabled(true);
+		cp.setRegistrationStatus(status);
+		return cp;
+	}
+
+	private static ChargePointIdentity identity(String identifier) {
+		return new ChargePointIdentity(identifier, ChargePointIdentity.ANY_USER);
+	}
+
+	private static List<String> identifiers(Page page) {
+		return page.getEntries().stream().map(ChargePointStatusSnapshot.Entry::getIdentifier)
+				.collect(Collectors.toList());
+	}
+
+	private void expectLoad() {
+		List<ChargePoint> all = new ArrayList<>();
+		all.add(chargePoint(3L, "c", RegistrationStatus.Accepted));
+		all.add(chargePoint(1L, "a", RegistrationStatus.Accepted));
+		all.add(chargePoint(4L, "d", RegistrationStatus.Pending));
+		all.add(chargePoint(2L, "b", RegistrationStatus.Rejected));
+		expect(chargePointDao.getAll(null)).andReturn(all);
+	}
+
+	private void expectConnected(int times, String... identifiers) {
+		List<ChargePointIdentity> ids = Arrays.stream(identifiers)
+				.map(ChargePointStatusSnapshotTests::identity).collect(Collectors.toList());
+		expect(chargePointRouter.availableChargePointsIds()).andReturn(new HashSet<>(ids))
+				.times(times);
+	}
+
+	@Test
+	public void page_loadOnce() {
+		// given
+		expectLoad();
+		expectConnected(3, "a", "c");
+
+		// when
+		replayAll();
+		Page p1 = snapshot.page(null, null, 0, 2);
+		Page p2 = snapshot.page(null, null, 2, 2);
+
+		// then
+		assertThat("Loaded once", snapshot.getLoadCount(), equalTo(1L));
+		assertThat("First page in identifier order", identifiers(p1), contains("a", "b"));
+		assertThat("Second page", identifiers(p2), contains("c", "d"));
+		assertThat("Offset", p2.getOffset(), equalTo(2));
+		assertThat("Match count", p2.getMatchCount(), equalTo(4));
+		assertThat("Total count", p2.getTotalCount(), equalTo(4));
+		assertThat("Connected count", p2.getConnectedCount(), equalTo(2));
+		assertThat("Connected state", p1.getEntries().get(0).isConnected(), equalTo(true));
+		assertThat("Disconnected state", p1.getEntries().get(1).isConnected(), equalTo(false));
+	}
+
+	@Test
+	public void page_filters() {
+		// given
+		expectLoad();
+		expectConnected(4, "a", "c");
+
+		// when
+		replayAll();
+		Page connected = snapshot.page(ConnectionFilter.Connected, null, 0, 0);
+		Page disconnected = snapshot.page(ConnectionFilter.Disconnected, null, 0, 0);
+		Page accepted = snapshot.page(null, RegistrationStatus.Accepted, 0, 0);
+
+		// then
+		assertThat("Connected", identifiers(connected), contains("a", "c"));
+		assertThat("Disconnected", identifiers(disconnected), contains("b", "d"));
+		assertThat("Disconnected match count", disconnected.getMatchCount(), equalTo(2));
+		assertThat("Accepted", identifiers(accepted), contains("a", "c"));
+	}
+
+	@Test
+	public void page_connectionChanges() {
+		// given
+		expectLoad();
+		expectConnected(2, "a");
+		expectConnected(1, "b", "d");
+
+		// when
+		replayAll();
+		snapshot.page(null, null, 0, 0);
+		Page p = snapshot.page(ConnectionFilter.Connected, null, 0, 0);
+
+		// then
+		assertThat("Disconnected charge point removed, connected ones added", identifiers(p),
+				contains("b", "d"));
+	}
+
+	@Test
+	public void registered() {
+		// given
+		expectLoad();
+		expectConnected(4, "a", "c", "e");
+
+		// when
+		replayAll();
+		snapshot.page(null, null, 0, 0);
+		snapshot.chargePointRegistered(chargePoint(5L, "e", RegistrationStatus.Pending));
+		snapshot.chargePointRegistered(chargePoint(1L, "a", RegistrationStatus.Rejected));
+		Page p = snapshot.page(null, RegistrationStatus.Pending, 0, 0);
+
+		// then
+		assertThat("Loaded once", snapshot.getLoadCount(), equalTo(1L));
+		assertThat("New charge point added", identifiers(p), contains("d", "e"));
+		assertThat("Registration status updated",
+				identifiers(snapshot.page(null, RegistrationStatus.Rejected, 0, 0)),
+				contains("a", "b"));
+	}
+
+	@Test
+	public void invalidate() {
+		// given
+		expectLoad();
+		expectConnected(2);
+		expect(chargePointDao.getAll(null)).andReturn(
+				Collections.singletonList(chargePoint(1L, "a", RegistrationStatus.Accepted)));
+		expectConnected(2);
+
+		// when
+		replayAll();
+		snapshot.page(null, null, 0, 0);
+		snapshot.invalidate();
+		Page p = snapshot.page(null, null, 0, 0);
+
+		// then
+		assertThat("Loaded again", snapshot.getLoadCount(), equalTo(2L));
+		assertThat("Deleted charge points removed", identifiers(p), contains("a"));
+	}
+
+}
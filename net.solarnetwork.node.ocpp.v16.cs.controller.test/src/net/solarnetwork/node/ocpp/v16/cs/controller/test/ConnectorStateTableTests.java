@@ -0,0 +1,271 @@
+/* ==================================================================
+ * ConnectorStateTableTests.java - 17/10/2026 10:31:20 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ConnectorStateTable;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ConnectorStatusCoalescer;
+import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
+import net.solarnetwork.ocpp.domain.ChargePointConnector;
+import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
+import net.solarnetwork.ocpp.domain.ChargePointErrorCode;
+import net.solarnetwork.ocpp.domain.ChargePointStatus;
+import net.solarnetwork.ocpp.domain.StatusNotification;
+
+/**
+ * Test cases for the {@link ConnectorStateTable} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ConnectorStateTableTests {
+
+	private static final long TEST_CP_ID = 1L;
+
+	private ChargePointConnectorDao chargePointConnectorDao;
+	private TaskScheduler taskScheduler;
+	private ScheduledFuture<?> future;
+	private ConnectorStatusCoalescer coalescer;
+	private ConnectorStateTable table;
+
+	@Before
+	public void setup() {
+		chargePointConnectorDao = EasyMock.createMock(ChargePointConnectorDao.class);
+		taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		future = EasyMock.createMock(ScheduledFuture.class);
+		coalescer = new ConnectorStatusCoalescer(chargePointConnectorDao, taskScheduler);
+		coalescer.setDelayMs(1000);
+		table = new ConnectorStateTable(chargePointConnectorDao, coalescer);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargePointConnectorDao, taskScheduler, future);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargePointConnectorDao, taskScheduler, future);
+	}
+
+	private static ChargePointConnector connector(long chargePointId, int connectorId,
+			ChargePointStatus status) {
+		ChargePointConnector cpc = new ChargePointConnector(
+				new ChargePointConnectorKey(chargePointId, connectorId), Instant.now());
+		cpc.setInfo(status(connectorId, status));
+		return cpc;
+	}
+
+	private static StatusNotification status(int connectorId, ChargePointStatus status) {
+		// @formatter:off
+		return StatusNotification.builder()
+				.withConnectorId(connectorId)
+				.withStatus(status)
+				.withErrorCode(ChargePointErrorCode.NoError)
+				.withTimestamp(Instant.now()).build();
+		// @formatter:on
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Capture<Runnable> expectSchedule() {
+		Capture<Runnable> taskCaptor = new Capture<>();
+		expect(taskScheduler.schedule(capture(taskCaptor), anyObject(Date.class)))
+				.andReturn((ScheduledFuture) future);
+		return taskCaptor;
+	}
+
+	@Test
+	public void loadOnce() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		ChargePointConnector c2 = connector(TEST_CP_ID, 2, ChargePointStatus.Charging);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1, c2));
+
+		// when
+		replayAll();
+		Map<ChargePointConnectorKey, ChargePointConnector> snapshot = table.snapshot();
+		ChargePointConnector c2b = table.get(c2.getId());
+
+		// then
+		assertThat("Snapshot keys", snapshot.keySet(), containsInAnyOrder(c1.getId(), c2.getId()));
+		assertThat("Lookup from loaded table", c2b, sameInstance(c2));
+	}
+
+	@Test
+	public void updateStatus_writeBehind() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1));
+		Capture<Runnable> taskCaptor = expectSchedule();
+		StatusNotification info = status(1, ChargePointStatus.Charging);
+		expect(future.cancel(false)).andReturn(false);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info)).andReturn(c1.getId());
+
+		// when
+		replayAll();
+		Map<ChargePointConnectorKey, ChargePointConnector> before = table.snapshot();
+		table.updateStatus(TEST_CP_ID, info);
+
+		// then
+		assertThat("Status available before flush", table.get(c1.getId()).getInfo(),
+				equalTo(info));
+		assertThat("Created preserved", table.get(c1.getId()).getCreated(),
+				equalTo(c1.getCreated()));
+		assertThat("Snapshot is live view", before.get(c1.getId()).getInfo(), equalTo(info));
+		assertThat("Status pending", coalescer.getPendingCount(), equalTo(1));
+
+		taskCaptor.getValue().run();
+		assertThat("Status flushed", coalescer.getPendingCount(), equalTo(0));
+	}
+
+	@Test
+	public void updateStatus_writeThrough_afterTableUpdate() {
+		// given
+		coalescer.setDelayMs(0);
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1));
+		StatusNotification info = status(1, ChargePointStatus.Charging);
+		List<ChargePointStatus> seen = new ArrayList<>();
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info)).andAnswer(() -> {
+			seen.add(table.findByChargePointId(TEST_CP_ID).get(0).getInfo().getStatus());
+			return c1.getId();
+		});
+
+		// when
+		replayAll();
+		table.updateStatus(TEST_CP_ID, info);
+
+		// then
+		assertThat("Status written after charge point connectors updated", seen,
+				contains(ChargePointStatus.Charging));
+	}
+
+	@Test
+	public void updateStatus_chargePointWide() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		ChargePointConnector c2 = connector(TEST_CP_ID, 2, ChargePointStatus.Charging);
+		ChargePointConnector other = connector(TEST_CP_ID + 1, 1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1, c2, other));
+		expectSchedule();
+
+		// when
+		replayAll();
+		table.updateStatus(TEST_CP_ID, status(0, ChargePointStatus.Unavailable));
+
+		// then
+		assertThat("Charge point connectors updated",
+				table.findByChargePointId(TEST_CP_ID).stream().map(c -> c.getInfo().getStatus())
+						.collect(Collectors.toList()),
+				contains(ChargePointStatus.Unavailable, ChargePointStatus.Unavailable));
+		assertThat("Connector ID preserved", table.get(c2.getId()).getInfo().getConnectorId(),
+				equalTo(2));
+		assertThat("Other charge point unchanged", table.get(other.getId()), sameInstance(other));
+		assertThat("Status pending per connector", coalescer.getPendingCount(), equalTo(2));
+	}
+
+	@Test
+	public void delete_discardsPending() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1));
+		expectSchedule();
+		chargePointConnectorDao.delete(c1);
+
+		// when
+		replayAll();
+		table.updateStatus(TEST_CP_ID, status(1, ChargePointStatus.Faulted));
+		table.delete(c1);
+
+		// then
+		assertThat("Connector removed", table.get(c1.getId()), nullValue());
+		assertThat("Pending status discarded", coalescer.getPendingCount(), equalTo(0));
+		assertThat("Charge point connectors removed", table.findByChargePointId(TEST_CP_ID),
+				empty());
+	}
+
+	@Test
+	public void findByChargePointId_ordered() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		ChargePointConnector c2 = connector(TEST_CP_ID, 2, ChargePointStatus.Charging);
+		ChargePointConnector other = connector(TEST_CP_ID + 1, 1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c2, other, c1));
+		expectSchedule();
+
+		// when
+		replayAll();
+		table.updateStatus(TEST_CP_ID, status(3, ChargePointStatus.Preparing));
+
+		// then
+		assertThat("Connectors ordered by connector ID",
+				table.findByChargePointId(TEST_CP_ID).stream()
+						.map(c -> c.getId().getConnectorId()).collect(Collectors.toList()),
+				contains(1, 2, 3));
+		assertThat("Other charge point", table.findByChargePointId(TEST_CP_ID + 1),
+				contains(other));
+		assertThat("Unknown charge point", table.findByChargePointId(TEST_CP_ID + 2), empty());
+	}
+
+	@Test
+	public void invalidate_reloads() {
+		// given
+		ChargePointConnector c1 = connector(TEST_CP_ID, 1, ChargePointStatus.Available);
+		ChargePointConnector c1b = connector(TEST_CP_ID, 1, ChargePointStatus.Faulted);
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1));
+		expect(chargePointConnectorDao.getAll(null)).andReturn(Arrays.asList(c1b));
+
+		// when
+		replayAll();
+		ChargePointConnector before = table.get(c1.getId());
+		table.invalidate();
+		ChargePointConnector after = table.get(c1.getId());
+
+		// then
+		assertThat("Loaded before invalidate", before, sameInstance(c1));
+		assertThat("Re-loaded after invalidate", after, sameInstance(c1b));
+	}
+
+}
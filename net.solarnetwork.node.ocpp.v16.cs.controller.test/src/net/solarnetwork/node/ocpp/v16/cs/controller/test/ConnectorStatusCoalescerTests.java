@@ -0,0 +1,256 @@
+/* ==================================================================
+ * ConnectorStatusCoalescerTests.java - 17/10/2026 9:41:02 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ConnectorStatusCoalescer;
+import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
+import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
+import net.solarnetwork.ocpp.domain.ChargePointErrorCode;
+import net.solarnetwork.ocpp.domain.ChargePointStatus;
+import net.solarnetwork.ocpp.domain.StatusNotification;
+
+/**
+ * Test cases for the {@link ConnectorStatusCoalescer} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ConnectorStatusCoalescerTests {
+
+	private static final long TEST_CP_ID = 1L;
+
+	private ChargePointConnectorDao chargePointConnectorDao;
+	private TaskScheduler taskScheduler;
+	private ScheduledFuture<?> future;
+	private ConnectorStatusCoalescer coalescer;
+
+	@Before
+	public void setup() {
+		chargePointConnectorDao = EasyMock.createMock(ChargePointConnectorDao.class);
+		taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		future = EasyMock.createMock(ScheduledFuture.class);
+		coalescer = new ConnectorStatusCoalescer(chargePointConnectorDao, taskScheduler);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(chargePointConnectorDao, taskScheduler, future);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(chargePointConnectorDao, taskScheduler, future);
+	}
+
+	private static StatusNotification status(int connectorId, ChargePointStatus status) {
+		// @formatter:off
+		return StatusNotification.builder()
+				.withConnectorId(connectorId)
+				.withStatus(status)
+				.withErrorCode(ChargePointErrorCode.NoError)
+				.withTimestamp(Instant.now()).build();
+		// @formatter:on
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Capture<Runnable> expectSchedule() {
+		Capture<Runnable> taskCaptor = new Capture<>();
+		expect(taskScheduler.schedule(capture(taskCaptor), anyObject(Date.class)))
+				.andReturn((ScheduledFuture) future);
+		return taskCaptor;
+	}
+
+	@Test
+	public void noDelay() {
+		// given
+		StatusNotification info = status(1, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 1));
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, info);
+
+		// then
+		assertThat("Nothing pending", coalescer.getPendingCount(), equalTo(0));
+	}
+
+	@Test
+	public void coalesceLatestPerConnector() {
+		// given
+		coalescer.setDelayMs(500);
+		Capture<Runnable> taskCaptor = expectSchedule();
+
+		StatusNotification c1a = status(1, ChargePointStatus.Preparing);
+		StatusNotification c2 = status(2, ChargePointStatus.Available);
+		StatusNotification c1b = status(1, ChargePointStatus.Charging);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c1b))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 1));
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c2))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 2));
+		expect(future.cancel(false)).andReturn(false);
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, c1a);
+		coalescer.offer(TEST_CP_ID, c2);
+		coalescer.offer(TEST_CP_ID, c1b);
+		assertThat("Pending coalesced per connector", coalescer.getPendingCount(), equalTo(2));
+		taskCaptor.getValue().run();
+
+		// then
+		assertThat("Nothing pending after flush", coalescer.getPendingCount(), equalTo(0));
+	}
+
+	@Test
+	public void flushEmpty() {
+		// given
+		coalescer.setDelayMs(500);
+
+		// when
+		replayAll();
+		int result = coalescer.flush();
+
+		// then
+		assertThat("Nothing flushed", result, equalTo(0));
+	}
+
+	@Test
+	public void retryAfterError() {
+		// given
+		coalescer.setDelayMs(500);
+		Capture<Runnable> taskCaptor = expectSchedule();
+		StatusNotification info = status(1, ChargePointStatus.Faulted);
+		expect(future.cancel(false)).andReturn(false);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info))
+				.andThrow(new RuntimeException("test"));
+		expectSchedule();
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, info);
+		taskCaptor.getValue().run();
+
+		// then
+		assertThat("Status put back for retry", coalescer.getPendingCount(), equalTo(1));
+	}
+
+	@Test
+	public void discardIntegrityViolation() {
+		// given
+		coalescer.setDelayMs(500);
+		Capture<Runnable> taskCaptor = expectSchedule();
+		StatusNotification c1 = status(1, ChargePointStatus.Available);
+		StatusNotification c2 = status(2, ChargePointStatus.Available);
+		StatusNotification c3 = status(3, ChargePointStatus.Available);
+		expect(future.cancel(false)).andReturn(false);
+
+		// batch fails on the connector of a deleted charge point
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c1))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 1));
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c2))
+				.andThrow(new DataIntegrityViolationException("FK violation"));
+
+		// then each status is saved on its own, and the bad one discarded
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c1))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 1));
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c2))
+				.andThrow(new DataIntegrityViolationException("FK violation"));
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, c3))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 3));
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, c1);
+		coalescer.offer(TEST_CP_ID, c2);
+		coalescer.offer(TEST_CP_ID, c3);
+		taskCaptor.getValue().run();
+
+		// then
+		assertThat("Bad status discarded, nothing left to retry", coalescer.getPendingCount(),
+				equalTo(0));
+	}
+
+	@Test
+	public void discardAfterMaxRetries() {
+		// given
+		coalescer.setDelayMs(500);
+		coalescer.setMaxRetries(1);
+		expectSchedule();
+		StatusNotification info = status(1, ChargePointStatus.Faulted);
+		expect(future.cancel(false)).andReturn(false).times(2);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info))
+				.andThrow(new RuntimeException("test")).times(2);
+		expectSchedule();
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, info);
+		coalescer.flush();
+		assertThat("Status put back for retry", coalescer.getPendingCount(), equalTo(1));
+		coalescer.flush();
+
+		// then
+		assertThat("Status discarded after max retries", coalescer.getPendingCount(),
+				equalTo(0));
+	}
+
+	@Test
+	public void shutdownFlushes() {
+		// given
+		coalescer.setDelayMs(500);
+		expectSchedule();
+		StatusNotification info = status(1, ChargePointStatus.Available);
+		expect(future.cancel(false)).andReturn(true);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, info))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 1));
+
+		StatusNotification after = status(2, ChargePointStatus.Available);
+		expect(chargePointConnectorDao.saveStatusInfo(TEST_CP_ID, after))
+				.andReturn(new ChargePointConnectorKey(TEST_CP_ID, 2));
+
+		// when
+		replayAll();
+		coalescer.offer(TEST_CP_ID, info);
+		coalescer.shutdown();
+		coalescer.offer(TEST_CP_ID, after);
+
+		// then
+		assertThat("Nothing pending after shutdown", coalescer.getPendingCount(), equalTo(0));
+	}
+
+}
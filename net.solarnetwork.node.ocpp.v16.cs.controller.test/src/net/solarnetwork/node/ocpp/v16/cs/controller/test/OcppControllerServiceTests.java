@@ -32,9 +32,11 @@ import static org.junit.Assert.assertThat;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
 import org.easymock.EasyMock;
@@ -42,7 +44,9 @@ import org.easymock.IAnswer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.scheduling.TaskScheduler;
 import net.solarnetwork.node.ocpp.v16.cs.controller.OcppControllerService;
+import net.solarnetwork.node.ocpp.v16.cs.controller.RegistrationAdmissionController;
 import net.solarnetwork.ocpp.dao.AuthorizationDao;
 import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
 import net.solarnetwork.ocpp.dao.ChargePointDao;
@@ -55,6 +59,7 @@ import net.solarnetwork.ocpp.domain.ChargePointConnector;
 import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
 import net.solarnetwork.ocpp.domain.ChargePointIdentity;
 import net.solarnetwork.ocpp.domain.ChargePointInfo;
+import net.solarnetwork.ocpp.domain.RegistrationStatus;
 import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
 import net.solarnetwork.ocpp.service.ChargePointBroker;
 import net.solarnetwork.ocpp.service.ChargePointRouter;
@@ -63,12 +68,14 @@ import ocpp.v16.ConfigurationKey;
 import ocpp.v16.cp.GetConfigurationRequest;
 import ocpp.v16.cp.GetConfigurationResponse;
 import ocpp.v16.cp.KeyValue;
+import ocpp.v16.cp.MessageTrigger;
+import ocpp.v16.cp.TriggerMessageRequest;
 
 /**
  * Test cases for the {@link OcppControllerService} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class OcppControllerServiceTests {
 
@@ -384,4 +391,63 @@ public class OcppControllerServiceTests {
 		ChargePointConnector conn = connectorCaptor.getValue();
 		assertThat("Deleted extra connector", conn, equalTo(connectors.get(1)));
 	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void register_deferred() {
+		// given
+		TaskScheduler taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		ScheduledFuture future = EasyMock.createMock(ScheduledFuture.class);
+		RegistrationAdmissionController admission = new RegistrationAdmissionController(
+				taskScheduler);
+		admission.setMaxConcurrent(1);
+		admission.setRetryDelaySeconds(10);
+		service.setRegistrationAdmissionController(admission);
+
+		String identifier = UUID.randomUUID().toString();
+		ChargePointIdentity identity = createClientId(identifier);
+
+		// schedule trigger message for later
+		Capture<Runnable> taskCaptor = new Capture<>();
+		Capture<Date> dateCaptor = new Capture<>();
+		expect(taskScheduler.schedule(capture(taskCaptor), capture(dateCaptor)))
+				.andReturn(future);
+
+		// find broker for charge point, to send TriggerMessage message to
+		expect(chargePointRouter.brokerForChargePoint(identity)).andReturn(chargePointBroker);
+
+		Capture<ActionMessage<Object>> actionCaptor = new Capture<>();
+		Capture<ActionMessageResultHandler<Object, Object>> resultHandlerCaptor = new Capture<>();
+		expect(chargePointBroker.sendMessageToChargePoint(capture(actionCaptor),
+				capture(resultHandlerCaptor))).andReturn(true);
+
+		// when
+		replayAll();
+		EasyMock.replay(taskScheduler, future);
+		assertThat("Fill admission capacity", admission.tryAdmit(), equalTo(true));
+		final long start = System.currentTimeMillis();
+		ChargePointInfo info = new ChargePointInfo(identifier);
+		info.setChargePointVendor("ACME");
+		info.setChargePointModel("One");
+		ChargePoint result = service.registerChargePoint(identity, info);
+
+		// then
+		assertThat("Result returned", result, notNullValue());
+		assertThat("Registration pending", result.getRegistrationStatus(),
+				equalTo(RegistrationStatus.Pending));
+		assertThat("Deferred count", admission.getDeferredCount(), equalTo(1L));
+		assertThat("Retry scheduled after delay", dateCaptor.getValue().getTime() >= start + 10000L,
+				equalTo(true));
+
+		taskCaptor.getValue().run();
+		Object msg = actionCaptor.getValue().getMessage();
+		assertThat("Message sent to charge point is TriggerMessage", msg,
+				instanceOf(TriggerMessageRequest.class));
+		assertThat("Boot notification requested",
+				((TriggerMessageRequest) msg).getRequestedMessage(),
+				equalTo(MessageTrigger.BOOT_NOTIFICATION));
+
+		EasyMock.verify(taskScheduler, future);
+	}
+
 }
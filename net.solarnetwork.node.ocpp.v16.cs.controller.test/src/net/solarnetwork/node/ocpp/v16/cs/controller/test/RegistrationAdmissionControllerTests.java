@@ -0,0 +1,232 @@
+/* ==================================================================
+ * RegistrationAdmissionControllerTests.java - 18/10/2026 10:58:30 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller.test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.node.ocpp.v16.cs.controller.RegistrationAdmissionController;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+
+/**
+ * Test cases for the {@link RegistrationAdmissionController} class.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class RegistrationAdmissionControllerTests {
+
+	private TaskScheduler taskScheduler;
+	private RegistrationAdmissionController controller;
+
+	@Before
+	public void setup() {
+		taskScheduler = EasyMock.createMock(TaskScheduler.class);
+		controller = new RegistrationAdmissionController(taskScheduler);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(taskScheduler);
+	}
+
+	@Test
+	public void admitUpToMax() {
+		// given
+		controller.setMaxConcurrent(2);
+
+		// when
+		EasyMock.replay(taskScheduler);
+		boolean r1 = controller.tryAdmit();
+		boolean r2 = controller.tryAdmit();
+		boolean r3 = controller.tryAdmit();
+		controller.release();
+		boolean r4 = controller.tryAdmit();
+
+		// then
+		assertThat("First admitted", r1, equalTo(true));
+		assertThat("Second admitted", r2, equalTo(true));
+		assertThat("Third deferred", r3, equalTo(false));
+		assertThat("Admitted after release", r4, equalTo(true));
+		assertThat("Admitted count", controller.getAdmittedCount(), equalTo(3L));
+		assertThat("Deferred count", controller.getDeferredCount(), equalTo(1L));
+		assertThat("Active count", controller.getActiveCount(), equalTo(2));
+	}
+
+	@Test
+	public void noLimit() {
+		// given
+		controller.setMaxConcurrent(0);
+
+		// when
+		EasyMock.replay(taskScheduler);
+		for ( int i = 0; i < 100; i++ ) {
+			assertThat("Admitted " + i, controller.tryAdmit(), equalTo(true));
+		}
+
+		// then
+		assertThat("Deferred count", controller.getDeferredCount(), equalTo(0L));
+	}
+
+	@Test
+	public void retryTimesStaggered() {
+		// given
+		controller.setRetryDelaySeconds(10);
+		controller.setRetryIntervalMs(500);
+
+		// when
+		EasyMock.replay(taskScheduler);
+		final long start = System.currentTimeMillis();
+		List<Instant> times = new ArrayList<>();
+		for ( int i = 0; i < 3; i++ ) {
+			times.add(controller.nextRetryTime());
+		}
+
+		// then
+		assertThat("First retry after delay", times.get(0).toEpochMilli(),
+				greaterThanOrEqualTo(start + 10000L));
+		for ( int i = 1; i < times.size(); i++ ) {
+			assertThat("Retry " + i + " spaced from previous",
+					times.get(i).toEpochMilli() - times.get(i - 1).toEpochMilli(),
+					greaterThanOrEqualTo(500L));
+		}
+	}
+
+	private static ChargePointIdentity identity(String identifier) {
+		return new ChargePointIdentity(identifier, ChargePointIdentity.ANY_USER);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void retryOnePerIdentity() {
+		// given
+		controller.setRetryIntervalMs(500);
+		Capture<Runnable> taskCaptor = new Capture<>(CaptureType.ALL);
+		Capture<Date> dateCaptor = new Capture<>(CaptureType.ALL);
+		ScheduledFuture future = EasyMock.createMock(ScheduledFuture.class);
+		expect(taskScheduler.schedule(capture(taskCaptor), capture(dateCaptor)))
+				.andReturn(future).times(2);
+
+		// when
+		EasyMock.replay(taskScheduler, future);
+		List<Integer> ran = new ArrayList<>();
+		Instant a1 = controller.scheduleRetry(identity("a"), () -> ran.add(1));
+		Instant a2 = controller.scheduleRetry(identity("a"), () -> ran.add(2));
+		Instant b = controller.scheduleRetry(identity("b"), () -> ran.add(3));
+
+		// then
+		assertThat("Deferred again keeps retry time", a2, equalTo(a1));
+		assertThat("Other charge point takes next slot", b.toEpochMilli() - a1.toEpochMilli(),
+				equalTo(500L));
+		assertThat("Scheduled at retry times", dateCaptor.getValues().get(0).getTime(),
+				equalTo(a1.toEpochMilli()));
+		assertThat("Pending retries", controller.getPendingRetryCount(), equalTo(2));
+
+		taskCaptor.getValues().get(0).run();
+		assertThat("First retry task ran", ran, equalTo(Collections.singletonList(1)));
+		assertThat("Pending retries after run", controller.getPendingRetryCount(), equalTo(1));
+		EasyMock.verify(future);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void cancelRetry() {
+		// given
+		Capture<Runnable> taskCaptor = new Capture<>(CaptureType.ALL);
+		ScheduledFuture future = EasyMock.createMock(ScheduledFuture.class);
+		expect(taskScheduler.schedule(capture(taskCaptor), anyObject(Date.class)))
+				.andReturn(future).times(3);
+		expect(future.cancel(false)).andReturn(true).times(2);
+
+		// when
+		EasyMock.replay(taskScheduler, future);
+		List<Integer> ran = new ArrayList<>();
+		controller.scheduleRetry(identity("a"), () -> ran.add(1));
+		controller.scheduleRetry(identity("b"), () -> ran.add(2));
+		controller.scheduleRetry(identity("c"), () -> ran.add(3));
+		boolean cancelled = controller.cancelRetry(identity("a"));
+		boolean cancelledAgain = controller.cancelRetry(identity("a"));
+		int filtered = controller.cancelRetries(id -> "b".equals(id.getIdentifier()));
+		for ( Runnable r : taskCaptor.getValues() ) {
+			r.run();
+		}
+
+		// then
+		assertThat("Retry cancelled", cancelled, equalTo(true));
+		assertThat("Retry already cancelled", cancelledAgain, equalTo(false));
+		assertThat("Filtered retries cancelled", filtered, equalTo(1));
+		assertThat("Only retry not cancelled ran", ran, equalTo(Collections.singletonList(3)));
+		assertThat("No pending retries", controller.getPendingRetryCount(), equalTo(0));
+		EasyMock.verify(future);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void configurationRateLimited() {
+		// given
+		controller.setConfigurationIntervalMs(60000);
+		Capture<Runnable> taskCaptor = new Capture<>(CaptureType.ALL);
+		Capture<Date> dateCaptor = new Capture<>(CaptureType.ALL);
+		ScheduledFuture future = EasyMock.createMock(ScheduledFuture.class);
+		expect(taskScheduler.schedule(capture(taskCaptor), capture(dateCaptor)))
+				.andReturn(future).times(2);
+
+		// when
+		EasyMock.replay(taskScheduler);
+		List<Integer> ran = new ArrayList<>();
+		final long start = System.currentTimeMillis();
+		controller.scheduleConfiguration(() -> ran.add(1));
+		controller.scheduleConfiguration(() -> ran.add(2));
+		controller.scheduleConfiguration(() -> ran.add(3));
+
+		// then
+		assertThat("First ran immediately", ran, equalTo(Collections.singletonList(1)));
+		assertThat("Others pending", controller.getPendingConfigurationCount(), equalTo(2));
+		assertThat("Second scheduled after interval", dateCaptor.getValues().get(0).getTime(),
+				greaterThanOrEqualTo(start + 60000L));
+		assertThat("Third scheduled after second",
+				dateCaptor.getValues().get(1).getTime() - dateCaptor.getValues().get(0).getTime(),
+				equalTo(60000L));
+
+		taskCaptor.getValues().get(0).run();
+		assertThat("Second ran", ran.get(1), equalTo(2));
+		assertThat("One pending", controller.getPendingConfigurationCount(), equalTo(1));
+	}
+
+}
@@ -0,0 +1,604 @@
+/* ==================================================================
+ * AuthorizationListService.java - 18/10/2026 12:14:36 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.solarnetwork.node.ocpp.dao.BulkAuthorizationDao;
+import net.solarnetwork.node.reactor.Instruction;
+import net.solarnetwork.node.reactor.InstructionHandler;
+import net.solarnetwork.node.reactor.InstructionStatus.InstructionState;
+import net.solarnetwork.ocpp.domain.Authorization;
+
+/**
+ * Bulk import and export of {@link Authorization} lists, in CSV or JSON form.
+ * 
+ * <p>
+ * Lists are streamed, so large lists are never fully held in memory. Imported
+ * authorizations are matched by token: existing tokens are updated and new
+ * tokens are inserted. They are saved in batches of {@code transactionSize},
+ * each in its own transaction, via
+ * {@link BulkAuthorizationDao#saveAuthorizations(List)}. Rows without a valid
+ * token are skipped.
+ * </p>
+ * 
+ * <p>
+ * The CSV form has the columns {@literal token}, {@literal enabled},
+ * {@literal expires}, and {@literal parentId}, with an optional header row.
+ * The JSON form is an array of objects with the same property names. Expiry
+ * dates are ISO 8601 instants, like {@literal 2026-01-01T00:00:00Z}. An empty
+ * {@literal enabled} value is treated as {@literal true}.
+ * </p>
+ * 
+ * <p>
+ * This service also handles the {@link #TOPIC_IMPORT_AUTHORIZATIONS} and
+ * {@link #TOPIC_EXPORT_AUTHORIZATIONS} instructions. Both accept a
+ * {@link #PARAM_PATH} file path parameter and an optional
+ * {@link #PARAM_FORMAT} parameter ({@literal csv} or {@literal json},
+ * otherwise taken from the file extension). The import instruction can
+ * provide the list directly in a {@link #PARAM_DATA} parameter instead of a
+ * path.
+ * </p>
+ * 
+ * <p>
+ * Instruction paths must be relative paths within the configured
+ * {@code directory}; absolute paths and paths containing {@literal ..} are
+ * declined. The export instruction does not replace an existing file unless
+ * the {@link #PARAM_OVERWRITE} parameter is {@literal true}. An instruction is
+ * also declined if saving a batch fails, in which case only the batches saved
+ * before the failure remain committed.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class AuthorizationListService implements InstructionHandler {
+
+	/** The instruction topic for importing authorizations. */
+	public static final String TOPIC_IMPORT_AUTHORIZATIONS = "ImportOcppAuthorizations";
+
+	/** The instruction topic for exporting authorizations. */
+	public static final String TOPIC_EXPORT_AUTHORIZATIONS = "ExportOcppAuthorizations";
+
+	/** The instruction parameter for a file path. */
+	public static final String PARAM_PATH = "path";
+
+	/** The instruction parameter for the list format. */
+	public static final String PARAM_FORMAT = "format";
+
+	/** The instruction parameter for inline list data. */
+	public static final String PARAM_DATA = "data";
+
+	/**
+	 * The instruction parameter to allow an export to replace an existing
+	 * file.
+	 */
+	public static final String PARAM_OVERWRITE = "overwrite";
+
+	/**
+	 * The default {@code directory} value.
+	 */
+	public static final String DEFAULT_DIRECTORY = "var/ocpp-auth";
+
+	/** The default {@code transactionSize} value. */
+	public static final int DEFAULT_TRANSACTION_SIZE = 2000;
+
+	/** The maximum token length. */
+	public static final int MAX_TOKEN_LENGTH = 20;
+
+	/** The list formats. */
+	public enum Format {
+
+		/** Comma separated values. */
+		Csv,
+
+		/** A JSON array of objects. */
+		Json;
+
+		/**
+		 * Get a format for a name or file name.
+		 * 
+		 * @param format
+		 *        the format name, or {@literal null}
+		 * @param fileName
+		 *        the file name to use the extension of if {@code format} is
+		 *        not provided, or {@literal null}
+		 * @return the format, defaulting to {@link #Csv}
+		 */
+		public static Format forName(String format, String fileName) {
+			String f = (format != null ? format.trim().toLowerCase(Locale.ENGLISH) : "");
+			if ( f.isEmpty() && fileName != null ) {
+				f = fileName.toLowerCase(Locale.ENGLISH).endsWith(".json") ? "json" : "csv";
+			}
+			return ("json".equals(f) ? Json : Csv);
+		}
+
+	}
+
+	private static final String[] CSV_HEADER = new String[] { "token", "enabled", "expires",
+			"parentId" };
+
+	private static final OpenOption[] CREATE_NEW_OPTIONS = new OpenOption[] {
+			StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE };
+
+	private static final OpenOption[] OVERWRITE_OPTIONS = new OpenOption[] {
+			StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE };
+
+	private static final Logger log = LoggerFactory.getLogger(AuthorizationListService.class);
+
+	private final BulkAuthorizationDao authorizationDao;
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private TransactionTemplate transactionTemplate;
+	private int transactionSize = DEFAULT_TRANSACTION_SIZE;
+	private String directory = DEFAULT_DIRECTORY;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param authorizationDao
+	 *        the DAO to use
+	 * @throws IllegalArgumentException
+	 *         if {@code authorizationDao} is {@literal null}
+	 */
+	public AuthorizationListService(BulkAuthorizationDao authorizationDao) {
+		super();
+		if ( authorizationDao == null ) {
+			throw new IllegalArgumentException("The authorizationDao parameter must not be null.");
+		}
+		this.authorizationDao = authorizationDao;
+	}
+
+	@Override
+	public boolean handlesTopic(String topic) {
+		return TOPIC_IMPORT_AUTHORIZATIONS.equals(topic)
+				|| TOPIC_EXPORT_AUTHORIZATIONS.equals(topic);
+	}
+
+	@Override
+	public InstructionState processInstruction(Instruction instruction) {
+		if ( instruction == null || !handlesTopic(instruction.getTopic()) ) {
+			return null;
+		}
+		final String path = instruction.getParameterValue(PARAM_PATH);
+		final Format format = Format.forName(instruction.getParameterValue(PARAM_FORMAT), path);
+		try {
+			if ( TOPIC_IMPORT_AUTHORIZATIONS.equals(instruction.getTopic()) ) {
+				final String data = instruction.getParameterValue(PARAM_DATA);
+				if ( data != null ) {
+					importAuthorizations(new StringReader(data), format);
+				} else if ( path != null ) {
+					try (Reader in = Files.newBufferedReader(resolvePath(path),
+							StandardCharsets.UTF_8)) {
+						importAuthorizations(in, format);
+					}
+				} else {
+					log.warn("Declining {} instruction without {} or {} parameter",
+							instruction.getTopic(), PARAM_PATH, PARAM_DATA);
+					return InstructionState.Declined;
+				}
+			} else {
+				if ( path == null ) {
+					log.warn("Declining {} instruction without {} parameter",
+							instruction.getTopic(), PARAM_PATH);
+					return InstructionState.Declined;
+				}
+				final Path file = resolvePath(path);
+				final boolean overwrite = Boolean
+						.parseBoolean(instruction.getParameterValue(PARAM_OVERWRITE));
+				final OpenOption[] opts = (overwrite ? OVERWRITE_OPTIONS : CREATE_NEW_OPTIONS);
+				Files.createDirectories(file.getParent());
+				try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, opts)) {
+					exportAuthorizations(out, format);
+				}
+			}
+		} catch ( FileAlreadyExistsException e ) {
+			log.warn("Declining {} instruction: file [{}] exists and {} not requested",
+					instruction.getTopic(), path, PARAM_OVERWRITE);
+			return InstructionState.Declined;
+		} catch ( IOException | UncheckedIOException | IllegalArgumentException
+				| DataAccessException e ) {
+			log.error("Error processing {} instruction: {}", instruction.getTopic(), e.toString());
+			return InstructionState.Declined;
+		}
+		return InstructionState.Completed;
+	}
+
+	/**
+	 * Resolve an instruction path within the configured directory.
+	 * 
+	 * @param path
+	 *        the path to resolve
+	 * @return the resolved path
+	 * @throws IllegalArgumentException
+	 *         if no directory is configured or {@code path} is absolute,
+	 *         contains {@literal ..}, or otherwise resolves to a file outside
+	 *         the directory
+	 */
+	private Path resolvePath(String path) {
+		final String dirName = (directory != null ? directory.trim() : "");
+		if ( dirName.isEmpty() ) {
+			throw new IllegalArgumentException("No authorization list directory configured.");
+		}
+		final Path p = Paths.get(path);
+		if ( p.isAbsolute() || p.getRoot() != null ) {
+			throw new IllegalArgumentException("Path [" + path + "] must be relative.");
+		}
+		for ( Path name : p ) {
+			if ( "..".equals(name.toString()) ) {
+				throw new IllegalArgumentException("Path [" + path + "] must not contain '..'.");
+			}
+		}
+		final Path dir = Paths.get(dirName).toAbsolutePath().normalize();
+		final Path result = dir.resolve(p).normalize();
+		if ( !result.startsWith(dir) || result.equals(dir) ) {
+			throw new IllegalArgumentException(
+					"Path [" + path + "] must be a file within the list directory.");
+		}
+		return result;
+	}
+
+	/**
+	 * Import a list of authorizations.
+	 * 
+	 * @param in
+	 *        the list to import
+	 * @param format
+	 *        the list format
+	 * @return the number of authorizations saved
+	 * @throws IOException
+	 *         if any IO error occurs
+	 * @throws IllegalArgumentException
+	 *         if the JSON form is not an array of objects
+	 * @throws DataAccessException
+	 *         if saving a batch fails; the batches saved before the failure
+	 *         remain committed
+	 */
+	public int importAuthorizations(Reader in, Format format) throws IOException {
+		final long start = System.currentTimeMillis();
+		final BatchSaver saver = new BatchSaver();
+		try {
+			if ( format == Format.Json ) {
+				importJson(in, saver);
+			} else {
+				importCsv(in, saver);
+			}
+			saver.flush();
+		} catch ( DataAccessException e ) {
+			log.error("Error saving OCPP authorizations; {} committed before the failure: {}",
+					saver.total, e.toString());
+			throw e;
+		}
+		log.info("Imported {} OCPP authorizations in {}ms ({} skipped)", saver.total,
+				System.currentTimeMillis() - start, saver.skipped);
+		return saver.total;
+	}
+
+	/**
+	 * Export all authorizations.
+	 * 
+	 * @param out
+	 *        the destination to write to; it is not closed
+	 * @param format
+	 *        the list format
+	 * @return the number of authorizations exported
+	 * @throws IOException
+	 *         if any IO error occurs
+	 */
+	public int exportAuthorizations(Writer out, Format format) throws IOException {
+		final int count;
+		try {
+			if ( format == Format.Json ) {
+				count = exportJson(out);
+			} else {
+				count = exportCsv(out);
+			}
+		} catch ( UncheckedIOException e ) {
+			throw e.getCause();
+		}
+		out.flush();
+		log.info("Exported {} OCPP authorizations", count);
+		return count;
+	}
+
+	private final class BatchSaver {
+
+		private final int max = (transactionSize > 0 ? transactionSize : DEFAULT_TRANSACTION_SIZE);
+		private List<Authorization> batch = new ArrayList<>(max);
+		private int total;
+		private int skipped;
+
+		private void add(String token, String enabled, String expires, String parentId) {
+			token = (token != null ? token.trim() : "");
+			if ( token.isEmpty() || token.length() > MAX_TOKEN_LENGTH ) {
+				skipped++;
+				return;
+			}
+			Authorization auth = new Authorization(null, null);
+			auth.setToken(token);
+			auth.setEnabled(enabled == null || enabled.trim().isEmpty()
+					|| Boolean.parseBoolean(enabled.trim()));
+			try {
+				auth.setExpiryDate(expires != null && !expires.trim().isEmpty()
+						? Instant.parse(expires.trim())
+						: null);
+			} catch ( DateTimeParseException e ) {
+				log.debug("Skipping OCPP authorization {} with invalid expiry date [{}]", token,
+						expires);
+				skipped++;
+				return;
+			}
+			parentId = (parentId != null ? parentId.trim() : "");
+			auth.setParentId(parentId.isEmpty() || parentId.length() > MAX_TOKEN_LENGTH ? null
+					: parentId);
+			batch.add(auth);
+			if ( batch.size() >= max ) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			if ( batch.isEmpty() ) {
+				return;
+			}
+			final List<Authorization> list = batch;
+			batch = new ArrayList<>(max);
+			final TransactionTemplate tt = transactionTemplate;
+			if ( tt != null ) {
+				tt.execute(status -> authorizationDao.saveAuthorizations(list));
+			} else {
+				authorizationDao.saveAuthorizations(list);
+			}
+			total += list.size();
+		}
+
+	}
+
+	private void importCsv(Reader in, BatchSaver saver) throws IOException {
+		BufferedReader r = (in instanceof BufferedReader ? (BufferedReader) in
+				: new BufferedReader(in));
+		List<String> row = new ArrayList<>(CSV_HEADER.length);
+		boolean first = true;
+		String line;
+		while ( (line = r.readLine()) != null ) {
+			if ( line.trim().isEmpty() ) {
+				continue;
+			}
+			parseCsvLine(line, row);
+			if ( first ) {
+				first = false;
+				if ( CSV_HEADER[0].equalsIgnoreCase(row.get(0).trim()) ) {
+					continue;
+				}
+			}
+			saver.add(row.get(0), csvColumn(row, 1), csvColumn(row, 2), csvColumn(row, 3));
+		}
+	}
+
+	private static String csvColumn(List<String> row, int idx) {
+		return (idx < row.size() ? row.get(idx) : null);
+	}
+
+	private static void parseCsvLine(String line, List<String> row) {
+		row.clear();
+		StringBuilder buf = new StringBuilder();
+		boolean quoted = false;
+		for ( int i = 0, len = line.length(); i < len; i++ ) {
+			char c = line.charAt(i);
+			if ( quoted ) {
+				if ( c == '"' ) {
+					if ( i + 1 < len && line.charAt(i + 1) == '"' ) {
+						buf.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					buf.append(c);
+				}
+			} else if ( c == '"' ) {
+				quoted = true;
+			} else if ( c == ',' ) {
+				row.add(buf.toString());
+				buf.setLength(0);
+			} else {
+				buf.append(c);
+			}
+		}
+		row.add(buf.toString());
+	}
+
+	private void importJson(Reader in, BatchSaver saver) throws IOException {
+		try (JsonParser p = jsonFactory.createParser(in)) {
+			if ( p.nextToken() != JsonToken.START_ARRAY ) {
+				throw new IllegalArgumentException("JSON authorization list must be an array.");
+			}
+			JsonToken t;
+			while ( (t = p.nextToken()) != JsonToken.END_ARRAY ) {
+				if ( t != JsonToken.START_OBJECT ) {
+					throw new IllegalArgumentException(
+							"JSON authorization list must contain only objects.");
+				}
+				String token = null;
+				String enabled = null;
+				String expires = null;
+				String parentId = null;
+				while ( p.nextToken() == JsonToken.FIELD_NAME ) {
+					String field = p.getCurrentName();
+					JsonToken v = p.nextToken();
+					if ( v == JsonToken.START_OBJECT || v == JsonToken.START_ARRAY ) {
+						p.skipChildren();
+						continue;
+					}
+					String value = (v == JsonToken.VALUE_NULL ? null : p.getText());
+					if ( "token".equals(field) ) {
+						token = value;
+					} else if ( "enabled".equals(field) ) {
+						enabled = value;
+					} else if ( "expires".equals(field) ) {
+						expires = value;
+					} else if ( "parentId".equals(field) ) {
+						parentId = value;
+					}
+				}
+				saver.add(token, enabled, expires, parentId);
+			}
+		}
+	}
+
+	private int exportCsv(Writer out) throws IOException {
+		out.write(String.join(",", CSV_HEADER));
+		out.write('\n');
+		return authorizationDao.processAuthorizations(auth -> {
+			try {
+				out.write(csvValue(auth.getToken()));
+				out.write(',');
+				out.write(String.valueOf(auth.isEnabled()));
+				out.write(',');
+				if ( auth.getExpiryDate() != null ) {
+					out.write(auth.getExpiryDate().toString());
+				}
+				out.write(',');
+				out.write(csvValue(auth.getParentId()));
+				out.write('\n');
+			} catch ( IOException e ) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	private static String csvValue(String s) {
+		if ( s == null ) {
+			return "";
+		}
+		if ( s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0
+				&& s.indexOf('\r') < 0 ) {
+			return s;
+		}
+		return '"' + s.replace("\"", "\"\"") + '"';
+	}
+
+	private int exportJson(Writer out) throws IOException {
+		JsonGenerator g = jsonFactory.createGenerator(out);
+		g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		g.writeStartArray();
+		int count = authorizationDao.processAuthorizations(auth -> {
+			try {
+				g.writeStartObject();
+				g.writeStringField("token", auth.getToken());
+				g.writeBooleanField("enabled", auth.isEnabled());
+				if ( auth.getExpiryDate() != null ) {
+					g.writeStringField("expires", auth.getExpiryDate().toString());
+				}
+				if ( auth.getParentId() != null ) {
+					g.writeStringField("parentId", auth.getParentId());
+				}
+				g.writeEndObject();
+			} catch ( IOException e ) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		g.writeEndArray();
+		g.close();
+		return count;
+	}
+
+	/**
+	 * Get the directory instruction paths are resolved within.
+	 * 
+	 * @return the directory; defaults to {@link #DEFAULT_DIRECTORY}
+	 */
+	public String getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Set the directory instruction paths are resolved within.
+	 * 
+	 * <p>
+	 * If {@literal null} or empty, instructions with a {@link #PARAM_PATH}
+	 * parameter are declined.
+	 * </p>
+	 * 
+	 * @param directory
+	 *        the directory to set
+	 */
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Set a transaction template to save each batch of authorizations within.
+	 * 
+	 * @param transactionTemplate
+	 *        the template to use
+	 */
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	/**
+	 * Get the maximum number of authorizations to save per transaction.
+	 * 
+	 * @return the transaction size; defaults to
+	 *         {@link #DEFAULT_TRANSACTION_SIZE}
+	 */
+	public int getTransactionSize() {
+		return transactionSize;
+	}
+
+	/**
+	 * Set the maximum number of authorizations to save per transaction.
+	 * 
+	 * @param transactionSize
+	 *        the transaction size to set
+	 */
+	public void setTransactionSize(int transactionSize) {
+		this.transactionSize = transactionSize;
+	}
+
+}
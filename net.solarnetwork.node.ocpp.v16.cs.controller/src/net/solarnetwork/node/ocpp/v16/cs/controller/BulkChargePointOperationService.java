@@ -0,0 +1,506 @@
+/* ==================================================================
+ * BulkChargePointOperationService.java - 18/10/2026 1:32:08 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.node.ocpp.v16.cs.controller.BulkOperationResult.ChargePointResult;
+import net.solarnetwork.node.reactor.Instruction;
+import net.solarnetwork.node.reactor.InstructionHandler;
+import net.solarnetwork.node.reactor.InstructionStatus.InstructionState;
+import net.solarnetwork.ocpp.domain.BasicActionMessage;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+import ocpp.domain.Action;
+import ocpp.v16.ChargePointAction;
+import ocpp.v16.cp.AvailabilityStatus;
+import ocpp.v16.cp.AvailabilityType;
+import ocpp.v16.cp.ChangeAvailabilityRequest;
+import ocpp.v16.cp.ChangeAvailabilityResponse;
+import ocpp.v16.cp.ChangeConfigurationRequest;
+import ocpp.v16.cp.ChangeConfigurationResponse;
+import ocpp.v16.cp.ConfigurationStatus;
+import ocpp.v16.cp.ResetRequest;
+import ocpp.v16.cp.ResetResponse;
+import ocpp.v16.cp.ResetStatus;
+import ocpp.v16.cp.ResetType;
+
+/**
+ * Send one operation to many charge points at once.
+ * 
+ * <p>
+ * Messages are sent through a {@link ChargePointCallDispatcher}, so they are
+ * queued behind any other message in flight to the same charge point and time
+ * out like any other message. At most {@code maxParallel} charge points are
+ * sent the operation at once; as each one responds (or times out) the next
+ * charge point is sent the operation. No thread waits for the responses, and
+ * a call the dispatcher rejects straight away moves on to the next charge
+ * point without growing the stack.
+ * </p>
+ * 
+ * <p>
+ * This service also handles the {@link #TOPIC_BULK_OPERATION} instruction,
+ * for the {@literal ChangeConfiguration}, {@literal ChangeAvailability}, and
+ * {@literal Reset} actions, given in the {@link #PARAM_ACTION} parameter. The
+ * charge points are given as a comma-delimited list of identifiers in the
+ * {@link #PARAM_CHARGE_POINTS} parameter, or all connected charge points if
+ * that is omitted. The other parameters are:
+ * </p>
+ * 
+ * <dl>
+ * <dt>ChangeConfiguration</dt>
+ * <dd>{@link #PARAM_KEY} and {@link #PARAM_VALUE}</dd>
+ * <dt>ChangeAvailability</dt>
+ * <dd>{@link #PARAM_CONNECTOR_ID} (defaults to {@literal 0}) and
+ * {@link #PARAM_TYPE} ({@literal Operative} or {@literal Inoperative})</dd>
+ * <dt>Reset</dt>
+ * <dd>{@link #PARAM_TYPE} ({@literal Soft} or {@literal Hard})</dd>
+ * </dl>
+ * 
+ * <p>
+ * The instruction is completed if all charge points accept the operation
+ * within {@code instructionTimeoutSeconds}, otherwise it is declined. A charge
+ * point accepts the operation when it responds without error and with an
+ * {@literal Accepted} status, or the {@literal RebootRequired} or
+ * {@literal Scheduled} status for the configuration and availability changes;
+ * a {@literal Rejected} or {@literal NotSupported} status is a failure.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class BulkChargePointOperationService implements InstructionHandler {
+
+	/** The instruction topic for a bulk operation. */
+	public static final String TOPIC_BULK_OPERATION = "OcppBulkOperation";
+
+	/** The instruction parameter for the action name. */
+	public static final String PARAM_ACTION = "action";
+
+	/** The instruction parameter for the charge point identifiers. */
+	public static final String PARAM_CHARGE_POINTS = "chargePoints";
+
+	/** The instruction parameter for a configuration key. */
+	public static final String PARAM_KEY = "key";
+
+	/** The instruction parameter for a configuration value. */
+	public static final String PARAM_VALUE = "value";
+
+	/** The instruction parameter for a connector ID. */
+	public static final String PARAM_CONNECTOR_ID = "connectorId";
+
+	/** The instruction parameter for an availability or reset type. */
+	public static final String PARAM_TYPE = "type";
+
+	/** The default {@code maxParallel} value. */
+	public static final int DEFAULT_MAX_PARALLEL = 50;
+
+	/** The default {@code instructionTimeoutSeconds} value. */
+	public static final int DEFAULT_INSTRUCTION_TIMEOUT_SECONDS = 300;
+
+	private static final Logger log = LoggerFactory
+			.getLogger(BulkChargePointOperationService.class);
+
+	private final ChargePointRouter chargePointRouter;
+	private final ChargePointCallDispatcher callDispatcher;
+	private int maxParallel = DEFAULT_MAX_PARALLEL;
+	private int instructionTimeoutSeconds = DEFAULT_INSTRUCTION_TIMEOUT_SECONDS;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargePointRouter
+	 *        the router to find connected charge points with
+	 * @param callDispatcher
+	 *        the dispatcher to send messages with
+	 * @throws IllegalArgumentException
+	 *         if any parameter is {@literal null}
+	 */
+	public BulkChargePointOperationService(ChargePointRouter chargePointRouter,
+			ChargePointCallDispatcher callDispatcher) {
+		super();
+		if ( chargePointRouter == null ) {
+			throw new IllegalArgumentException("The chargePointRouter parameter must not be null.");
+		}
+		this.chargePointRouter = chargePointRouter;
+		if ( callDispatcher == null ) {
+			throw new IllegalArgumentException("The callDispatcher parameter must not be null.");
+		}
+		this.callDispatcher = callDispatcher;
+	}
+
+	/**
+	 * Get the connected charge points matching a selector.
+	 * 
+	 * @param selector
+	 *        the selector, or {@literal null} for all connected charge points
+	 * @return the matching charge points, ordered by identifier
+	 */
+	public List<ChargePointIdentity> select(Predicate<ChargePointIdentity> selector) {
+		Set<ChargePointIdentity> available = chargePointRouter.availableChargePointsIds();
+		if ( available == null || available.isEmpty() ) {
+			return new ArrayList<>();
+		}
+		return available.stream().filter(id -> selector == null || selector.test(id))
+				.sorted(Comparator.comparing(ChargePointIdentity::getIdentifier,
+						Comparator.nullsFirst(Comparator.naturalOrder())))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Send an operation to all connected charge points matching a selector.
+	 * 
+	 * @param <T>
+	 *        the message type
+	 * @param <R>
+	 *        the result type
+	 * @param selector
+	 *        the selector, or {@literal null} for all connected charge points
+	 * @param action
+	 *        the action to send
+	 * @param payload
+	 *        the message payload to send to each charge point
+	 * @return a future for the aggregated result
+	 * @see #select(Predicate)
+	 */
+	public <T, R> CompletableFuture<BulkOperationResult<R>> execute(
+			Predicate<ChargePointIdentity> selector, Action action, T payload) {
+		return execute(select(selector), action, payload);
+	}
+
+	/**
+	 * Send an operation to a set of charge points.
+	 * 
+	 * @param <T>
+	 *        the message type
+	 * @param <R>
+	 *        the result type
+	 * @param chargePoints
+	 *        the charge points to send the operation to; duplicates are
+	 *        ignored
+	 * @param action
+	 *        the action to send
+	 * @param payload
+	 *        the message payload to send to each charge point
+	 * @return a future for the aggregated result
+	 * @throws IllegalArgumentException
+	 *         if {@code action} is {@literal null}
+	 */
+	public <T, R> CompletableFuture<BulkOperationResult<R>> execute(
+			Collection<ChargePointIdentity> chargePoints, Action action, T payload) {
+		if ( action == null ) {
+			throw new IllegalArgumentException("The action parameter must not be null.");
+		}
+		List<ChargePointIdentity> targets = (chargePoints != null
+				? new ArrayList<>(new LinkedHashSet<>(chargePoints))
+				: new ArrayList<>());
+		Operation<T, R> op = new Operation<>(targets, action, payload);
+		op.start();
+		return op.future;
+	}
+
+	private final class Operation<T, R> {
+
+		private final List<ChargePointIdentity> targets;
+		private final Action action;
+		private final T payload;
+		private final AtomicReferenceArray<ChargePointResult<R>> results;
+		private final AtomicInteger next = new AtomicInteger(0);
+		private final AtomicInteger sendsRequested = new AtomicInteger(0);
+		private final AtomicInteger remaining;
+		private final CompletableFuture<BulkOperationResult<R>> future = new CompletableFuture<>();
+		private final long startTime = System.currentTimeMillis();
+
+		private Operation(List<ChargePointIdentity> targets, Action action, T payload) {
+			super();
+			this.targets = targets;
+			this.action = action;
+			this.payload = payload;
+			this.results = new AtomicReferenceArray<>(targets.size());
+			this.remaining = new AtomicInteger(targets.size());
+		}
+
+		private void start() {
+			final int count = targets.size();
+			if ( count < 1 ) {
+				finish();
+				return;
+			}
+			log.info("Sending {} to {} charge points", action, count);
+			final int max = maxParallel;
+			final int parallel = (max < 1 ? count : Math.min(max, count));
+			for ( int i = 0; i < parallel; i++ ) {
+				requestSend();
+			}
+		}
+
+		/**
+		 * Send to the next charge point, or leave it to the thread already
+		 * sending.
+		 * 
+		 * <p>
+		 * The {@link ChargePointCallDispatcher} may call the result handler
+		 * before {@code send()} returns, for example when the call is
+		 * rejected, so rather than recursing the handler only counts the
+		 * request and the thread in this loop sends it.
+		 * </p>
+		 */
+		private void requestSend() {
+			if ( sendsRequested.getAndIncrement() != 0 ) {
+				return;
+			}
+			do {
+				sendNext();
+			} while ( sendsRequested.decrementAndGet() != 0 );
+		}
+
+		private void sendNext() {
+			final int idx = next.getAndIncrement();
+			if ( idx >= targets.size() ) {
+				return;
+			}
+			final ChargePointIdentity identity = targets.get(idx);
+			final long sent = System.currentTimeMillis();
+			callDispatcher.send(new BasicActionMessage<T>(identity, UUID.randomUUID().toString(),
+					action, payload), (msg, res, err) -> {
+						results.set(idx, new ChargePointResult<R>(identity, res, err, sent,
+								System.currentTimeMillis() - sent));
+						if ( err != null ) {
+							log.warn("Error sending {} to charge point {}: {}", action, identity,
+									err.getMessage());
+						}
+						if ( remaining.decrementAndGet() == 0 ) {
+							finish();
+						} else {
+							requestSend();
+						}
+						return true;
+					});
+		}
+
+		private void finish() {
+			final int count = targets.size();
+			List<ChargePointResult<R>> list = new ArrayList<>(count);
+			for ( int i = 0; i < count; i++ ) {
+				list.add(results.get(i));
+			}
+			BulkOperationResult<R> result = new BulkOperationResult<>(action, list, startTime,
+					System.currentTimeMillis() - startTime);
+			log.info("Sent {} to {} charge points in {}ms: {} succeeded, {} failed", action, count,
+					result.getDuration(), result.getSuccessCount(), result.getErrorCount());
+			future.complete(result);
+		}
+
+	}
+
+	@Override
+	public boolean handlesTopic(String topic) {
+		return TOPIC_BULK_OPERATION.equals(topic);
+	}
+
+	@Override
+	public InstructionState processInstruction(Instruction instruction) {
+		if ( instruction == null || !handlesTopic(instruction.getTopic()) ) {
+			return null;
+		}
+		final String actionName = instruction.getParameterValue(PARAM_ACTION);
+		final Object payload;
+		try {
+			payload = payload(actionName, instruction);
+		} catch ( IllegalArgumentException e ) {
+			log.warn("Declining {} instruction: {}", instruction.getTopic(), e.getMessage());
+			return InstructionState.Declined;
+		}
+		final List<ChargePointIdentity> targets;
+		final String ids = instruction.getParameterValue(PARAM_CHARGE_POINTS);
+		if ( ids != null && !ids.trim().isEmpty() ) {
+			Set<String> identifiers = new HashSet<>();
+			for ( String id : ids.split("\\s*,\\s*") ) {
+				if ( !id.trim().isEmpty() ) {
+					identifiers.add(id.trim());
+				}
+			}
+			targets = select(id -> identifiers.contains(id.getIdentifier()));
+			if ( targets.size() < identifiers.size() ) {
+				Set<String> missing = new HashSet<>(identifiers);
+				for ( ChargePointIdentity id : targets ) {
+					missing.remove(id.getIdentifier());
+				}
+				log.warn("Charge points {} not connected; {} not sent to them", missing,
+						actionName);
+			}
+		} else {
+			targets = select(null);
+		}
+		if ( targets.isEmpty() ) {
+			log.warn("Declining {} instruction: no connected charge points selected",
+					instruction.getTopic());
+			return InstructionState.Declined;
+		}
+		try {
+			BulkOperationResult<Object> result = execute(targets,
+					ChargePointAction.valueOf(actionName), payload)
+							.get(instructionTimeoutSeconds, TimeUnit.SECONDS);
+			int failed = 0;
+			for ( ChargePointResult<Object> r : result.getResults() ) {
+				if ( !r.isSuccess() ) {
+					failed++;
+				} else if ( !isAccepted(r.getResult()) ) {
+					log.warn("Charge point {} did not accept {}: {}", r.getIdentity(), actionName,
+							r.getResult());
+					failed++;
+				}
+			}
+			return (failed == 0 ? InstructionState.Completed : InstructionState.Declined);
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			return InstructionState.Declined;
+		} catch ( ExecutionException | TimeoutException e ) {
+			log.error("Error waiting for {} to be sent to {} charge points: {}", actionName,
+					targets.size(), e.toString());
+			return InstructionState.Declined;
+		}
+	}
+
+	private static boolean isAccepted(Object result) {
+		if ( result instanceof ChangeConfigurationResponse ) {
+			ConfigurationStatus status = ((ChangeConfigurationResponse) result).getStatus();
+			return (status == ConfigurationStatus.ACCEPTED
+					|| status == ConfigurationStatus.REBOOT_REQUIRED);
+		} else if ( result instanceof ChangeAvailabilityResponse ) {
+			AvailabilityStatus status = ((ChangeAvailabilityResponse) result).getStatus();
+			return (status == AvailabilityStatus.ACCEPTED
+					|| status == AvailabilityStatus.SCHEDULED);
+		} else if ( result instanceof ResetResponse ) {
+			return ((ResetResponse) result).getStatus() == ResetStatus.ACCEPTED;
+		}
+		return false;
+	}
+
+	private static Object payload(String action, Instruction instruction) {
+		if ( ChargePointAction.ChangeConfiguration.name().equals(action) ) {
+			String key = instruction.getParameterValue(PARAM_KEY);
+			if ( key == null || key.isEmpty() ) {
+				throw new IllegalArgumentException("Missing " + PARAM_KEY + " parameter.");
+			}
+			ChangeConfigurationRequest req = new ChangeConfigurationRequest();
+			req.setKey(key);
+			req.setValue(instruction.getParameterValue(PARAM_VALUE));
+			return req;
+		} else if ( ChargePointAction.ChangeAvailability.name().equals(action) ) {
+			ChangeAvailabilityRequest req = new ChangeAvailabilityRequest();
+			String connectorId = instruction.getParameterValue(PARAM_CONNECTOR_ID);
+			try {
+				req.setConnectorId(connectorId != null ? Integer.parseInt(connectorId) : 0);
+			} catch ( NumberFormatException e ) {
+				throw new IllegalArgumentException(
+						"Invalid " + PARAM_CONNECTOR_ID + " parameter [" + connectorId + "].");
+			}
+			req.setType(
+					enumValue(AvailabilityType.class, instruction.getParameterValue(PARAM_TYPE)));
+			return req;
+		} else if ( ChargePointAction.Reset.name().equals(action) ) {
+			ResetRequest req = new ResetRequest();
+			req.setType(enumValue(ResetType.class, instruction.getParameterValue(PARAM_TYPE)));
+			return req;
+		}
+		throw new IllegalArgumentException("Unsupported " + PARAM_ACTION + " parameter [" + action
+				+ "]; must be one of " + Arrays.asList(ChargePointAction.ChangeConfiguration,
+						ChargePointAction.ChangeAvailability, ChargePointAction.Reset)
+				+ ".");
+	}
+
+	private static <E extends Enum<E>> E enumValue(Class<E> type, String value) {
+		if ( value == null ) {
+			throw new IllegalArgumentException("Missing " + PARAM_TYPE + " parameter.");
+		}
+		try {
+			return Enum.valueOf(type, value.trim().toUpperCase(Locale.ENGLISH));
+		} catch ( IllegalArgumentException e ) {
+			throw new IllegalArgumentException(
+					"Invalid " + PARAM_TYPE + " parameter [" + value + "].");
+		}
+	}
+
+	/**
+	 * Get the maximum number of charge points to send an operation to at
+	 * once.
+	 * 
+	 * @return the maximum; defaults to {@link #DEFAULT_MAX_PARALLEL}
+	 */
+	public int getMaxParallel() {
+		return maxParallel;
+	}
+
+	/**
+	 * Set the maximum number of charge points to send an operation to at
+	 * once.
+	 * 
+	 * @param maxParallel
+	 *        the maximum to set, or {@literal 0} for no limit
+	 */
+	public void setMaxParallel(int maxParallel) {
+		this.maxParallel = maxParallel;
+	}
+
+	/**
+	 * Get the maximum time to wait for a bulk operation instruction to
+	 * complete.
+	 * 
+	 * @return the timeout, in seconds; defaults to
+	 *         {@link #DEFAULT_INSTRUCTION_TIMEOUT_SECONDS}
+	 */
+	public int getInstructionTimeoutSeconds() {
+		return instructionTimeoutSeconds;
+	}
+
+	/**
+	 * Set the maximum time to wait for a bulk operation instruction to
+	 * complete.
+	 * 
+	 * @param instructionTimeoutSeconds
+	 *        the timeout to set, in seconds
+	 */
+	public void setInstructionTimeoutSeconds(int instructionTimeoutSeconds) {
+		this.instructionTimeoutSeconds = instructionTimeoutSeconds;
+	}
+
+}
@@ -0,0 +1,273 @@
+/* ==================================================================
+ * BulkOperationResult.java - 18/10/2026 1:14:52 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.util.Collections;
+import java.util.List;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import ocpp.domain.Action;
+
+/**
+ * The aggregated result of an operation sent to many charge points.
+ * 
+ * @param <R>
+ *        the charge point result type
+ * @author matt
+ * @version 1.0
+ */
+public class BulkOperationResult<R> {
+
+	/**
+	 * The result of an operation for one charge point.
+	 * 
+	 * @param <R>
+	 *        the result type
+	 */
+	public static class ChargePointResult<R> {
+
+		private final ChargePointIdentity identity;
+		private final R result;
+		private final Throwable error;
+		private final long startTime;
+		private final long duration;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param identity
+		 *        the charge point identity
+		 * @param result
+		 *        the result, or {@literal null} if there was an error
+		 * @param error
+		 *        the error, or {@literal null} if successful
+		 * @param startTime
+		 *        the time the operation was sent, in milliseconds since the
+		 *        epoch
+		 * @param duration
+		 *        the time taken to receive the result, in milliseconds
+		 */
+		public ChargePointResult(ChargePointIdentity identity, R result, Throwable error,
+				long startTime, long duration) {
+			super();
+			this.identity = identity;
+			this.result = result;
+			this.error = error;
+			this.startTime = startTime;
+			this.duration = duration;
+		}
+
+		/**
+		 * Get the charge point identity.
+		 * 
+		 * @return the identity
+		 */
+		public ChargePointIdentity getIdentity() {
+			return identity;
+		}
+
+		/**
+		 * Get the result.
+		 * 
+		 * @return the result, or {@literal null} if there was an error
+		 */
+		public R getResult() {
+			return result;
+		}
+
+		/**
+		 * Get the error.
+		 * 
+		 * @return the error, or {@literal null} if successful
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * Test if the operation was successful.
+		 * 
+		 * @return {@literal true} if there was no error
+		 */
+		public boolean isSuccess() {
+			return error == null;
+		}
+
+		/**
+		 * Get the time the operation was sent.
+		 * 
+		 * @return the start time, in milliseconds since the epoch
+		 */
+		public long getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * Get the time taken to receive the result.
+		 * 
+		 * @return the duration, in milliseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append("ChargePointResult{identity=");
+			builder.append(identity);
+			builder.append(", ");
+			if ( error != null ) {
+				builder.append("error=");
+				builder.append(error.getMessage());
+			} else {
+				builder.append("result=");
+				builder.append(result);
+			}
+			builder.append(", duration=");
+			builder.append(duration);
+			builder.append("}");
+			return builder.toString();
+		}
+
+	}
+
+	private final Action action;
+	private final List<ChargePointResult<R>> results;
+	private final long startTime;
+	private final long duration;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param action
+	 *        the action
+	 * @param results
+	 *        the charge point results
+	 * @param startTime
+	 *        the time the operation started, in milliseconds since the epoch
+	 * @param duration
+	 *        the time taken for all charge points to complete, in
+	 *        milliseconds
+	 */
+	public BulkOperationResult(Action action, List<ChargePointResult<R>> results, long startTime,
+			long duration) {
+		super();
+		this.action = action;
+		this.results = (results != null ? Collections.unmodifiableList(results)
+				: Collections.emptyList());
+		this.startTime = startTime;
+		this.duration = duration;
+	}
+
+	/**
+	 * Get the action.
+	 * 
+	 * @return the action
+	 */
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * Get the charge point results, in the order the charge points were
+	 * selected.
+	 * 
+	 * @return the results, never {@literal null}
+	 */
+	public List<ChargePointResult<R>> getResults() {
+		return results;
+	}
+
+	/**
+	 * Get the time the operation started.
+	 * 
+	 * @return the start time, in milliseconds since the epoch
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Get the time taken for all charge points to complete.
+	 * 
+	 * @return the duration, in milliseconds
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Get the number of charge points that completed successfully.
+	 * 
+	 * @return the success count
+	 */
+	public int getSuccessCount() {
+		int count = 0;
+		for ( ChargePointResult<R> r : results ) {
+			if ( r.isSuccess() ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of charge points that completed with an error.
+	 * 
+	 * @return the error count
+	 */
+	public int getErrorCount() {
+		return results.size() - getSuccessCount();
+	}
+
+	/**
+	 * Get the longest time taken by any one charge point.
+	 * 
+	 * @return the maximum duration, in milliseconds
+	 */
+	public long getMaxDuration() {
+		long max = 0;
+		for ( ChargePointResult<R> r : results ) {
+			max = Math.max(max, r.getDuration());
+		}
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BulkOperationResult{action=");
+		builder.append(action);
+		builder.append(", count=");
+		builder.append(results.size());
+		builder.append(", success=");
+		builder.append(getSuccessCount());
+		builder.append(", error=");
+		builder.append(getErrorCount());
+		builder.append(", duration=");
+		builder.append(duration);
+		builder.append("}");
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,406 @@
+/* ==================================================================
+ * ChargePointCallDispatcher.java - 18/10/2026 11:34:52 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.ocpp.domain.ActionMessage;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
+import net.solarnetwork.ocpp.service.ChargePointBroker;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+import ocpp.domain.ErrorCodeException;
+import ocpp.v16.ActionErrorCode;
+
+/**
+ * Dispatch messages to charge points, one at a time per charge point.
+ * 
+ * <p>
+ * OCPP-J allows only one outstanding call per charge point, so each charge
+ * point has its own first-in, first-out queue of up to {@code maxQueueSize}
+ * messages, and the next message is only sent once the previous one has been
+ * answered or has timed out after {@code timeoutSeconds}. Messages are sent on
+ * the configured executor but no thread waits for a response, so a slow
+ * charge point only delays its own messages.
+ * </p>
+ * 
+ * <p>
+ * Messages that cannot be queued or sent, or time out, are passed to their
+ * result handler with an {@link ErrorCodeException}. Responses that arrive
+ * after a message has timed out are ignored.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargePointCallDispatcher {
+
+	/** The default {@code maxQueueSize} value. */
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 32;
+
+	/** The default {@code timeoutSeconds} value. */
+	public static final int DEFAULT_TIMEOUT_SECONDS = 60;
+
+	private static final Logger log = LoggerFactory.getLogger(ChargePointCallDispatcher.class);
+
+	private final ChargePointRouter chargePointRouter;
+	private final Executor executor;
+	private final TaskScheduler taskScheduler;
+	private final ConcurrentMap<ChargePointIdentity, CallQueue> queues = new ConcurrentHashMap<>(16,
+			0.75f, 2);
+	private final AtomicLong completedCount = new AtomicLong(0);
+	private final AtomicLong timeoutCount = new AtomicLong(0);
+	private final AtomicLong rejectedCount = new AtomicLong(0);
+	private final AtomicLong latencyTotal = new AtomicLong(0);
+	private final AtomicLong latencyMax = new AtomicLong(0);
+	private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+	private int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargePointRouter
+	 *        the router to find charge point brokers with
+	 * @param executor
+	 *        the executor to send messages with
+	 * @param taskScheduler
+	 *        the scheduler to time out messages with
+	 * @throws IllegalArgumentException
+	 *         if any parameter is {@literal null}
+	 */
+	public ChargePointCallDispatcher(ChargePointRouter chargePointRouter, Executor executor,
+			TaskScheduler taskScheduler) {
+		super();
+		if ( chargePointRouter == null ) {
+			throw new IllegalArgumentException("The chargePointRouter parameter must not be null.");
+		}
+		this.chargePointRouter = chargePointRouter;
+		if ( executor == null ) {
+			throw new IllegalArgumentException("The executor parameter must not be null.");
+		}
+		this.executor = executor;
+		if ( taskScheduler == null ) {
+			throw new IllegalArgumentException("The taskScheduler parameter must not be null.");
+		}
+		this.taskScheduler = taskScheduler;
+	}
+
+	private static final class CallQueue {
+
+		private final Deque<Call<?, ?>> queue = new ArrayDeque<>(8);
+		private Call<?, ?> inFlight;
+
+	}
+
+	private final class Call<T, R> implements ActionMessageResultHandler<T, R> {
+
+		private final CallQueue owner;
+		private final ActionMessage<T> message;
+		private final ActionMessageResultHandler<T, R> handler;
+		private final AtomicBoolean done = new AtomicBoolean(false);
+		private volatile long sent;
+		private volatile ScheduledFuture<?> timeout;
+
+		private Call(CallQueue owner, ActionMessage<T> message,
+				ActionMessageResultHandler<T, R> handler) {
+			super();
+			this.owner = owner;
+			this.message = message;
+			this.handler = handler;
+		}
+
+		private void send() {
+			final int secs = timeoutSeconds;
+			sent = System.currentTimeMillis();
+			if ( secs > 0 ) {
+				timeout = taskScheduler.schedule(this::timeout, new Date(sent + secs * 1000L));
+			}
+			boolean accepted = false;
+			try {
+				ChargePointBroker broker = chargePointRouter
+						.brokerForChargePoint(message.getClientId());
+				if ( broker != null ) {
+					accepted = broker.sendMessageToChargePoint(message, this);
+				} else {
+					log.warn("No ChargePointBroker available for {}", message.getClientId());
+				}
+			} catch ( RuntimeException e ) {
+				complete(null, e);
+				return;
+			}
+			if ( !accepted ) {
+				complete(null, new ErrorCodeException(ActionErrorCode.GenericError,
+						"Client not available."));
+			}
+		}
+
+		private void timeout() {
+			log.warn("Timeout waiting for {} response from charge point {}", message.getAction(),
+					message.getClientId());
+			if ( complete(null, new ErrorCodeException(ActionErrorCode.GenericError,
+					"Timeout waiting for response.")) ) {
+				timeoutCount.incrementAndGet();
+			}
+		}
+
+		@Override
+		public boolean handleActionMessageResult(ActionMessage<T> msg, R result, Throwable error) {
+			if ( !complete(result, error) ) {
+				log.debug("Ignoring late {} response from charge point {}", message.getAction(),
+						message.getClientId());
+			}
+			return true;
+		}
+
+		private boolean complete(R result, Throwable error) {
+			if ( !done.compareAndSet(false, true) ) {
+				return false;
+			}
+			final ScheduledFuture<?> f = timeout;
+			if ( f != null ) {
+				f.cancel(false);
+			}
+			if ( sent > 0 ) {
+				final long latency = System.currentTimeMillis() - sent;
+				completedCount.incrementAndGet();
+				latencyTotal.addAndGet(latency);
+				latencyMax.accumulateAndGet(latency, Math::max);
+			}
+			try {
+				handler.handleActionMessageResult(message, result, error);
+			} catch ( RuntimeException e ) {
+				log.error("Error handling {} response from charge point {}: {}",
+						message.getAction(), message.getClientId(), e.toString(), e);
+			} finally {
+				synchronized ( owner ) {
+					if ( owner.inFlight == this ) {
+						owner.inFlight = null;
+					}
+				}
+				dispatchNext(owner);
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * Queue a message to send to a charge point.
+	 * 
+	 * @param <T>
+	 *        the message type
+	 * @param <R>
+	 *        the result type
+	 * @param message
+	 *        the message to send; the client ID identifies the charge point
+	 * @param handler
+	 *        the handler for the result
+	 */
+	public <T, R> void send(ActionMessage<T> message, ActionMessageResultHandler<T, R> handler) {
+		final CallQueue q = queues.computeIfAbsent(message.getClientId(), k -> new CallQueue());
+		final Call<T, R> call = new Call<>(q, message, handler);
+		boolean queued = false;
+		synchronized ( q ) {
+			final int max = maxQueueSize;
+			if ( max < 1 || q.queue.size() < max ) {
+				q.queue.addLast(call);
+				queued = true;
+			}
+		}
+		if ( !queued ) {
+			log.warn("Message queue full for charge point {}; dropping {} message",
+					message.getClientId(), message.getAction());
+			rejectedCount.incrementAndGet();
+			call.complete(null, new ErrorCodeException(ActionErrorCode.GenericError,
+					"Too many messages queued for client."));
+			return;
+		}
+		dispatchNext(q);
+	}
+
+	private void dispatchNext(CallQueue q) {
+		final Call<?, ?> next;
+		synchronized ( q ) {
+			if ( q.inFlight != null ) {
+				return;
+			}
+			next = q.queue.pollFirst();
+			if ( next == null ) {
+				return;
+			}
+			q.inFlight = next;
+		}
+		executor.execute(next::send);
+	}
+
+	/**
+	 * Get the number of messages waiting to be sent to a charge point.
+	 * 
+	 * @param identity
+	 *        the charge point identity
+	 * @return the number of queued messages, not including any message
+	 *         awaiting a response
+	 */
+	public int getQueueDepth(ChargePointIdentity identity) {
+		final CallQueue q = queues.get(identity);
+		if ( q == null ) {
+			return 0;
+		}
+		synchronized ( q ) {
+			return q.queue.size();
+		}
+	}
+
+	/**
+	 * Get the number of messages waiting to be sent to all charge points.
+	 * 
+	 * @return the number of queued messages, not including messages awaiting
+	 *         a response
+	 */
+	public int getTotalQueueDepth() {
+		int total = 0;
+		for ( CallQueue q : queues.values() ) {
+			synchronized ( q ) {
+				total += q.queue.size();
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Get the number of messages awaiting a response.
+	 * 
+	 * @return the in-flight count
+	 */
+	public int getInFlightCount() {
+		int total = 0;
+		for ( CallQueue q : queues.values() ) {
+			synchronized ( q ) {
+				if ( q.inFlight != null ) {
+					total++;
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Get the number of messages that have completed, including errors and
+	 * timeouts.
+	 * 
+	 * @return the completed count
+	 */
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * Get the number of messages that timed out.
+	 * 
+	 * @return the timeout count
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * Get the number of messages rejected because a queue was full.
+	 * 
+	 * @return the rejected count
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * Get the average round-trip time of completed messages.
+	 * 
+	 * @return the average latency, in milliseconds
+	 */
+	public long getAverageLatencyMs() {
+		final long count = completedCount.get();
+		return (count > 0 ? latencyTotal.get() / count : 0L);
+	}
+
+	/**
+	 * Get the maximum round-trip time of completed messages.
+	 * 
+	 * @return the maximum latency, in milliseconds
+	 */
+	public long getMaxLatencyMs() {
+		return latencyMax.get();
+	}
+
+	/**
+	 * Get the maximum number of messages to queue per charge point.
+	 * 
+	 * @return the maximum queue size; defaults to
+	 *         {@link #DEFAULT_MAX_QUEUE_SIZE}
+	 */
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	/**
+	 * Set the maximum number of messages to queue per charge point.
+	 * 
+	 * @param maxQueueSize
+	 *        the maximum queue size to set, or {@literal 0} for no limit
+	 */
+	public void setMaxQueueSize(int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	/**
+	 * Get the maximum amount of time to wait for a charge point to respond to
+	 * a message.
+	 * 
+	 * @return the timeout, in seconds; defaults to
+	 *         {@link #DEFAULT_TIMEOUT_SECONDS}
+	 */
+	public int getTimeoutSeconds() {
+		return timeoutSeconds;
+	}
+
+	/**
+	 * Set the maximum amount of time to wait for a charge point to respond to
+	 * a message.
+	 * 
+	 * @param timeoutSeconds
+	 *        the timeout to set, in seconds, or {@literal 0} for no timeout
+	 */
+	public void setTimeoutSeconds(int timeoutSeconds) {
+		this.timeoutSeconds = timeoutSeconds;
+	}
+
+}
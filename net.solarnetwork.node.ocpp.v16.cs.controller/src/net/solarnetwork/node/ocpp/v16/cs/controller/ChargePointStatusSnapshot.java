@@ -0,0 +1,441 @@
+/* ==================================================================
+ * ChargePointStatusSnapshot.java - 18/10/2026 2:48:30 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.solarnetwork.ocpp.dao.ChargePointDao;
+import net.solarnetwork.ocpp.domain.ChargePoint;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.RegistrationStatus;
+import net.solarnetwork.ocpp.service.ChargePointRouter;
+
+/**
+ * An in-memory snapshot of the registration and connection state of all
+ * charge points, for displaying status information.
+ * 
+ * <p>
+ * The snapshot is loaded from {@link ChargePointDao#getAll(List)} the first
+ * time it is used (or after {@link #invalidate()} is called) and is then kept
+ * up to date by {@link #chargePointRegistered(ChargePoint)} and
+ * {@link #connectionChanged(String, boolean)} as events occur. Charge points
+ * that have disconnected are found by comparing the snapshot to the
+ * {@link ChargePointRouter#availableChargePointsIds()} set, which is held in
+ * memory by the router, whenever a page is requested.
+ * </p>
+ * 
+ * <p>
+ * Entries are kept in charge point identifier order and are never modified
+ * after being added, so {@link #page(ConnectionFilter, RegistrationStatus, int,
+ * int)} never blocks and never touches the database once the snapshot is
+ * loaded.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ChargePointStatusSnapshot {
+
+	/** A charge point connection state filter. */
+	public enum ConnectionFilter {
+
+		/** All charge points. */
+		All,
+
+		/** Only connected charge points. */
+		Connected,
+
+		/** Only disconnected charge points. */
+		Disconnected;
+
+		/**
+		 * Get a filter for a name.
+		 * 
+		 * @param name
+		 *        the name, or {@literal null}
+		 * @return the filter, defaulting to {@link #All}
+		 */
+		public static ConnectionFilter forName(String name) {
+			for ( ConnectionFilter f : values() ) {
+				if ( f.name().equalsIgnoreCase(name) ) {
+					return f;
+				}
+			}
+			return All;
+		}
+
+		private boolean matches(boolean connected) {
+			return this == All || (this == Connected) == connected;
+		}
+
+	}
+
+	/** The status of one charge point. */
+	public static final class Entry {
+
+		private final Long chargePointId;
+		private final String identifier;
+		private final boolean enabled;
+		private final RegistrationStatus registrationStatus;
+		private final boolean connected;
+
+		private Entry(Long chargePointId, String identifier, boolean enabled,
+				RegistrationStatus registrationStatus, boolean connected) {
+			super();
+			this.chargePointId = chargePointId;
+			this.identifier = identifier;
+			this.enabled = enabled;
+			this.registrationStatus = (registrationStatus != null ? registrationStatus
+					: RegistrationStatus.Unknown);
+			this.connected = connected;
+		}
+
+		private Entry withConnected(boolean connected) {
+			return new Entry(chargePointId, identifier, enabled, registrationStatus, connected);
+		}
+
+		/**
+		 * Get the charge point ID.
+		 * 
+		 * @return the ID
+		 */
+		public Long getChargePointId() {
+			return chargePointId;
+		}
+
+		/**
+		 * Get the charge point identifier.
+		 * 
+		 * @return the identifier
+		 */
+		public String getIdentifier() {
+			return identifier;
+		}
+
+		/**
+		 * Get the enabled state.
+		 * 
+		 * @return {@literal true} if the charge point is enabled
+		 */
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		/**
+		 * Get the registration status.
+		 * 
+		 * @return the status, never {@literal null}
+		 */
+		public RegistrationStatus getRegistrationStatus() {
+			return registrationStatus;
+		}
+
+		/**
+		 * Get the connected state.
+		 * 
+		 * @return {@literal true} if the charge point is connected
+		 */
+		public boolean isConnected() {
+			return connected;
+		}
+
+	}
+
+	/** A page of charge point status entries. */
+	public static final class Page {
+
+		private final List<Entry> entries;
+		private final int offset;
+		private final int matchCount;
+		private final int totalCount;
+		private final int connectedCount;
+
+		private Page(List<Entry> entries, int offset, int matchCount, int totalCount,
+				int connectedCount) {
+			super();
+			this.entries = Collections.unmodifiableList(entries);
+			this.offset = offset;
+			this.matchCount = matchCount;
+			this.totalCount = totalCount;
+			this.connectedCount = connectedCount;
+		}
+
+		/**
+		 * Get the entries in this page.
+		 * 
+		 * @return the entries, in identifier order
+		 */
+		public List<Entry> getEntries() {
+			return entries;
+		}
+
+		/**
+		 * Get the offset of the first entry in this page within all matching
+		 * entries.
+		 * 
+		 * @return the offset
+		 */
+		public int getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Get the number of entries matching the page filters.
+		 * 
+		 * @return the match count
+		 */
+		public int getMatchCount() {
+			return matchCount;
+		}
+
+		/**
+		 * Get the number of charge points.
+		 * 
+		 * @return the total count
+		 */
+		public int getTotalCount() {
+			return totalCount;
+		}
+
+		/**
+		 * Get the number of connected charge points.
+		 * 
+		 * @return the connected count
+		 */
+		public int getConnectedCount() {
+			return connectedCount;
+		}
+
+	}
+
+	private final ChargePointDao chargePointDao;
+	private final ChargePointRouter chargePointRouter;
+	private final ConcurrentNavigableMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+	private final AtomicLong loadCount = new AtomicLong(0);
+	private volatile boolean loaded;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargePointDao
+	 *        the DAO to load charge points with
+	 * @param chargePointRouter
+	 *        the router to find connected charge points with
+	 * @throws IllegalArgumentException
+	 *         if any parameter is {@literal null}
+	 */
+	public ChargePointStatusSnapshot(ChargePointDao chargePointDao,
+			ChargePointRouter chargePointRouter) {
+		super();
+		if ( chargePointDao == null ) {
+			throw new IllegalArgumentException("The chargePointDao parameter must not be null.");
+		}
+		this.chargePointDao = chargePointDao;
+		if ( chargePointRouter == null ) {
+			throw new IllegalArgumentException("The chargePointRouter parameter must not be null.");
+		}
+		this.chargePointRouter = chargePointRouter;
+	}
+
+	private void load() {
+		if ( loaded ) {
+			return;
+		}
+		synchronized ( this ) {
+			if ( loaded ) {
+				return;
+			}
+			Collection<ChargePoint> all = chargePointDao.getAll(null);
+			Set<String> connected = connectedIdentifiers();
+			if ( all != null ) {
+				for ( ChargePoint cp : all ) {
+					Entry e = entry(cp, connected.contains(identifier(cp)));
+					if ( e != null ) {
+						// keep any entry added by an event while loading, as it is newer
+						entries.putIfAbsent(e.identifier, e);
+					}
+				}
+			}
+			loadCount.incrementAndGet();
+			loaded = true;
+		}
+	}
+
+	private static String identifier(ChargePoint cp) {
+		return (cp.getInfo() != null ? cp.getInfo().getId() : null);
+	}
+
+	private static Entry entry(ChargePoint cp, boolean connected) {
+		String ident = identifier(cp);
+		if ( ident == null ) {
+			return null;
+		}
+		return new Entry(cp.getId(), ident, cp.isEnabled(), cp.getRegistrationStatus(), connected);
+	}
+
+	private Set<String> connectedIdentifiers() {
+		Set<ChargePointIdentity> available;
+		try {
+			available = chargePointRouter.availableChargePointsIds();
+		} catch ( RuntimeException e ) {
+			available = null;
+		}
+		if ( available == null || available.isEmpty() ) {
+			return Collections.emptySet();
+		}
+		Set<String> result = new HashSet<>(available.size());
+		for ( ChargePointIdentity id : available ) {
+			result.add(id.getIdentifier());
+		}
+		return result;
+	}
+
+	/**
+	 * Update the snapshot after a charge point has registered.
+	 * 
+	 * <p>
+	 * The charge point is marked as connected.
+	 * </p>
+	 * 
+	 * @param chargePoint
+	 *        the registered charge point
+	 */
+	public void chargePointRegistered(ChargePoint chargePoint) {
+		Entry e = (chargePoint != null ? entry(chargePoint, true) : null);
+		if ( e != null ) {
+			entries.put(e.identifier, e);
+		}
+	}
+
+	/**
+	 * Update the connection state of a charge point.
+	 * 
+	 * <p>
+	 * Charge points not already in the snapshot are ignored.
+	 * </p>
+	 * 
+	 * @param identifier
+	 *        the charge point identifier
+	 * @param connected
+	 *        {@literal true} if the charge point is connected
+	 */
+	public void connectionChanged(String identifier, boolean connected) {
+		if ( identifier == null ) {
+			return;
+		}
+		entries.computeIfPresent(identifier,
+				(k, e) -> e.connected == connected ? e : e.withConnected(connected));
+	}
+
+	/**
+	 * Discard the snapshot, so it is loaded again the next time it is used.
+	 * 
+	 * <p>
+	 * This should be called after charge points are changed other than by
+	 * registering, such as being edited or deleted.
+	 * </p>
+	 */
+	public void invalidate() {
+		synchronized ( this ) {
+			loaded = false;
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Get a page of charge point status entries.
+	 * 
+	 * @param connection
+	 *        the connection state to include, or {@literal null} for all
+	 * @param registrationStatus
+	 *        the registration status to include, or {@literal null} for all
+	 * @param offset
+	 *        the offset of the first matching entry to include
+	 * @param max
+	 *        the maximum number of entries to include, or {@literal 0} for no
+	 *        limit
+	 * @return the page, never {@literal null}
+	 */
+	public Page page(ConnectionFilter connection, RegistrationStatus registrationStatus,
+			int offset, int max) {
+		load();
+		final ConnectionFilter filter = (connection != null ? connection : ConnectionFilter.All);
+		final Set<String> connected = connectedIdentifiers();
+		final int start = Math.max(0, offset);
+		final List<Entry> page = new ArrayList<>(max > 0 ? Math.min(max, 64) : 64);
+		int total = 0;
+		int connectedCount = 0;
+		int matches = 0;
+		for ( Map.Entry<String, Entry> me : entries.entrySet() ) {
+			Entry e = me.getValue();
+			boolean conn = connected.contains(e.identifier);
+			if ( conn != e.connected ) {
+				Entry updated = e.withConnected(conn);
+				entries.replace(me.getKey(), e, updated);
+				e = updated;
+			}
+			total++;
+			if ( conn ) {
+				connectedCount++;
+			}
+			if ( !filter.matches(conn) ) {
+				continue;
+			}
+			if ( registrationStatus != null && registrationStatus != e.registrationStatus ) {
+				continue;
+			}
+			if ( matches >= start && (max < 1 || page.size() < max) ) {
+				page.add(e);
+			}
+			matches++;
+		}
+		return new Page(page, start, matches, total, connectedCount);
+	}
+
+	/**
+	 * Get the number of charge points in the snapshot.
+	 * 
+	 * @return the number of charge points
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Get the number of times the snapshot has been loaded from the DAO.
+	 * 
+	 * @return the load count
+	 */
+	public long getLoadCount() {
+		return loadCount.get();
+	}
+
+}
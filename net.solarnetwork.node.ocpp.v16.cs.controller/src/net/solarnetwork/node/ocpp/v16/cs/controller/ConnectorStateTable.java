@@ -0,0 +1,392 @@
+/* ==================================================================
+ * ConnectorStateTable.java - 17/10/2026 10:05:37 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
+import net.solarnetwork.ocpp.domain.ChargePointConnector;
+import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
+import net.solarnetwork.ocpp.domain.ChargePointStatus;
+import net.solarnetwork.ocpp.domain.StatusNotification;
+
+/**
+ * An in-memory table of charge point connector state, with write-behind
+ * persistence.
+ * 
+ * <p>
+ * The table is loaded from {@link ChargePointConnectorDao#getAll(List)} the
+ * first time it is used (or after {@link #invalidate()} is called) and is then
+ * the source of truth for connector state. Status changes update the table
+ * immediately and are passed to a {@link ConnectorStatusCoalescer} to be saved
+ * to the DAO in batches. Adding or removing connectors is written to the DAO
+ * immediately.
+ * </p>
+ * 
+ * <p>
+ * Connectors are held in concurrent maps, both by connector key and as an
+ * immutable list per charge point, so a change only copies the connectors of
+ * one charge point and changes to different charge points do not block each
+ * other. Changes to the same charge point are applied, and passed to the
+ * coalescer, one at a time. Connector entities in the table are never modified
+ * after being added, and the read methods never touch the database once the
+ * table is loaded.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ConnectorStateTable {
+
+	private static final Comparator<ChargePointConnector> CONNECTOR_ORDER = Comparator
+			.comparingInt(cpc -> cpc.getId().getConnectorId());
+
+	private final ChargePointConnectorDao chargePointConnectorDao;
+	private final ConnectorStatusCoalescer statusCoalescer;
+	private final ConcurrentMap<ChargePointConnectorKey, ChargePointConnector> table;
+	private final Map<ChargePointConnectorKey, ChargePointConnector> tableView;
+	private final ConcurrentMap<Long, List<ChargePointConnector>> byChargePoint;
+
+	// the write lock is held only to load or discard the whole table
+	private final ReadWriteLock loadLock = new ReentrantReadWriteLock();
+	private volatile boolean loaded;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargePointConnectorDao
+	 *        the DAO to load and save connectors with
+	 * @param statusCoalescer
+	 *        the coalescer to save status changes with
+	 * @throws IllegalArgumentException
+	 *         if any parameter is {@literal null}
+	 */
+	public ConnectorStateTable(ChargePointConnectorDao chargePointConnectorDao,
+			ConnectorStatusCoalescer statusCoalescer) {
+		super();
+		if ( chargePointConnectorDao == null ) {
+			throw new IllegalArgumentException(
+					"The chargePointConnectorDao parameter must not be null.");
+		}
+		this.chargePointConnectorDao = chargePointConnectorDao;
+		if ( statusCoalescer == null ) {
+			throw new IllegalArgumentException("The statusCoalescer parameter must not be null.");
+		}
+		this.statusCoalescer = statusCoalescer;
+		this.table = new ConcurrentHashMap<>(64, 0.75f, 4);
+		this.tableView = Collections.unmodifiableMap(table);
+		this.byChargePoint = new ConcurrentHashMap<>(64, 0.75f, 4);
+	}
+
+	/**
+	 * Load the table from the DAO, replacing any existing state.
+	 * 
+	 * <p>
+	 * Any pending status changes are saved first, so they are not lost.
+	 * </p>
+	 */
+	public void reload() {
+		final Lock lock = loadLock.writeLock();
+		lock.lock();
+		try {
+			statusCoalescer.flush();
+			Collection<ChargePointConnector> all = chargePointConnectorDao.getAll(null);
+			Map<Long, List<ChargePointConnector>> grouped = new HashMap<>(
+					all != null ? all.size() : 0);
+			table.clear();
+			byChargePoint.clear();
+			if ( all != null ) {
+				for ( ChargePointConnector cpc : all ) {
+					table.put(cpc.getId(), cpc);
+					grouped.computeIfAbsent(cpc.getId().getChargePointId(), k -> new ArrayList<>(4))
+							.add(cpc);
+				}
+			}
+			for ( Map.Entry<Long, List<ChargePointConnector>> me : grouped.entrySet() ) {
+				byChargePoint.put(me.getKey(), sorted(me.getValue()));
+			}
+			loaded = true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Discard the table, so it will be re-loaded the next time it is used.
+	 * 
+	 * <p>
+	 * This should be called after connectors are changed other than through
+	 * this table, such as when a charge point is deleted.
+	 * </p>
+	 */
+	public void invalidate() {
+		final Lock lock = loadLock.writeLock();
+		lock.lock();
+		try {
+			loaded = false;
+			table.clear();
+			byChargePoint.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static List<ChargePointConnector> sorted(List<ChargePointConnector> list) {
+		list.sort(CONNECTOR_ORDER);
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Load the table if needed and acquire the shared lock.
+	 * 
+	 * @return the acquired lock, to unlock when done
+	 */
+	private Lock readLock() {
+		if ( !loaded ) {
+			final Lock lock = loadLock.writeLock();
+			lock.lock();
+			try {
+				if ( !loaded ) {
+					reload();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		final Lock lock = loadLock.readLock();
+		lock.lock();
+		return lock;
+	}
+
+	/**
+	 * Get a view of all connector state.
+	 * 
+	 * <p>
+	 * The returned map is a live view of the table, so it reflects later
+	 * changes to it.
+	 * </p>
+	 * 
+	 * @return an unmodifiable map of all connectors, never {@literal null}
+	 */
+	public Map<ChargePointConnectorKey, ChargePointConnector> snapshot() {
+		readLock().unlock();
+		return tableView;
+	}
+
+	/**
+	 * Get the state of a connector.
+	 * 
+	 * @param key
+	 *        the key of the connector to get
+	 * @return the connector, or {@literal null} if not available
+	 */
+	public ChargePointConnector get(ChargePointConnectorKey key) {
+		final Lock lock = readLock();
+		try {
+			return table.get(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the state of all connectors of a charge point.
+	 * 
+	 * @param chargePointId
+	 *        the ID of the charge point
+	 * @return an unmodifiable list of the connectors, ordered by connector ID,
+	 *         never {@literal null}
+	 */
+	public List<ChargePointConnector> findByChargePointId(long chargePointId) {
+		final Lock lock = readLock();
+		try {
+			List<ChargePointConnector> result = byChargePoint.get(chargePointId);
+			return (result != null ? result : Collections.emptyList());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Update the status of a connector.
+	 * 
+	 * <p>
+	 * If the status is for connector {@literal 0} then the status value of all
+	 * connectors of the charge point is updated, like
+	 * {@link ChargePointConnectorDao#updateChargePointStatus(long, int, ChargePointStatus)}
+	 * does.
+	 * </p>
+	 * 
+	 * @param chargePointId
+	 *        the ID of the charge point the status is for
+	 * @param info
+	 *        the status
+	 */
+	public void updateStatus(long chargePointId, StatusNotification info) {
+		if ( info == null ) {
+			return;
+		}
+		final Lock lock = readLock();
+		try {
+			if ( info.getConnectorId() == 0 ) {
+				// the coalescer may write to the DAO, so offer statuses after the map update
+				final List<ChargePointConnector> updated = byChargePoint
+						.computeIfPresent(chargePointId, (k, list) -> {
+							List<ChargePointConnector> result = new ArrayList<>(list.size());
+							for ( ChargePointConnector cpc : list ) {
+								StatusNotification curr = cpc.getInfo();
+								StatusNotification.Builder b = (curr != null ? curr.toBuilder()
+										: StatusNotification.builder()
+												.withConnectorId(cpc.getId().getConnectorId()));
+								StatusNotification connInfo = b.withStatus(info.getStatus())
+										.build();
+								ChargePointConnector c = connector(cpc.getId(), cpc.getCreated(),
+										connInfo);
+								table.put(c.getId(), c);
+								result.add(c);
+							}
+							return Collections.unmodifiableList(result);
+						});
+				if ( updated != null ) {
+					for ( ChargePointConnector c : updated ) {
+						offerCurrent(chargePointId, c.getId());
+					}
+				}
+			} else {
+				final ChargePointConnectorKey key = new ChargePointConnectorKey(chargePointId,
+						info.getConnectorId());
+				byChargePoint.compute(chargePointId, (k, list) -> {
+					ChargePointConnector curr = table.get(key);
+					ChargePointConnector c = connector(key,
+							curr != null ? curr.getCreated() : Instant.now(), info);
+					table.put(key, c);
+					return replace(list, c);
+				});
+				offerCurrent(chargePointId, key);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Offer the status the table currently holds for a connector to the
+	 * coalescer.
+	 * 
+	 * <p>
+	 * This is called after the table is updated rather than while the map
+	 * entry is locked, because the coalescer may write to the DAO. Offering
+	 * the current status, rather than the one just applied, means a thread
+	 * that offers late cannot replace a newer status with an older one.
+	 * </p>
+	 */
+	private void offerCurrent(long chargePointId, ChargePointConnectorKey key) {
+		final ChargePointConnector c = table.get(key);
+		if ( c != null && c.getInfo() != null ) {
+			statusCoalescer.offer(chargePointId, c.getInfo());
+		}
+	}
+
+	private static List<ChargePointConnector> replace(List<ChargePointConnector> list,
+			ChargePointConnector connector) {
+		List<ChargePointConnector> result = new ArrayList<>(list != null ? list.size() + 1 : 1);
+		if ( list != null ) {
+			for ( ChargePointConnector cpc : list ) {
+				if ( !cpc.getId().equals(connector.getId()) ) {
+					result.add(cpc);
+				}
+			}
+		}
+		result.add(connector);
+		return sorted(result);
+	}
+
+	/**
+	 * Save a connector, writing it to the DAO immediately.
+	 * 
+	 * @param connector
+	 *        the connector to save
+	 * @return the connector key
+	 */
+	public ChargePointConnectorKey save(ChargePointConnector connector) {
+		final Lock lock = readLock();
+		try {
+			final ChargePointConnectorKey key = chargePointConnectorDao.save(connector);
+			final ChargePointConnector c = connector(key, connector.getCreated(),
+					connector.getInfo());
+			byChargePoint.compute(key.getChargePointId(), (k, list) -> {
+				table.put(key, c);
+				return replace(list, c);
+			});
+			return key;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Delete a connector, writing the change to the DAO immediately.
+	 * 
+	 * <p>
+	 * Any pending status change for the connector is discarded.
+	 * </p>
+	 * 
+	 * @param connector
+	 *        the connector to delete
+	 */
+	public void delete(ChargePointConnector connector) {
+		final Lock lock = readLock();
+		try {
+			final ChargePointConnectorKey key = connector.getId();
+			statusCoalescer.discard(key);
+			chargePointConnectorDao.delete(connector);
+			byChargePoint.computeIfPresent(key.getChargePointId(), (k, list) -> {
+				table.remove(key);
+				List<ChargePointConnector> result = new ArrayList<>(list);
+				result.removeIf(cpc -> cpc.getId().equals(key));
+				return (result.isEmpty() ? null : Collections.unmodifiableList(result));
+			});
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static ChargePointConnector connector(ChargePointConnectorKey key, Instant created,
+			StatusNotification info) {
+		ChargePointConnector cpc = new ChargePointConnector(key, created);
+		cpc.setInfo(info);
+		return cpc;
+	}
+
+}
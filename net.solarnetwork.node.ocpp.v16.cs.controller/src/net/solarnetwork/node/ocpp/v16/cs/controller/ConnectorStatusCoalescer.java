@@ -0,0 +1,351 @@
+/* ==================================================================
+ * ConnectorStatusCoalescer.java - 17/10/2026 9:12:44 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+import net.solarnetwork.ocpp.dao.ChargePointConnectorDao;
+import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
+import net.solarnetwork.ocpp.domain.StatusNotification;
+
+/**
+ * Buffer connector status notifications so that a burst of statuses for the
+ * same connector results in only the latest one being saved.
+ * 
+ * <p>
+ * When {@code delayMs} is greater than {@literal 0}, statuses passed to
+ * {@link #offer(long, StatusNotification)} are held in memory, keyed by
+ * charge point connector, and saved together in one transaction
+ * {@code delayMs} milliseconds after the first status of the batch arrived.
+ * A later status for the same connector replaces any pending one. When
+ * {@code delayMs} is {@literal 0} (the default), statuses are saved
+ * immediately.
+ * </p>
+ * 
+ * <p>
+ * If saving a batch fails, each status in the batch is saved again in its
+ * own transaction, so one status that cannot be saved does not prevent the
+ * others from being saved. A status that fails with a
+ * {@link DataIntegrityViolationException}, such as one for a charge point
+ * that has since been deleted, is discarded. Any other failed status that has
+ * not since been replaced is put back into the buffer and another flush is
+ * scheduled, up to {@code maxRetries} times before it is discarded.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class ConnectorStatusCoalescer {
+
+	/** The default {@code delayMs} value. */
+	public static final long DEFAULT_DELAY_MS = 0L;
+
+	/** The default {@code maxRetries} value. */
+	public static final int DEFAULT_MAX_RETRIES = 5;
+
+	private static final Logger log = LoggerFactory.getLogger(ConnectorStatusCoalescer.class);
+
+	private final ChargePointConnectorDao chargePointConnectorDao;
+	private final TaskScheduler taskScheduler;
+	private final Map<ChargePointConnectorKey, StatusNotification> pending = new LinkedHashMap<>(
+			16);
+	private final Map<ChargePointConnectorKey, Integer> attempts = new HashMap<>(8);
+	private TransactionTemplate transactionTemplate;
+	private long delayMs = DEFAULT_DELAY_MS;
+	private int maxRetries = DEFAULT_MAX_RETRIES;
+	private ScheduledFuture<?> flushFuture;
+	private boolean shutdown;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param chargePointConnectorDao
+	 *        the DAO to save statuses with
+	 * @param taskScheduler
+	 *        the scheduler to flush pending statuses with
+	 * @throws IllegalArgumentException
+	 *         if any parameter is {@literal null}
+	 */
+	public ConnectorStatusCoalescer(ChargePointConnectorDao chargePointConnectorDao,
+			TaskScheduler taskScheduler) {
+		super();
+		if ( chargePointConnectorDao == null ) {
+			throw new IllegalArgumentException(
+					"The chargePointConnectorDao parameter must not be null.");
+		}
+		this.chargePointConnectorDao = chargePointConnectorDao;
+		if ( taskScheduler == null ) {
+			throw new IllegalArgumentException("The taskScheduler parameter must not be null.");
+		}
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Offer a connector status to be saved.
+	 * 
+	 * @param chargePointId
+	 *        the ID of the charge point the status is for
+	 * @param info
+	 *        the status to save
+	 */
+	public void offer(long chargePointId, StatusNotification info) {
+		if ( info == null ) {
+			return;
+		}
+		final long delay = delayMs;
+		if ( delay < 1 ) {
+			chargePointConnectorDao.saveStatusInfo(chargePointId, info);
+			return;
+		}
+		synchronized ( pending ) {
+			if ( shutdown ) {
+				chargePointConnectorDao.saveStatusInfo(chargePointId, info);
+				return;
+			}
+			ChargePointConnectorKey key = new ChargePointConnectorKey(chargePointId,
+					info.getConnectorId());
+			pending.put(key, info);
+			attempts.remove(key);
+			scheduleFlush(delay);
+		}
+	}
+
+	private void scheduleFlush(long delay) {
+		if ( flushFuture == null && !shutdown ) {
+			flushFuture = taskScheduler.schedule(this::flush,
+					new Date(System.currentTimeMillis() + delay));
+		}
+	}
+
+	/**
+	 * Save all pending statuses now.
+	 * 
+	 * @return the number of statuses saved
+	 */
+	public int flush() {
+		final Map<ChargePointConnectorKey, StatusNotification> batch;
+		synchronized ( pending ) {
+			if ( flushFuture != null ) {
+				flushFuture.cancel(false);
+				flushFuture = null;
+			}
+			if ( pending.isEmpty() ) {
+				return 0;
+			}
+			batch = new LinkedHashMap<>(pending);
+			pending.clear();
+		}
+		try {
+			saveInTransaction(batch);
+			log.debug("Saved {} coalesced connector statuses", batch.size());
+			synchronized ( pending ) {
+				if ( !attempts.isEmpty() ) {
+					attempts.keySet().removeAll(batch.keySet());
+				}
+			}
+			return batch.size();
+		} catch ( RuntimeException e ) {
+			if ( batch.size() > 1 ) {
+				log.warn("Error saving {} connector statuses, saving individually: {}",
+						batch.size(), e.toString());
+			}
+			return saveIndividually(batch, e);
+		}
+	}
+
+	private void saveInTransaction(Map<ChargePointConnectorKey, StatusNotification> batch) {
+		final TransactionTemplate tt = transactionTemplate;
+		if ( tt != null ) {
+			tt.execute(status -> save(batch));
+		} else {
+			save(batch);
+		}
+	}
+
+	private int saveIndividually(Map<ChargePointConnectorKey, StatusNotification> batch,
+			RuntimeException batchError) {
+		int saved = 0;
+		List<ChargePointConnectorKey> succeeded = new ArrayList<>(batch.size());
+		Map<ChargePointConnectorKey, StatusNotification> failed = new LinkedHashMap<>(4);
+		for ( Map.Entry<ChargePointConnectorKey, StatusNotification> me : batch.entrySet() ) {
+			// a batch of one has already been tried on its own
+			RuntimeException err = (batch.size() == 1 ? batchError : null);
+			if ( err == null ) {
+				try {
+					saveInTransaction(Collections.singletonMap(me.getKey(), me.getValue()));
+					succeeded.add(me.getKey());
+					saved++;
+					continue;
+				} catch ( RuntimeException e ) {
+					err = e;
+				}
+			}
+			if ( err instanceof DataIntegrityViolationException ) {
+				log.warn("Discarding connector {} status {} that cannot be saved: {}",
+						me.getKey(), me.getValue(), err.toString());
+				succeeded.add(me.getKey());
+			} else {
+				log.warn("Error saving connector {} status, will retry: {}", me.getKey(),
+						err.toString());
+				failed.put(me.getKey(), me.getValue());
+			}
+		}
+		synchronized ( pending ) {
+			attempts.keySet().removeAll(succeeded);
+			boolean retry = false;
+			for ( Map.Entry<ChargePointConnectorKey, StatusNotification> me : failed.entrySet() ) {
+				final ChargePointConnectorKey key = me.getKey();
+				if ( pending.containsKey(key) ) {
+					// replaced by a newer status while saving
+					continue;
+				}
+				int count = attempts.merge(key, 1, Integer::sum);
+				if ( count > maxRetries ) {
+					log.warn("Discarding connector {} status {} after {} failed attempts", key,
+							me.getValue(), count);
+					attempts.remove(key);
+					continue;
+				}
+				pending.put(key, me.getValue());
+				retry = true;
+			}
+			if ( retry ) {
+				scheduleFlush(delayMs > 0 ? delayMs : 1L);
+			}
+		}
+		return saved;
+	}
+
+	/**
+	 * Discard any pending status for a connector.
+	 * 
+	 * <p>
+	 * This can be used when a connector is deleted, so a pending status does
+	 * not re-create it.
+	 * </p>
+	 * 
+	 * @param key
+	 *        the key of the connector to discard the pending status of
+	 * @return {@literal true} if a pending status was discarded
+	 */
+	public boolean discard(ChargePointConnectorKey key) {
+		synchronized ( pending ) {
+			attempts.remove(key);
+			return (pending.remove(key) != null);
+		}
+	}
+
+	private Void save(Map<ChargePointConnectorKey, StatusNotification> batch) {
+		for ( Map.Entry<ChargePointConnectorKey, StatusNotification> me : batch.entrySet() ) {
+			chargePointConnectorDao.saveStatusInfo(me.getKey().getChargePointId(), me.getValue());
+		}
+		return null;
+	}
+
+	/**
+	 * Get the number of statuses waiting to be saved.
+	 * 
+	 * @return the count
+	 */
+	public int getPendingCount() {
+		synchronized ( pending ) {
+			return pending.size();
+		}
+	}
+
+	/**
+	 * Save any pending statuses and stop buffering new ones.
+	 * 
+	 * <p>
+	 * After this method is called, offered statuses are saved immediately.
+	 * </p>
+	 */
+	public void shutdown() {
+		synchronized ( pending ) {
+			shutdown = true;
+		}
+		flush();
+	}
+
+	/**
+	 * Set a transaction template to save each batch of statuses within.
+	 * 
+	 * @param transactionTemplate
+	 *        the template to use
+	 */
+	public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+		this.transactionTemplate = transactionTemplate;
+	}
+
+	/**
+	 * Get the amount of time to buffer statuses before saving them.
+	 * 
+	 * @return the delay, in milliseconds; defaults to
+	 *         {@link #DEFAULT_DELAY_MS}
+	 */
+	public long getDelayMs() {
+		return delayMs;
+	}
+
+	/**
+	 * Set the amount of time to buffer statuses before saving them.
+	 * 
+	 * @param delayMs
+	 *        the delay to set, in milliseconds, or {@literal 0} to save
+	 *        statuses immediately
+	 */
+	public void setDelayMs(long delayMs) {
+		this.delayMs = delayMs;
+	}
+
+	/**
+	 * Get the maximum number of times to retry saving a status.
+	 * 
+	 * @return the maximum; defaults to {@link #DEFAULT_MAX_RETRIES}
+	 */
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * Set the maximum number of times to retry saving a status.
+	 * 
+	 * @param maxRetries
+	 *        the maximum to set
+	 */
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+}
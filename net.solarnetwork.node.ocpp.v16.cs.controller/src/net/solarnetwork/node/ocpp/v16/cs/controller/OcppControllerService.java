@@ -26,7 +26,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -43,9 +45,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
+import net.solarnetwork.node.ocpp.dao.CachingDao;
+import net.solarnetwork.node.ocpp.v16.cs.controller.ChargePointStatusSnapshot.ConnectionFilter;
 import net.solarnetwork.node.settings.SettingSpecifier;
 import net.solarnetwork.node.settings.SettingSpecifierProvider;
 import net.solarnetwork.node.settings.support.BasicGroupSettingSpecifier;
+import net.solarnetwork.node.settings.support.BasicMultiValueSettingSpecifier;
+import net.solarnetwork.node.settings.support.BasicTextFieldSettingSpecifier;
 import net.solarnetwork.node.settings.support.BasicTitleSettingSpecifier;
 import net.solarnetwork.node.support.BaseIdentifiable;
 import net.solarnetwork.ocpp.dao.AuthorizationDao;
@@ -61,6 +67,7 @@ import net.solarnetwork.ocpp.domain.ChargePointConnector;
 import net.solarnetwork.ocpp.domain.ChargePointConnectorKey;
 import net.solarnetwork.ocpp.domain.ChargePointIdentity;
 import net.solarnetwork.ocpp.domain.ChargePointInfo;
+import net.solarnetwork.ocpp.domain.ChargePointStatus;
 import net.solarnetwork.ocpp.domain.RegistrationStatus;
 import net.solarnetwork.ocpp.domain.StatusNotification;
 import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
@@ -78,12 +85,14 @@ import ocpp.v16.ConfigurationKey;
 import ocpp.v16.cp.GetConfigurationRequest;
 import ocpp.v16.cp.GetConfigurationResponse;
 import ocpp.v16.cp.KeyValue;
+import ocpp.v16.cp.MessageTrigger;
+import ocpp.v16.cp.TriggerMessageRequest;
 
 /**
  * API for an OCPP v1.6 local controller service.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class OcppControllerService extends BaseIdentifiable
 		implements ChargePointManager, AuthorizationService, SettingSpecifierProvider {
@@ -91,6 +100,13 @@ public class OcppControllerService extends BaseIdentifiable
 	/** The default {@code initialRegistrationStatus} value. */
 	public static final RegistrationStatus DEFAULT_INITIAL_REGISTRATION_STATUS = RegistrationStatus.Pending;
 
+	/**
+	 * The default {@code statusPageSize} value.
+	 * 
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_STATUS_PAGE_SIZE = 50;
+
 	private final Executor executor;
 	private final ChargePointRouter chargePointRouter;
 	private final AuthorizationDao authorizationDao;
@@ -98,6 +114,16 @@ public class OcppControllerService extends BaseIdentifiable
 	private final ChargePointConnectorDao chargePointConnectorDao;
 	private RegistrationStatus initialRegistrationStatus;
 	private TransactionTemplate transactionTemplate;
+	private ConnectorStatusCoalescer statusCoalescer;
+	private ConnectorStateTable connectorStateTable;
+	private RegistrationAdmissionController registrationAdmissionController;
+	private ChargePointCallDispatcher callDispatcher;
+	private CachingDao authorizationCache;
+	private ChargePointStatusSnapshot statusSnapshot;
+	private int statusPage = 1;
+	private int statusPageSize = DEFAULT_STATUS_PAGE_SIZE;
+	private String statusConnectionFilter;
+	private String statusRegistrationFilter;
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -154,17 +180,71 @@ public class OcppControllerService extends BaseIdentifiable
 			throw new IllegalArgumentException("The ChargePoint ID must be provided.");
 		}
 
-		ChargePoint cp = chargePointDao.getForIdentity(identity);
-		if ( cp == null ) {
-			cp = registerNewChargePoint(info);
-		} else if ( cp.isEnabled() ) {
-			cp = updateChargePointInfo(cp, info);
+		final RegistrationAdmissionController admission = this.registrationAdmissionController;
+		if ( admission != null ) {
+			if ( !admission.tryAdmit() ) {
+				return deferRegistration(admission, identity, info);
+			}
+			admission.cancelRetry(identity);
 		}
+		try {
+			ChargePoint cp = chargePointDao.getForIdentity(identity);
+			if ( cp == null ) {
+				cp = registerNewChargePoint(info);
+			} else if ( cp.isEnabled() ) {
+				cp = updateChargePointInfo(cp, info);
+			}
 
-		sendToChargePoint(identity, ChargePointAction.GetConfiguration, new GetConfigurationRequest(),
-				processConfiguration(cp));
+			final ChargePointStatusSnapshot snapshot = this.statusSnapshot;
+			if ( snapshot != null ) {
+				snapshot.chargePointRegistered(cp);
+			}
 
-		return cp;
+			final ChargePoint registered = cp;
+			final Runnable configure = () -> sendToChargePoint(identity,
+					ChargePointAction.GetConfiguration, new GetConfigurationRequest(),
+					processConfiguration(registered));
+			if ( admission != null ) {
+				admission.scheduleConfiguration(configure);
+			} else {
+				configure.run();
+			}
+
+			return cp;
+		} finally {
+			if ( admission != null ) {
+				admission.release();
+			}
+		}
+	}
+
+	private ChargePoint deferRegistration(RegistrationAdmissionController admission,
+			ChargePointIdentity identity, ChargePointInfo info) {
+		if ( admission.getPendingRetryCount() > 0 ) {
+			final Set<ChargePointIdentity> connected = chargePointRouter.availableChargePointsIds();
+			if ( connected != null ) {
+				admission.cancelRetries(id -> !connected.contains(id));
+			}
+		}
+		final Instant retry = admission.scheduleRetry(identity, () -> {
+			TriggerMessageRequest req = new TriggerMessageRequest();
+			req.setRequestedMessage(MessageTrigger.BOOT_NOTIFICATION);
+			sendToChargePoint(identity, ChargePointAction.TriggerMessage, req,
+					(msg, res, err) -> {
+						if ( err != null ) {
+							log.debug("Error triggering Charge Point {} boot notification: {}",
+									identity, err.getMessage());
+						}
+						return true;
+					});
+		});
+		log.info("Deferring Charge Point {} registration until {}", identity, retry);
+
+		// reply Pending without persisting anything, so the charge point tries again later
+		ChargePoint result = new ChargePoint(null, Instant.now(), info);
+		result.setEnabled(true);
+		result.setRegistrationStatus(RegistrationStatus.Pending);
+		return result;
 	}
 
 	private ChargePoint registerNewChargePoint(ChargePointInfo info) {
@@ -202,9 +282,25 @@ public class OcppControllerService extends BaseIdentifiable
 			throw new AuthorizationException(Reason.UNKNOWN_OBJECT, identity);
 		}
 		log.info("Received Charge Point {} status: {}", identity, info);
+		final ChargePointStatusSnapshot snapshot = this.statusSnapshot;
+		if ( snapshot != null ) {
+			snapshot.connectionChanged(identity.getIdentifier(), true);
+		}
+		final ConnectorStateTable stateTable = this.connectorStateTable;
+		if ( stateTable != null ) {
+			stateTable.updateStatus(chargePoint.getId(), info);
+			return;
+		}
+		final ConnectorStatusCoalescer coalescer = this.statusCoalescer;
 		if ( info.getConnectorId() == 0 ) {
+			if ( coalescer != null ) {
+				// save any buffered connector statuses first, so they don't overwrite this one
+				coalescer.flush();
+			}
 			chargePointConnectorDao.updateChargePointStatus(chargePoint.getId(), info.getConnectorId(),
 					info.getStatus());
+		} else if ( coalescer != null ) {
+			coalescer.offer(chargePoint.getId(), info);
 		} else {
 			chargePointConnectorDao.saveStatusInfo(chargePoint.getId(), info);
 		}
@@ -239,8 +335,10 @@ public class OcppControllerService extends BaseIdentifiable
 						}
 
 						// add missing ChargePointConnector entities; remove excess
-						Collection<ChargePointConnector> connectors = chargePointConnectorDao
-								.findByChargePointId(cp.getId());
+						final ConnectorStateTable stateTable = connectorStateTable;
+						Collection<ChargePointConnector> connectors = (stateTable != null
+								? stateTable.findByChargePointId(cp.getId())
+								: chargePointConnectorDao.findByChargePointId(cp.getId()));
 						Map<Integer, ChargePointConnector> existing = connectors.stream().collect(
 								Collectors.toMap(cpc -> cpc.getId().getConnectorId(), cpc -> cpc));
 						for ( int i = 1; i <= cp.getConnectorCount(); i++ ) {
@@ -251,7 +349,11 @@ public class OcppControllerService extends BaseIdentifiable
 										.withTimestamp(conn.getCreated()).build());
 								log.info("Creating ChargePointConnector {} for Charge Point {}", i,
 										cp.getId());
-								chargePointConnectorDao.save(conn);
+								if ( stateTable != null ) {
+									stateTable.save(conn);
+								} else {
+									chargePointConnectorDao.save(conn);
+								}
 							}
 						}
 						for ( Iterator<Entry<Integer, ChargePointConnector>> itr = existing.entrySet()
@@ -261,7 +363,11 @@ public class OcppControllerService extends BaseIdentifiable
 							if ( connId < 1 || connId > cp.getConnectorCount() ) {
 								log.info("Deleting excess ChargePointConnector {} from Charge Point {}",
 										connId, cp.getId());
-								chargePointConnectorDao.delete(e.getValue());
+								if ( stateTable != null ) {
+									stateTable.delete(e.getValue());
+								} else {
+									chargePointConnectorDao.delete(e.getValue());
+								}
 								itr.remove();
 							}
 						}
@@ -308,6 +414,12 @@ public class OcppControllerService extends BaseIdentifiable
 
 	private <T, R> void sendToChargePoint(ChargePointIdentity identity, Action action, T payload,
 			ActionMessageResultHandler<T, R> handler) {
+		final ChargePointCallDispatcher dispatcher = this.callDispatcher;
+		if ( dispatcher != null ) {
+			dispatcher.send(new BasicActionMessage<T>(identity, UUID.randomUUID().toString(), action,
+					payload), handler);
+			return;
+		}
 		executor.execute(() -> {
 			ActionMessage<T> msg = new BasicActionMessage<T>(identity, UUID.randomUUID().toString(),
 					action, payload);
@@ -326,13 +438,62 @@ public class OcppControllerService extends BaseIdentifiable
 
 	@Override
 	public String getSettingUID() {
-		return "net.solarnetwork.node.ocpp.v16.cs.controller";
+		return "net.solarnetwork.node.ocpp.v16.cs.controller.OcppControllerService";
 	}
 
 	@Override
 	public List<SettingSpecifier> getSettingSpecifiers() {
 		List<SettingSpecifier> results = new ArrayList<SettingSpecifier>(8);
+		final StatusLabels labels = new StatusLabels();
+
+		final ChargePointStatusSnapshot snapshot = this.statusSnapshot;
+		if ( snapshot != null ) {
+			addChargePointPageSettings(results, snapshot, labels);
+		} else {
+			addChargePointSettings(results, labels);
+		}
+
+		final RegistrationAdmissionController admission = this.registrationAdmissionController;
+		if ( admission != null ) {
+			results.add(new BasicTitleSettingSpecifier("registrationAdmission",
+					getMessageSource().getMessage("registrationAdmission.status",
+							new Object[] { admission.getAdmittedCount(),
+									admission.getDeferredCount(), admission.getActiveCount(),
+									admission.getPendingConfigurationCount() },
+							Locale.getDefault()),
+					true));
+		}
+
+		final ChargePointCallDispatcher dispatcher = this.callDispatcher;
+		if ( dispatcher != null ) {
+			results.add(new BasicTitleSettingSpecifier("callDispatcher",
+					getMessageSource().getMessage("callDispatcher.status",
+							new Object[] { dispatcher.getInFlightCount(),
+									dispatcher.getTotalQueueDepth(), dispatcher.getCompletedCount(),
+									dispatcher.getTimeoutCount(), dispatcher.getRejectedCount(),
+									dispatcher.getAverageLatencyMs(), dispatcher.getMaxLatencyMs() },
+							Locale.getDefault()),
+					true));
+		}
+
+		final CachingDao authCache = this.authorizationCache;
+		if ( authCache != null ) {
+			try {
+				results.add(new BasicTitleSettingSpecifier("authorizationCache",
+						getMessageSource().getMessage("authorizationCache.status",
+								new Object[] { authCache.getCacheSize(), authCache.getHitCount(),
+										authCache.getMissCount() },
+								Locale.getDefault()),
+						true));
+			} catch ( RuntimeException e ) {
+				log.debug("Authorization cache statistics not available: {}", e.toString());
+			}
+		}
 
+		return results;
+	}
+
+	private void addChargePointSettings(List<SettingSpecifier> results, StatusLabels labels) {
 		Set<ChargePointIdentity> availableChargePointIds;
 		try {
 			availableChargePointIds = chargePointRouter.availableChargePointsIds();
@@ -350,29 +511,131 @@ public class OcppControllerService extends BaseIdentifiable
 		List<SettingSpecifier> cpSettings = new ArrayList<>(chargePoints.size());
 		for ( ChargePoint cp : chargePoints ) {
 			cpSettings.add(new BasicTitleSettingSpecifier(cp.getInfo().getId(),
-					chargePointStatus(cp, availableChargePointIds), true));
+					chargePointStatus(cp.getId(),
+							availableChargePointIds.contains(cp.chargePointIdentity()),
+							cp.getRegistrationStatus(), labels),
+					true));
 		}
 		results.add(new BasicGroupSettingSpecifier("chargePoints", cpSettings));
+	}
 
-		return results;
+	private void addChargePointPageSettings(List<SettingSpecifier> results,
+			ChargePointStatusSnapshot snapshot, StatusLabels labels) {
+		final int pageSize = Math.max(0, this.statusPageSize);
+		final int page = Math.max(1, this.statusPage);
+		ChargePointStatusSnapshot.Page p;
+		try {
+			p = snapshot.page(ConnectionFilter.forName(statusConnectionFilter),
+					registrationFilter(), (page - 1) * pageSize, pageSize);
+		} catch ( RuntimeException e ) {
+			log.warn("Error loading charge point status: {}", e.toString());
+			results.add(new BasicGroupSettingSpecifier("chargePoints",
+					Collections.<SettingSpecifier> emptyList()));
+			return;
+		}
+
+		results.add(new BasicTitleSettingSpecifier("chargePointsPage",
+				getMessageSource().getMessage("chargePointsPage.status",
+						new Object[] { p.getEntries().isEmpty() ? 0 : p.getOffset() + 1,
+								p.getOffset() + p.getEntries().size(), p.getMatchCount(),
+								p.getTotalCount(), p.getConnectedCount() },
+						Locale.getDefault()),
+				true));
+		results.add(new BasicTextFieldSettingSpecifier("statusPage", "1"));
+		results.add(new BasicTextFieldSettingSpecifier("statusPageSize",
+				String.valueOf(DEFAULT_STATUS_PAGE_SIZE)));
+
+		BasicMultiValueSettingSpecifier connSpec = new BasicMultiValueSettingSpecifier(
+				"statusConnectionFilter", ConnectionFilter.All.name());
+		Map<String, String> connTitles = new LinkedHashMap<>(4);
+		for ( ConnectionFilter f : ConnectionFilter.values() ) {
+			connTitles.put(f.name(), labels.get("connectionFilter." + f.name(), f.name()));
+		}
+		connSpec.setValueTitles(connTitles);
+		results.add(connSpec);
+
+		BasicMultiValueSettingSpecifier regSpec = new BasicMultiValueSettingSpecifier(
+				"statusRegistrationFilter", "");
+		Map<String, String> regTitles = new LinkedHashMap<>(8);
+		regTitles.put("", labels.get("connectionFilter.All", "All"));
+		for ( RegistrationStatus s : RegistrationStatus.values() ) {
+			regTitles.put(s.name(), labels.registrationStatus(s));
+		}
+		regSpec.setValueTitles(regTitles);
+		results.add(regSpec);
+
+		List<SettingSpecifier> cpSettings = new ArrayList<>(p.getEntries().size());
+		for ( ChargePointStatusSnapshot.Entry e : p.getEntries() ) {
+			cpSettings.add(new BasicTitleSettingSpecifier(e.getIdentifier(), chargePointStatus(
+					e.getChargePointId(), e.isConnected(), e.getRegistrationStatus(), labels),
+					true));
+		}
+		results.add(new BasicGroupSettingSpecifier("chargePoints", cpSettings));
 	}
 
-	private String chargePointStatus(ChargePoint cp, Set<ChargePointIdentity> availableChargePointIds) {
+	private RegistrationStatus registrationFilter() {
+		final String name = this.statusRegistrationFilter;
+		if ( name == null || name.isEmpty() ) {
+			return null;
+		}
+		for ( RegistrationStatus s : RegistrationStatus.values() ) {
+			if ( s.name().equalsIgnoreCase(name) ) {
+				return s;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Message labels resolved at most once per settings render.
+	 */
+	private final class StatusLabels {
+
+		private final Locale locale = Locale.getDefault();
+		private final Map<String, String> labels = new HashMap<>(32);
+
+		private String get(String key, String defaultValue) {
+			return labels.computeIfAbsent(key,
+					k -> getMessageSource().getMessage(k, null, defaultValue, locale));
+		}
+
+		private String registrationStatus(RegistrationStatus status) {
+			return get("registrationStatus." + status.name(), status.toString());
+		}
+
+	}
+
+	private String chargePointStatus(Long chargePointId, boolean connected,
+			RegistrationStatus registrationStatus, StatusLabels labels) {
 		StringBuilder buf = new StringBuilder();
-		ChargePointIdentity identity = cp.chargePointIdentity();
-		buf.append(availableChargePointIds.contains(identity)
-				? getMessageSource().getMessage("connected.label", null, "Connected",
-						Locale.getDefault())
-				: getMessageSource().getMessage("disconnected.label", null, "Not connected",
-						Locale.getDefault()));
-		buf.append("; ").append(getMessageSource().getMessage("registrationStatus.label", null,
-				"Registration status", Locale.getDefault())).append(": ");
-		RegistrationStatus regStatus = cp.getRegistrationStatus();
+		buf.append(connected ? labels.get("connected.label", "Connected")
+				: labels.get("disconnected.label", "Not connected"));
+		buf.append("; ").append(labels.get("registrationStatus.label", "Registration status"))
+				.append(": ");
+		RegistrationStatus regStatus = registrationStatus;
 		if ( regStatus == null ) {
 			regStatus = RegistrationStatus.Unknown;
 		}
-		buf.append(getMessageSource().getMessage("registrationStatus." + regStatus.name(), null,
-				regStatus.toString(), Locale.getDefault()));
+		buf.append(labels.registrationStatus(regStatus));
+
+		final ConnectorStateTable stateTable = connectorStateTable;
+		if ( stateTable != null && chargePointId != null ) {
+			List<ChargePointConnector> connectors = stateTable.findByChargePointId(chargePointId);
+			if ( !connectors.isEmpty() ) {
+				buf.append("; ").append(labels.get("connectors.label", "Connectors")).append(": ");
+				for ( int i = 0, len = connectors.size(); i < len; i++ ) {
+					ChargePointConnector cpc = connectors.get(i);
+					ChargePointStatus status = (cpc.getInfo() != null
+							&& cpc.getInfo().getStatus() != null ? cpc.getInfo().getStatus()
+									: ChargePointStatus.Unknown);
+					if ( i > 0 ) {
+						buf.append(", ");
+					}
+					buf.append(cpc.getId().getConnectorId()).append(" ").append(
+							labels.get("connectorStatus." + status.name(), status.toString()));
+				}
+			}
+		}
 
 		return buf.toString();
 	}
@@ -423,4 +686,186 @@ public class OcppControllerService extends BaseIdentifiable
 		this.transactionTemplate = transactionTemplate;
 	}
 
+	/**
+	 * Set a coalescer to save connector statuses with.
+	 * 
+	 * @param statusCoalescer
+	 *        the coalescer to use, or {@literal null} to save each status
+	 *        directly
+	 * @since 1.1
+	 */
+	public void setStatusCoalescer(ConnectorStatusCoalescer statusCoalescer) {
+		this.statusCoalescer = statusCoalescer;
+	}
+
+	/**
+	 * Set an in-memory connector state table to use for connector state.
+	 * 
+	 * <p>
+	 * When configured, status changes are applied to the table, which saves
+	 * them to the database in the background, rather than being saved
+	 * directly. The {@code statusCoalescer} property is not used in this case.
+	 * </p>
+	 * 
+	 * @param connectorStateTable
+	 *        the table to use, or {@literal null} to use the database directly
+	 * @since 1.1
+	 */
+	public void setConnectorStateTable(ConnectorStateTable connectorStateTable) {
+		this.connectorStateTable = connectorStateTable;
+	}
+
+	/**
+	 * Set a controller to limit concurrent charge point registrations with.
+	 * 
+	 * <p>
+	 * When configured, registrations beyond the controller's limit are
+	 * answered with a {@link RegistrationStatus#Pending} status and the charge
+	 * point is later asked to send a new boot notification, and configuration
+	 * requests to registered charge points are rate limited.
+	 * </p>
+	 * 
+	 * @param registrationAdmissionController
+	 *        the controller to use, or {@literal null} for no limit
+	 * @since 1.1
+	 */
+	public void setRegistrationAdmissionController(
+			RegistrationAdmissionController registrationAdmissionController) {
+		this.registrationAdmissionController = registrationAdmissionController;
+	}
+
+	/**
+	 * Set a dispatcher to send messages to charge points with.
+	 * 
+	 * <p>
+	 * When configured, messages are sent one at a time per charge point, with
+	 * a timeout, rather than all being sent immediately.
+	 * </p>
+	 * 
+	 * @param callDispatcher
+	 *        the dispatcher to use, or {@literal null} to send messages
+	 *        immediately
+	 * @since 1.1
+	 */
+	public void setCallDispatcher(ChargePointCallDispatcher callDispatcher) {
+		this.callDispatcher = callDispatcher;
+	}
+
+	/**
+	 * Set the authorization DAO cache to show statistics for.
+	 * 
+	 * @param authorizationCache
+	 *        the cache, or {@literal null}
+	 * @since 1.1
+	 */
+	public void setAuthorizationCache(CachingDao authorizationCache) {
+		this.authorizationCache = authorizationCache;
+	}
+
+	/**
+	 * Set a snapshot to render charge point status settings from.
+	 * 
+	 * <p>
+	 * When configured, the snapshot is kept up to date as charge points
+	 * register and report status, and the status settings are rendered from
+	 * it one page at a time, according to the {@code statusPage},
+	 * {@code statusPageSize}, {@code statusConnectionFilter}, and
+	 * {@code statusRegistrationFilter} properties.
+	 * </p>
+	 * 
+	 * @param statusSnapshot
+	 *        the snapshot to use, or {@literal null} to load all charge points
+	 *        from the DAO each time
+	 * @since 1.1
+	 */
+	public void setStatusSnapshot(ChargePointStatusSnapshot statusSnapshot) {
+		this.statusSnapshot = statusSnapshot;
+	}
+
+	/**
+	 * Get the charge point status page to show.
+	 * 
+	 * @return the page number, starting from {@literal 1}
+	 * @since 1.1
+	 */
+	public int getStatusPage() {
+		return statusPage;
+	}
+
+	/**
+	 * Set the charge point status page to show.
+	 * 
+	 * @param statusPage
+	 *        the page number to set, starting from {@literal 1}
+	 * @since 1.1
+	 */
+	public void setStatusPage(int statusPage) {
+		this.statusPage = statusPage;
+	}
+
+	/**
+	 * Get the number of charge points to show per status page.
+	 * 
+	 * @return the page size; defaults to {@link #DEFAULT_STATUS_PAGE_SIZE}
+	 * @since 1.1
+	 */
+	public int getStatusPageSize() {
+		return statusPageSize;
+	}
+
+	/**
+	 * Set the number of charge points to show per status page.
+	 * 
+	 * @param statusPageSize
+	 *        the page size to set, or {@literal 0} to show all charge points
+	 * @since 1.1
+	 */
+	public void setStatusPageSize(int statusPageSize) {
+		this.statusPageSize = statusPageSize;
+	}
+
+	/**
+	 * Get the connection state of charge points to show.
+	 * 
+	 * @return the {@link ConnectionFilter} name, or {@literal null} for all
+	 * @since 1.1
+	 */
+	public String getStatusConnectionFilter() {
+		return statusConnectionFilter;
+	}
+
+	/**
+	 * Set the connection state of charge points to show.
+	 * 
+	 * @param statusConnectionFilter
+	 *        the {@link ConnectionFilter} name to set, or {@literal null} for
+	 *        all
+	 * @since 1.1
+	 */
+	public void setStatusConnectionFilter(String statusConnectionFilter) {
+		this.statusConnectionFilter = statusConnectionFilter;
+	}
+
+	/**
+	 * Get the registration status of charge points to show.
+	 * 
+	 * @return the {@link RegistrationStatus} name, or {@literal null} for all
+	 * @since 1.1
+	 */
+	public String getStatusRegistrationFilter() {
+		return statusRegistrationFilter;
+	}
+
+	/**
+	 * Set the registration status of charge points to show.
+	 * 
+	 * @param statusRegistrationFilter
+	 *        the {@link RegistrationStatus} name to set, or {@literal null} or
+	 *        an empty string for all
+	 * @since 1.1
+	 */
+	public void setStatusRegistrationFilter(String statusRegistrationFilter) {
+		this.statusRegistrationFilter = statusRegistrationFilter;
+	}
+
 }
@@ -25,6 +25,7 @@ package net.solarnetwork.node.ocpp.v16.cs.controller;
 import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.function.Function;
 import net.solarnetwork.node.settings.SettingSpecifier;
 import net.solarnetwork.ocpp.dao.ChargePointDao;
@@ -34,11 +35,14 @@ import net.solarnetwork.ocpp.domain.ChargePoint;
  * Manager for Charge Point registrations.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class OcppRegistrationManager
 		extends BaseEntityManager<ChargePointDao, ChargePoint, Long, ChargePointConfig> {
 
+	private ChargePointStatusSnapshot statusSnapshot;
+	private ConnectorStateTable connectorStateTable;
+
 	/**
 	 * Constructor.
 	 * 
@@ -49,6 +53,22 @@ public class OcppRegistrationManager
 		super(chargePointDao);
 	}
 
+	@Override
+	public void configurationChanged(Map<String, Object> properties) {
+		try {
+			super.configurationChanged(properties);
+		} finally {
+			final ChargePointStatusSnapshot snapshot = this.statusSnapshot;
+			if ( snapshot != null ) {
+				snapshot.invalidate();
+			}
+			final ConnectorStateTable connectors = this.connectorStateTable;
+			if ( connectors != null ) {
+				connectors.invalidate();
+			}
+		}
+	}
+
 	@Override
 	protected ChargePoint createNewEntity(ChargePointConfig conf) {
 		return new ChargePoint(conf.getId(), Instant.now());
@@ -91,4 +111,28 @@ public class OcppRegistrationManager
 		return "OCPP ChargePoint Manager";
 	}
 
+	/**
+	 * Set a charge point status snapshot to invalidate when charge points are
+	 * changed.
+	 * 
+	 * @param statusSnapshot
+	 *        the snapshot, or {@literal null}
+	 * @since 1.1
+	 */
+	public void setStatusSnapshot(ChargePointStatusSnapshot statusSnapshot) {
+		this.statusSnapshot = statusSnapshot;
+	}
+
+	/**
+	 * Set a connector state table to invalidate when charge points are
+	 * changed.
+	 * 
+	 * @param connectorStateTable
+	 *        the table, or {@literal null}
+	 * @since 1.1
+	 */
+	public void setConnectorStateTable(ConnectorStateTable connectorStateTable) {
+		this.connectorStateTable = connectorStateTable;
+	}
+
 }
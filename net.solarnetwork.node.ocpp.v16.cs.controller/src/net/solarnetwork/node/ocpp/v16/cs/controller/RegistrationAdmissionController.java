@@ -0,0 +1,392 @@
+/* ==================================================================
+ * RegistrationAdmissionController.java - 18/10/2026 10:21:05 am
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.v16.cs.controller;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import org.springframework.scheduling.TaskScheduler;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+
+/**
+ * Admission control for charge point registrations, to spread out the load
+ * of many charge points registering at once, such as after a power outage.
+ * 
+ * <p>
+ * At most {@code maxConcurrent} registrations are admitted at once; callers
+ * must {@link #release()} each admitted registration when done. Registrations
+ * that are not admitted are deferred, and {@link #nextRetryTime()} hands out
+ * retry times at least {@code retryDelaySeconds} in the future, spaced
+ * {@code retryIntervalMs} apart so deferred charge points do not all retry
+ * together.
+ * </p>
+ * 
+ * <p>
+ * {@link #scheduleRetry(ChargePointIdentity, Runnable)} keeps at most one
+ * retry per charge point: a charge point deferred again before its retry runs
+ * keeps its existing retry time, rather than taking another one. Callers
+ * should cancel the retry with {@link #cancelRetry(ChargePointIdentity)} once
+ * the charge point is admitted, and with {@link #cancelRetries(Predicate)} for
+ * charge points that have disconnected.
+ * </p>
+ * 
+ * <p>
+ * Tasks passed to {@link #scheduleConfiguration(Runnable)} run at most once
+ * every {@code configurationIntervalMs}, in the order submitted.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public class RegistrationAdmissionController {
+
+	/** The default {@code maxConcurrent} value. */
+	public static final int DEFAULT_MAX_CONCURRENT = 8;
+
+	/** The default {@code retryDelaySeconds} value. */
+	public static final int DEFAULT_RETRY_DELAY_SECONDS = 30;
+
+	/** The default {@code retryIntervalMs} value. */
+	public static final long DEFAULT_RETRY_INTERVAL_MS = 1000L;
+
+	/** The default {@code configurationIntervalMs} value. */
+	public static final long DEFAULT_CONFIGURATION_INTERVAL_MS = 500L;
+
+	private final TaskScheduler taskScheduler;
+	private final AtomicInteger active = new AtomicInteger(0);
+	private final AtomicLong admittedCount = new AtomicLong(0);
+	private final AtomicLong deferredCount = new AtomicLong(0);
+	private final AtomicInteger pendingConfigurationCount = new AtomicInteger(0);
+	private final ConcurrentMap<ChargePointIdentity, Retry> retries = new ConcurrentHashMap<>(16,
+			0.9f, 2);
+	private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+	private int retryDelaySeconds = DEFAULT_RETRY_DELAY_SECONDS;
+	private long retryIntervalMs = DEFAULT_RETRY_INTERVAL_MS;
+	private long configurationIntervalMs = DEFAULT_CONFIGURATION_INTERVAL_MS;
+	private long nextRetryTime;
+	private long nextConfigurationTime;
+
+	private static final class Retry {
+
+		private final Instant time;
+		private volatile ScheduledFuture<?> future;
+
+		private Retry(Instant time) {
+			super();
+			this.time = time;
+		}
+
+		private void cancel() {
+			final ScheduledFuture<?> f = future;
+			if ( f != null ) {
+				f.cancel(false);
+			}
+		}
+
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param taskScheduler
+	 *        the scheduler to run deferred tasks with
+	 * @throws IllegalArgumentException
+	 *         if {@code taskScheduler} is {@literal null}
+	 */
+	public RegistrationAdmissionController(TaskScheduler taskScheduler) {
+		super();
+		if ( taskScheduler == null ) {
+			throw new IllegalArgumentException("The taskScheduler parameter must not be null.");
+		}
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Try to admit a registration.
+	 * 
+	 * @return {@literal true} if admitted, in which case {@link #release()}
+	 *         must be called when the registration is complete;
+	 *         {@literal false} if the registration should be deferred
+	 */
+	public boolean tryAdmit() {
+		final int max = maxConcurrent;
+		while ( true ) {
+			int curr = active.get();
+			if ( max > 0 && curr >= max ) {
+				deferredCount.incrementAndGet();
+				return false;
+			}
+			if ( active.compareAndSet(curr, curr + 1) ) {
+				admittedCount.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release an admitted registration.
+	 */
+	public void release() {
+		active.updateAndGet(n -> n > 0 ? n - 1 : 0);
+	}
+
+	/**
+	 * Get the next retry time for a deferred registration.
+	 * 
+	 * @return the retry time
+	 */
+	public synchronized Instant nextRetryTime() {
+		final long earliest = System.currentTimeMillis() + retryDelaySeconds * 1000L;
+		final long t = Math.max(earliest, nextRetryTime);
+		nextRetryTime = t + Math.max(0L, retryIntervalMs);
+		return Instant.ofEpochMilli(t);
+	}
+
+	/**
+	 * Schedule a retry task for a deferred registration.
+	 * 
+	 * <p>
+	 * If a retry is already scheduled for the charge point, that retry is kept
+	 * and {@code task} is not scheduled.
+	 * </p>
+	 * 
+	 * @param identity
+	 *        the identity of the deferred charge point
+	 * @param task
+	 *        the task to run
+	 * @return the time the retry is scheduled for
+	 */
+	public Instant scheduleRetry(ChargePointIdentity identity, Runnable task) {
+		final Retry[] created = new Retry[1];
+		final Retry retry = retries.computeIfAbsent(identity,
+				k -> created[0] = new Retry(nextRetryTime()));
+		if ( created[0] != null ) {
+			retry.future = taskScheduler.schedule(() -> {
+				if ( retries.remove(identity, retry) ) {
+					task.run();
+				}
+			}, new Date(retry.time.toEpochMilli()));
+		}
+		return retry.time;
+	}
+
+	/**
+	 * Cancel the retry scheduled for a charge point, if any.
+	 * 
+	 * @param identity
+	 *        the identity of the charge point
+	 * @return {@literal true} if a retry was cancelled
+	 */
+	public boolean cancelRetry(ChargePointIdentity identity) {
+		final Retry retry = retries.remove(identity);
+		if ( retry == null ) {
+			return false;
+		}
+		retry.cancel();
+		return true;
+	}
+
+	/**
+	 * Cancel the retries scheduled for all charge points matching a filter.
+	 * 
+	 * @param filter
+	 *        the filter
+	 * @return the number of retries cancelled
+	 */
+	public int cancelRetries(Predicate<ChargePointIdentity> filter) {
+		int count = 0;
+		for ( Iterator<Map.Entry<ChargePointIdentity, Retry>> itr = retries.entrySet()
+				.iterator(); itr.hasNext(); ) {
+			Map.Entry<ChargePointIdentity, Retry> e = itr.next();
+			if ( filter.test(e.getKey()) && retries.remove(e.getKey(), e.getValue()) ) {
+				e.getValue().cancel();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Run a configuration task, rate limited to one every
+	 * {@code configurationIntervalMs}.
+	 * 
+	 * <p>
+	 * The task runs immediately on the calling thread if no other
+	 * configuration task ran within the interval, otherwise it is scheduled to
+	 * run after those submitted before it.
+	 * </p>
+	 * 
+	 * @param task
+	 *        the task to run
+	 */
+	public void scheduleConfiguration(Runnable task) {
+		final long now = System.currentTimeMillis();
+		final long start;
+		synchronized ( this ) {
+			start = Math.max(now, nextConfigurationTime);
+			nextConfigurationTime = start + Math.max(0L, configurationIntervalMs);
+		}
+		if ( start <= now ) {
+			task.run();
+			return;
+		}
+		pendingConfigurationCount.incrementAndGet();
+		taskScheduler.schedule(() -> {
+			pendingConfigurationCount.decrementAndGet();
+			task.run();
+		}, new Date(start));
+	}
+
+	/**
+	 * Get the number of registrations currently admitted.
+	 * 
+	 * @return the active count
+	 */
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	/**
+	 * Get the total number of registrations admitted.
+	 * 
+	 * @return the admitted count
+	 */
+	public long getAdmittedCount() {
+		return admittedCount.get();
+	}
+
+	/**
+	 * Get the total number of registrations deferred.
+	 * 
+	 * @return the deferred count
+	 */
+	public long getDeferredCount() {
+		return deferredCount.get();
+	}
+
+	/**
+	 * Get the number of deferred registration retries waiting to run.
+	 * 
+	 * @return the pending retry count
+	 */
+	public int getPendingRetryCount() {
+		return retries.size();
+	}
+
+	/**
+	 * Get the number of configuration tasks waiting to run.
+	 * 
+	 * @return the pending configuration count
+	 */
+	public int getPendingConfigurationCount() {
+		return pendingConfigurationCount.get();
+	}
+
+	/**
+	 * Get the maximum number of concurrent registrations.
+	 * 
+	 * @return the maximum; defaults to {@link #DEFAULT_MAX_CONCURRENT}
+	 */
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	/**
+	 * Set the maximum number of concurrent registrations.
+	 * 
+	 * @param maxConcurrent
+	 *        the maximum to set, or {@literal 0} for no limit
+	 */
+	public void setMaxConcurrent(int maxConcurrent) {
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	/**
+	 * Get the minimum delay before a deferred registration is retried.
+	 * 
+	 * @return the delay, in seconds; defaults to
+	 *         {@link #DEFAULT_RETRY_DELAY_SECONDS}
+	 */
+	public int getRetryDelaySeconds() {
+		return retryDelaySeconds;
+	}
+
+	/**
+	 * Set the minimum delay before a deferred registration is retried.
+	 * 
+	 * @param retryDelaySeconds
+	 *        the delay to set, in seconds
+	 */
+	public void setRetryDelaySeconds(int retryDelaySeconds) {
+		this.retryDelaySeconds = retryDelaySeconds;
+	}
+
+	/**
+	 * Get the minimum time between deferred registration retries.
+	 * 
+	 * @return the interval, in milliseconds; defaults to
+	 *         {@link #DEFAULT_RETRY_INTERVAL_MS}
+	 */
+	public long getRetryIntervalMs() {
+		return retryIntervalMs;
+	}
+
+	/**
+	 * Set the minimum time between deferred registration retries.
+	 * 
+	 * @param retryIntervalMs
+	 *        the interval to set, in milliseconds
+	 */
+	public void setRetryIntervalMs(long retryIntervalMs) {
+		this.retryIntervalMs = retryIntervalMs;
+	}
+
+	/**
+	 * Get the minimum time between configuration tasks.
+	 * 
+	 * @return the interval, in milliseconds; defaults to
+	 *         {@link #DEFAULT_CONFIGURATION_INTERVAL_MS}
+	 */
+	public long getConfigurationIntervalMs() {
+		return configurationIntervalMs;
+	}
+
+	/**
+	 * Set the minimum time between configuration tasks.
+	 * 
+	 * @param configurationIntervalMs
+	 *        the interval to set, in milliseconds, or {@literal 0} for no
+	 *        limit
+	 */
+	public void setConfigurationIntervalMs(long configurationIntervalMs) {
+		this.configurationIntervalMs = configurationIntervalMs;
+	}
+
+}
@@ -0,0 +1,66 @@
+/* ==================================================================
+ * BulkAuthorizationDao.java - 17/10/2026 11:48:02 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+import net.solarnetwork.ocpp.dao.AuthorizationDao;
+import net.solarnetwork.ocpp.domain.Authorization;
+
+/**
+ * Extension of {@link AuthorizationDao} with bulk import and export support.
+ * 
+ * @author matt
+ * @version 1.0
+ * @since 1.4
+ */
+public interface BulkAuthorizationDao extends AuthorizationDao {
+
+	/**
+	 * Insert or update a batch of authorizations, matched by token.
+	 * 
+	 * <p>
+	 * For authorizations whose token already exists the enabled, expiry date,
+	 * and parent ID values are updated; otherwise a new authorization is
+	 * inserted. The {@code id} of the given authorizations is ignored. No
+	 * transaction is started by this method, so callers control how many
+	 * batches are saved per transaction.
+	 * </p>
+	 * 
+	 * @param authorizations
+	 *        the authorizations to save
+	 * @return the number of authorizations saved
+	 */
+	int saveAuthorizations(List<Authorization> authorizations);
+
+	/**
+	 * Process all authorizations, ordered by token, without loading them all
+	 * into memory.
+	 * 
+	 * @param processor
+	 *        the callback to pass each authorization to
+	 * @return the number of authorizations processed
+	 */
+	int processAuthorizations(Consumer<Authorization> processor);
+
+}
@@ -0,0 +1,55 @@
+/* ==================================================================
+ * CachingDao.java - 18/10/2026 4:12:44 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao;
+
+/**
+ * API for a DAO that caches entities in memory, to report cache statistics.
+ * 
+ * @author matt
+ * @version 1.0
+ * @since 1.4
+ */
+public interface CachingDao {
+
+	/**
+	 * Get the number of entries currently cached.
+	 * 
+	 * @return the cache size
+	 */
+	int getCacheSize();
+
+	/**
+	 * Get the number of lookups served from the cache.
+	 * 
+	 * @return the hit count
+	 */
+	long getHitCount();
+
+	/**
+	 * Get the number of lookups passed to the underlying storage.
+	 * 
+	 * @return the miss count
+	 */
+	long getMissCount();
+
+}
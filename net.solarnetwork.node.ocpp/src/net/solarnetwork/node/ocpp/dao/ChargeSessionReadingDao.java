@@ -0,0 +1,95 @@
+/* ==================================================================
+ * ChargeSessionReadingDao.java - 17/10/2026 9:48:12 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import net.solarnetwork.ocpp.dao.ChargeSessionDao;
+import net.solarnetwork.ocpp.domain.SampledValue;
+
+/**
+ * DAO API for charge session readings, for storing readings separately from
+ * the charge sessions they belong to.
+ * 
+ * <p>
+ * The reading methods follow the same contract as the equivalent
+ * {@link ChargeSessionDao} methods.
+ * </p>
+ * 
+ * @author matt
+ * @version 1.0
+ * @since 1.3
+ */
+public interface ChargeSessionReadingDao {
+
+	/**
+	 * Add readings.
+	 * 
+	 * @param readings
+	 *        the readings to add
+	 * @see ChargeSessionDao#addReadings(Iterable)
+	 */
+	void addReadings(Iterable<SampledValue> readings);
+
+	/**
+	 * Find all readings for a charge session.
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @return the readings, ordered by timestamp, never {@literal null}
+	 * @see ChargeSessionDao#findReadingsForSession(UUID)
+	 */
+	List<SampledValue> findReadingsForSession(UUID sessionId);
+
+	/**
+	 * Process the readings for a charge session one at a time, without
+	 * loading them all into memory.
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @param since
+	 *        if provided, only readings with a timestamp equal to or later than
+	 *        this date are processed
+	 * @param handler
+	 *        the handler to pass each reading to, in timestamp order
+	 * @return {@literal true} if any readings are stored for the session,
+	 *         {@literal false} if none are
+	 */
+	boolean processReadingsForSession(UUID sessionId, Instant since,
+			Consumer<SampledValue> handler);
+
+	/**
+	 * Delete all readings for a charge session.
+	 * 
+	 * <p>
+	 * This is called when a charge session is deleted.
+	 * </p>
+	 * 
+	 * @param sessionId
+	 *        the session ID to delete the readings for
+	 */
+	void deleteReadingsForSession(UUID sessionId);
+
+}
@@ -0,0 +1,165 @@
+/* ==================================================================
+ * ExtendedChargeSessionDao.java - 17/10/2026 3:41:26 pm
+ * 
+ * Copyright 2026 SolarNetwork.net Dev Team
+ * 
+ * This program is free software; you can redistribute it and/or 
+ * modify it under the terms of the GNU General Public License as 
+ * published by the Free Software Foundation; either version 2 of 
+ * the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, 
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of 
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU 
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License 
+ * along with this program; if not, write to the Free Software 
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.node.ocpp.dao;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import net.solarnetwork.ocpp.dao.ChargeSessionDao;
+import net.solarnetwork.ocpp.domain.ChargeSession;
+import net.solarnetwork.ocpp.domain.Measurand;
+import net.solarnetwork.ocpp.domain.SampledValue;
+
+/**
+ * Extended DAO API for {@link ChargeSession} entities, with SolarNode
+ * specific operations.
+ * 
+ * @author matt
+ * @version 1.0
+ */
+public interface ExtendedChargeSessionDao extends ChargeSessionDao {
+
+	/**
+	 * Allocate a new charge session transaction ID.
+	 * 
+	 * <p>
+	 * This allows a new {@link ChargeSession} to be created with its final
+	 * transaction ID, so it does not need to be re-loaded after being saved.
+	 * A {@link ChargeSession} saved with a transaction ID of {@literal 0} will
+	 * still have one allocated automatically.
+	 * </p>
+	 * 
+	 * @return the transaction ID, which will be greater than {@literal 0}
+	 */
+	int nextTransactionId();
+
+	/**
+	 * Find posted charge sessions with a {@code posted} date older than a
+	 * given date.
+	 * 
+	 * <p>
+	 * This can be used to purge posted sessions in small chunks, via
+	 * {@link #delete(Object)}, rather than all at once with
+	 * {@link #deletePostedChargeSessions(Instant)}.
+	 * </p>
+	 * 
+	 * @param expirationDate
+	 *        the maximum posted date to find
+	 * @param max
+	 *        the maximum number of sessions to return
+	 * @return the matching sessions, ordered by posted date, never
+	 *         {@literal null}
+	 */
+	List<ChargeSession> findPostedChargeSessions(Instant expirationDate, int max);
+
+	/**
+	 * Process the readings for a charge session one at a time, without
+	 * loading them all into memory.
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @param since
+	 *        if provided, only readings with a timestamp equal to or later than
+	 *        this date are processed
+	 * @param handler
+	 *        the handler to pass each reading to, in timestamp order
+	 */
+	void processReadingsForSession(UUID sessionId, Instant since, Consumer<SampledValue> handler);
+
+	/**
+	 * Process the readings for a charge session one at a time, along with
+	 * their values as decimals.
+	 * 
+	 * <p>
+	 * This allows readings stored as numbers to be consumed without parsing
+	 * their string values again. This default implementation parses the
+	 * string value of each reading passed by
+	 * {@link #processReadingsForSession(UUID, Instant, Consumer)}.
+	 * </p>
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @param since
+	 *        if provided, only readings with a timestamp equal to or later than
+	 *        this date are processed
+	 * @param handler
+	 *        the handler to pass each reading to, in timestamp order, along
+	 *        with its value or {@literal null} if the value is not a number
+	 */
+	default void processReadingValuesForSession(UUID sessionId, Instant since,
+			BiConsumer<SampledValue, BigDecimal> handler) {
+		processReadingsForSession(sessionId, since, r -> {
+			BigDecimal num = null;
+			if ( r.getValue() != null ) {
+				try {
+					num = new BigDecimal(r.getValue());
+				} catch ( NumberFormatException e ) {
+					// not a number
+				}
+			}
+			handler.accept(r, num);
+		});
+	}
+
+	/**
+	 * Find the readings for a charge session with a timestamp equal to or
+	 * later than a given date.
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @param since
+	 *        the minimum reading date
+	 * @return the readings, ordered by timestamp, never {@literal null}
+	 */
+	List<SampledValue> findReadingsForSession(UUID sessionId, Instant since);
+
+	/**
+	 * Find the readings for a charge session for a single measurand.
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @param measurand
+	 *        the measurand to get the readings for
+	 * @return the readings, ordered by timestamp, never {@literal null}
+	 */
+	List<SampledValue> findReadingsForSession(UUID sessionId, Measurand measurand);
+
+	/**
+	 * Find the latest readings for each measurand of a charge session.
+	 * 
+	 * <p>
+	 * For each measurand, all readings with the latest timestamp of that
+	 * measurand are returned, so a measurand with readings for several phases
+	 * or locations will have one reading for each.
+	 * </p>
+	 * 
+	 * @param sessionId
+	 *        the session ID to get the readings for
+	 * @return the readings, ordered by measurand, never {@literal null}
+	 */
+	List<SampledValue> findLatestReadingsForSession(UUID sessionId);
+
+}